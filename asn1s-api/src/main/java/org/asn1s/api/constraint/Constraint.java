@@ -34,6 +34,7 @@ import org.asn1s.api.type.Type;
 import org.asn1s.api.value.Value;
 import org.asn1s.api.value.Value.Kind;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.Collection;
 
@@ -71,6 +72,29 @@ public interface Constraint
 		throw new UnsupportedOperationException( "Not supported for: " + getClass().getName() );
 	}
 
+	/**
+	 * Returns PER-visible part of this constraint, see X.691 p 9.3.
+	 *
+	 * @return effective constraint or null if constraint is not PER-visible
+	 */
+	@Nullable
+	default EffectiveConstraint getEffectiveConstraint()
+	{
+		return null;
+	}
+
+	/**
+	 * Returns characters permitted by this constraint when it is applied by PermittedAlphabet constraint,
+	 * see X.680 p 51.7 and X.691 p 9.3.10.
+	 *
+	 * @return sorted code points or null if set of characters is not known
+	 */
+	@Nullable
+	default int[] getPermittedCharacters()
+	{
+		return null;
+	}
+
 	/**
 	 * Check constraint tree has constraints from allowed types only.
 	 *
@@ -0,0 +1,314 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.api.constraint;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * PER-visible part of constraint, see X.691 p 9.3.
+ * Holds root bounds of INTEGER values, root bounds of size (for strings and collections)
+ * and effective permitted alphabet of known-multiplier strings.
+ * Missing bound means that value is not limited from that side.
+ */
+public final class EffectiveConstraint
+{
+	private EffectiveConstraint( @Nullable Long lowerBound, @Nullable Long upperBound, boolean extensible, @Nullable EffectiveConstraint size, @Nullable int[] alphabet )
+	{
+		this.lowerBound = lowerBound;
+		this.upperBound = upperBound;
+		this.extensible = extensible;
+		this.size = size;
+		this.alphabet = alphabet;
+	}
+
+	private final Long lowerBound;
+	private final Long upperBound;
+	private final boolean extensible;
+	private final EffectiveConstraint size;
+	private final int[] alphabet;
+
+	@NotNull
+	public static EffectiveConstraint range( @Nullable Long lowerBound, @Nullable Long upperBound )
+	{
+		return new EffectiveConstraint( lowerBound, upperBound, false, null, null );
+	}
+
+	@NotNull
+	public static EffectiveConstraint size( @NotNull EffectiveConstraint size )
+	{
+		return new EffectiveConstraint( null, null, false, size, null );
+	}
+
+	/**
+	 * Create permitted alphabet constraint, see X.691 p 9.3.10
+	 *
+	 * @param alphabet sorted distinct code points
+	 * @return effective constraint
+	 */
+	@NotNull
+	public static EffectiveConstraint alphabet( @NotNull int[] alphabet )
+	{
+		return new EffectiveConstraint( null, null, false, null, alphabet );
+	}
+
+	@Nullable
+	public Long getLowerBound()
+	{
+		return lowerBound;
+	}
+
+	@Nullable
+	public Long getUpperBound()
+	{
+		return upperBound;
+	}
+
+	public boolean hasRange()
+	{
+		return lowerBound != null || upperBound != null;
+	}
+
+	public boolean isConstrained()
+	{
+		return lowerBound != null && upperBound != null;
+	}
+
+	public boolean isExtensible()
+	{
+		return extensible;
+	}
+
+	@Nullable
+	public EffectiveConstraint getSize()
+	{
+		return size;
+	}
+
+	/**
+	 * Returns effective permitted alphabet
+	 *
+	 * @return sorted distinct code points or null if alphabet is not constrained
+	 */
+	@Nullable
+	public int[] getAlphabet()
+	{
+		return alphabet;
+	}
+
+	/**
+	 * Returns extensible copy of constraint, extensible permitted alphabet is not PER-visible, see X.691 p 9.3.10
+	 *
+	 * @return constraint
+	 */
+	@NotNull
+	public EffectiveConstraint toExtensible()
+	{
+		return new EffectiveConstraint( lowerBound, upperBound, true, size == null ? null : size.toExtensible(), null );
+	}
+
+	/**
+	 * Union of constraints, see X.691 p 9.3.11.
+	 * If any part is not PER-visible, then whole union is not PER-visible.
+	 *
+	 * @param other other constraint, may be null if not PER-visible
+	 * @return union or null
+	 */
+	@Nullable
+	public EffectiveConstraint union( @Nullable EffectiveConstraint other )
+	{
+		if( other == null || hasRange() != other.hasRange() )
+			return null;
+
+		EffectiveConstraint unionSize = size == null || other.size == null ? null : size.union( other.size );
+		int[] unionAlphabet = alphabet == null || other.alphabet == null ? null : unionAlphabets( alphabet, other.alphabet );
+		if( !hasRange() && unionSize == null && unionAlphabet == null )
+			return null;
+
+		return new EffectiveConstraint(
+				lowerBound == null || other.lowerBound == null ? null : Math.min( lowerBound, other.lowerBound ),
+				upperBound == null || other.upperBound == null ? null : Math.max( upperBound, other.upperBound ),
+				extensible || other.extensible,
+				unionSize,
+				unionAlphabet );
+	}
+
+	/**
+	 * Intersection of constraints, see X.691 p 9.3.12.
+	 * Parts which are not PER-visible are ignored.
+	 *
+	 * @param other other constraint, may be null if not PER-visible
+	 * @return intersection
+	 */
+	@NotNull
+	public EffectiveConstraint intersection( @Nullable EffectiveConstraint other )
+	{
+		if( other == null )
+			return this;
+
+		return new EffectiveConstraint(
+				maxBound( lowerBound, other.lowerBound ),
+				minBound( upperBound, other.upperBound ),
+				intersectExtensible( other ),
+				size == null ? other.size : size.intersection( other.size ),
+				intersectAlphabets( alphabet, other.alphabet ) );
+	}
+
+	/**
+	 * Apply this constraint to type already constrained by parent, see X.680 p 50.8 and X.691 p 9.3.9.
+	 * Only the last applied constraint decides extensibility.
+	 *
+	 * @param parent constraint applied earlier, may be null
+	 * @return serial application result
+	 */
+	@NotNull
+	public EffectiveConstraint applyTo( @Nullable EffectiveConstraint parent )
+	{
+		if( parent == null )
+			return this;
+
+		boolean resultExtensible = hasRange() ? extensible : parent.extensible;
+		EffectiveConstraint resultSize = size == null ? parent.size : size.applyTo( parent.size );
+		return new EffectiveConstraint(
+				maxBound( lowerBound, parent.lowerBound ),
+				minBound( upperBound, parent.upperBound ),
+				resultExtensible,
+				resultSize,
+				intersectAlphabets( alphabet, parent.alphabet ) );
+	}
+
+	/**
+	 * Union of sorted distinct code point sets
+	 *
+	 * @param first  the first set
+	 * @param second the second set
+	 * @return sorted distinct code points
+	 */
+	@NotNull
+	public static int[] unionAlphabets( @NotNull int[] first, @NotNull int[] second )
+	{
+		int[] result = new int[first.length + second.length];
+		int count = 0;
+		int i = 0;
+		int j = 0;
+		while( i < first.length || j < second.length )
+		{
+			if( j == second.length || i < first.length && first[i] < second[j] )
+				result[count++] = first[i++];
+			else if( i == first.length || second[j] < first[i] )
+				result[count++] = second[j++];
+			else
+			{
+				result[count++] = first[i++];
+				j++;
+			}
+		}
+		return count == result.length ? result : Arrays.copyOf( result, count );
+	}
+
+	/**
+	 * Intersection of sorted distinct code point sets, missing set means any character
+	 *
+	 * @param first  the first set
+	 * @param second the second set
+	 * @return sorted distinct code points or null if both sets are missing
+	 */
+	@Nullable
+	public static int[] intersectAlphabets( @Nullable int[] first, @Nullable int[] second )
+	{
+		if( first == null || second == null )
+			return first == null ? second : first;
+
+		int[] result = new int[Math.min( first.length, second.length )];
+		int count = 0;
+		int i = 0;
+		int j = 0;
+		while( i < first.length && j < second.length )
+		{
+			if( first[i] < second[j] )
+				i++;
+			else if( second[j] < first[i] )
+				j++;
+			else
+			{
+				result[count++] = first[i++];
+				j++;
+			}
+		}
+		return count == result.length ? result : Arrays.copyOf( result, count );
+	}
+
+	private boolean intersectExtensible( EffectiveConstraint other )
+	{
+		if( hasRange() && other.hasRange() )
+			return extensible && other.extensible;
+		return hasRange() ? extensible : other.extensible;
+	}
+
+	@Nullable
+	private static Long maxBound( @Nullable Long first, @Nullable Long second )
+	{
+		if( first == null )
+			return second;
+		return second == null ? first : Math.max( first, second );
+	}
+
+	@Nullable
+	private static Long minBound( @Nullable Long first, @Nullable Long second )
+	{
+		if( first == null )
+			return second;
+		return second == null ? first : Math.min( first, second );
+	}
+
+	@Override
+	public String toString()
+	{
+		StringBuilder sb = new StringBuilder();
+		if( hasRange() )
+			sb.append( lowerBound == null ? "MIN" : lowerBound ).append( ".." ).append( upperBound == null ? "MAX" : upperBound );
+
+		if( size != null )
+		{
+			if( sb.length() > 0 )
+				sb.append( ' ' );
+			sb.append( "SIZE(" ).append( size ).append( ')' );
+		}
+
+		if( alphabet != null )
+		{
+			if( sb.length() > 0 )
+				sb.append( ' ' );
+			sb.append( "FROM(" ).append( new String( alphabet, 0, alphabet.length ) ).append( ')' );
+		}
+
+		if( extensible )
+			sb.append( ", ..." );
+		return sb.toString();
+	}
+}
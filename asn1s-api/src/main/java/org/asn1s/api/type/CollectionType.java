@@ -26,6 +26,7 @@
 package org.asn1s.api.type;
 
 import org.asn1s.api.type.ComponentType.Kind;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.List;
 
@@ -43,4 +44,15 @@ public interface CollectionType extends Type, ComponentTypeConsumer
 	{
 		return false;
 	}
+
+	/**
+	 * Returns object attached to validated type by codec, e.g. compiled decoding plan.
+	 * Attachment is dropped once components are interpolated again or type is disposed.
+	 *
+	 * @return attachment or null
+	 */
+	@Nullable
+	Object getCodecAttachment();
+
+	void setCodecAttachment( @Nullable Object attachment );
 }
@@ -30,15 +30,30 @@ import org.asn1s.api.Scope;
 import org.asn1s.api.exception.ResolutionException;
 import org.asn1s.api.exception.ValidationException;
 import org.asn1s.api.value.Value;
+import org.asn1s.api.value.x680.NamedValue;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.List;
+
 public interface Enumerated extends Type
 {
 	void setExtensible( boolean value );
 
+	boolean isExtensible();
+
 	void addItem( @NotNull ItemKind kind, @NotNull String name, @Nullable Ref<Value> valueRef );
 
+	/**
+	 * Returns validated items of selected kind in definition order.
+	 * Every item refers INTEGER value. List is empty until type is validated.
+	 *
+	 * @param kind the item kind
+	 * @return list of named values
+	 */
+	@NotNull
+	List<NamedValue> getItems( @NotNull ItemKind kind );
+
 	/**
 	 * By default Enumerated type should optimize values,
 	 * since there would be no object creation
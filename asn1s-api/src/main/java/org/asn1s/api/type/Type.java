@@ -26,6 +26,7 @@
 package org.asn1s.api.type;
 
 import org.asn1s.api.*;
+import org.asn1s.api.constraint.EffectiveConstraint;
 import org.asn1s.api.constraint.ElementSetSpecs;
 import org.asn1s.api.encoding.EncodingInstructions;
 import org.asn1s.api.encoding.IEncoding;
@@ -203,6 +204,18 @@ public interface Type extends Ref<Type>, Disposable, Validation, Scoped
 		return false;
 	}
 
+	/**
+	 * Returns PER-visible part of constraint declared by this type, see X.691 p 9.3.
+	 * Constraints of sibling types are not included.
+	 *
+	 * @return effective constraint or null
+	 */
+	@Nullable
+	default EffectiveConstraint getEffectiveConstraint()
+	{
+		return null;
+	}
+
 	/**
 	 * Returns true if this type has value set associated with it.
 	 *
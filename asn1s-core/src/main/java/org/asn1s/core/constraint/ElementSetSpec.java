@@ -30,6 +30,7 @@ import org.asn1s.api.Ref;
 import org.asn1s.api.Scope;
 import org.asn1s.api.constraint.Constraint;
 import org.asn1s.api.constraint.ConstraintType;
+import org.asn1s.api.constraint.EffectiveConstraint;
 import org.asn1s.api.exception.ConstraintViolationException;
 import org.asn1s.api.exception.IllegalValueException;
 import org.asn1s.api.exception.ResolutionException;
@@ -38,6 +39,7 @@ import org.asn1s.api.type.Type;
 import org.asn1s.api.value.Value;
 import org.asn1s.api.value.Value.Kind;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -108,6 +110,36 @@ public class ElementSetSpec implements Constraint
 		return maximum;
 	}
 
+	@Nullable
+	@Override
+	public EffectiveConstraint getEffectiveConstraint()
+	{
+		EffectiveConstraint result = null;
+		for( Constraint union : unions )
+		{
+			EffectiveConstraint current = union.getEffectiveConstraint();
+			result = result == null ? current : result.union( current );
+			if( result == null )
+				return null;
+		}
+		return result;
+	}
+
+	@Nullable
+	@Override
+	public int[] getPermittedCharacters()
+	{
+		int[] result = null;
+		for( Constraint union : unions )
+		{
+			int[] current = union.getPermittedCharacters();
+			if( current == null )
+				return null;
+			result = result == null ? current : EffectiveConstraint.unionAlphabets( result, current );
+		}
+		return result;
+	}
+
 	@Override
 	public String toString()
 	{
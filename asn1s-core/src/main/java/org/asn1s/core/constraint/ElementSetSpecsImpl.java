@@ -29,6 +29,7 @@ import org.asn1s.api.Ref;
 import org.asn1s.api.Scope;
 import org.asn1s.api.constraint.Constraint;
 import org.asn1s.api.constraint.ConstraintType;
+import org.asn1s.api.constraint.EffectiveConstraint;
 import org.asn1s.api.constraint.ElementSetSpecs;
 import org.asn1s.api.exception.ConstraintViolationException;
 import org.asn1s.api.exception.IllegalValueException;
@@ -129,6 +130,22 @@ public class ElementSetSpecsImpl implements ElementSetSpecs
 		return maximumValue;
 	}
 
+	@Nullable
+	@Override
+	public EffectiveConstraint getEffectiveConstraint()
+	{
+		EffectiveConstraint constraint = setSpec == null ? null : setSpec.getEffectiveConstraint();
+		return constraint != null && extensible ? constraint.toExtensible() : constraint;
+	}
+
+	@Nullable
+	@Override
+	public int[] getPermittedCharacters()
+	{
+		// extensible permitted alphabet is not PER-visible
+		return setSpec == null || extensible ? null : setSpec.getPermittedCharacters();
+	}
+
 	@Override
 	public String toString()
 	{
@@ -30,6 +30,7 @@ import org.asn1s.api.Scope;
 import org.asn1s.api.constraint.Constraint;
 import org.asn1s.api.constraint.ConstraintType;
 import org.asn1s.api.constraint.ConstraintUtils;
+import org.asn1s.api.constraint.EffectiveConstraint;
 import org.asn1s.api.exception.ConstraintViolationException;
 import org.asn1s.api.exception.IllegalValueException;
 import org.asn1s.api.exception.ResolutionException;
@@ -86,6 +87,21 @@ public class Elements implements Constraint
 		return value;
 	}
 
+	@Nullable
+	@Override
+	public EffectiveConstraint getEffectiveConstraint()
+	{
+		// exclusion is ignored, only the set being excluded from is PER-visible
+		return unions.getEffectiveConstraint();
+	}
+
+	@Nullable
+	@Override
+	public int[] getPermittedCharacters()
+	{
+		return unions.getPermittedCharacters();
+	}
+
 	@Override
 	public String toString()
 	{
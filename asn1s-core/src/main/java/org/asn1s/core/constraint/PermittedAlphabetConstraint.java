@@ -29,6 +29,7 @@ import org.asn1s.api.Ref;
 import org.asn1s.api.Scope;
 import org.asn1s.api.constraint.Constraint;
 import org.asn1s.api.constraint.ConstraintType;
+import org.asn1s.api.constraint.EffectiveConstraint;
 import org.asn1s.api.exception.ConstraintViolationException;
 import org.asn1s.api.exception.ResolutionException;
 import org.asn1s.api.exception.ValidationException;
@@ -38,6 +39,7 @@ import org.asn1s.api.value.Value.Kind;
 import org.asn1s.api.value.x680.StringValue;
 import org.asn1s.core.constraint.template.PermittedAlphabetConstraintTemplate;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.Collection;
 
@@ -76,6 +78,14 @@ public class PermittedAlphabetConstraint implements Constraint
 		}
 	}
 
+	@Nullable
+	@Override
+	public EffectiveConstraint getEffectiveConstraint()
+	{
+		int[] characters = constraint.getPermittedCharacters();
+		return characters == null ? null : EffectiveConstraint.alphabet( characters );
+	}
+
 	@NotNull
 	@Override
 	public Constraint copyForType( @NotNull Scope scope, @NotNull Type type ) throws ResolutionException, ValidationException
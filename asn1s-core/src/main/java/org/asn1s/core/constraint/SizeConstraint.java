@@ -31,6 +31,7 @@ import org.asn1s.api.UniversalType;
 import org.asn1s.api.constraint.Constraint;
 import org.asn1s.api.constraint.ConstraintType;
 import org.asn1s.api.constraint.ConstraintUtils;
+import org.asn1s.api.constraint.EffectiveConstraint;
 import org.asn1s.api.exception.ConstraintViolationException;
 import org.asn1s.api.exception.IllegalValueException;
 import org.asn1s.api.exception.ResolutionException;
@@ -43,6 +44,7 @@ import org.asn1s.api.value.Value.Kind;
 import org.asn1s.core.constraint.template.SizeConstraintTemplate;
 import org.asn1s.core.value.x680.IntegerValueInt;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.Collection;
 
@@ -93,6 +95,14 @@ public class SizeConstraint implements Constraint
 		}
 	}
 
+	@Nullable
+	@Override
+	public EffectiveConstraint getEffectiveConstraint()
+	{
+		EffectiveConstraint size = constraint.getEffectiveConstraint();
+		return size == null ? null : EffectiveConstraint.size( size );
+	}
+
 	@Override
 	public String toString()
 	{
@@ -30,11 +30,13 @@ import org.asn1s.api.Ref;
 import org.asn1s.api.Scope;
 import org.asn1s.api.constraint.Constraint;
 import org.asn1s.api.constraint.ConstraintType;
+import org.asn1s.api.constraint.EffectiveConstraint;
 import org.asn1s.api.exception.ResolutionException;
 import org.asn1s.api.exception.ValidationException;
 import org.asn1s.api.type.Type;
 import org.asn1s.api.value.Value;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -97,6 +99,29 @@ public final class Union implements Constraint
 		return maximum;
 	}
 
+	@Nullable
+	@Override
+	public EffectiveConstraint getEffectiveConstraint()
+	{
+		EffectiveConstraint result = null;
+		for( Constraint intersection : intersections )
+		{
+			EffectiveConstraint current = intersection.getEffectiveConstraint();
+			result = result == null ? current : result.intersection( current );
+		}
+		return result;
+	}
+
+	@Nullable
+	@Override
+	public int[] getPermittedCharacters()
+	{
+		int[] result = null;
+		for( Constraint intersection : intersections )
+			result = EffectiveConstraint.intersectAlphabets( result, intersection.getPermittedCharacters() );
+		return result;
+	}
+
 	@Override
 	public String toString()
 	{
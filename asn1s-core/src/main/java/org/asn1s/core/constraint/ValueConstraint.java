@@ -29,18 +29,21 @@ import org.asn1s.api.Ref;
 import org.asn1s.api.Scope;
 import org.asn1s.api.constraint.Constraint;
 import org.asn1s.api.constraint.ConstraintType;
+import org.asn1s.api.constraint.EffectiveConstraint;
 import org.asn1s.api.exception.ConstraintViolationException;
 import org.asn1s.api.exception.IllegalValueException;
 import org.asn1s.api.exception.ResolutionException;
 import org.asn1s.api.exception.ValidationException;
 import org.asn1s.api.type.NamedType;
 import org.asn1s.api.type.Type;
+import org.asn1s.api.type.Type.Family;
 import org.asn1s.api.type.x681.ClassFieldType;
 import org.asn1s.api.value.Value;
 import org.asn1s.api.value.Value.Kind;
 import org.asn1s.core.constraint.template.ValueConstraintTemplate;
 import org.asn1s.core.type.x681.InstanceOfType;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.Collection;
 
@@ -126,6 +129,27 @@ public class ValueConstraint implements Constraint
 		values.add( value );
 	}
 
+	@Nullable
+	@Override
+	public EffectiveConstraint getEffectiveConstraint()
+	{
+		if( type.getFamily() != Family.INTEGER || value.getKind() != Kind.INTEGER || !value.toIntegerValue().isLong() )
+			return null;
+
+		long bound = value.toIntegerValue().asLong();
+		return EffectiveConstraint.range( bound, bound );
+	}
+
+	@Nullable
+	@Override
+	public int[] getPermittedCharacters()
+	{
+		if( value.getKind() != Kind.C_STRING )
+			return null;
+
+		return value.toStringValue().asString().codePoints().sorted().distinct().toArray();
+	}
+
 	@Override
 	public String toString()
 	{
@@ -29,24 +29,32 @@ import org.asn1s.api.Ref;
 import org.asn1s.api.Scope;
 import org.asn1s.api.constraint.Constraint;
 import org.asn1s.api.constraint.ConstraintType;
+import org.asn1s.api.constraint.EffectiveConstraint;
 import org.asn1s.api.exception.ConstraintViolationException;
 import org.asn1s.api.exception.IllegalValueException;
 import org.asn1s.api.exception.ResolutionException;
 import org.asn1s.api.exception.ValidationException;
 import org.asn1s.api.type.Type;
+import org.asn1s.api.type.Type.Family;
 import org.asn1s.api.util.RefUtils;
 import org.asn1s.api.value.Value;
+import org.asn1s.api.value.Value.Kind;
 import org.asn1s.core.constraint.template.ValueRangeConstraintTemplate;
 import org.asn1s.core.value.x680.IntegerValueInt;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Collection;
+import java.util.stream.IntStream;
 
 public class ValueRangeConstraint implements Constraint
 {
 	private static final Value MAX_INTEGER = new IntegerValueInt( Integer.MAX_VALUE );
 	private static final Value MIN_INTEGER = new IntegerValueInt( Integer.MIN_VALUE );
+	/**
+	 * Wider character ranges are not expanded into permitted alphabet, it would take too much memory
+	 */
+	private static final int MAX_CHARACTER_RANGE = 1 << 16;
 
 	public ValueRangeConstraint( @NotNull Type type, @Nullable Value min, boolean minLt, @Nullable Value max, boolean maxGt )
 	{
@@ -121,6 +129,42 @@ public class ValueRangeConstraint implements Constraint
 		return max == null ? MAX_INTEGER : max;
 	}
 
+	@Nullable
+	@Override
+	public EffectiveConstraint getEffectiveConstraint()
+	{
+		if( type.getFamily() != Family.INTEGER || !isLongBound( min ) || !isLongBound( max ) )
+			return null;
+
+		Long lowerBound = min == null ? null : min.toIntegerValue().asLong() + ( minLt ? 1 : 0 );
+		Long upperBound = max == null ? null : max.toIntegerValue().asLong() - ( maxGt ? 1 : 0 );
+		return EffectiveConstraint.range( lowerBound, upperBound );
+	}
+
+	@Nullable
+	@Override
+	public int[] getPermittedCharacters()
+	{
+		if( !isCharacter( min ) || !isCharacter( max ) )
+			return null;
+
+		int first = min.toStringValue().asString().codePointAt( 0 ) + ( minLt ? 1 : 0 );
+		int last = max.toStringValue().asString().codePointAt( 0 ) - ( maxGt ? 1 : 0 );
+		if( last - first >= MAX_CHARACTER_RANGE )
+			return null;
+
+		return last < first ? new int[0] : IntStream.rangeClosed( first, last ).toArray();
+	}
+
+	private static boolean isCharacter( @Nullable Value value )
+	{
+		if( value == null || value.getKind() != Kind.C_STRING )
+			return false;
+
+		String s = value.toStringValue().asString();
+		return !s.isEmpty() && s.codePointCount( 0, s.length() ) == 1;
+	}
+
 	@Override
 	public String toString()
 	{
@@ -146,6 +190,11 @@ public class ValueRangeConstraint implements Constraint
 			throw new ValidationException( "'ValueRange' constraint is not allowed" );
 	}
 
+	private static boolean isLongBound( @Nullable Value bound )
+	{
+		return bound == null || bound.getKind() == Kind.INTEGER && bound.toIntegerValue().isLong();
+	}
+
 	private static void checkValueAccepted( @NotNull Scope scope, @NotNull Type type, Ref<Value> value ) throws ResolutionException, ValidationException
 	{
 		try
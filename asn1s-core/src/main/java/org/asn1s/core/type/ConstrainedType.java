@@ -29,6 +29,7 @@ import org.asn1s.api.Ref;
 import org.asn1s.api.Scope;
 import org.asn1s.api.constraint.Constraint;
 import org.asn1s.api.constraint.ConstraintTemplate;
+import org.asn1s.api.constraint.EffectiveConstraint;
 import org.asn1s.api.constraint.ElementSetSpecs;
 import org.asn1s.api.exception.ResolutionException;
 import org.asn1s.api.exception.ValidationException;
@@ -36,6 +37,7 @@ import org.asn1s.api.type.AbstractNestingType;
 import org.asn1s.api.type.Type;
 import org.asn1s.api.value.Value;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 public final class ConstrainedType extends AbstractNestingType
 {
@@ -116,6 +118,13 @@ public final class ConstrainedType extends AbstractNestingType
 		return true;
 	}
 
+	@Nullable
+	@Override
+	public EffectiveConstraint getEffectiveConstraint()
+	{
+		return constraint == null ? null : constraint.getEffectiveConstraint();
+	}
+
 	@Override
 	public boolean hasElementSetSpecs()
 	{
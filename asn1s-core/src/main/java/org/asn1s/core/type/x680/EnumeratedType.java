@@ -116,6 +116,20 @@ public final class EnumeratedType extends BuiltinType implements Enumerated
 		extensible = value;
 	}
 
+	@Override
+	public boolean isExtensible()
+	{
+		return extensible;
+	}
+
+	@NotNull
+	@Override
+	public List<NamedValue> getItems( @NotNull ItemKind kind )
+	{
+		List<NamedValue> items = kind == ItemKind.PRIMARY ? actualEnumeration : actualAdditionalEnumeration;
+		return items == null ? Collections.emptyList() : Collections.unmodifiableList( items );
+	}
+
 	@Nullable
 	public NamedValue findValue( Value integerValue )
 	{
@@ -167,7 +167,7 @@ abstract class AbstractCollectionOfType extends BuiltinType implements Collectio
 	@Override
 	public boolean isConstructedValue( Scope scope, Value value )
 	{
-		return value.getKind() == Kind.COLLECTION;
+		return value.getKind() == Kind.COLLECTION || value.getKind() == Kind.NAMED_COLLECTION;
 	}
 
 	@Override
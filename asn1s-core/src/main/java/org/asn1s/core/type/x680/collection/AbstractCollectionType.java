@@ -56,6 +56,7 @@ abstract class AbstractCollectionType extends BuiltinType implements CollectionT
 	private boolean extensible;
 	private int maxVersion = 1;
 	private List<ComponentType> actualComponents;
+	private volatile Object codecAttachment;
 
 	boolean isAutomaticTags()
 	{
@@ -180,6 +181,20 @@ abstract class AbstractCollectionType extends BuiltinType implements CollectionT
 	void setActualComponents( List<ComponentType> actualComponents )
 	{
 		this.actualComponents = new ArrayList<>( actualComponents );
+		codecAttachment = null;
+	}
+
+	@Nullable
+	@Override
+	public Object getCodecAttachment()
+	{
+		return codecAttachment;
+	}
+
+	@Override
+	public void setCodecAttachment( @Nullable Object attachment )
+	{
+		codecAttachment = attachment;
 	}
 
 	@Override
@@ -239,6 +254,7 @@ abstract class AbstractCollectionType extends BuiltinType implements CollectionT
 			actualComponents.clear();
 			actualComponents = null;
 		}
+		codecAttachment = null;
 	}
 
 	protected abstract AbstractCollectionType onCopy();
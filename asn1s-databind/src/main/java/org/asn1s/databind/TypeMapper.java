@@ -25,11 +25,15 @@
 
 package org.asn1s.databind;
 
+import org.asn1s.api.exception.Asn1Exception;
 import org.asn1s.api.type.NamedType;
 import org.asn1s.api.value.Value;
 import org.asn1s.api.value.ValueFactory;
+import org.asn1s.io.ber.input.BerPullReader;
+import org.asn1s.io.ber.output.BerDirectWriter;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.IOException;
 import java.lang.reflect.Type;
 
 public interface TypeMapper
@@ -48,4 +52,36 @@ public interface TypeMapper
 
 	@NotNull
 	Object toJava( @NotNull Value value );
+
+	/**
+	 * Read java object directly from BER input, without building of intermediate value tree.
+	 * Default implementation reads value and converts it using {@link #toJava(Value)}.
+	 *
+	 * @param input the input
+	 * @param type  the type of encoded value, it is {@link #getAsn1Type()} or component of it's type
+	 * @return java object
+	 * @throws IOException   in case of IO problems
+	 * @throws Asn1Exception if value can not be read
+	 */
+	@NotNull
+	default Object readJava( @NotNull BerPullReader input, @NotNull NamedType type ) throws IOException, Asn1Exception
+	{
+		return toJava( input.readValue( type ) );
+	}
+
+	/**
+	 * Write java object directly to BER output, without building of intermediate value tree.
+	 * Default implementation converts object using {@link #toAsn1(ValueFactory, Object)} and writes resulting value.
+	 *
+	 * @param factory the value factory
+	 * @param output  the output
+	 * @param type    the type of value, it is {@link #getAsn1Type()} or component of it's type
+	 * @param value   the java object
+	 * @throws IOException   in case of IO problems
+	 * @throws Asn1Exception if value can not be written
+	 */
+	default void writeJava( @NotNull ValueFactory factory, @NotNull BerDirectWriter output, @NotNull NamedType type, @NotNull Object value ) throws IOException, Asn1Exception
+	{
+		output.writeValue( type, toAsn1( factory, value ) );
+	}
 }
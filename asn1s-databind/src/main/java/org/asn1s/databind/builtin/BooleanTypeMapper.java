@@ -31,8 +31,11 @@ import org.asn1s.api.value.Value.Kind;
 import org.asn1s.api.value.ValueFactory;
 import org.asn1s.api.value.x680.BooleanValue;
 import org.asn1s.databind.TypeMapper;
+import org.asn1s.io.ber.input.BerPullReader;
+import org.asn1s.io.ber.output.BerDirectWriter;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.Objects;
 
@@ -93,6 +96,22 @@ public final class BooleanTypeMapper implements TypeMapper
 		throw new UnsupportedOperationException();
 	}
 
+	@NotNull
+	@Override
+	public Object readJava( @NotNull BerPullReader input, @NotNull NamedType type ) throws IOException
+	{
+		return input.readBoolean( type );
+	}
+
+	@Override
+	public void writeJava( @NotNull ValueFactory factory, @NotNull BerDirectWriter output, @NotNull NamedType type, @NotNull Object value ) throws IOException
+	{
+		if( !isBooleanClass( value ) )
+			throw new IllegalArgumentException( "Unable to convert value: " + value );
+
+		output.writeBoolean( type, (Boolean)value );
+	}
+
 	private static boolean isBooleanClass( @NotNull Object value )
 	{
 		return Objects.equals( value.getClass(), boolean.class )
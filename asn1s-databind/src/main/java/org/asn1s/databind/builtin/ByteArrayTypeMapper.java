@@ -25,13 +25,17 @@
 
 package org.asn1s.databind.builtin;
 
+import org.asn1s.api.exception.Asn1Exception;
 import org.asn1s.api.type.NamedType;
 import org.asn1s.api.value.Value;
 import org.asn1s.api.value.Value.Kind;
 import org.asn1s.api.value.ValueFactory;
 import org.asn1s.databind.TypeMapper;
+import org.asn1s.io.ber.input.BerPullReader;
+import org.asn1s.io.ber.output.BerDirectWriter;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.Objects;
 
@@ -78,4 +82,20 @@ public class ByteArrayTypeMapper implements TypeMapper
 
 		return value.toByteArrayValue().asByteArray();
 	}
+
+	@NotNull
+	@Override
+	public Object readJava( @NotNull BerPullReader input, @NotNull NamedType type ) throws IOException, Asn1Exception
+	{
+		return input.readOctets( type );
+	}
+
+	@Override
+	public void writeJava( @NotNull ValueFactory factory, @NotNull BerDirectWriter output, @NotNull NamedType type, @NotNull Object value ) throws IOException
+	{
+		if( !byte[].class.isAssignableFrom( value.getClass() ) )
+			throw new IllegalArgumentException( "Unable to convert value: " + value );
+
+		output.writeOctets( type, (byte[])value );
+	}
 }
@@ -31,8 +31,11 @@ import org.asn1s.api.value.Value.Kind;
 import org.asn1s.api.value.ValueFactory;
 import org.asn1s.api.value.x680.IntegerValue;
 import org.asn1s.databind.TypeMapper;
+import org.asn1s.io.ber.input.BerPullReader;
+import org.asn1s.io.ber.output.BerDirectWriter;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.IOException;
 import java.lang.reflect.Type;
 import java.math.BigInteger;
 import java.util.Objects;
@@ -112,6 +115,43 @@ public final class IntegerTypeMapper implements TypeMapper
 		throw new UnsupportedOperationException();
 	}
 
+	@NotNull
+	@Override
+	public Object readJava( @NotNull BerPullReader input, @NotNull NamedType type ) throws IOException
+	{
+		if( isBigInteger() )
+			return input.readBigInteger( type );
+
+		long value = input.readLong( type );
+		if( isByte() )
+			//noinspection NumericCastThatLosesPrecision
+			return (byte)value;
+
+		if( isShort() )
+			//noinspection NumericCastThatLosesPrecision
+			return (short)value;
+
+		if( isInteger() )
+			//noinspection NumericCastThatLosesPrecision
+			return (int)value;
+
+		return value;
+	}
+
+	@Override
+	public void writeJava( @NotNull ValueFactory factory, @NotNull BerDirectWriter output, @NotNull NamedType type, @NotNull Object value ) throws IOException
+	{
+		if( isBigInteger() && Objects.equals( value.getClass(), BigInteger.class ) )
+			output.writeBigInteger( type, (BigInteger)value );
+		else if( isByte() && isAssignableToByte( value )
+				|| isShort() && isAssignableToShort( value )
+				|| isInteger() && isAssignableToInt( value )
+				|| isLong() && isAssignableToLong( value ) )
+			output.writeLong( type, ( (Number)value ).longValue() );
+		else
+			throw new IllegalArgumentException( "Unable to convert value: " + value );
+	}
+
 	private boolean isBigInteger()
 	{
 		return Objects.equals( integerClass, BigInteger.class );
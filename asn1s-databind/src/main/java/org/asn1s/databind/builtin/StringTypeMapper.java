@@ -30,8 +30,11 @@ import org.asn1s.api.value.Value;
 import org.asn1s.api.value.Value.Kind;
 import org.asn1s.api.value.ValueFactory;
 import org.asn1s.databind.TypeMapper;
+import org.asn1s.io.ber.input.BerPullReader;
+import org.asn1s.io.ber.output.BerDirectWriter;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.Objects;
 
@@ -76,4 +79,20 @@ public class StringTypeMapper implements TypeMapper
 			throw new IllegalArgumentException( "Unable to convert value of kind: " + value.getKind() );
 		return value.toStringValue().asString();
 	}
+
+	@NotNull
+	@Override
+	public Object readJava( @NotNull BerPullReader input, @NotNull NamedType type ) throws IOException
+	{
+		return input.readString( type );
+	}
+
+	@Override
+	public void writeJava( @NotNull ValueFactory factory, @NotNull BerDirectWriter output, @NotNull NamedType type, @NotNull Object value ) throws IOException
+	{
+		if( !javaType.isAssignableFrom( value.getClass() ) )
+			throw new IllegalArgumentException( "Unable to convert value: " + value );
+
+		output.writeString( type, (String)value );
+	}
 }
@@ -25,15 +25,20 @@
 
 package org.asn1s.databind.factory.collection;
 
+import org.asn1s.api.exception.Asn1Exception;
+import org.asn1s.api.type.ComponentType;
 import org.asn1s.api.type.NamedType;
 import org.asn1s.api.value.Value;
 import org.asn1s.api.value.Value.Kind;
 import org.asn1s.api.value.ValueFactory;
 import org.asn1s.api.value.x680.NamedValue;
 import org.asn1s.databind.TypeMapper;
+import org.asn1s.io.ber.input.BerPullReader;
+import org.asn1s.io.ber.output.BerDirectWriter;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.Objects;
 
@@ -98,6 +103,25 @@ final class ChoiceTypeMapper implements TypeMapper
 		return item.getMapper().toJava( (Value)namedValue.getValueRef() );
 	}
 
+	@NotNull
+	@Override
+	public Object readJava( @NotNull BerPullReader input, @NotNull NamedType type ) throws IOException, Asn1Exception
+	{
+		ComponentType alternative = input.readChoice( type );
+		return selectByNameOrDie( alternative.getComponentName() ).getMapper().readJava( input, alternative );
+	}
+
+	@Override
+	public void writeJava( @NotNull ValueFactory factory, @NotNull BerDirectWriter output, @NotNull NamedType type, @NotNull Object value ) throws IOException, Asn1Exception
+	{
+		Class<?> aClass = value.getClass();
+		ChoiceItem item = selectForClass( aClass );
+		if( item == null )
+			throw new IllegalArgumentException( "Unable to handle value of type: " + aClass.getTypeName() );
+
+		item.getMapper().writeJava( factory, output, output.beginChoice( type, item.getName() ), value );
+	}
+
 	private ChoiceItem selectByNameOrDie( String name )
 	{
 		for( ChoiceItem item : items )
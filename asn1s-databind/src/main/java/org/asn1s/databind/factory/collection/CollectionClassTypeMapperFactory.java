@@ -54,6 +54,7 @@ import java.util.Objects;
 public class CollectionClassTypeMapperFactory implements TypeMapperFactory
 {
 	private static final Log log = LogFactory.getLog( CollectionClassTypeMapperFactory.class );
+	private static final String ELEMENT_NAME = "item";
 
 	public CollectionClassTypeMapperFactory( TypeMapperContext context, Asn1Factory factory )
 	{
@@ -178,11 +179,11 @@ public class CollectionClassTypeMapperFactory implements TypeMapperFactory
 			TypeFactory typeFactory = factory.types( moduleReference );
 
 			CollectionOfType collectionOf = typeFactory.collectionOf( Family.SEQUENCE_OF );
-			collectionOf.setComponent( "item", asn1Type );
+			collectionOf.setComponent( ELEMENT_NAME, asn1Type );
 
 			NamedType define = typeFactory.define( resolveListName( metadata, "List-Of-" + asn1Type.getName() ), collectionOf, null );
 			log.debug( "Created new list-of type: " + define.getFullyQualifiedName() );
-			TypeMapper collectionTypeMapper = new CollectionTypeMapper( List.class, define, typeMapper, ArrayList::new );
+			TypeMapper collectionTypeMapper = new CollectionTypeMapper( List.class, define, ELEMENT_NAME, typeMapper, ArrayList::new );
 			context.registerJavaClassForNamedType( listType, define );
 			context.registerTypeMapper( collectionTypeMapper );
 			return collectionTypeMapper;
@@ -26,29 +26,42 @@
 package org.asn1s.databind.factory.collection;
 
 import org.asn1s.api.Ref;
+import org.asn1s.api.exception.Asn1Exception;
+import org.asn1s.api.type.ComponentType;
 import org.asn1s.api.type.NamedType;
 import org.asn1s.api.value.Value;
 import org.asn1s.api.value.Value.Kind;
 import org.asn1s.api.value.ValueFactory;
 import org.asn1s.api.value.x680.ValueCollection;
 import org.asn1s.databind.TypeMapper;
+import org.asn1s.io.ber.input.BerPullReader;
+import org.asn1s.io.ber.output.BerDirectWriter;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
 import java.util.Collection;
 import java.util.function.Function;
 
 final class CollectionTypeMapper implements TypeMapper
 {
-	CollectionTypeMapper( Class<?> type, NamedType define, TypeMapper elementMapper, Function<Integer, Collection<Object>> instantiator )
+	private static final int DEFAULT_CAPACITY = 16;
+
+	CollectionTypeMapper( Class<?> type, NamedType define, @Nullable String elementName, TypeMapper elementMapper, Function<Integer, Collection<Object>> instantiator )
 	{
 		this.type = type;
 		this.define = define;
+		this.elementName = elementName;
 		this.elementMapper = elementMapper;
 		this.instantiator = instantiator;
 	}
 
 	private final Class<?> type;
 	private final NamedType define;
+	/**
+	 * Name of SEQUENCE OF component, if set then elements are named values
+	 */
+	private final String elementName;
 	private final TypeMapper elementMapper;
 	private final Function<Integer, Collection<Object>> instantiator;
 
@@ -71,11 +84,14 @@ final class CollectionTypeMapper implements TypeMapper
 		if( !type.isAssignableFrom( value.getClass() ) )
 			throw new IllegalArgumentException( "Unable to handle value of type: " + value.getClass().getTypeName() );
 
-		ValueCollection collection = factory.collection( false );
+		ValueCollection collection = factory.collection( elementName != null );
 		for( Object o : (Iterable<?>)value )
 		{
 			Value asn1 = elementMapper.toAsn1( factory, o );
-			collection.add( asn1 );
+			if( elementName == null )
+				collection.add( asn1 );
+			else
+				collection.addNamed( elementName, asn1 );
 		}
 		return collection;
 	}
@@ -91,8 +107,40 @@ final class CollectionTypeMapper implements TypeMapper
 		ValueCollection collection = value.toValueCollection();
 		Collection<Object> objects = instantiator.apply( collection.size() );
 		for( Ref<Value> ref : collection.asValueList() )
-			objects.add( elementMapper.toJava( (Value)ref ) );
+		{
+			Value element = (Value)ref;
+			if( elementName != null && element.getKind() == Kind.NAME )
+				element = (Value)element.toNamedValue().getValueRef();
+			assert element != null;
+			objects.add( elementMapper.toJava( element ) );
+		}
+
+		return objects;
+	}
+
+	@NotNull
+	@Override
+	public Object readJava( @NotNull BerPullReader input, @NotNull NamedType type ) throws IOException, Asn1Exception
+	{
+		ComponentType elementType = input.beginCollectionOf( type );
+		Collection<Object> objects = instantiator.apply( DEFAULT_CAPACITY );
+		while( input.hasNextElement() )
+			objects.add( elementMapper.readJava( input, elementType ) );
 
+		input.end();
 		return objects;
 	}
+
+	@Override
+	public void writeJava( @NotNull ValueFactory factory, @NotNull BerDirectWriter output, @NotNull NamedType type, @NotNull Object value ) throws IOException, Asn1Exception
+	{
+		if( !this.type.isAssignableFrom( value.getClass() ) )
+			throw new IllegalArgumentException( "Unable to handle value of type: " + value.getClass().getTypeName() );
+
+		ComponentType elementType = output.beginCollectionOf( type );
+		for( Object o : (Iterable<?>)value )
+			elementMapper.writeJava( factory, output, elementType, o );
+
+		output.end();
+	}
 }
@@ -25,6 +25,8 @@
 
 package org.asn1s.databind.factory.userspace;
 
+import org.asn1s.api.exception.Asn1Exception;
+import org.asn1s.api.type.ComponentType;
 import org.asn1s.api.type.NamedType;
 import org.asn1s.api.value.Value;
 import org.asn1s.api.value.Value.Kind;
@@ -32,9 +34,12 @@ import org.asn1s.api.value.ValueFactory;
 import org.asn1s.api.value.x680.NamedValue;
 import org.asn1s.api.value.x680.ValueCollection;
 import org.asn1s.databind.TypeMapper;
+import org.asn1s.io.ber.input.BerPullReader;
+import org.asn1s.io.ber.output.BerDirectWriter;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.Objects;
@@ -96,6 +101,24 @@ final class UserClassTypeMapper implements TypeMapper
 		return collection;
 	}
 
+	@Override
+	public void writeJava( @NotNull ValueFactory factory, @NotNull BerDirectWriter output, @NotNull NamedType type, @NotNull Object value ) throws IOException, Asn1Exception
+	{
+		if( !Objects.equals( javaType, value.getClass() ) )
+			throw new IllegalArgumentException( "Unable to handle type: " + value.getClass() );
+
+		output.beginCollection( type );
+		for( ClassFieldInfo fieldMapper : fieldMappers )
+		{
+			Object propertyValue = fieldMapper.getValue( value );
+			if( propertyValue != null )
+				fieldMapper.getMapper().writeJava( factory, output, output.getComponent( fieldMapper.getAsnName() ), propertyValue );
+			else if( !fieldMapper.isOptional() )
+				throw new IllegalStateException( "Unable to handle null value for property: " + fieldMapper.getName() );
+		}
+		output.end();
+	}
+
 	@Nullable
 	private static Value toAsn1Value( @NotNull ValueFactory factory, @NotNull Object value, ClassFieldInfo fieldMapper )
 	{
@@ -124,6 +147,71 @@ final class UserClassTypeMapper implements TypeMapper
 		return o;
 	}
 
+	@NotNull
+	@Override
+	public Object readJava( @NotNull BerPullReader input, @NotNull NamedType type ) throws IOException, Asn1Exception
+	{
+		Object[] values = new Object[fieldMappers.length];
+		input.beginCollection( type );
+		ComponentType component;
+		while( ( component = input.nextComponent() ) != null )
+		{
+			int index = getFieldIndex( component.getComponentName() );
+			values[index] = fieldMappers[index].getMapper().readJava( input, component );
+		}
+		input.end();
+
+		Object o = createInstance( values );
+		for( int i = 0; i < values.length; i++ )
+			if( values[i] != null )
+				fieldMappers[i].setValue( o, values[i] );
+
+		return o;
+	}
+
+	/**
+	 * Create instance using property values indexed as field mappers, values passed to constructor are cleared
+	 *
+	 * @param values the property values
+	 * @return instance
+	 */
+	private Object createInstance( Object[] values )
+	{
+		if( !instantiator.hasParameters() )
+			return instantiator.newInstance();
+
+		String[] parameters = instantiator.getParameters();
+		assert parameters != null;
+		Object[] arguments = new Object[parameters.length];
+		for( int i = 0; i < parameters.length; i++ )
+		{
+			int index = getFieldIndexByPropertyName( parameters[i] );
+			arguments[i] = values[index];
+			values[index] = null;
+			if( arguments[i] == null && !fieldMappers[index].isOptional() )
+				throw new IllegalStateException( "Non optional property may not be initialized with null value: " + parameters[i] );
+		}
+		return instantiator.newInstance( arguments );
+	}
+
+	private int getFieldIndex( String name )
+	{
+		for( int i = 0; i < fieldMappers.length; i++ )
+			if( fieldMappers[i].getAsnName().equals( name ) )
+				return i;
+
+		throw new IllegalArgumentException( "No fields for name: " + name );
+	}
+
+	private int getFieldIndexByPropertyName( String name )
+	{
+		for( int i = 0; i < fieldMappers.length; i++ )
+			if( fieldMappers[i].getName().equals( name ) )
+				return i;
+
+		throw new IllegalArgumentException( "No property for name: " + name );
+	}
+
 	private void toJavaProperty( Object o, NamedValue namedValue )
 	{
 		ClassFieldInfo fieldMapper = getFieldMapper( namedValue.getName() );
@@ -25,12 +25,14 @@
 
 package org.asn1s.databind.factory.userspace;
 
+import org.asn1s.api.Scope;
 import org.asn1s.api.UniversalType;
 import org.asn1s.api.encoding.tag.TagMethod;
 import org.asn1s.api.module.Module;
 import org.asn1s.api.module.ModuleReference;
 import org.asn1s.api.type.CollectionType;
 import org.asn1s.api.type.ComponentType.Kind;
+import org.asn1s.api.type.DefinedType;
 import org.asn1s.api.type.Type.Family;
 import org.asn1s.api.value.Value;
 import org.asn1s.core.DefaultAsn1Factory;
@@ -41,9 +43,14 @@ import org.asn1s.databind.TypeMapper;
 import org.asn1s.databind.factory.Attribute;
 import org.asn1s.databind.factory.Element;
 import org.asn1s.databind.factory.TextElement;
+import org.asn1s.io.Asn1Writer;
+import org.asn1s.io.ber.BerRules;
+import org.asn1s.io.ber.input.DefaultBerReader;
+import org.asn1s.io.ber.output.DefaultBerWriter;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
 import java.util.Arrays;
 import java.util.Collections;
 
@@ -72,7 +79,62 @@ public class UserClassTypeMapperFactoryTest
 	{
 		Asn1Mapper mapper = new Asn1Mapper( FACTORY, "Xml", new Class<?>[]{Element.class, TextElement.class, Attribute.class} );
 		TypeMapper typeMapper = mapper.getContext().getTypeMapper( Element.class.getTypeName() + "=Xml:Element" );
+		Element element = createElement();
+		Value value = typeMapper.toAsn1( FACTORY.values(), element );
+		Element o = (Element)typeMapper.toJava( value );
+		Assert.assertEquals( "Not equal", element, o );
+	}
+
+	@Test
+	public void testReadJava() throws Exception
+	{
+		Asn1Mapper mapper = new Asn1Mapper( FACTORY, "Xml", new Class<?>[]{Element.class, TextElement.class, Attribute.class} );
+		TypeMapper typeMapper = mapper.getContext().getTypeMapper( Element.class.getTypeName() + "=Xml:Element" );
+		Element element = createElement();
+		DefinedType type = (DefinedType)typeMapper.getAsn1Type();
+		Scope scope = type.createScope();
+
+		byte[] content;
+		try( Asn1Writer writer = new DefaultBerWriter( BerRules.DER ) )
+		{
+			writer.write( scope, type, typeMapper.toAsn1( FACTORY.values(), element ) );
+			content = writer.toByteArray();
+		}
+
+		try( DefaultBerReader reader = new DefaultBerReader( new ByteArrayInputStream( content ), FACTORY.values() ) )
+		{
+			Element o = (Element)typeMapper.readJava( reader.newPullReader( scope ), type );
+			Assert.assertEquals( "Not equal", element, o );
+		}
+	}
 
+	@Test
+	public void testWriteJava() throws Exception
+	{
+		Asn1Mapper mapper = new Asn1Mapper( FACTORY, "Xml", new Class<?>[]{Element.class, TextElement.class, Attribute.class} );
+		TypeMapper typeMapper = mapper.getContext().getTypeMapper( Element.class.getTypeName() + "=Xml:Element" );
+		Element element = createElement();
+		DefinedType type = (DefinedType)typeMapper.getAsn1Type();
+		Scope scope = type.createScope();
+
+		byte[] expected;
+		try( Asn1Writer writer = new DefaultBerWriter( BerRules.DER ) )
+		{
+			writer.write( scope, type, typeMapper.toAsn1( FACTORY.values(), element ) );
+			expected = writer.toByteArray();
+		}
+
+		byte[] actual;
+		try( DefaultBerWriter writer = new DefaultBerWriter( BerRules.DER ) )
+		{
+			writer.write( scope, output -> typeMapper.writeJava( FACTORY.values(), output, type, element ) );
+			actual = writer.toByteArray();
+		}
+		Assert.assertArrayEquals( "Encoding differs", expected, actual );
+	}
+
+	private static Element createElement()
+	{
 		Element siblingSibling = new Element( "sub-item" );
 		siblingSibling.setAttributes( Arrays.asList( new Attribute( "id", "22" ), new Attribute( "type", "subtype" ) ) );
 		siblingSibling.setSiblings( Collections.singletonList( new TextElement( "text", "content" ) ) );
@@ -84,10 +146,7 @@ public class UserClassTypeMapperFactoryTest
 		Element element = new Element( "root" );
 		element.setAttributes( Arrays.asList( new Attribute( "flag", "true" ), new Attribute( "options", "221" ) ) );
 		element.setSiblings( Arrays.asList( sibling, new TextElement( "value1", "Hello, World" ), new TextElement( "value2", "Good job!" ) ) );
-		Value value = typeMapper.toAsn1( FACTORY.values(), element );
-		Element o = (Element)typeMapper.toJava( value );
-		Assert.assertEquals( "Not equal", element, o );
-		int k = 0;
+		return element;
 	}
 
 }
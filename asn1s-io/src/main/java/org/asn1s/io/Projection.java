@@ -0,0 +1,202 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io;
+
+import org.asn1s.api.type.CollectionOfType;
+import org.asn1s.api.type.ComponentType;
+import org.asn1s.api.type.NamedType;
+import org.asn1s.api.type.Type;
+import org.asn1s.api.type.Type.Family;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Set of component paths to decode, everything else is skipped.
+ * Path is list of names separated by '/', each name selects SEQUENCE or SET component or CHOICE alternative,
+ * '*' selects any component, alternative or SEQUENCE OF/SET OF element,
+ * e.g. "callEventDetails/&#42;/mobileOriginatedCall/basicCallInformation".
+ * The last path element is decoded completely.
+ */
+public final class Projection
+{
+	public static final String ANY = "*";
+	private static final char SEPARATOR = '/';
+
+	private Projection()
+	{
+	}
+
+	private final Map<String, Projection> children = new HashMap<>();
+	private boolean complete;
+
+	public static Projection of( String... paths )
+	{
+		return of( Arrays.asList( paths ) );
+	}
+
+	public static Projection of( @NotNull Collection<String> paths )
+	{
+		Projection root = new Projection();
+		for( String path : paths )
+			root.add( path );
+		root.mergeAny();
+		return root;
+	}
+
+	private void add( String path )
+	{
+		Projection node = this;
+		int start = 0;
+		while( start <= path.length() && !node.complete )
+		{
+			int end = path.indexOf( SEPARATOR, start );
+			if( end == -1 )
+				end = path.length();
+
+			String name = path.substring( start, end );
+			if( name.isEmpty() )
+				throw new IllegalArgumentException( "Empty name in path: " + path );
+
+			node = node.children.computeIfAbsent( name, key -> new Projection() );
+			start = end + 1;
+		}
+
+		node.complete = true;
+		node.children.clear();
+	}
+
+	/**
+	 * Paths selected by '*' apply to named siblings too, so they are merged into every named sibling,
+	 * this way lookup of child never has to combine subtrees
+	 */
+	private void mergeAny()
+	{
+		Projection any = children.get( ANY );
+		if( any != null )
+			for( Map.Entry<String, Projection> entry : children.entrySet() )
+				if( !ANY.equals( entry.getKey() ) )
+					entry.getValue().merge( any );
+
+		for( Projection child : children.values() )
+			child.mergeAny();
+	}
+
+	private void merge( Projection other )
+	{
+		if( complete )
+			return;
+
+		if( other.complete )
+		{
+			complete = true;
+			children.clear();
+			return;
+		}
+
+		for( Map.Entry<String, Projection> entry : other.children.entrySet() )
+			children.computeIfAbsent( entry.getKey(), key -> new Projection() ).merge( entry.getValue() );
+	}
+
+	/**
+	 * Returns true if value must be decoded completely
+	 *
+	 * @return boolean
+	 */
+	public boolean isComplete()
+	{
+		return complete;
+	}
+
+	/**
+	 * Returns projection for component, alternative or collection element
+	 *
+	 * @param name the component name
+	 * @return projection or null if component must be skipped
+	 */
+	@Nullable
+	public Projection getChild( @NotNull String name )
+	{
+		Projection child = children.get( name );
+		return child == null ? children.get( ANY ) : child;
+	}
+
+	/**
+	 * Check that every path name exists in type tree
+	 *
+	 * @param type the root type
+	 * @throws IllegalArgumentException if path does not match type
+	 */
+	public void validate( @NotNull Type type )
+	{
+		if( complete )
+			return;
+
+		while( type.hasSibling() && !( type instanceof CollectionOfType ) )
+			type = type.getSibling();
+
+		Family family = type.getFamily();
+		if( type instanceof CollectionOfType )
+		{
+			ComponentType componentType = ( (CollectionOfType)type ).getComponentType();
+			for( Map.Entry<String, Projection> entry : children.entrySet() )
+			{
+				if( !ANY.equals( entry.getKey() ) && !entry.getKey().equals( componentType.getComponentName() ) )
+					throw new IllegalArgumentException( "Collection element must be selected by '" + ANY + "': " + entry.getKey() );
+				entry.getValue().validate( componentType );
+			}
+		}
+		else if( family == Family.SEQUENCE || family == Family.SET || family == Family.CHOICE )
+		{
+			for( Map.Entry<String, Projection> entry : children.entrySet() )
+			{
+				if( ANY.equals( entry.getKey() ) )
+				{
+					for( NamedType namedType : type.getNamedTypes() )
+						entry.getValue().validate( namedType );
+					continue;
+				}
+
+				NamedType namedType = type.getNamedType( entry.getKey() );
+				if( namedType == null )
+					throw new IllegalArgumentException( "No component '" + entry.getKey() + "' in type: " + type );
+				entry.getValue().validate( namedType );
+			}
+		}
+		else if( !children.isEmpty() )
+			throw new IllegalArgumentException( "Unable to select components of type: " + type );
+	}
+
+	@Override
+	public String toString()
+	{
+		return complete ? "<complete>" : children.toString();
+	}
+}
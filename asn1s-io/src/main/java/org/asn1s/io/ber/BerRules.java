@@ -29,5 +29,20 @@ public enum BerRules
 {
 	BER,
 	DER,
-	CER
+	CER;
+
+	/**
+	 * Segment size of string values in CER, see X.690, p 9.2
+	 */
+	public static final int CER_SEGMENT_SIZE = 1000;
+
+	/**
+	 * Returns true for rules with single possible encoding of value, see X.690, p 11
+	 *
+	 * @return true for DER and CER
+	 */
+	public boolean isCanonical()
+	{
+		return this != BER;
+	}
 }
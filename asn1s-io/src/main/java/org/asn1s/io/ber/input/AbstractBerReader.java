@@ -39,18 +39,27 @@ import org.asn1s.api.type.Type.Family;
 import org.asn1s.api.value.Value;
 import org.asn1s.api.value.ValueFactory;
 import org.asn1s.io.Asn1Reader;
+import org.asn1s.io.Projection;
 import org.asn1s.io.ber.BerUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.EnumMap;
-import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 abstract class AbstractBerReader implements Asn1Reader
 {
 	private static final Map<Family, BerDecoder> DECODERS = new EnumMap<>( Family.class );
+	/**
+	 * Shared tags for every single octet identifier, indexed by identifier octet
+	 */
+	private static final Tag[] TAGS = new Tag[BerUtils.BYTE_MASK + 1];
+	private static final int INITIAL_CONTEXT_POOL_SIZE = 16;
+	private static final int DEFAULT_PARALLEL_THRESHOLD = 1024;
 
 	static
 	{
@@ -69,6 +78,11 @@ abstract class AbstractBerReader implements Asn1Reader
 		DECODERS.put( Family.UTC_TIME, new UTCTimeBerDecoder() );
 		DECODERS.put( Family.GENERALIZED_TIME, new GeneralizedTimeBerDecoder() );
 		DECODERS.put( Family.OID, new ObjectIDBerDecoder() );
+
+		for( int value = 0; value < TAGS.length; value++ )
+			//noinspection NumericCastThatLosesPrecision
+			if( ( value & BerUtils.TAG_MASK ) != BerUtils.TAG_MASK )
+				TAGS[value] = new Tag( TagClass.findByCode( (byte)( value & BerUtils.CLASS_MASK ) ), ( value & BerUtils.PC_MASK ) != 0, value & BerUtils.TAG_MASK );
 	}
 
 	AbstractBerReader( ValueFactory factory )
@@ -77,6 +91,12 @@ abstract class AbstractBerReader implements Asn1Reader
 	}
 
 	private final ValueFactory factory;
+	private ReaderContext[] contextPool = new ReaderContext[INITIAL_CONTEXT_POOL_SIZE];
+	private int contextDepth;
+	private boolean zeroCopyOctetStrings;
+	private boolean lazyCollections;
+	private ForkJoinPool parallelPool;
+	private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
 
 	@NotNull
 	@Override
@@ -85,16 +105,116 @@ abstract class AbstractBerReader implements Asn1Reader
 		return factory;
 	}
 
+	public boolean isZeroCopyOctetStrings()
+	{
+		return zeroCopyOctetStrings;
+	}
+
+	/**
+	 * If enabled and reader supports slicing of input, OCTET STRING values are returned as {@link ByteBufferValue}
+	 * slices of input buffer. Such values must not be used after underlying buffer is released.
+	 *
+	 * @param zeroCopyOctetStrings true to enable
+	 */
+	public void setZeroCopyOctetStrings( boolean zeroCopyOctetStrings )
+	{
+		this.zeroCopyOctetStrings = zeroCopyOctetStrings;
+	}
+
+	public boolean isLazyCollections()
+	{
+		return lazyCollections;
+	}
+
+	/**
+	 * If enabled and reader supports slicing of input, SEQUENCE and SET components of definite length
+	 * are not decoded until accessed, see {@link LazyValueCollection}.
+	 * Lazy collections with deferred components are not validated as a whole, components are validated once decoded.
+	 *
+	 * @param lazyCollections true to enable
+	 */
+	public void setLazyCollections( boolean lazyCollections )
+	{
+		this.lazyCollections = lazyCollections;
+	}
+
+	@Nullable
+	public ForkJoinPool getParallelPool()
+	{
+		return parallelPool;
+	}
+
+	/**
+	 * If set and reader supports slicing of input, elements of SEQUENCE OF and SET OF values of definite length
+	 * are decoded in parallel using pool, see {@link ParallelElementDecoder}.
+	 * Content of collection must be available as single slice: collections over 2GB and, for {@link MappedBerReader},
+	 * collections larger than mapped segment are decoded sequentially by calling thread.
+	 *
+	 * @param parallelPool the pool or null to disable
+	 */
+	public void setParallelPool( @Nullable ForkJoinPool parallelPool )
+	{
+		this.parallelPool = parallelPool;
+	}
+
+	public int getParallelThreshold()
+	{
+		return parallelThreshold;
+	}
+
+	/**
+	 * Set minimal amount of elements for parallel decoding, smaller collections are decoded by calling thread
+	 *
+	 * @param parallelThreshold element count
+	 */
+	public void setParallelThreshold( int parallelThreshold )
+	{
+		if( parallelThreshold < 1 )
+			throw new IllegalArgumentException( "Illegal parallel threshold: " + parallelThreshold );
+		this.parallelThreshold = parallelThreshold;
+	}
+
 	@Override
 	public Value read( @NotNull Scope scope, @NotNull Ref<Type> typeRef ) throws IOException, Asn1Exception
 	{
 		Type type = typeRef.resolve( scope );
 		Value value = readInternal( new ReaderContext( this, scope, type, null, -1, false ) );
-		type.accept( scope, value );
+		if( LazyValueCollection.isComplete( value ) )
+			type.accept( scope, value );
 		return value;
 	}
 
-	@NotNull
+	/**
+	 * Read only values selected by projection, everything else is skipped.
+	 * Result contains selected components and their parents only, so it is not validated against type.
+	 * SEQUENCE OF elements and CHOICE values with alternative outside of projection are omitted.
+	 *
+	 * @param scope      the resolution scope
+	 * @param typeRef    ref to type for read value
+	 * @param projection the component paths to decode
+	 * @return value or null if CHOICE alternative is not selected by projection
+	 * @throws IOException              in case of IO problems
+	 * @throws Asn1Exception            if type can not be resolved or value can not be resolved
+	 * @throws IllegalArgumentException if projection does not match type
+	 */
+	@Nullable
+	public Value read( @NotNull Scope scope, @NotNull Ref<Type> typeRef, @NotNull Projection projection ) throws IOException, Asn1Exception
+	{
+		Type type = typeRef.resolve( scope );
+		projection.validate( type );
+		ReaderContext context = new ReaderContext( this, scope, type, null, -1, false );
+		context.setProjection( projection );
+		return readInternal( context );
+	}
+
+	/**
+	 * Read value for context
+	 *
+	 * @param context the context
+	 * @return value, null only if context has projection and value is not selected
+	 * @throws IOException   in case of IO problems
+	 * @throws Asn1Exception if type or value can not be resolved
+	 */
 	Value readInternal( @NotNull ReaderContext context ) throws IOException, Asn1Exception
 	{
 		if( context.getType().hasConstraint() )
@@ -124,7 +244,7 @@ abstract class AbstractBerReader implements Asn1Reader
 		if( selector == null )
 			throw new ResolutionException( "Unable to locate InstanceOfTypeSelector." );
 
-		int contextLength = context.getLength();
+		long contextLength = context.getLength();
 		Type openTypeType = selector.resolveInstanceOfType( context.getScope() );
 		context.resetTagInfo( false );
 		Value openTypeValue = readInternal( context.toSiblingContext( openTypeType ) );
@@ -137,6 +257,10 @@ abstract class AbstractBerReader implements Asn1Reader
 	Tag readTag() throws IOException
 	{
 		byte value = read();
+		Tag shared = TAGS[value & BerUtils.BYTE_MASK];
+		if( shared != null )
+			return shared;
+
 		TagClass tagClass = TagClass.findByCode( (byte)( value & BerUtils.CLASS_MASK ) );
 		boolean constructed = ( value & BerUtils.PC_MASK ) != 0;
 		int tag = value & BerUtils.TAG_MASK;
@@ -156,7 +280,24 @@ abstract class AbstractBerReader implements Asn1Reader
 		return new Tag( tagClass, constructed, tag );
 	}
 
-	int readLength() throws IOException
+	/**
+	 * Returns tag for identifier octets, single octet identifiers share tag instances
+	 *
+	 * @param identifier the first identifier octet
+	 * @param tagNumber  the tag number of high-tag-number form, ignored otherwise
+	 * @return tag
+	 */
+	@SuppressWarnings( "NumericCastThatLosesPrecision" )
+	static Tag toTag( byte identifier, int tagNumber )
+	{
+		Tag shared = TAGS[identifier & BerUtils.BYTE_MASK];
+		if( shared != null )
+			return shared;
+
+		return new Tag( TagClass.findByCode( (byte)( identifier & BerUtils.CLASS_MASK ) ), ( identifier & BerUtils.PC_MASK ) != 0, tagNumber );
+	}
+
+	long readLength() throws IOException
 	{
 		byte value = read();
 		if( value == BerUtils.FORM_INDEFINITE )
@@ -165,15 +306,38 @@ abstract class AbstractBerReader implements Asn1Reader
 		if( ( value & BerUtils.BYTE_SIGN_MASK ) == 0 )
 			return value & BerUtils.UNSIGNED_BYTE_MASK;
 
-		int result = 0;
+		long result = 0;
 		int count = value & BerUtils.UNSIGNED_BYTE_MASK;
 		for( int i = 0; i < count; i++ )
+		{
+			if( ( result >>> ( Long.SIZE - Byte.SIZE - 1 ) ) != 0 )
+				throw new IOException( "Length is too big" );
 			result = ( result << 8 ) | ( read() & BerUtils.BYTE_MASK );
+		}
 
 		return result;
 	}
 
 	private Value readTaggedType( @NotNull ReaderContext context ) throws IOException, Asn1Exception
+	{
+		if( !toTaggedSiblingContext( context ) || context.getType().getFamily() == Family.OPEN_TYPE )
+			return readInternal( context );
+
+		// EXPLICIT tag in indefinite length form is finished by end-of-contents octets
+		Value value = readInternal( context );
+		if( !readTag().isEoc() || readLength() != 0 )
+			throw new IOException( "End of contents expected" );
+		return value;
+	}
+
+	/**
+	 * Move context to sibling of tagged type, reading tag and length if required.
+	 *
+	 * @param context the context of tagged type
+	 * @return true if EXPLICIT tag in indefinite length form was read
+	 * @throws IOException in case of I/O failure
+	 */
+	private static boolean toTaggedSiblingContext( @NotNull ReaderContext context ) throws IOException
 	{
 		TagEncoding encoding = (TagEncoding)context.getType().getEncoding( EncodingInstructions.TAG );
 		if( encoding == null )
@@ -183,61 +347,264 @@ abstract class AbstractBerReader implements Asn1Reader
 		if( baseType == null )
 			throw new IllegalStateException();
 
+		boolean indefinite = context.getLength() == -1;
 		if( context.isImplicit() )
 		{
-			if( encoding.getTagMethod() == TagMethod.IMPLICIT )
-				return readInternal( context.toSiblingContext() );
-
-			context.resetTagInfo( false );
-			return readInternal( context.toSiblingContext() );
+			boolean explicit = encoding.getTagMethod() != TagMethod.IMPLICIT;
+			if( explicit )
+				context.resetTagInfo( false );
+			context.toSiblingContext();
+			return explicit && indefinite;
 		}
 
 		context.setImplicit( encoding.getTagMethod() == TagMethod.IMPLICIT );
 		if( context.hasTag() )
 		{
-			if( baseType.getFamily() != Family.CHOICE )
-				return readInternal( context.toSiblingContext() );
-
-			context.resetTagInfo( context.isImplicit() );
-			return readInternal( context.toSiblingContext() );
+			boolean explicit = baseType.getFamily() == Family.CHOICE && !context.isImplicit();
+			if( baseType.getFamily() == Family.CHOICE )
+				context.resetTagInfo( context.isImplicit() );
+			context.toSiblingContext();
+			return explicit && indefinite;
 		}
 
 		context.readTagInfo( true );
 		// if constructed then enclosed type has it's own tag
-		if( context.getTag().isConstructed() && !context.isImplicit() )
-		{
+		boolean explicit = context.getTag().isConstructed() && !context.isImplicit();
+		indefinite = context.getLength() == -1;
+		if( explicit )
 			context.resetTagInfo( false );
-			return readInternal( context.toSiblingContext() );
+
+		context.toSiblingContext();
+		return explicit && indefinite;
+	}
+
+	/**
+	 * Follow type chain up to type with decoder, reading tag and length if required.
+	 * Same as {@link #readInternal(ReaderContext)}, but value content is not read.
+	 *
+	 * @param context the context
+	 * @return context for decoder
+	 * @throws IOException in case of I/O failure, invalid tag or if type may not be navigated (CHOICE, open type)
+	 */
+	@NotNull
+	ReaderContext navigate( @NotNull ReaderContext context ) throws IOException
+	{
+		return navigate( context, false );
+	}
+
+	/**
+	 * Same as {@link #navigate(ReaderContext)}, but CHOICE may be target as well,
+	 * in this case tag and length of selected alternative are read.
+	 *
+	 * @param context     the context
+	 * @param allowChoice true if CHOICE type may be target
+	 * @return context for decoder
+	 * @throws IOException in case of I/O failure, invalid tag or if type may not be navigated
+	 */
+	@NotNull
+	ReaderContext navigate( @NotNull ReaderContext context, boolean allowChoice ) throws IOException
+	{
+		while( true )
+		{
+			Type type = context.getType();
+			if( type.hasConstraint() )
+				context = context.toSiblingContext();
+			else if( type.isTagged() && ( (TaggedType)type ).getInstructions() == EncodingInstructions.TAG )
+				toTaggedSiblingContext( context );
+			else if( type.hasSibling() )
+				context = context.toSiblingContext();
+			else if( type.getFamily() == Family.CHOICE && allowChoice )
+			{
+				if( !context.hasTag() )
+					context.readTagInfo( false );
+				return context;
+			}
+			else if( type.getFamily() == Family.CHOICE || type.getFamily() == Family.OPEN_TYPE )
+				throw new IOException( "Unable to navigate into type: " + type );
+			else
+			{
+				if( context.getTag() == null )
+					context.readTagInfo( true );
+				return context;
+			}
 		}
+	}
+
+	/**
+	 * Start streaming read of SEQUENCE OF or SET OF value. Elements are decoded one by one as iterator advances,
+	 * so whole collection is never kept in memory.
+	 * If componentName is set, then typeRef must be SEQUENCE or SET, reader skips components
+	 * of it until named one is found, otherwise typeRef must be SEQUENCE OF or SET OF itself.
+	 * Once iteration is complete, reader is positioned after enclosing value.
+	 *
+	 * @param scope         the resolution scope
+	 * @param typeRef       ref to type for read value
+	 * @param componentName the name of SEQUENCE OF component or null
+	 * @return iterator of elements
+	 * @throws IOException   in case of IO problems or if component is not found
+	 * @throws Asn1Exception if type can not be resolved
+	 */
+	@NotNull
+	public SequenceOfIterator readSequenceOf( @NotNull Scope scope, @NotNull Ref<Type> typeRef, @Nullable String componentName ) throws IOException, Asn1Exception
+	{
+		Type type = typeRef.resolve( scope );
+		ReaderContext context = navigate( new ReaderContext( this, type.getScope( scope ), type, null, -1, false ) );
+		if( componentName == null )
+			return new SequenceOfIterator( context, null, 0L );
+
+		Family family = context.getType().getFamily();
+		if( family != Family.SEQUENCE && family != Family.SET )
+			throw new IllegalArgumentException( "Type must be SEQUENCE or SET: " + type );
 
-		return readInternal( context.toSiblingContext() );
+		long start = position();
+		return new SequenceOfIterator( findComponent( context, componentName ), context, start );
 	}
 
+	/**
+	 * Create typed pull reader over this reader, see {@link BerPullReader}.
+	 * Pull reader shares position with this reader, so they must not be used simultaneously.
+	 *
+	 * @param scope the resolution scope
+	 * @return pull reader
+	 */
 	@NotNull
+	public BerPullReader newPullReader( @NotNull Scope scope )
+	{
+		return new BerPullReader( this, scope );
+	}
+
+	/**
+	 * Navigate to value at path of SEQUENCE or SET component names, components before target are skipped
+	 *
+	 * @param scope   the resolution scope
+	 * @param typeRef ref to type of top-level value
+	 * @param path    the component names
+	 * @return context of target value with tag and length read
+	 * @throws IOException   in case of IO problems or if component is not found
+	 * @throws Asn1Exception if type can not be resolved
+	 */
+	@NotNull
+	ReaderContext navigatePath( @NotNull Scope scope, @NotNull Ref<Type> typeRef, @NotNull String... path ) throws IOException, Asn1Exception
+	{
+		Type type = typeRef.resolve( scope );
+		ReaderContext context = navigate( new ReaderContext( this, type.getScope( scope ), type, null, -1, false ) );
+		for( String componentName : path )
+		{
+			Family family = context.getType().getFamily();
+			if( family != Family.SEQUENCE && family != Family.SET )
+				throw new IllegalArgumentException( "Type must be SEQUENCE or SET: " + context.getType() );
+			context = findComponent( context, componentName );
+		}
+		return context;
+	}
+
+	private ReaderContext findComponent( ReaderContext context, String componentName ) throws IOException
+	{
+		AbstractCollectionBerDecoder decoder = (AbstractCollectionBerDecoder)DECODERS.get( context.getType().getFamily() );
+		CollectionDecodePlan plan = getDecodePlan( context.getType() );
+		long[] presence = plan.newPresence();
+		ReaderContext componentContext = context.copy();
+		long start = context.position();
+		boolean indefinite = context.getLength() == -1;
+		int lastPosition = -1;
+		while( indefinite || start + context.getLength() > position() )
+		{
+			if( componentContext.readTagInfoEocPossible( !indefinite ) )
+				break;
+
+			int position = decoder.chooseComponent( plan, componentContext.getTag(), lastPosition, presence );
+			if( position != -1 )
+			{
+				ComponentType component = plan.getComponent( position );
+				if( component.getComponentName().equals( componentName ) )
+					return navigate( new ReaderContext( this, component.getScope( context.getScope() ), component, componentContext.getTag(), componentContext.getLength(), false ) );
+
+				CollectionDecodePlan.setPresent( presence, position );
+				lastPosition = position;
+			}
+			skipValue( componentContext );
+		}
+		throw new IOException( "Component not found: " + componentName );
+	}
+
+	/**
+	 * Returns decode plan of SEQUENCE, SET or CHOICE type, plans are created once per type instance
+	 * and shared by all readers, see {@link CollectionDecodePlan#forType(Type)}
+	 *
+	 * @param type the collection type
+	 * @return decode plan
+	 */
+	@NotNull
+	CollectionDecodePlan getDecodePlan( @NotNull Type type )
+	{
+		return CollectionDecodePlan.forType( type );
+	}
+
+	/**
+	 * Take context from pool, contexts are pooled by nesting depth, so every acquired context
+	 * must be released by {@link #releaseContext()} once value is read and must not be retained.
+	 *
+	 * @return context
+	 */
+	@NotNull
+	ReaderContext acquireContext()
+	{
+		if( contextDepth == contextPool.length )
+			contextPool = Arrays.copyOf( contextPool, contextPool.length * 2 );
+
+		ReaderContext context = contextPool[contextDepth];
+		if( context == null )
+		{
+			context = new ReaderContext( this );
+			contextPool[contextDepth] = context;
+		}
+		contextDepth++;
+		return context;
+	}
+
+	void releaseContext()
+	{
+		contextDepth--;
+	}
+
+	void skipValue( @NotNull ReaderContext context ) throws IOException
+	{
+		if( context.getLength() == -1 )
+			skipToEoc();
+		else
+			skip( context.getLength() );
+	}
+
+	@Nullable
 	private Value readChoiceType( @NotNull ReaderContext context ) throws IOException, Asn1Exception
 	{
 		if( !context.hasTag() )
 			context.readTagInfo( false );
 
-		List<ComponentType> componentTypes = context.getType().getNamedTypes();
-		for( ComponentType component : componentTypes )
+		CollectionDecodePlan plan = getDecodePlan( context.getType() );
+		int position = plan.findNext( context.getTag(), -1 );
+		if( position != -1 )
 		{
-			TagEncoding encoding = (TagEncoding)component.getEncoding( EncodingInstructions.TAG );
-			if( context.isSameTagEncoding( encoding ) )
+			ComponentType component = plan.getComponent( position );
+			Projection projection = context.getProjection();
+			Projection alternative = projection == null ? null : projection.getChild( component.getName() );
+			if( projection != null && alternative == null )
 			{
-				context = context.toSiblingContext( component );
-				Value value = readInternal( context );
-				return factory.named( component.getName(), value );
+				skipValue( context );
+				return null;
 			}
+
+			Value value = context.readAlternative( component, alternative );
+			return value == null ? null : factory.named( component.getName(), value );
 		}
 
 		throw new IOException( "Unable to read choice value, unexpected tag: " + context.getTag() );
 	}
 
-	void ensureConstructedRead( int start, int length, @Nullable Tag tag ) throws IOException
+	void ensureConstructedRead( long start, long length, @Nullable Tag tag ) throws IOException
 	{
-		int end = length == -1 ? 0 : start + length;
-		int position = position();
+		long end = length == -1 ? 0 : start + length;
+		long position = position();
 		if( length == -1 && tag != null && !tag.isEoc() )
 			skipToEoc();
 		else if( length != -1 && position != end )
@@ -246,11 +613,25 @@ abstract class AbstractBerReader implements Asn1Reader
 
 	protected abstract void skipToEoc() throws IOException;
 
-	protected abstract void skip( int amount ) throws IOException;
+	protected abstract void skip( long amount ) throws IOException;
 
-	protected abstract int position();
+	protected abstract long position();
 
 	protected abstract byte read() throws IOException;
 
 	protected abstract int read( byte[] buffer ) throws IOException;
+
+	/**
+	 * Read content as buffer slice without copying, if reader supports it.
+	 * Reader position is advanced only if slice is returned.
+	 *
+	 * @param length the content length
+	 * @return slice or null if content must be read by {@link #read(byte[])}
+	 * @throws IOException in case of I/O failure
+	 */
+	@Nullable
+	ByteBuffer readSlice( int length ) throws IOException
+	{
+		return null;
+	}
 }
@@ -29,16 +29,17 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.asn1s.api.encoding.tag.Tag;
 import org.asn1s.api.exception.Asn1Exception;
-import org.asn1s.api.type.CollectionType;
+import org.asn1s.api.exception.IllegalValueException;
 import org.asn1s.api.type.ComponentType;
 import org.asn1s.api.type.Type.Family;
 import org.asn1s.api.value.Value;
 import org.asn1s.api.value.x680.ValueCollection;
+import org.asn1s.io.Projection;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
-import java.util.LinkedList;
+import java.nio.ByteBuffer;
 
 abstract class AbstractCollectionBerDecoder implements BerDecoder
 {
@@ -59,26 +60,37 @@ abstract class AbstractCollectionBerDecoder implements BerDecoder
 	@NotNull
 	protected abstract Family getRequiredFamily();
 
-	@Nullable
-	protected abstract ComponentType chooseComponent( @NotNull Iterable<ComponentType> components, @NotNull Tag tag, int lastIndex );
+	/**
+	 * Choose component for tag
+	 *
+	 * @param plan         the decode plan of collection type
+	 * @param tag          the component tag
+	 * @param lastPosition position of last decoded component or -1
+	 * @param presence     presence mask of decoded components
+	 * @return component position or -1
+	 */
+	protected abstract int chooseComponent( @NotNull CollectionDecodePlan plan, @NotNull Tag tag, int lastPosition, @NotNull long[] presence );
 
 	private class ComponentDecoder
 	{
 		private final ReaderContext ctx;
-		private final Iterable<ComponentType> components;
+		private final CollectionDecodePlan plan;
+		private final long[] presence;
 		private final ValueCollection collection;
-		private int lastIndex = -1;
+		private int lastPosition = -1;
 		private final boolean indefinite;
-		private final int ctxLength;
-		private final int start;
+		private final long ctxLength;
+		private final long start;
 
 		private ComponentDecoder( ReaderContext ctx )
 		{
 			this.ctx = ctx;
-			CollectionType type = (CollectionType)ctx.getType();
-			components = new LinkedList<>( type.getNamedTypes() );
+			plan = ctx.getReader().getDecodePlan( ctx.getType() );
+			presence = plan.newPresence();
 			start = ctx.position();
-			collection = ctx.getValueFactory().collection( true );
+			collection = ctx.getReader().isLazyCollections() && ctx.getProjection() == null
+					? new LazyValueCollection( ctx.getReader(), ctx.getScope() )
+					: ctx.getValueFactory().collection( true );
 			ctx.getScope().setValueLevel( collection );
 			ctxLength = ctx.getLength();
 			indefinite = ctxLength == -1;
@@ -91,6 +103,12 @@ abstract class AbstractCollectionBerDecoder implements BerDecoder
 					break;
 
 			ctx.ensureConstructedRead( start, ctxLength, ctx.getTag() );
+			if( ctx.getProjection() == null )
+			{
+				ComponentType missing = plan.findMissing( presence );
+				if( missing != null )
+					throw new IllegalValueException( "Missing required component: " + missing.getComponentName() );
+			}
 			return collection;
 		}
 
@@ -99,17 +117,52 @@ abstract class AbstractCollectionBerDecoder implements BerDecoder
 			if( ctx.readTagInfoEocPossible( !indefinite ) )
 				return true;
 
-			ComponentType component = chooseComponent( components, ctx.getTag(), lastIndex );
-			if( component == null )
-				onUnknownComponent( ctx );
-			else
+			int position = chooseComponent( plan, ctx.getTag(), lastPosition, presence );
+			if( position == -1 )
 			{
-				collection.addNamed( component.getComponentName(), ctx.readComponentType( component, ctx.getTag(), ctx.getLength() ) );
-				lastIndex = component.getIndex();
+				onUnknownComponent( ctx );
+				return false;
 			}
+
+			ComponentType component = plan.getComponent( position );
+			if( ctx.getProjection() != null )
+				readProjectedComponent( component );
+			else if( !deferComponent( component ) )
+				collection.addNamed( component.getComponentName(), ctx.readComponentType( component, ctx.getTag(), ctx.getLength() ) );
+
+			CollectionDecodePlan.setPresent( presence, position );
+			lastPosition = position;
 			return false;
 		}
 
+		private void readProjectedComponent( ComponentType component ) throws IOException, Asn1Exception
+		{
+			Projection projection = ctx.getProjection().getChild( component.getComponentName() );
+			if( projection == null )
+			{
+				ctx.getReader().skipValue( ctx );
+				return;
+			}
+
+			Value value = ctx.readComponentType( component, ctx.getTag(), ctx.getLength(), projection );
+			if( value != null )
+				collection.addNamed( component.getComponentName(), value );
+		}
+
+		private boolean deferComponent( ComponentType component ) throws IOException
+		{
+			// indefinite form and content over 2GB can not be sliced, such components are decoded eagerly
+			if( !( collection instanceof LazyValueCollection ) || ctx.getLength() == -1 || ctx.getLength() > Integer.MAX_VALUE )
+				return false;
+
+			ByteBuffer content = ctx.getReader().readSlice( ctx.getContentLength() );
+			if( content == null )
+				return false;
+
+			( (LazyValueCollection)collection ).addLazy( component, ctx.getTag(), content );
+			return true;
+		}
+
 		private void onUnknownComponent( ReaderContext ctx ) throws IOException
 		{
 			log.warn( "Unable to find sequence component for tag: " + ctx.getTag() + ", skipping." );
@@ -25,14 +25,17 @@
 
 package org.asn1s.io.ber.input;
 
+import org.asn1s.api.UniversalType;
 import org.asn1s.api.encoding.EncodingInstructions;
 import org.asn1s.api.encoding.tag.Tag;
+import org.asn1s.api.encoding.tag.TagClass;
 import org.asn1s.api.encoding.tag.TagEncoding;
 import org.asn1s.api.type.NamedType;
 import org.asn1s.api.type.Type;
 import org.asn1s.api.type.Type.Family;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.List;
 
@@ -69,4 +72,79 @@ final class BerDecoderUtils
 			throw new IOException( "Unexpected EOF" );
 		return content;
 	}
+
+	/**
+	 * Read contents of OCTET STRING or restricted string, constructed encodings are concatenated from segments
+	 *
+	 * @param context the reader context with tag information
+	 * @return contents octets
+	 * @throws IOException in case of I/O failure
+	 */
+	static byte[] readStringContent( @NotNull ReaderContext context ) throws IOException
+	{
+		if( !context.getTag().isConstructed() )
+			return readString( context.getReader(), context.getContentLength() );
+
+		ByteArrayOutputStream os = new ByteArrayOutputStream();
+		readSegments( context.getReader(), context.getLength(), UniversalType.OCTET_STRING.tagNumber(), os );
+		return os.toByteArray();
+	}
+
+	/**
+	 * Read segments of constructed string encoding, see X.690, p 8.6.4 and 8.7.3.2.
+	 * Segments may be constructed themselves, BIT STRING segments start with unused bits octet,
+	 * which must be zero for all segments except last one.
+	 *
+	 * @param reader     the reader positioned at first segment
+	 * @param length     the length of constructed value or -1 for indefinite form
+	 * @param tagNumber  the universal tag number of segments
+	 * @param os         the output for contents octets
+	 * @return unused bits of last BIT STRING segment, 0 for other types
+	 * @throws IOException in case of I/O failure or illegal encoding
+	 */
+	static int readSegments( @NotNull AbstractBerReader reader, long length, int tagNumber, @NotNull ByteArrayOutputStream os ) throws IOException
+	{
+		boolean bitString = tagNumber == UniversalType.BIT_STRING.tagNumber();
+		long end = reader.position() + length;
+		int unusedBits = 0;
+		while( length == -1 || reader.position() < end )
+		{
+			Tag tag = reader.readTag();
+			long segmentLength = reader.readLength();
+			if( tag.isEoc() )
+			{
+				if( length != -1 || segmentLength != 0 )
+					throw new IOException( "Unexpected end of contents" );
+				return unusedBits;
+			}
+
+			if( unusedBits != 0 )
+				throw new IOException( "Only last segment of BIT STRING may have unused bits" );
+
+			if( tag.getTagClass() != TagClass.UNIVERSAL || tag.getTagNumber() != tagNumber )
+				throw new IOException( "Illegal segment tag: " + tag );
+
+			if( tag.isConstructed() )
+				unusedBits = readSegments( reader, segmentLength, tagNumber, os );
+			else
+			{
+				if( segmentLength < 0 || segmentLength > Integer.MAX_VALUE || bitString && segmentLength == 0 )
+					throw new IOException( "Illegal segment length: " + segmentLength );
+
+				if( bitString )
+				{
+					unusedBits = reader.read();
+					if( unusedBits < 0 || unusedBits > 7 )
+						throw new IOException( "Unused bits must be in range: [0,7]" );
+					segmentLength--;
+				}
+				//noinspection NumericCastThatLosesPrecision
+				os.write( readString( reader, (int)segmentLength ) );
+			}
+		}
+
+		if( reader.position() != end )
+			throw new IOException( "Segments exceed length of constructed value" );
+		return unusedBits;
+	}
 }
@@ -0,0 +1,241 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.ber.input;
+
+import org.asn1s.io.ber.BerUtils;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Splits stream of back-to-back BER encoded values into top-level frames without decoding content.
+ * Only tag and length octets are inspected, content of definite length values is skipped,
+ * indefinite length values are tracked until matching EOC, so chunk may end at any byte boundary.
+ * After failure splitter state is undefined and it must not be used anymore.
+ */
+public final class BerFrameSplitter
+{
+	private enum Phase
+	{
+		TAG,
+		TAG_NUMBER,
+		LENGTH,
+		LENGTH_OCTETS,
+		CONTENT
+	}
+
+	private long maxFrameSize = Long.MAX_VALUE;
+	private long frameLength;
+	private boolean complete;
+
+	private Phase phase = Phase.TAG;
+	private boolean constructed;
+	private boolean eoc;
+	private int lengthOctets;
+	private long remaining;
+	/**
+	 * Amount of open indefinite length values
+	 */
+	private int depth;
+
+	public long getMaxFrameSize()
+	{
+		return maxFrameSize;
+	}
+
+	/**
+	 * Set limit for encoded top-level value size
+	 *
+	 * @param maxFrameSize max size in bytes
+	 */
+	public void setMaxFrameSize( long maxFrameSize )
+	{
+		if( maxFrameSize <= 0 )
+			throw new IllegalArgumentException( "Illegal max frame size: " + maxFrameSize );
+		this.maxFrameSize = maxFrameSize;
+	}
+
+	/**
+	 * Consume data from chunk until current frame is complete or chunk has no more data.
+	 * If frame is complete, chunk position points to the first byte after it,
+	 * next call starts new frame.
+	 *
+	 * @param chunk the data
+	 * @return true if frame is complete
+	 * @throws IOException if data is corrupted or frame is too big
+	 */
+	public boolean scan( @NotNull ByteBuffer chunk ) throws IOException
+	{
+		if( complete )
+		{
+			complete = false;
+			frameLength = 0;
+		}
+
+		while( chunk.hasRemaining() )
+		{
+			if( phase == Phase.CONTENT )
+			{
+				//noinspection NumericCastThatLosesPrecision
+				int count = (int)Math.min( remaining, chunk.remaining() );
+				chunk.position( chunk.position() + count );
+				frameLength += count;
+				remaining -= count;
+				if( remaining == 0 )
+					phase = Phase.TAG;
+			}
+			else
+			{
+				if( frameLength == maxFrameSize )
+					throw new IOException( "Frame is too big: " + ( frameLength + 1 ) );
+				frameLength++;
+				onHeaderByte( chunk.get() );
+			}
+
+			if( phase == Phase.TAG && depth == 0 )
+			{
+				complete = true;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns amount of bytes in current frame consumed so far,
+	 * if last scan completed frame, this is the frame length
+	 *
+	 * @return byte count
+	 */
+	public long getFrameLength()
+	{
+		return frameLength;
+	}
+
+	/**
+	 * Returns true if there is no partially scanned frame
+	 *
+	 * @return boolean
+	 */
+	public boolean isIdle()
+	{
+		return complete || frameLength == 0;
+	}
+
+	/**
+	 * Ensure that there is no partially scanned frame left
+	 *
+	 * @throws EOFException if last frame is incomplete
+	 */
+	public void finish() throws EOFException
+	{
+		if( !isIdle() )
+			throw new EOFException( "Unexpected end of data, incomplete frame of " + frameLength + " bytes" );
+	}
+
+	private void onHeaderByte( byte value ) throws IOException
+	{
+		switch( phase )
+		{
+			case TAG:
+				constructed = ( value & BerUtils.PC_MASK ) != 0;
+				eoc = value == 0;
+				if( ( value & BerUtils.TAG_MASK ) == BerUtils.TAG_MASK )
+					phase = Phase.TAG_NUMBER;
+				else
+					phase = Phase.LENGTH;
+				break;
+
+			case TAG_NUMBER:
+				if( ( value & BerUtils.BYTE_SIGN_MASK ) == 0 )
+					phase = Phase.LENGTH;
+				break;
+
+			case LENGTH:
+				onLengthByte( value );
+				break;
+
+			case LENGTH_OCTETS:
+				if( ( remaining >>> ( Long.SIZE - Byte.SIZE - 1 ) ) != 0 )
+					throw new IOException( "Length is too big" );
+				remaining = ( remaining << 8 ) | ( value & BerUtils.BYTE_MASK );
+				lengthOctets--;
+				if( lengthOctets == 0 )
+					onLength();
+				break;
+
+			default:
+				throw new IllegalStateException();
+		}
+	}
+
+	private void onLengthByte( byte value ) throws IOException
+	{
+		if( value == BerUtils.FORM_INDEFINITE )
+		{
+			if( !constructed )
+				throw new IOException( "Primitive value with indefinite length" );
+			depth++;
+			phase = Phase.TAG;
+		}
+		else if( ( value & BerUtils.BYTE_SIGN_MASK ) == 0 )
+		{
+			remaining = value;
+			onLength();
+		}
+		else
+		{
+			lengthOctets = value & BerUtils.UNSIGNED_BYTE_MASK;
+			if( lengthOctets == 0x7F )
+				throw new IOException( "Reserved length form" );
+			remaining = 0;
+			phase = Phase.LENGTH_OCTETS;
+		}
+	}
+
+	private void onLength() throws IOException
+	{
+		if( eoc )
+		{
+			if( remaining != 0 )
+				throw new IOException( "Corrupted data, tag is EOC, but length is non zero" );
+			if( depth == 0 )
+				throw new IOException( "Unexpected EOC" );
+			depth--;
+			phase = Phase.TAG;
+		}
+		else if( remaining == 0 )
+			phase = Phase.TAG;
+		else
+		{
+			if( remaining > maxFrameSize - frameLength )
+				throw new IOException( "Frame is too big: " + ( frameLength + remaining ) );
+			phase = Phase.CONTENT;
+		}
+	}
+}
@@ -0,0 +1,220 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.ber.input;
+
+import org.asn1s.api.Ref;
+import org.asn1s.api.Scope;
+import org.asn1s.api.encoding.tag.Tag;
+import org.asn1s.api.exception.Asn1Exception;
+import org.asn1s.api.type.Type;
+import org.asn1s.api.type.Type.Family;
+import org.asn1s.api.value.Value;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Index of SEQUENCE OF or SET OF elements in BER encoded file: absolute offset and full TLV length of every element.
+ * Index is built by single pass over element headers, element content is skipped, not decoded.
+ * Index may be saved to file and loaded back as memory-mapped buffer, so it is never read into heap.
+ * Elements are decoded by seeking {@link MappedBerReader} to element offset.
+ */
+public final class BerOffsetIndex
+{
+	private static final long MAGIC = 0x4245_5249_4458_3031L; // BERIDX01
+	private static final int HEADER_SIZE = 2;
+	private static final int INITIAL_CAPACITY = 64;
+
+	private BerOffsetIndex( LongBuffer entries )
+	{
+		this.entries = entries;
+	}
+
+	/**
+	 * Pairs of offset and length
+	 */
+	private final LongBuffer entries;
+
+	/**
+	 * Build index for SEQUENCE OF or SET OF value at path of component names, starting at current reader position.
+	 * Once index is built, reader is positioned after collection content.
+	 *
+	 * @param reader  the reader
+	 * @param scope   the resolution scope
+	 * @param typeRef ref to type of top-level value
+	 * @param tag     if not null, only elements with same tag class and number are indexed
+	 * @param path    names of SEQUENCE or SET components leading to collection, empty if top-level value is collection
+	 * @return index
+	 * @throws IOException   in case of IO problems or if component is not found
+	 * @throws Asn1Exception if type can not be resolved
+	 */
+	@NotNull
+	public static BerOffsetIndex build( @NotNull MappedBerReader reader, @NotNull Scope scope, @NotNull Ref<Type> typeRef,
+	                                    @Nullable Tag tag, @NotNull String... path ) throws IOException, Asn1Exception
+	{
+		ReaderContext context = reader.navigatePath( scope, typeRef, path );
+		Family family = context.getType().getFamily();
+		if( family != Family.SEQUENCE_OF && family != Family.SET_OF )
+			throw new IllegalArgumentException( "Type must be SEQUENCE OF or SET OF: " + context.getType() );
+
+		long[] entries = new long[INITIAL_CAPACITY];
+		int size = 0;
+		long start = reader.position();
+		long length = context.getLength();
+		boolean indefinite = length == -1;
+		ReaderContext elementContext = context.copy();
+		while( indefinite || start + length > reader.position() )
+		{
+			long offset = reader.position();
+			if( elementContext.readTagInfoEocPossible( !indefinite ) )
+				break;
+
+			reader.skipValue( elementContext );
+			if( tag != null && !isSameTag( tag, elementContext.getTag() ) )
+				continue;
+
+			if( size == entries.length )
+				entries = Arrays.copyOf( entries, size * 2 );
+			entries[size] = offset;
+			entries[size + 1] = reader.position() - offset;
+			size += 2;
+		}
+		reader.ensureConstructedRead( start, length, context.getTag() );
+		return new BerOffsetIndex( LongBuffer.wrap( entries, 0, size ).slice() );
+	}
+
+	private static boolean isSameTag( Tag expected, Tag actual )
+	{
+		return expected.getTagClass() == actual.getTagClass() && expected.getTagNumber() == actual.getTagNumber();
+	}
+
+	/**
+	 * Load index saved by {@link #save(Path)}, index content is memory-mapped
+	 *
+	 * @param path the index file
+	 * @return index
+	 * @throws IOException if file can not be read or it is not an index
+	 */
+	@NotNull
+	public static BerOffsetIndex load( @NotNull Path path ) throws IOException
+	{
+		try( FileChannel channel = FileChannel.open( path, StandardOpenOption.READ ) )
+		{
+			LongBuffer buffer = channel.map( MapMode.READ_ONLY, 0L, channel.size() ).asLongBuffer();
+			if( buffer.remaining() < HEADER_SIZE || buffer.get( 0 ) != MAGIC )
+				throw new IOException( "Not an offset index: " + path );
+
+			long size = buffer.get( 1 );
+			if( size < 0 || size * 2 != buffer.remaining() - HEADER_SIZE )
+				throw new IOException( "Corrupted offset index: " + path );
+
+			buffer.position( HEADER_SIZE );
+			return new BerOffsetIndex( buffer.slice() );
+		}
+	}
+
+	/**
+	 * Save index to file
+	 *
+	 * @param path the index file, replaced if exists
+	 * @throws IOException if file can not be written
+	 */
+	public void save( @NotNull Path path ) throws IOException
+	{
+		ByteBuffer buffer = ByteBuffer.allocate( ( HEADER_SIZE + entries.limit() ) * Long.BYTES );
+		LongBuffer longs = buffer.asLongBuffer();
+		longs.put( MAGIC );
+		longs.put( size() );
+		longs.put( entries.duplicate() );
+		try( FileChannel channel = FileChannel.open( path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING ) )
+		{
+			while( buffer.hasRemaining() )
+				channel.write( buffer );
+		}
+	}
+
+	/**
+	 * Returns amount of indexed elements
+	 *
+	 * @return element count
+	 */
+	public int size()
+	{
+		return entries.limit() / 2;
+	}
+
+	/**
+	 * Returns absolute offset of element encoding
+	 *
+	 * @param index the element index
+	 * @return offset in bytes
+	 */
+	public long getOffset( int index )
+	{
+		return entries.get( index * 2 );
+	}
+
+	/**
+	 * Returns length of element encoding, including tag and length octets
+	 *
+	 * @param index the element index
+	 * @return length in bytes
+	 */
+	public long getLength( int index )
+	{
+		return entries.get( index * 2 + 1 );
+	}
+
+	/**
+	 * Decode single element, reader is positioned after element
+	 *
+	 * @param reader      the reader of indexed file
+	 * @param scope       the resolution scope
+	 * @param elementType ref to element type, i.e. component type of collection
+	 * @param index       the element index
+	 * @return element value
+	 * @throws IOException   in case of IO problems or if element length does not match index
+	 * @throws Asn1Exception if type can not be resolved or value is not acceptable by type
+	 */
+	@NotNull
+	public Value read( @NotNull MappedBerReader reader, @NotNull Scope scope, @NotNull Ref<Type> elementType, int index ) throws IOException, Asn1Exception
+	{
+		long offset = getOffset( index );
+		reader.seek( offset );
+		Value value = reader.read( scope, elementType );
+		if( reader.position() != offset + getLength( index ) )
+			throw new IOException( "Element length does not match index: " + index );
+		return value;
+	}
+}
@@ -0,0 +1,413 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.ber.input;
+
+import org.asn1s.api.Scope;
+import org.asn1s.api.encoding.tag.Tag;
+import org.asn1s.api.exception.Asn1Exception;
+import org.asn1s.api.exception.IllegalValueException;
+import org.asn1s.api.type.CollectionOfType;
+import org.asn1s.api.type.ComponentType;
+import org.asn1s.api.type.StringType;
+import org.asn1s.api.type.Type;
+import org.asn1s.api.type.Type.Family;
+import org.asn1s.api.value.Value;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Typed pull interface over BER input, values are read by caller one by one,
+ * so primitive values may be converted to target objects without building of {@link Value} tree.
+ * Constructed values are entered by {@link #beginCollection(Type)} or {@link #beginCollectionOf(Type)}
+ * and left by {@link #end()}, components are selected by {@link #nextComponent()} and {@link #hasNextElement()}.
+ * Values read through this interface are not validated against type constraints.
+ *
+ * @see AbstractBerReader#newPullReader(Scope)
+ */
+public final class BerPullReader
+{
+	BerPullReader( @NotNull AbstractBerReader reader, @NotNull Scope scope )
+	{
+		this.reader = reader;
+		this.scope = scope;
+	}
+
+	private final AbstractBerReader reader;
+	private final Scope scope;
+	private final Deque<Frame> frames = new ArrayDeque<>();
+	/**
+	 * Tag information of selected component, element or alternative, which is not read yet
+	 */
+	private ReaderContext pending;
+
+	/**
+	 * Read value of type, fallback for types without direct access
+	 *
+	 * @param type the type of value
+	 * @return value
+	 * @throws IOException   in case of IO problems
+	 * @throws Asn1Exception if type or value can not be resolved
+	 */
+	@NotNull
+	public Value readValue( @NotNull Type type ) throws IOException, Asn1Exception
+	{
+		Value value = reader.readInternal( take( type ) );
+		assert value != null;
+		return value;
+	}
+
+	public boolean readBoolean( @NotNull Type type ) throws IOException
+	{
+		ReaderContext context = open( type, Family.BOOLEAN );
+		if( context.getLength() != 1 )
+			throw new IOException( "Invalid BOOLEAN length: " + context.getLength() );
+		return context.read() != 0;
+	}
+
+	/**
+	 * Read INTEGER value which must fit into long
+	 *
+	 * @param type the type of value
+	 * @return integer
+	 * @throws IOException in case of IO problems or if value is too big
+	 */
+	public long readLong( @NotNull Type type ) throws IOException
+	{
+		ReaderContext context = open( type, Family.INTEGER );
+		int length = context.getContentLength();
+		if( length < 1 || length > Long.BYTES )
+			throw new IOException( "Unable to read INTEGER of length " + length + " as long" );
+		return IntegerBerDecoder.readLong( reader, length );
+	}
+
+	@NotNull
+	public BigInteger readBigInteger( @NotNull Type type ) throws IOException
+	{
+		ReaderContext context = open( type, Family.INTEGER );
+		int length = context.getContentLength();
+		if( length > 0 && length <= Long.BYTES )
+			return BigInteger.valueOf( IntegerBerDecoder.readLong( reader, length ) );
+		return new BigInteger( BerDecoderUtils.readString( reader, length ) );
+	}
+
+	/**
+	 * Read OCTET STRING value content
+	 *
+	 * @param type the type of value
+	 * @return content
+	 * @throws IOException   in case of IO problems
+	 * @throws Asn1Exception if value can not be read
+	 */
+	@NotNull
+	public byte[] readOctets( @NotNull Type type ) throws IOException, Asn1Exception
+	{
+		ReaderContext context = open( type, Family.OCTET_STRING );
+		if( context.getLength() == -1 && !context.getTag().isConstructed() )
+			return reader.readInternal( context ).toByteArrayValue().asByteArray();
+		return BerDecoderUtils.readStringContent( context );
+	}
+
+	/**
+	 * Read restricted character string value, content is decoded using charset of type
+	 *
+	 * @param type the type of value
+	 * @return string
+	 * @throws IOException in case of IO problems
+	 */
+	@NotNull
+	public String readString( @NotNull Type type ) throws IOException
+	{
+		ReaderContext context = open( type, Family.RESTRICTED_STRING );
+		Type stringType = context.getType();
+		while( !( stringType instanceof StringType ) )
+		{
+			assert stringType != null;
+			stringType = stringType.getSibling();
+		}
+		byte[] content = BerDecoderUtils.readStringContent( context );
+		return new String( content, ( (StringType)stringType ).getCharset() );
+	}
+
+	/**
+	 * Enter SEQUENCE or SET value, components are selected by {@link #nextComponent()}
+	 *
+	 * @param type the type of value
+	 * @throws IOException in case of IO problems
+	 */
+	public void beginCollection( @NotNull Type type ) throws IOException
+	{
+		ReaderContext context = reader.navigate( take( type ) );
+		Family family = context.getType().getFamily();
+		if( family != Family.SEQUENCE && family != Family.SET )
+			throw new IllegalArgumentException( "Type must be SEQUENCE or SET: " + type );
+
+		CollectionDecodePlan plan = reader.getDecodePlan( context.getType() );
+		frames.push( new Frame( context, context.position(), plan, null ) );
+	}
+
+	/**
+	 * Select next component of current SEQUENCE or SET, previously selected component is skipped if it was not read.
+	 * Components with unknown tags are skipped.
+	 *
+	 * @return component type, which must be used to read value, or null if there are no more components
+	 * @throws IOException in case of IO problems
+	 */
+	@Nullable
+	public ComponentType nextComponent() throws IOException
+	{
+		Frame frame = current();
+		if( frame.plan == null )
+			throw new IllegalStateException( "Current value is not SEQUENCE or SET" );
+
+		skipPending();
+		while( frame.readNextTag() )
+		{
+			ComponentType component = frame.selectComponent();
+			if( component != null )
+			{
+				pending = frame.tagContext.toSiblingContext( component );
+				return component;
+			}
+			reader.skipValue( frame.tagContext );
+		}
+		return null;
+	}
+
+	/**
+	 * Enter SEQUENCE OF or SET OF value, elements are selected by {@link #hasNextElement()}
+	 *
+	 * @param type the type of value
+	 * @return element type, which must be used to read elements
+	 * @throws IOException in case of IO problems
+	 */
+	@NotNull
+	public ComponentType beginCollectionOf( @NotNull Type type ) throws IOException
+	{
+		ReaderContext context = reader.navigate( take( type ) );
+		Family family = context.getType().getFamily();
+		if( family != Family.SEQUENCE_OF && family != Family.SET_OF )
+			throw new IllegalArgumentException( "Type must be SEQUENCE OF or SET OF: " + type );
+
+		ComponentType elementType = ( (CollectionOfType)context.getType() ).getComponentType();
+		frames.push( new Frame( context, context.position(), null, elementType ) );
+		return elementType;
+	}
+
+	/**
+	 * Select next element of current SEQUENCE OF or SET OF, previously selected element is skipped if it was not read.
+	 *
+	 * @return true if element is selected
+	 * @throws IOException in case of IO problems
+	 */
+	public boolean hasNextElement() throws IOException
+	{
+		Frame frame = current();
+		if( frame.elementType == null )
+			throw new IllegalStateException( "Current value is not SEQUENCE OF or SET OF" );
+
+		skipPending();
+		if( !frame.readNextTag() )
+			return false;
+
+		pending = frame.tagContext.toSiblingContext( frame.elementType );
+		return true;
+	}
+
+	/**
+	 * Select alternative of CHOICE value, alternative value must be read using returned type
+	 *
+	 * @param type the CHOICE type
+	 * @return selected alternative
+	 * @throws IOException in case of IO problems or if tag does not match any alternative
+	 */
+	@NotNull
+	public ComponentType readChoice( @NotNull Type type ) throws IOException
+	{
+		ReaderContext context = reader.navigate( take( type ), true );
+		if( context.getType().getFamily() != Family.CHOICE )
+			throw new IllegalArgumentException( "Type must be CHOICE: " + type );
+
+		CollectionDecodePlan plan = reader.getDecodePlan( context.getType() );
+		int position = plan.findNext( context.getTag(), -1 );
+		if( position == -1 )
+			throw new IOException( "Unable to read choice value, unexpected tag: " + context.getTag() );
+
+		ComponentType alternative = plan.getComponent( position );
+		pending = context;
+		return alternative;
+	}
+
+	/**
+	 * Skip selected component or element
+	 *
+	 * @throws IOException in case of IO problems
+	 */
+	public void skipValue() throws IOException
+	{
+		if( pending == null )
+			throw new IllegalStateException( "No value selected" );
+		skipPending();
+	}
+
+	/**
+	 * Leave current constructed value, all unread components are skipped.
+	 *
+	 * @throws IOException           in case of IO problems
+	 * @throws IllegalValueException if required SEQUENCE or SET component is missing
+	 */
+	public void end() throws IOException, IllegalValueException
+	{
+		Frame frame = current();
+		skipPending();
+		while( frame.readNextTag() )
+		{
+			frame.selectComponent();
+			reader.skipValue( frame.tagContext );
+		}
+		frames.pop();
+
+		reader.ensureConstructedRead( frame.start, frame.context.getLength(), frame.tagContext.getTag() );
+		if( frame.plan != null )
+		{
+			ComponentType missing = frame.plan.findMissing( frame.presence );
+			if( missing != null )
+				throw new IllegalValueException( "Missing required component: " + missing.getComponentName() );
+		}
+	}
+
+	/**
+	 * Returns nesting depth of constructed values
+	 *
+	 * @return depth, 0 for top level
+	 */
+	public int getDepth()
+	{
+		return frames.size();
+	}
+
+	private ReaderContext open( Type type, Family family ) throws IOException
+	{
+		ReaderContext context = reader.navigate( take( type ) );
+		if( context.getType().getFamily() != family )
+			throw new IllegalArgumentException( "Type must be " + family + ": " + type );
+		return context;
+	}
+
+	/**
+	 * Create context for reading value of type, using tag information of selected value if any
+	 *
+	 * @param type the type
+	 * @return context
+	 */
+	private ReaderContext take( Type type )
+	{
+		if( pending == null )
+		{
+			if( !frames.isEmpty() )
+				throw new IllegalStateException( "No value selected" );
+			return new ReaderContext( reader, type.getScope( scope ), type, null, -1, false );
+		}
+
+		ReaderContext context = pending.toSiblingContext( type );
+		pending = null;
+		return context;
+	}
+
+	private void skipPending() throws IOException
+	{
+		if( pending != null )
+		{
+			reader.skipValue( pending );
+			pending = null;
+		}
+	}
+
+	private Frame current()
+	{
+		Frame frame = frames.peek();
+		if( frame == null )
+			throw new IllegalStateException( "No constructed value entered" );
+		return frame;
+	}
+
+	private static final class Frame
+	{
+		private Frame( ReaderContext context, long start, @Nullable CollectionDecodePlan plan, @Nullable ComponentType elementType )
+		{
+			this.context = context;
+			this.start = start;
+			this.plan = plan;
+			this.elementType = elementType;
+			presence = plan == null ? null : plan.newPresence();
+			tagContext = context.copy();
+			tagContext.resetTagInfo( false );
+		}
+
+		private final ReaderContext context;
+		private final long start;
+		private final CollectionDecodePlan plan;
+		private final ComponentType elementType;
+		private final long[] presence;
+		private final ReaderContext tagContext;
+		private int lastPosition = -1;
+		private boolean finished;
+
+		private boolean readNextTag() throws IOException
+		{
+			if( finished )
+				return false;
+
+			long length = context.getLength();
+			finished = length != -1 && context.position() >= start + length
+					|| tagContext.readTagInfoEocPossible( length != -1 );
+			return !finished;
+		}
+
+		@Nullable
+		private ComponentType selectComponent()
+		{
+			if( plan == null )
+				return null;
+
+			Tag tag = tagContext.getTag();
+			int position = context.getType().getFamily() == Family.SET
+					? plan.findAbsent( tag, presence )
+					: plan.findNext( tag, lastPosition );
+
+			if( position == -1 )
+				return null;
+
+			CollectionDecodePlan.setPresent( presence, position );
+			lastPosition = position;
+			return plan.getComponent( position );
+		}
+	}
+}
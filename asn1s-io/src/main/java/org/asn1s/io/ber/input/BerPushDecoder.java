@@ -0,0 +1,734 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.ber.input;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.asn1s.api.Ref;
+import org.asn1s.api.Scope;
+import org.asn1s.api.encoding.EncodingInstructions;
+import org.asn1s.api.encoding.tag.Tag;
+import org.asn1s.api.encoding.tag.TagEncoding;
+import org.asn1s.api.encoding.tag.TagMethod;
+import org.asn1s.api.exception.Asn1Exception;
+import org.asn1s.api.exception.IllegalValueException;
+import org.asn1s.api.exception.ResolutionException;
+import org.asn1s.api.type.*;
+import org.asn1s.api.type.Type.Family;
+import org.asn1s.api.value.Value;
+import org.asn1s.api.value.ValueFactory;
+import org.asn1s.api.value.x680.ValueCollection;
+import org.asn1s.io.ber.BerUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Non-blocking BER decoder for top-level values of single type, data is pushed by chunks of any size.
+ * Decoding is incremental: tag and length octets are parsed as they arrive and every constructed value
+ * (SEQUENCE, SET, SEQUENCE OF, SET OF, EXPLICIT tag) is an open frame on the stack, its components are added
+ * once decoded. Only content of single primitive value is buffered, it is decoded by regular decoders
+ * once complete. Constructed strings in indefinite length form are buffered as a whole.
+ * After failure decoder state is undefined and it must not be used anymore.
+ */
+public final class BerPushDecoder
+{
+	private static final Log log = LogFactory.getLog( BerPushDecoder.class );
+	private static final int INITIAL_CONTENT_SIZE = 256;
+	private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+	private enum Phase
+	{
+		TAG,
+		TAG_NUMBER,
+		LENGTH,
+		LENGTH_OCTETS,
+		CONTENT
+	}
+
+	private enum FrameKind
+	{
+		/**
+		 * EXPLICIT tag, holds single value of enclosed type
+		 */
+		WRAPPER,
+		/**
+		 * SEQUENCE or SET
+		 */
+		COLLECTION,
+		/**
+		 * SEQUENCE OF or SET OF
+		 */
+		COLLECTION_OF,
+		/**
+		 * Value in indefinite length form which is skipped or buffered for regular decoder
+		 */
+		RAW
+	}
+
+	public BerPushDecoder( @NotNull Scope scope, @NotNull Ref<Type> typeRef, @NotNull ValueFactory valueFactory )
+	{
+		this.scope = scope;
+		this.typeRef = typeRef;
+		this.valueFactory = valueFactory;
+	}
+
+	private final Scope scope;
+	private final Ref<Type> typeRef;
+	private final ValueFactory valueFactory;
+	private Type type;
+	private int maxContentSize = MAX_ARRAY_SIZE;
+
+	private Phase phase = Phase.TAG;
+	private byte identifier;
+	private int tagNumber;
+	private int lengthOctets;
+	private long length;
+	/**
+	 * Amount of bytes consumed since creation
+	 */
+	private long position;
+	/**
+	 * Bytes of content left in CONTENT phase
+	 */
+	private long remaining;
+
+	/**
+	 * The innermost open constructed value
+	 */
+	private Frame top;
+	/**
+	 * Primitive value which content is being read, null if content is skipped or recorded into RAW frame
+	 */
+	private Frame leaf;
+	private byte[] content = new byte[INITIAL_CONTENT_SIZE];
+	private int contentSize;
+	private List<Value> values;
+
+	public int getMaxContentSize()
+	{
+		return maxContentSize;
+	}
+
+	/**
+	 * Set limit for buffered content of single primitive value or constructed string in indefinite length form.
+	 * Size of constructed values is not limited, since they are not buffered.
+	 *
+	 * @param maxContentSize max size in bytes
+	 */
+	public void setMaxContentSize( int maxContentSize )
+	{
+		if( maxContentSize <= 0 )
+			throw new IllegalArgumentException( "Illegal max content size: " + maxContentSize );
+		this.maxContentSize = maxContentSize;
+	}
+
+	/**
+	 * Consume all data from chunk and decode every completed top-level value
+	 *
+	 * @param chunk the data
+	 * @return list of decoded values, may be empty
+	 * @throws IOException   if data is corrupted or value is too big
+	 * @throws Asn1Exception if value is not acceptable by type
+	 */
+	@NotNull
+	public List<Value> feed( @NotNull ByteBuffer chunk ) throws IOException, Asn1Exception
+	{
+		if( type == null )
+			type = typeRef.resolve( scope );
+
+		values = null;
+		while( chunk.hasRemaining() )
+		{
+			if( phase == Phase.CONTENT )
+				onContent( chunk );
+			else
+				onHeaderByte( chunk.get() );
+		}
+		return values == null ? Collections.emptyList() : values;
+	}
+
+	/**
+	 * Returns true if there is no partially received value
+	 *
+	 * @return boolean
+	 */
+	public boolean isIdle()
+	{
+		return top == null && phase == Phase.TAG;
+	}
+
+	/**
+	 * Ensure that there is no partially received value left
+	 *
+	 * @throws EOFException if last value is incomplete
+	 */
+	public void finish() throws EOFException
+	{
+		if( !isIdle() )
+			throw new EOFException( "Unexpected end of data, incomplete value at position " + position );
+	}
+
+	private void onHeaderByte( byte value ) throws IOException, Asn1Exception
+	{
+		position++;
+		if( isRecording() )
+			record( value );
+
+		switch( phase )
+		{
+			case TAG:
+				identifier = value;
+				tagNumber = 0;
+				phase = ( value & BerUtils.TAG_MASK ) == BerUtils.TAG_MASK ? Phase.TAG_NUMBER : Phase.LENGTH;
+				break;
+
+			case TAG_NUMBER:
+				if( tagNumber >>> ( Integer.SIZE - Byte.SIZE ) != 0 )
+					throw new IOException( "Tag number is too big" );
+				tagNumber = ( tagNumber << 7 ) | ( value & BerUtils.UNSIGNED_BYTE_MASK );
+				if( ( value & BerUtils.BYTE_SIGN_MASK ) == 0 )
+					phase = Phase.LENGTH;
+				break;
+
+			case LENGTH:
+				onLengthByte( value );
+				break;
+
+			case LENGTH_OCTETS:
+				if( ( length >>> ( Long.SIZE - Byte.SIZE - 1 ) ) != 0 )
+					throw new IOException( "Length is too big" );
+				length = ( length << 8 ) | ( value & BerUtils.BYTE_MASK );
+				lengthOctets--;
+				if( lengthOctets == 0 )
+					onHeader();
+				break;
+
+			default:
+				throw new IllegalStateException();
+		}
+	}
+
+	private void onLengthByte( byte value ) throws IOException, Asn1Exception
+	{
+		if( value == BerUtils.FORM_INDEFINITE )
+		{
+			if( ( identifier & BerUtils.PC_MASK ) == 0 )
+				throw new IOException( "Primitive value with indefinite length" );
+			length = -1;
+			onHeader();
+		}
+		else if( ( value & BerUtils.BYTE_SIGN_MASK ) == 0 )
+		{
+			length = value;
+			onHeader();
+		}
+		else
+		{
+			lengthOctets = value & BerUtils.UNSIGNED_BYTE_MASK;
+			if( lengthOctets == BerUtils.UNSIGNED_BYTE_MASK )
+				throw new IOException( "Reserved length form" );
+			length = 0;
+			phase = Phase.LENGTH_OCTETS;
+		}
+	}
+
+	private void onHeader() throws IOException, Asn1Exception
+	{
+		phase = Phase.TAG;
+		Tag tag = AbstractBerReader.toTag( identifier, tagNumber );
+		if( tag.isEoc() )
+		{
+			if( length != 0 )
+				throw new IOException( "Corrupted data, tag is EOC, but length is non zero" );
+			if( top == null || top.end != -1 )
+				throw new IOException( "Unexpected EOC" );
+			close();
+		}
+		else
+		{
+			if( top != null && top.end != -1 && position + Math.max( length, 0 ) > top.end )
+				throw new IOException( "Value exceeds length of enclosing value: " + tag );
+			onValue( tag );
+		}
+		closeCompleted();
+	}
+
+	private void onContent( ByteBuffer chunk ) throws IOException, Asn1Exception
+	{
+		//noinspection NumericCastThatLosesPrecision
+		int count = (int)Math.min( remaining, chunk.remaining() );
+		if( leaf != null && contentSize == 0 && count == remaining )
+		{
+			ByteBuffer slice = chunk.slice();
+			slice.limit( count );
+			chunk.position( chunk.position() + count );
+			onContentRead( count );
+			decodeLeaf( slice );
+		}
+		else
+		{
+			if( leaf != null || isRecording() )
+			{
+				ensureContentCapacity( count );
+				chunk.get( content, contentSize, count );
+				contentSize += count;
+			}
+			else
+				chunk.position( chunk.position() + count );
+
+			onContentRead( count );
+			if( leaf != null && remaining == 0 )
+			{
+				decodeLeaf( ByteBuffer.wrap( content, 0, contentSize ) );
+				contentSize = 0;
+			}
+		}
+		closeCompleted();
+	}
+
+	private void onContentRead( int count )
+	{
+		position += count;
+		remaining -= count;
+		if( remaining == 0 )
+			phase = Phase.TAG;
+	}
+
+	/**
+	 * Handle tag and length of value inside the innermost frame
+	 *
+	 * @param tag the value tag
+	 * @throws IOException   if tag is not expected
+	 * @throws Asn1Exception if type can not be resolved
+	 */
+	private void onValue( @NotNull Tag tag ) throws IOException, Asn1Exception
+	{
+		if( top == null )
+		{
+			walk( new Frame( null, null, null, scope, type ), tag );
+			return;
+		}
+
+		switch( top.kind )
+		{
+			case WRAPPER:
+				if( top.value != null )
+					throw new IOException( "Explicitly tagged value contains more than one value: " + tag );
+				walk( new Frame( top, null, null, top.scope, top.type ), tag );
+				break;
+
+			case COLLECTION:
+				int position = top.type.getFamily() == Family.SEQUENCE
+						? top.plan.findNext( tag, top.lastPosition )
+						: top.plan.findAbsent( tag, top.presence );
+				if( position == -1 )
+				{
+					log.warn( "Unable to find sequence component for tag: " + tag + ", skipping." );
+					skip( false );
+				}
+				else
+				{
+					ComponentType component = top.plan.getComponent( position );
+					CollectionDecodePlan.setPresent( top.presence, position );
+					top.lastPosition = position;
+					walk( new Frame( top, component.getComponentName(), null, component.getScope( top.scope ), component ), tag );
+				}
+				break;
+
+			case COLLECTION_OF:
+				walk( new Frame( top, null, null, top.type.getScope( top.scope ), top.type ), tag );
+				break;
+
+			case RAW:
+				skip( top.recording );
+				break;
+
+			default:
+				throw new IllegalStateException();
+		}
+	}
+
+	/**
+	 * Follow type chain of value up to type with decoder, same as {@link AbstractBerReader#readInternal(ReaderContext)}.
+	 * Constructed values are pushed to stack, content of primitive ones is awaited.
+	 *
+	 * @param frame the frame of value with parent, component name and scope of type
+	 * @param tag   the value tag
+	 * @throws IOException   if tag is not expected
+	 * @throws Asn1Exception if type can not be resolved
+	 */
+	private void walk( @NotNull Frame frame, @NotNull Tag tag ) throws IOException, Asn1Exception
+	{
+		boolean implicit = false;
+		while( true )
+		{
+			Type type = frame.type;
+			if( type.hasConstraint() )
+				frame.toSibling();
+			else if( type.isTagged() && ( (TaggedType)type ).getInstructions() == EncodingInstructions.TAG )
+			{
+				TagEncoding encoding = (TagEncoding)type.getEncoding( EncodingInstructions.TAG );
+				if( encoding == null )
+					throw new IllegalStateException( "No encoding for type: " + type );
+
+				if( !implicit )
+					ReaderContext.assertTag( type, tag );
+
+				frame.toSibling();
+				if( tag.isConstructed() && ( encoding.getTagMethod() != TagMethod.IMPLICIT || frame.type.getFamily() == Family.OPEN_TYPE ) )
+				{
+					push( frame, FrameKind.WRAPPER );
+					return;
+				}
+				implicit = true;
+			}
+			else if( type.hasSibling() )
+				frame.toSibling();
+			else if( type.getFamily() == Family.CHOICE )
+			{
+				CollectionDecodePlan plan = CollectionDecodePlan.forType( type );
+				int position = plan.findNext( tag, -1 );
+				if( position == -1 )
+					throw new IOException( "Unable to read choice value, unexpected tag: " + tag );
+
+				ComponentType component = plan.getComponent( position );
+				frame.wrap( component.getName(), null );
+				frame.toType( component );
+			}
+			else if( type.getFamily() == Family.OPEN_TYPE )
+			{
+				InstanceOfTypeSelector selector = frame.scope.getScopeOption( TypeUtils.INSTANCE_OF_TYPE_KEY );
+				if( selector == null )
+					throw new ResolutionException( "Unable to locate InstanceOfTypeSelector." );
+
+				Type openType = selector.resolveInstanceOfType( frame.scope );
+				frame.wrap( null, openType );
+				frame.toType( openType );
+				implicit = false;
+			}
+			else
+			{
+				if( !implicit )
+					ReaderContext.assertTag( type, tag );
+				accept( frame, tag );
+				return;
+			}
+		}
+	}
+
+	private void accept( @NotNull Frame frame, @NotNull Tag tag ) throws IOException, Asn1Exception
+	{
+		Family family = frame.type.getFamily();
+		if( family == Family.SEQUENCE || family == Family.SET )
+		{
+			if( !tag.isConstructed() )
+				throw new IOException( "Constructed form expected: " + tag );
+
+			if( length == 0 )
+				deliver( frame, valueFactory.collection( true ) );
+			else
+			{
+				frame.plan = CollectionDecodePlan.forType( frame.type );
+				frame.presence = frame.plan.newPresence();
+				frame.collection = valueFactory.collection( true );
+				frame.scope.setValueLevel( frame.collection );
+				push( frame, FrameKind.COLLECTION );
+			}
+		}
+		else if( family == Family.SEQUENCE_OF || family == Family.SET_OF )
+		{
+			if( !tag.isConstructed() )
+				throw new IOException( "Constructed form expected: " + tag );
+
+			ComponentType componentType = ( (CollectionOfType)frame.type ).getComponentType();
+			ValueCollection collection = valueFactory.collection( !componentType.isDummy() );
+			if( length == 0 )
+				deliver( frame, collection );
+			else
+			{
+				frame.collection = collection;
+				frame.scope.setValueLevel( collection );
+				frame.type = componentType;
+				push( frame, FrameKind.COLLECTION_OF );
+			}
+		}
+		else
+		{
+			frame.tag = tag;
+			frame.length = length;
+			if( length == -1 )
+			{
+				frame.recording = true;
+				push( frame, FrameKind.RAW );
+			}
+			else
+			{
+				if( length > maxContentSize )
+					throw new IOException( "Value is too big: " + length );
+				leaf = frame;
+				startContent();
+				if( length == 0 )
+					decodeLeaf( ByteBuffer.wrap( content, 0, 0 ) );
+			}
+		}
+	}
+
+	/**
+	 * Skip value which is not decoded, or record it as part of enclosing RAW frame
+	 *
+	 * @param recording true if value is recorded
+	 */
+	private void skip( boolean recording )
+	{
+		if( length == -1 )
+		{
+			Frame frame = new Frame( top, null, null, null, null );
+			frame.recording = recording;
+			push( frame, FrameKind.RAW );
+		}
+		else
+			startContent();
+	}
+
+	private void startContent()
+	{
+		remaining = length;
+		if( remaining > 0 )
+			phase = Phase.CONTENT;
+	}
+
+	private void push( @NotNull Frame frame, @NotNull FrameKind kind )
+	{
+		frame.kind = kind;
+		frame.end = length == -1 ? -1 : position + length;
+		top = frame;
+	}
+
+	/**
+	 * Close frames of definite length which content is fully read
+	 *
+	 * @throws IOException   if value is corrupted
+	 * @throws Asn1Exception if value is not acceptable by type
+	 */
+	private void closeCompleted() throws IOException, Asn1Exception
+	{
+		while( phase == Phase.TAG && top != null && top.end == position )
+			close();
+	}
+
+	private void close() throws IOException, Asn1Exception
+	{
+		Frame frame = top;
+		top = frame.parent;
+		switch( frame.kind )
+		{
+			case WRAPPER:
+				if( frame.value == null )
+					throw new IOException( "Explicitly tagged value is empty" );
+				deliver( frame, frame.value );
+				break;
+
+			case COLLECTION:
+				ComponentType missing = frame.plan.findMissing( frame.presence );
+				if( missing != null )
+					throw new IllegalValueException( "Missing required component: " + missing.getComponentName() );
+				deliver( frame, frame.collection );
+				break;
+
+			case COLLECTION_OF:
+				deliver( frame, frame.collection );
+				break;
+
+			case RAW:
+				if( frame.type != null )
+				{
+					decodeLeaf( frame, ByteBuffer.wrap( content, 0, contentSize ) );
+					contentSize = 0;
+				}
+				break;
+
+			default:
+				throw new IllegalStateException();
+		}
+	}
+
+	private void decodeLeaf( ByteBuffer buffer ) throws IOException, Asn1Exception
+	{
+		Frame frame = leaf;
+		leaf = null;
+		decodeLeaf( frame, buffer );
+	}
+
+	private void decodeLeaf( Frame frame, ByteBuffer buffer ) throws IOException, Asn1Exception
+	{
+		int size = buffer.remaining();
+		AbstractBerReader reader = new ByteBufferBerReader( buffer, valueFactory );
+		Value value = reader.readInternal( new ReaderContext( reader, frame.scope, frame.type, frame.tag, frame.length, false ) );
+		if( reader.position() != size )
+			throw new IOException( "Value is not fully read: " + reader.position() + " of " + size );
+		deliver( frame, value );
+	}
+
+	/**
+	 * Add value of frame to parent frame, or to result if value is top-level
+	 *
+	 * @param frame the frame of value
+	 * @param value the value
+	 * @throws IOException   if parent already has value
+	 * @throws Asn1Exception if value can not be resolved
+	 */
+	private void deliver( @NotNull Frame frame, @NotNull Value value ) throws IOException, Asn1Exception
+	{
+		for( Wrapping wrapping = frame.wrapping; wrapping != null; wrapping = wrapping.outer )
+			value = wrapping.openType == null
+					? valueFactory.named( wrapping.name, value )
+					: valueFactory.openTypeValue( wrapping.openType, value ).resolve( wrapping.scope );
+
+		Frame parent = frame.parent;
+		if( parent == null )
+		{
+			type.accept( scope, value );
+			if( values == null )
+				values = new ArrayList<>();
+			values.add( value );
+		}
+		else if( parent.kind == FrameKind.WRAPPER )
+			parent.value = value;
+		else if( parent.kind == FrameKind.COLLECTION )
+			parent.collection.addNamed( frame.componentName, value );
+		else
+		{
+			ComponentType componentType = (ComponentType)parent.type;
+			parent.collection.add( componentType.isDummy() ? value : valueFactory.named( componentType.getComponentName(), value ) );
+		}
+	}
+
+	private boolean isRecording()
+	{
+		return top != null && top.recording;
+	}
+
+	private void record( byte value ) throws IOException
+	{
+		ensureContentCapacity( 1 );
+		content[contentSize] = value;
+		contentSize++;
+	}
+
+	private void ensureContentCapacity( int count ) throws IOException
+	{
+		int required = contentSize + count;
+		if( required > maxContentSize || required < 0 )
+			throw new IOException( "Value is too big: " + ( (long)contentSize + count ) );
+
+		if( required > content.length )
+			content = Arrays.copyOf( content, Math.max( required, (int)Math.min( MAX_ARRAY_SIZE, content.length * 2L ) ) );
+	}
+
+	/**
+	 * Open constructed value, or value being walked through type chain
+	 */
+	private static final class Frame
+	{
+		private Frame( @Nullable Frame parent, @Nullable String componentName, @Nullable Wrapping wrapping, @Nullable Scope scope, @Nullable Type type )
+		{
+			this.parent = parent;
+			this.componentName = componentName;
+			this.wrapping = wrapping;
+			this.scope = scope;
+			this.type = type;
+		}
+
+		private final Frame parent;
+		private final String componentName;
+		private Wrapping wrapping;
+		private Scope scope;
+		/**
+		 * Enclosed type for WRAPPER, collection type, element component for COLLECTION_OF,
+		 * primitive type for buffered RAW frame or null if RAW frame is skipped
+		 */
+		private Type type;
+		private FrameKind kind;
+		/**
+		 * Position after value content or -1 for indefinite length form
+		 */
+		private long end;
+		private Tag tag;
+		private long length;
+		private boolean recording;
+		private CollectionDecodePlan plan;
+		private long[] presence;
+		private int lastPosition = -1;
+		private ValueCollection collection;
+		private Value value;
+
+		private void toSibling()
+		{
+			toType( type.getSibling() );
+		}
+
+		private void toType( @NotNull Type type )
+		{
+			this.type = type;
+			scope = type.getScope( scope );
+		}
+
+		/**
+		 * Add wrapping applied to value before outer ones, CHOICE alternative name or open type
+		 *
+		 * @param name     the alternative name
+		 * @param openType the open type
+		 */
+		private void wrap( @Nullable String name, @Nullable Type openType )
+		{
+			wrapping = new Wrapping( wrapping, name, openType, scope );
+		}
+	}
+
+	private static final class Wrapping
+	{
+		private Wrapping( @Nullable Wrapping outer, @Nullable String name, @Nullable Type openType, @NotNull Scope scope )
+		{
+			this.outer = outer;
+			this.name = name;
+			this.openType = openType;
+			this.scope = scope;
+		}
+
+		private final Wrapping outer;
+		private final String name;
+		private final Type openType;
+		private final Scope scope;
+	}
+}
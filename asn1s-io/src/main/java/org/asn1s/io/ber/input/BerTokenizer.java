@@ -0,0 +1,370 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.ber.input;
+
+import org.asn1s.api.Ref;
+import org.asn1s.api.Scope;
+import org.asn1s.api.encoding.tag.TagClass;
+import org.asn1s.api.exception.Asn1Exception;
+import org.asn1s.api.type.Type;
+import org.asn1s.api.value.Value;
+import org.asn1s.api.value.ValueFactory;
+import org.asn1s.io.ber.BerUtils;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Low level pull tokenizer for BER/CER/DER encoded data. Walks tag-length-value structure without types,
+ * reporting start and end of constructed values and primitive values.
+ * Event state is kept in fields, so no objects are created per event, content is available by offset in buffer.
+ * Any element may be decoded to {@link Value} using {@link #readValue(Scope, Ref, ValueFactory)}.
+ */
+public final class BerTokenizer
+{
+	private static final int INDEFINITE = -1;
+	private static final TagClass[] TAG_CLASSES = new TagClass[4];
+
+	static
+	{
+		for( TagClass tagClass : TagClass.values() )
+			TAG_CLASSES[( tagClass.getCode() & BerUtils.CLASS_MASK ) >>> 6] = tagClass;
+	}
+
+	public enum Event
+	{
+		START_CONSTRUCTED,
+		PRIMITIVE,
+		END_CONSTRUCTED,
+		END_OF_INPUT
+	}
+
+	public BerTokenizer( @NotNull byte[] bytes )
+	{
+		this( ByteBuffer.wrap( bytes ) );
+	}
+
+	/**
+	 * Create tokenizer for buffer content between position and limit, buffer itself is not modified
+	 *
+	 * @param buffer the buffer
+	 */
+	public BerTokenizer( @NotNull ByteBuffer buffer )
+	{
+		this.buffer = buffer.asReadOnlyBuffer();
+		position = buffer.position();
+		limit = buffer.limit();
+	}
+
+	private final ByteBuffer buffer;
+	private final int limit;
+	private int position;
+	private int[] ends = new int[16];
+	private int depth;
+
+	private Event event;
+	private TagClass tagClass;
+	private boolean constructed;
+	private long tagNumber;
+	private int offset;
+	private int contentOffset;
+	private int length;
+
+	/**
+	 * Move to next event
+	 *
+	 * @return event
+	 * @throws IOException if data is corrupted or truncated
+	 */
+	@NotNull
+	public Event next() throws IOException
+	{
+		if( depth > 0 && ends[depth - 1] != INDEFINITE && position >= ends[depth - 1] )
+		{
+			if( position > ends[depth - 1] )
+				throw new IOException( "Value exceeds enclosing constructed value at: " + position );
+			offset = position;
+			return endConstructed();
+		}
+
+		if( position >= limit )
+		{
+			if( depth > 0 )
+				throw new EOFException( "Unexpected EOF" );
+			event = Event.END_OF_INPUT;
+			offset = position;
+			return event;
+		}
+
+		offset = position;
+		readTag();
+		readLength();
+		contentOffset = position;
+		if( tagClass == TagClass.UNIVERSAL && !constructed && tagNumber == 0 )
+		{
+			if( length != 0 || depth == 0 || ends[depth - 1] != INDEFINITE )
+				throw new IOException( "Unexpected EOC at: " + offset );
+			return endConstructed();
+		}
+
+		if( constructed )
+		{
+			if( length != INDEFINITE && contentOffset + length > limit )
+				throw new EOFException( "Unexpected EOF" );
+			push( length == INDEFINITE ? INDEFINITE : contentOffset + length );
+			event = Event.START_CONSTRUCTED;
+			return event;
+		}
+
+		if( length == INDEFINITE )
+			throw new IOException( "Primitive value with indefinite length at: " + offset );
+		if( contentOffset + length > limit )
+			throw new EOFException( "Unexpected EOF" );
+		position = contentOffset + length;
+		event = Event.PRIMITIVE;
+		return event;
+	}
+
+	/**
+	 * Skip content of current constructed value, the next event will be the one after its end
+	 *
+	 * @throws IOException if data is corrupted or truncated
+	 */
+	public void skipChildren() throws IOException
+	{
+		if( event != Event.START_CONSTRUCTED )
+			throw new IllegalStateException( "Not at start of constructed value" );
+
+		int targetDepth = depth - 1;
+		if( ends[targetDepth] != INDEFINITE )
+		{
+			position = ends[targetDepth];
+			depth = targetDepth;
+			event = Event.END_CONSTRUCTED;
+			return;
+		}
+
+		while( depth > targetDepth )
+			next();
+	}
+
+	/**
+	 * Decode current value using type, the next event will be the one after value,
+	 * for constructed value current event is changed to {@link Event#END_CONSTRUCTED}.
+	 * Must be called on {@link Event#START_CONSTRUCTED} or {@link Event#PRIMITIVE} event.
+	 *
+	 * @param scope        the resolution scope
+	 * @param typeRef      type of value
+	 * @param valueFactory the value factory
+	 * @return value
+	 * @throws IOException   in case of I/O problems
+	 * @throws Asn1Exception if type can not be resolved, value can not be resolved or constraint failure
+	 */
+	public Value readValue( @NotNull Scope scope, @NotNull Ref<Type> typeRef, @NotNull ValueFactory valueFactory ) throws IOException, Asn1Exception
+	{
+		if( event != Event.START_CONSTRUCTED && event != Event.PRIMITIVE )
+			throw new IllegalStateException( "Not at start of value" );
+
+		ByteBuffer view = buffer.duplicate();
+		view.limit( limit );
+		view.position( offset );
+		// reader over buffer holds no resources, so it is not closed
+		AbstractBerReader reader = new ByteBufferBerReader( view, valueFactory );
+		Value value = reader.read( scope, typeRef );
+		//noinspection NumericCastThatLosesPrecision
+		position = offset + (int)reader.position();
+		if( event == Event.START_CONSTRUCTED )
+		{
+			depth--;
+			event = Event.END_CONSTRUCTED;
+		}
+		return value;
+	}
+
+	public Event getEvent()
+	{
+		return event;
+	}
+
+	/**
+	 * Returns nesting level of current event, top level values have depth 0
+	 *
+	 * @return depth
+	 */
+	public int getDepth()
+	{
+		return event == Event.START_CONSTRUCTED ? depth - 1 : depth;
+	}
+
+	public TagClass getTagClass()
+	{
+		return tagClass;
+	}
+
+	public long getTagNumber()
+	{
+		return tagNumber;
+	}
+
+	public boolean isConstructed()
+	{
+		return constructed;
+	}
+
+	/**
+	 * Returns true if current value has tag
+	 *
+	 * @param tagClass  the tag class
+	 * @param tagNumber the tag number
+	 * @return boolean
+	 */
+	public boolean isTag( @NotNull TagClass tagClass, long tagNumber )
+	{
+		return this.tagClass == tagClass && this.tagNumber == tagNumber;
+	}
+
+	/**
+	 * Returns offset of current value header, or offset of EOC or end position for {@link Event#END_CONSTRUCTED}
+	 *
+	 * @return offset in buffer
+	 */
+	public int getOffset()
+	{
+		return offset;
+	}
+
+	public int getContentOffset()
+	{
+		return contentOffset;
+	}
+
+	/**
+	 * Returns content length of current value
+	 *
+	 * @return length or -1 for indefinite form
+	 */
+	public int getLength()
+	{
+		return length;
+	}
+
+	/**
+	 * Returns read only buffer view, content of current value is between getContentOffset() and getContentOffset() + getLength()
+	 *
+	 * @return buffer
+	 */
+	public ByteBuffer getBuffer()
+	{
+		return buffer;
+	}
+
+	/**
+	 * Returns slice of primitive value content, unlike other methods creates new object on each call
+	 *
+	 * @return content slice
+	 */
+	public ByteBuffer getContent()
+	{
+		if( event != Event.PRIMITIVE )
+			throw new IllegalStateException( "Not at primitive value" );
+
+		ByteBuffer view = buffer.duplicate();
+		view.limit( contentOffset + length );
+		view.position( contentOffset );
+		return view.slice();
+	}
+
+	private Event endConstructed()
+	{
+		depth--;
+		event = Event.END_CONSTRUCTED;
+		return event;
+	}
+
+	private void push( int end )
+	{
+		if( depth == ends.length )
+			ends = Arrays.copyOf( ends, depth * 2 );
+		ends[depth] = end;
+		depth++;
+	}
+
+	private byte read() throws IOException
+	{
+		if( position >= limit )
+			throw new EOFException( "Unexpected EOF" );
+		return buffer.get( position++ );
+	}
+
+	private void readTag() throws IOException
+	{
+		byte value = read();
+		tagClass = TAG_CLASSES[( value & BerUtils.CLASS_MASK ) >>> 6];
+		constructed = ( value & BerUtils.PC_MASK ) != 0;
+		tagNumber = value & BerUtils.TAG_MASK;
+		if( tagNumber != BerUtils.TAG_MASK )
+			return;
+
+		tagNumber = 0;
+		do
+		{
+			if( ( tagNumber >>> ( Long.SIZE - 8 ) ) != 0 )
+				throw new IOException( "Tag number is too big at: " + offset );
+			value = read();
+			tagNumber = ( tagNumber << 7 ) | ( value & BerUtils.UNSIGNED_BYTE_MASK );
+		} while( ( value & BerUtils.BYTE_SIGN_MASK ) != 0 );
+	}
+
+	private void readLength() throws IOException
+	{
+		byte value = read();
+		if( value == BerUtils.FORM_INDEFINITE )
+		{
+			length = INDEFINITE;
+			return;
+		}
+
+		if( ( value & BerUtils.BYTE_SIGN_MASK ) == 0 )
+		{
+			length = value;
+			return;
+		}
+
+		int count = value & BerUtils.UNSIGNED_BYTE_MASK;
+		long result = 0;
+		for( int i = 0; i < count; i++ )
+		{
+			result = ( result << 8 ) | ( read() & BerUtils.BYTE_MASK );
+			if( result > Integer.MAX_VALUE )
+				throw new IOException( "Length is too big at: " + offset );
+		}
+		//noinspection NumericCastThatLosesPrecision
+		length = (int)result;
+	}
+}
@@ -25,12 +25,14 @@
 
 package org.asn1s.io.ber.input;
 
+import org.asn1s.api.UniversalType;
 import org.asn1s.api.exception.Asn1Exception;
 import org.asn1s.api.exception.IllegalValueException;
 import org.asn1s.api.type.Type.Family;
 import org.asn1s.api.value.Value;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 
 final class BitStringBerDecoder implements BerDecoder
@@ -39,7 +41,8 @@ final class BitStringBerDecoder implements BerDecoder
 	public Value decode( @NotNull ReaderContext context ) throws IOException, Asn1Exception
 	{
 		assert context.getType().getFamily() == Family.BIT_STRING;
-		assert !context.getTag().isConstructed();
+		if( context.getTag().isConstructed() )
+			return readConstructed( context );
 
 		if( context.getLength() == 0 )
 			return context.getValueFactory().emptyByteArray();
@@ -49,6 +52,16 @@ final class BitStringBerDecoder implements BerDecoder
 			throw new IllegalValueException( "Unused bits must be in range: [0,7]" );
 		if( context.getLength() == -1 )
 			return OctetStringBerDecoder.readByteArrayValueIndefinite( context.getReader(), unusedBits );
-		return OctetStringBerDecoder.readByteArrayValue( context.getReader(), context.getLength() - 1, unusedBits );
+		return OctetStringBerDecoder.readByteArrayValue( context.getReader(), context.getContentLength() - 1, unusedBits );
+	}
+
+	private static Value readConstructed( ReaderContext context ) throws IOException
+	{
+		ByteArrayOutputStream os = new ByteArrayOutputStream();
+		int unusedBits = BerDecoderUtils.readSegments( context.getReader(), context.getLength(), UniversalType.BIT_STRING.tagNumber(), os );
+		byte[] bytes = os.toByteArray();
+		if( bytes.length == 0 )
+			return context.getValueFactory().emptyByteArray();
+		return context.getValueFactory().byteArrayValue( bytes.length * 8 - unusedBits, bytes );
 	}
 }
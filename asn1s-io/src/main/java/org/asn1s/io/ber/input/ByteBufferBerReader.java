@@ -0,0 +1,203 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.ber.input;
+
+import org.asn1s.api.encoding.tag.Tag;
+import org.asn1s.api.value.ValueFactory;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * BER reader over {@link ByteBuffer}, heap and direct buffers are supported.
+ * Octets are read from buffer directly and copied in bulk, no per-octet stream calls are made.
+ * When created for {@link ReadableByteChannel} the internal buffer is refilled from channel on demand.
+ */
+public class ByteBufferBerReader extends AbstractBerReader
+{
+	private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+	/**
+	 * Create reader for content of buffer, starting from its current position up to limit.
+	 * The buffer position is advanced as values are read.
+	 *
+	 * @param buffer       the buffer
+	 * @param valueFactory the value factory
+	 */
+	public ByteBufferBerReader( @NotNull ByteBuffer buffer, ValueFactory valueFactory )
+	{
+		super( valueFactory );
+		this.buffer = buffer;
+		channel = null;
+		base = -buffer.position();
+	}
+
+	public ByteBufferBerReader( @NotNull ReadableByteChannel channel, ValueFactory valueFactory )
+	{
+		this( channel, DEFAULT_BUFFER_SIZE, valueFactory );
+	}
+
+	/**
+	 * Create reader for channel, the channel must be in blocking mode
+	 *
+	 * @param channel      the channel
+	 * @param bufferSize   size of internal buffer
+	 * @param valueFactory the value factory
+	 */
+	public ByteBufferBerReader( @NotNull ReadableByteChannel channel, int bufferSize, ValueFactory valueFactory )
+	{
+		super( valueFactory );
+		if( bufferSize <= 0 )
+			throw new IllegalArgumentException( "Buffer size must be positive: " + bufferSize );
+
+		this.channel = channel;
+		buffer = ByteBuffer.allocate( bufferSize );
+		buffer.flip();
+		base = 0;
+	}
+
+	private final ByteBuffer buffer;
+	private final ReadableByteChannel channel;
+	/**
+	 * Reader position of buffer start
+	 */
+	private long base;
+
+	@Override
+	public long position()
+	{
+		return base + buffer.position();
+	}
+
+	@Override
+	public void skip( long amount ) throws IOException
+	{
+		while( amount > 0 )
+		{
+			if( !buffer.hasRemaining() && !fill() )
+				throw new EOFException( "Unexpected EOF" );
+
+			int count = (int)Math.min( amount, buffer.remaining() );
+			buffer.position( buffer.position() + count );
+			amount -= count;
+		}
+	}
+
+	@Override
+	public void skipToEoc() throws IOException
+	{
+		while( true )
+		{
+			Tag tag = readTag();
+			long length = readLength();
+
+			if( tag.isEoc() )
+			{
+				if( length != 0 )
+					throw new IOException( "Corrupted data, tag is EOC, but length is non zero" );
+				return;
+			}
+
+			if( length >= 0 )
+				skip( length );
+			else
+				skipToEoc();
+		}
+	}
+
+	@Override
+	public byte read() throws IOException
+	{
+		if( !buffer.hasRemaining() && !fill() )
+			throw new EOFException( "Unexpected EOF" );
+		return buffer.get();
+	}
+
+	@Override
+	public int read( byte[] bytes ) throws IOException
+	{
+		int offset = 0;
+		while( offset < bytes.length )
+		{
+			if( !buffer.hasRemaining() && !fill() )
+				return offset == 0 ? -1 : offset;
+
+			int count = Math.min( bytes.length - offset, buffer.remaining() );
+			buffer.get( bytes, offset, count );
+			offset += count;
+		}
+		return offset;
+	}
+
+	@Nullable
+	@Override
+	ByteBuffer readSlice( int length )
+	{
+		if( channel != null || buffer.remaining() < length )
+			return null;
+
+		ByteBuffer slice = buffer.slice();
+		slice.limit( length );
+		buffer.position( buffer.position() + length );
+		return slice;
+	}
+
+	/**
+	 * Returns true if there is no more data available
+	 *
+	 * @return boolean
+	 * @throws IOException in case of I/O failure
+	 */
+	public boolean isEndOfInput() throws IOException
+	{
+		return !buffer.hasRemaining() && !fill();
+	}
+
+	@Override
+	public void close() throws Exception
+	{
+		if( channel != null )
+			channel.close();
+	}
+
+	private boolean fill() throws IOException
+	{
+		if( channel == null )
+			return false;
+
+		base += buffer.position();
+		buffer.clear();
+		int count = 0;
+		while( count == 0 )
+			count = channel.read( buffer );
+		buffer.flip();
+		return count > 0;
+	}
+}
@@ -0,0 +1,121 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.ber.input;
+
+import org.asn1s.api.util.HexUtils;
+import org.asn1s.api.value.ByteArrayValue;
+import org.asn1s.api.value.Value;
+import org.asn1s.api.value.ValueFactory;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Byte array value backed by slice of input buffer, no copy is made until {@link #asByteArray()} is called.
+ * The value is valid only while underlying buffer (e.g. memory mapped file) is valid.
+ */
+public final class ByteBufferValue implements ByteArrayValue
+{
+	ByteBufferValue( @NotNull ValueFactory factory, @NotNull ByteBuffer buffer, int bits )
+	{
+		this.factory = factory;
+		this.buffer = buffer;
+		this.bits = bits;
+	}
+
+	private final ValueFactory factory;
+	private final ByteBuffer buffer;
+	private final int bits;
+
+	/**
+	 * Returns read only view of content
+	 *
+	 * @return byte buffer
+	 */
+	@NotNull
+	public ByteBuffer getBuffer()
+	{
+		return buffer.asReadOnlyBuffer();
+	}
+
+	@Override
+	public int getUsedBits()
+	{
+		return bits;
+	}
+
+	@Override
+	public byte[] asByteArray()
+	{
+		byte[] bytes = new byte[buffer.remaining()];
+		buffer.duplicate().get( bytes );
+		return bytes;
+	}
+
+	@Override
+	public boolean isEmpty()
+	{
+		for( int i = buffer.position(); i < buffer.limit(); i++ )
+			if( buffer.get( i ) != 0 )
+				return false;
+
+		return true;
+	}
+
+	@Override
+	public int size( boolean bits )
+	{
+		return bits ? this.bits : buffer.remaining();
+	}
+
+	@Override
+	public int compareTo( @NotNull Value o )
+	{
+		return factory.byteArrayValue( bits, asByteArray() ).compareTo( o );
+	}
+
+	@Override
+	public boolean equals( Object obj )
+	{
+		if( this == obj ) return true;
+		if( !( obj instanceof ByteArrayValue ) ) return false;
+
+		return Arrays.equals( asByteArray(), ( (ByteArrayValue)obj ).asByteArray() );
+	}
+
+	@Override
+	public int hashCode()
+	{
+		return buffer.hashCode();
+	}
+
+	@Override
+	public String toString()
+	{
+		return HexUtils.toHexString( asByteArray() );
+	}
+}
@@ -0,0 +1,274 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.ber.input;
+
+import org.asn1s.api.encoding.EncodingInstructions;
+import org.asn1s.api.encoding.IEncoding;
+import org.asn1s.api.encoding.tag.Tag;
+import org.asn1s.api.encoding.tag.TagClass;
+import org.asn1s.api.encoding.tag.TagEncoding;
+import org.asn1s.api.type.CollectionType;
+import org.asn1s.api.type.ComponentType;
+import org.asn1s.api.type.Type;
+import org.asn1s.api.type.Type.Family;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable decoding plan of SEQUENCE, SET or CHOICE type.
+ * Components are dispatched by tag using open addressing hash table, untagged CHOICE components
+ * are registered under every tag of their alternatives. Components sharing the same tag are chained
+ * in definition order. Component presence is tracked by caller using bit masks of {@link #newPresence()}.
+ */
+final class CollectionDecodePlan
+{
+	private static final int WORD_SHIFT = 6;
+	private static final long EMPTY = -1L;
+
+	private CollectionDecodePlan( ComponentType[] components, long[] keys, int[] heads, int[] chains, long[] required )
+	{
+		this.components = components;
+		this.keys = keys;
+		this.heads = heads;
+		this.chains = chains;
+		this.required = required;
+	}
+
+	private final ComponentType[] components;
+	private final long[] keys;
+	private final int[] heads;
+	private final int[] chains;
+	private final long[] required;
+
+	/**
+	 * Returns plan cached on collection type, plan is created on first request.
+	 * Plans are immutable, so concurrent readers may race to create plan and any of them may be kept.
+	 *
+	 * @param type the SEQUENCE, SET or CHOICE type
+	 * @return decode plan
+	 */
+	@NotNull
+	static CollectionDecodePlan forType( @NotNull Type type )
+	{
+		CollectionType owner = findOwner( type );
+		if( owner == null )
+			return create( type );
+
+		Object attachment = owner.getCodecAttachment();
+		if( attachment instanceof CollectionDecodePlan )
+			return (CollectionDecodePlan)attachment;
+
+		CollectionDecodePlan plan = create( owner );
+		owner.setCodecAttachment( plan );
+		return plan;
+	}
+
+	/**
+	 * Find collection type declaring components of type, defined, tagged and constrained types are skipped
+	 *
+	 * @param type the type
+	 * @return collection type or null
+	 */
+	@Nullable
+	private static CollectionType findOwner( @NotNull Type type )
+	{
+		Type current = type;
+		while( !( current instanceof CollectionType ) && current.hasSibling() )
+			current = current.getSibling();
+		return current instanceof CollectionType ? (CollectionType)current : null;
+	}
+
+	@NotNull
+	static CollectionDecodePlan create( @NotNull Type type )
+	{
+		Family family = type.getFamily();
+		if( family != Family.SEQUENCE && family != Family.SET && family != Family.CHOICE )
+			throw new IllegalArgumentException( "Unable to create decode plan for: " + type );
+
+		List<ComponentType> list = type.getNamedTypes();
+		ComponentType[] components = list.toArray( new ComponentType[list.size()] );
+		List<List<Long>> componentKeys = new ArrayList<>( components.length );
+		int keyCount = 0;
+		for( ComponentType component : components )
+		{
+			List<Long> tagKeys = new ArrayList<>();
+			collectKeys( component, tagKeys );
+			componentKeys.add( tagKeys );
+			keyCount += tagKeys.size();
+		}
+
+		int capacity = Integer.highestOneBit( Math.max( keyCount, 1 ) * 4 - 1 );
+		long[] keys = new long[capacity];
+		Arrays.fill( keys, EMPTY );
+		int[] heads = new int[capacity];
+		int[] tails = new int[capacity];
+		int[] chains = new int[components.length];
+		Arrays.fill( chains, -1 );
+		long[] required = new long[wordCount( components.length )];
+
+		for( int position = 0; position < components.length; position++ )
+		{
+			ComponentType component = components[position];
+			if( family != Family.CHOICE && component.isRequired() && component.getVersion() <= 1 )
+				setPresent( required, position );
+
+			for( long key : componentKeys.get( position ) )
+			{
+				int slot = slotOf( keys, key );
+				if( keys[slot] == EMPTY )
+				{
+					keys[slot] = key;
+					heads[slot] = position;
+				}
+				else
+					chains[tails[slot]] = position;
+				tails[slot] = position;
+			}
+		}
+		return new CollectionDecodePlan( components, keys, heads, chains, required );
+	}
+
+	private static void collectKeys( Type type, List<Long> keys )
+	{
+		IEncoding encoding = type.getEncoding( EncodingInstructions.TAG );
+		if( encoding instanceof TagEncoding )
+		{
+			TagEncoding tagEncoding = (TagEncoding)encoding;
+			Long key = toKey( tagEncoding.getTagClass(), tagEncoding.getTagNumber() );
+			if( !keys.contains( key ) )
+				keys.add( key );
+		}
+		else if( type.getFamily() == Family.CHOICE )
+			for( ComponentType alternative : type.<ComponentType>getNamedTypes() )
+				collectKeys( alternative, keys );
+	}
+
+	private static int slotOf( long[] keys, long key )
+	{
+		int mask = keys.length - 1;
+		//noinspection NumericCastThatLosesPrecision
+		int slot = ( (int)( key ^ ( key >>> 32 ) ) * 0x9E3779B9 >>> 16 ) & mask;
+		while( keys[slot] != EMPTY && keys[slot] != key )
+			slot = ( slot + 1 ) & mask;
+		return slot;
+	}
+
+	private static long toKey( TagClass tagClass, int tagNumber )
+	{
+		return ( (long)tagClass.ordinal() << 32 ) | ( tagNumber & 0xFFFFFFFFL );
+	}
+
+	private static int wordCount( int bits )
+	{
+		return ( bits + Long.SIZE - 1 ) >>> WORD_SHIFT;
+	}
+
+	int getComponentCount()
+	{
+		return components.length;
+	}
+
+	@NotNull
+	ComponentType getComponent( int position )
+	{
+		return components[position];
+	}
+
+	/**
+	 * Find first component for tag placed after position
+	 *
+	 * @param tag   the tag
+	 * @param after the position of last found component or -1
+	 * @return component position or -1
+	 */
+	int findNext( @NotNull Tag tag, int after )
+	{
+		int position = head( tag );
+		while( position != -1 && position <= after )
+			position = chains[position];
+		return position;
+	}
+
+	/**
+	 * Find first component for tag that is not present yet
+	 *
+	 * @param tag      the tag
+	 * @param presence the presence mask
+	 * @return component position or -1
+	 */
+	int findAbsent( @NotNull Tag tag, @NotNull long[] presence )
+	{
+		int position = head( tag );
+		while( position != -1 && isPresent( presence, position ) )
+			position = chains[position];
+		return position;
+	}
+
+	private int head( Tag tag )
+	{
+		long key = toKey( tag.getTagClass(), tag.getTagNumber() );
+		int slot = slotOf( keys, key );
+		return keys[slot] == EMPTY ? -1 : heads[slot];
+	}
+
+	@NotNull
+	long[] newPresence()
+	{
+		return new long[required.length];
+	}
+
+	static boolean isPresent( @NotNull long[] presence, int position )
+	{
+		return ( presence[position >>> WORD_SHIFT] & ( 1L << position ) ) != 0;
+	}
+
+	static void setPresent( @NotNull long[] presence, int position )
+	{
+		presence[position >>> WORD_SHIFT] |= 1L << position;
+	}
+
+	/**
+	 * Find root component which is required, but absent in presence mask
+	 *
+	 * @param presence the presence mask
+	 * @return component or null
+	 */
+	@Nullable
+	ComponentType findMissing( @NotNull long[] presence )
+	{
+		for( int word = 0; word < required.length; word++ )
+		{
+			long missing = required[word] & ~presence[word];
+			if( missing != 0 )
+				return components[( word << WORD_SHIFT ) + Long.numberOfTrailingZeros( missing )];
+		}
+		return null;
+	}
+}
@@ -38,6 +38,6 @@ public class EnumeratedBerDecoder implements BerDecoder
 	public Value decode( @NotNull ReaderContext context ) throws IOException, Asn1Exception
 	{
 		assert context.getType().getFamily() == Family.ENUMERATED;
-		return context.getType().optimize( context.getScope(), IntegerBerDecoder.readInteger( context.getReader(), context.getLength() ) );
+		return context.getType().optimize( context.getScope(), IntegerBerDecoder.readInteger( context.getReader(), context.getContentLength() ) );
 	}
 }
@@ -28,6 +28,7 @@ package org.asn1s.io.ber.input;
 import org.asn1s.api.type.Type.Family;
 import org.asn1s.api.value.Value;
 import org.asn1s.api.value.x680.IntegerValue;
+import org.asn1s.io.ber.BerUtils;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.IOException;
@@ -39,15 +40,55 @@ final class IntegerBerDecoder implements BerDecoder
 	{
 		assert context.getType().getFamily() == Family.INTEGER;
 		assert context.getLength() >= 0;
-		return readInteger( context.getReader(), context.getLength() );
+		return readInteger( context.getReader(), context.getContentLength() );
 	}
 
 	static IntegerValue readInteger( AbstractBerReader reader, int length ) throws IOException
 	{
+		if( length > 0 && length <= Long.BYTES )
+			return readSmallInteger( reader, length );
+
 		byte[] bytes = new byte[length];
 		if( reader.read( bytes ) != length )
 			throw new IOException( "Unexpected EOF" );
 
 		return reader.getValueFactory().integer( bytes );
 	}
+
+	/**
+	 * Decode integer directly from input, without intermediate array
+	 *
+	 * @param reader the reader
+	 * @param length content length, from 1 to 8
+	 * @return integer value
+	 * @throws IOException in case of IO problems
+	 */
+	private static IntegerValue readSmallInteger( AbstractBerReader reader, int length ) throws IOException
+	{
+		long result = readLong( reader, length );
+		//noinspection NumericCastThatLosesPrecision
+		return length <= Integer.BYTES
+				? reader.getValueFactory().integer( (int)result )
+				: reader.getValueFactory().integer( result );
+	}
+
+	/**
+	 * Decode signed integer content of 1 to 8 octets directly from input
+	 *
+	 * @param reader the reader
+	 * @param length content length, from 1 to 8
+	 * @return integer
+	 * @throws IOException in case of IO problems
+	 */
+	static long readLong( AbstractBerReader reader, int length ) throws IOException
+	{
+		long start = reader.position();
+		long result = reader.read();
+		for( int i = 1; i < length; i++ )
+			result = ( result << Byte.SIZE ) | ( reader.read() & BerUtils.BYTE_MASK );
+
+		if( reader.position() - start != length )
+			throw new IOException( "Unexpected EOF" );
+		return result;
+	}
 }
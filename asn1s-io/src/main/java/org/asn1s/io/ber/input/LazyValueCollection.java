@@ -0,0 +1,266 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.ber.input;
+
+import org.asn1s.api.Ref;
+import org.asn1s.api.Scope;
+import org.asn1s.api.encoding.tag.Tag;
+import org.asn1s.api.exception.Asn1Exception;
+import org.asn1s.api.type.ComponentType;
+import org.asn1s.api.value.Value;
+import org.asn1s.api.value.ValueFactory;
+import org.asn1s.api.value.x680.NamedValue;
+import org.asn1s.api.value.x680.ValueCollection;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * SEQUENCE or SET value, which components are stored as encoded content and decoded on first access.
+ * Decoded components are memoised, untouched components are never decoded.
+ * Decoding failures on access are reported as {@link IllegalStateException}.
+ */
+final class LazyValueCollection implements ValueCollection
+{
+	LazyValueCollection( @NotNull AbstractBerReader reader, @NotNull Scope scope )
+	{
+		factory = reader.getValueFactory();
+		zeroCopyOctetStrings = reader.isZeroCopyOctetStrings();
+		this.scope = scope;
+	}
+
+	private final ValueFactory factory;
+	private final boolean zeroCopyOctetStrings;
+	private final Scope scope;
+	private final List<String> names = new ArrayList<>();
+	/**
+	 * Either {@link NamedValue} for decoded components or {@link LazyComponent}
+	 */
+	private final List<Object> entries = new ArrayList<>();
+
+	void addLazy( @NotNull ComponentType component, @NotNull Tag tag, @NotNull ByteBuffer content )
+	{
+		names.add( component.getComponentName() );
+		entries.add( new LazyComponent( component, tag, content ) );
+	}
+
+	@Override
+	public void add( @NotNull Ref<Value> valueRef )
+	{
+		if( !( valueRef instanceof NamedValue ) )
+			throw new IllegalArgumentException( "Must be NamedValue" );
+
+		names.add( ( (NamedValue)valueRef ).getName() );
+		entries.add( valueRef );
+	}
+
+	@Override
+	public void addNamed( @NotNull String name, @NotNull Ref<Value> valueRef )
+	{
+		names.add( name );
+		entries.add( factory.named( name, valueRef ) );
+	}
+
+	@NotNull
+	@Override
+	public Kind getKind()
+	{
+		return Kind.NAMED_COLLECTION;
+	}
+
+	@SuppressWarnings( "unchecked" )
+	@Override
+	public List<Ref<Value>> asValueList()
+	{
+		return (List<Ref<Value>>)(Object)asNamedValueList();
+	}
+
+	@Override
+	public List<NamedValue> asNamedValueList()
+	{
+		List<NamedValue> list = new ArrayList<>( entries.size() );
+		for( int i = 0; i < entries.size(); i++ )
+			list.add( get( i ) );
+		return Collections.unmodifiableList( list );
+	}
+
+	@Override
+	public Map<String, NamedValue> asNamedValueMap()
+	{
+		Map<String, NamedValue> map = new HashMap<>();
+		for( NamedValue value : asNamedValueList() )
+			map.put( value.getName(), value );
+		return map;
+	}
+
+	@Nullable
+	@Override
+	public NamedValue getNamedValue( String name )
+	{
+		int index = names.indexOf( name );
+		return index == -1 ? null : get( index );
+	}
+
+	/**
+	 * Returns true if component is present and not decoded yet
+	 *
+	 * @param name the component name
+	 * @return boolean
+	 */
+	boolean isDeferred( String name )
+	{
+		int index = names.indexOf( name );
+		return index != -1 && entries.get( index ) instanceof LazyComponent;
+	}
+
+	/**
+	 * Returns true if this collection or nested lazy collections have components which are not decoded yet.
+	 * Such collections are not validated as a whole, since validation would decode everything.
+	 *
+	 * @return boolean
+	 */
+	boolean hasDeferredComponents()
+	{
+		for( Object entry : entries )
+		{
+			if( entry instanceof LazyComponent )
+				return true;
+
+			Ref<Value> valueRef = ( (NamedValue)entry ).getValueRef();
+			if( valueRef instanceof LazyValueCollection && ( (LazyValueCollection)valueRef ).hasDeferredComponents() )
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns true if value must be validated by type once read, false for collections with deferred components
+	 *
+	 * @param value the value
+	 * @return boolean
+	 */
+	static boolean isComplete( Value value )
+	{
+		return !( value instanceof LazyValueCollection ) || !( (LazyValueCollection)value ).hasDeferredComponents();
+	}
+
+	@Override
+	public int size()
+	{
+		return entries.size();
+	}
+
+	@Override
+	public boolean isEmpty()
+	{
+		return entries.isEmpty();
+	}
+
+	@Override
+	public int compareTo( @NotNull Value o )
+	{
+		return toCollection().compareTo( o );
+	}
+
+	@Override
+	public boolean equals( Object obj )
+	{
+		if( this == obj )
+			return true;
+
+		if( obj instanceof LazyValueCollection )
+			return toCollection().equals( ( (LazyValueCollection)obj ).toCollection() );
+
+		return obj instanceof ValueCollection && toCollection().equals( obj );
+	}
+
+	@Override
+	public int hashCode()
+	{
+		return toCollection().hashCode();
+	}
+
+	@Override
+	public String toString()
+	{
+		return toCollection().toString();
+	}
+
+	private ValueCollection toCollection()
+	{
+		ValueCollection collection = factory.collection( true );
+		for( NamedValue value : asNamedValueList() )
+			collection.add( value );
+		return collection;
+	}
+
+	private NamedValue get( int index )
+	{
+		Object entry = entries.get( index );
+		if( entry instanceof NamedValue )
+			return (NamedValue)entry;
+
+		NamedValue value;
+		try
+		{
+			value = ( (LazyComponent)entry ).decode();
+		} catch( IOException | Asn1Exception e )
+		{
+			throw new IllegalStateException( "Unable to decode component: " + names.get( index ), e );
+		}
+		entries.set( index, value );
+		return value;
+	}
+
+	private final class LazyComponent
+	{
+		private LazyComponent( ComponentType component, Tag tag, ByteBuffer content )
+		{
+			this.component = component;
+			this.tag = tag;
+			this.content = content;
+		}
+
+		private final ComponentType component;
+		private final Tag tag;
+		private final ByteBuffer content;
+
+		private NamedValue decode() throws IOException, Asn1Exception
+		{
+			ByteBufferBerReader reader = new ByteBufferBerReader( content.duplicate(), factory );
+			reader.setLazyCollections( true );
+			reader.setZeroCopyOctetStrings( zeroCopyOctetStrings );
+			Value value = reader.readInternal( new ReaderContext( reader, component.getScope( scope ), component, tag, content.remaining(), false ) );
+			NamedValue namedValue = factory.named( component.getComponentName(), value );
+			if( isComplete( value ) )
+				component.accept( scope, namedValue );
+			return namedValue;
+		}
+	}
+}
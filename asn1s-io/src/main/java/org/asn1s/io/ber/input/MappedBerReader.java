@@ -0,0 +1,225 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.ber.input;
+
+import org.asn1s.api.encoding.tag.Tag;
+import org.asn1s.api.value.ValueFactory;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * BER reader over memory mapped file. The file is mapped by segments of fixed size,
+ * so files larger than 2GB are supported, positions are 64-bit.
+ * If {@link #setZeroCopyOctetStrings(boolean)} or {@link #setLazyCollections(boolean)} is enabled,
+ * decoded values refer to mapped segments and must not be used after reader is closed.
+ */
+public class MappedBerReader extends AbstractBerReader
+{
+	private static final long DEFAULT_SEGMENT_SIZE = 256L * 1024L * 1024L;
+
+	public MappedBerReader( @NotNull Path path, ValueFactory valueFactory ) throws IOException
+	{
+		this( FileChannel.open( path, StandardOpenOption.READ ), DEFAULT_SEGMENT_SIZE, valueFactory );
+	}
+
+	public MappedBerReader( @NotNull FileChannel channel, ValueFactory valueFactory ) throws IOException
+	{
+		this( channel, DEFAULT_SEGMENT_SIZE, valueFactory );
+	}
+
+	/**
+	 * Create reader for file channel, the channel is closed with reader.
+	 * Zero-copy slices and parallel decoding apply only to content fitting into single segment,
+	 * so segment size should exceed largest collection decoded in parallel.
+	 *
+	 * @param channel      the channel
+	 * @param segmentSize  size of mapped segment, must be between 1 and {@link Integer#MAX_VALUE}
+	 * @param valueFactory the value factory
+	 * @throws IOException if file size may not be read
+	 */
+	public MappedBerReader( @NotNull FileChannel channel, long segmentSize, ValueFactory valueFactory ) throws IOException
+	{
+		super( valueFactory );
+		if( segmentSize <= 0 || segmentSize > Integer.MAX_VALUE )
+			throw new IllegalArgumentException( "Illegal segment size: " + segmentSize );
+
+		this.channel = channel;
+		this.segmentSize = segmentSize;
+		size = channel.size();
+		segmentStart = 0;
+		segment = EMPTY;
+	}
+
+	private static final ByteBuffer EMPTY = ByteBuffer.allocate( 0 );
+
+	private final FileChannel channel;
+	private final long segmentSize;
+	private final long size;
+	/**
+	 * File position of current segment start
+	 */
+	private long segmentStart;
+	private ByteBuffer segment;
+
+	/**
+	 * Returns true if there is no more data available
+	 *
+	 * @return boolean
+	 */
+	public boolean isEndOfInput()
+	{
+		return position() >= size;
+	}
+
+	@Override
+	public long position()
+	{
+		return segmentStart + segment.position();
+	}
+
+	/**
+	 * Move reader to position, used to start decoding from any offset of file
+	 *
+	 * @param position the file position
+	 * @throws IOException if position is out of file
+	 */
+	public void seek( long position ) throws IOException
+	{
+		if( position < 0 || position > size )
+			throw new EOFException( "Position is out of file: " + position );
+
+		if( position >= segmentStart && position <= segmentStart + segment.limit() )
+			segment.position( (int)( position - segmentStart ) );
+		else
+			map( position );
+	}
+
+	@Override
+	public void skip( long amount ) throws IOException
+	{
+		if( amount < 0 || position() + amount > size )
+			throw new EOFException( "Unexpected EOF" );
+		seek( position() + amount );
+	}
+
+	@Override
+	public void skipToEoc() throws IOException
+	{
+		while( true )
+		{
+			Tag tag = readTag();
+			long length = readLength();
+
+			if( tag.isEoc() )
+			{
+				if( length != 0 )
+					throw new IOException( "Corrupted data, tag is EOC, but length is non zero" );
+				return;
+			}
+
+			if( length >= 0 )
+				skip( length );
+			else
+				skipToEoc();
+		}
+	}
+
+	@Override
+	public byte read() throws IOException
+	{
+		if( !segment.hasRemaining() && !nextSegment() )
+			throw new EOFException( "Unexpected EOF" );
+		return segment.get();
+	}
+
+	@Override
+	public int read( byte[] bytes ) throws IOException
+	{
+		int offset = 0;
+		while( offset < bytes.length )
+		{
+			if( !segment.hasRemaining() && !nextSegment() )
+				return offset == 0 ? -1 : offset;
+
+			int count = Math.min( bytes.length - offset, segment.remaining() );
+			segment.get( bytes, offset, count );
+			offset += count;
+		}
+		return offset;
+	}
+
+	@Nullable
+	@Override
+	ByteBuffer readSlice( int length ) throws IOException
+	{
+		if( segment.remaining() < length )
+		{
+			if( position() + length > size || length > segmentSize )
+				return null;
+			// remap, so the content fits into single segment
+			map( position() );
+		}
+
+		ByteBuffer slice = segment.slice();
+		slice.limit( length );
+		segment.position( segment.position() + length );
+		return slice;
+	}
+
+	@Override
+	public void close() throws Exception
+	{
+		segment = EMPTY;
+		channel.close();
+	}
+
+	private boolean nextSegment() throws IOException
+	{
+		long position = position();
+		if( position >= size )
+			return false;
+
+		map( position );
+		return true;
+	}
+
+	private void map( long position ) throws IOException
+	{
+		long length = Math.min( segmentSize, size - position );
+		MappedByteBuffer buffer = channel.map( MapMode.READ_ONLY, position, length );
+		segmentStart = position;
+		segment = buffer;
+	}
+}
@@ -53,7 +53,7 @@ public class ObjectIDBerDecoder implements BerDecoder
 		assert context.getLength() > 0;
 
 		List<Ref<Value>> list = new ArrayList<>();
-		int length = context.getLength();
+		int length = context.getContentLength();
 		while( length > 0 )
 			length = readObjectIDItem( context.getReader(), length, list );
 
@@ -32,6 +32,7 @@ import org.jetbrains.annotations.NotNull;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 public class OctetStringBerDecoder implements BerDecoder
 {
@@ -39,12 +40,20 @@ public class OctetStringBerDecoder implements BerDecoder
 	public Value decode( @NotNull ReaderContext context ) throws IOException, Asn1Exception
 	{
 		assert context.getType().getFamily() == Family.OCTET_STRING;
-		assert !context.getTag().isConstructed();
+		if( context.getTag().isConstructed() )
+		{
+			byte[] bytes = BerDecoderUtils.readStringContent( context );
+			return context.getValueFactory().byteArrayValue( bytes.length * 8, bytes );
+		}
 		if( context.getLength() == -1 )
 			return readByteArrayValueIndefinite( context.getReader(), 0 );
 		if( context.getLength() == 0 )
 			return context.getValueFactory().emptyByteArray();
-		return readByteArrayValue( context.getReader(), context.getLength(), 0 );
+		int length = context.getContentLength();
+		ByteBuffer slice = context.getReader().isZeroCopyOctetStrings() ? context.getReader().readSlice( length ) : null;
+		if( slice != null )
+			return new ByteBufferValue( context.getValueFactory(), slice, length * 8 );
+		return readByteArrayValue( context.getReader(), length, 0 );
 	}
 
 	static Value readByteArrayValueIndefinite( AbstractBerReader is, int unusedBits ) throws IOException
@@ -0,0 +1,187 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.ber.input;
+
+import org.asn1s.api.Scope;
+import org.asn1s.api.exception.Asn1Exception;
+import org.asn1s.api.value.Value;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Decoder of SEQUENCE OF and SET OF elements using {@link ForkJoinPool}.
+ * Element boundaries are found by {@link BerFrameSplitter}, then element ranges are decoded
+ * by separate readers over shared read-only content and reassembled in original order.
+ */
+final class ParallelElementDecoder
+{
+	/**
+	 * Amount of element ranges per pool thread, allows to balance ranges of different complexity
+	 */
+	private static final int RANGES_PER_THREAD = 4;
+
+	/**
+	 * Every element has at least identifier and length octets
+	 */
+	private static final int MIN_ELEMENT_SIZE = 2;
+
+	/**
+	 * @param context element context, with element type and scope
+	 * @param content content of collection
+	 */
+	ParallelElementDecoder( @NotNull ReaderContext context, @NotNull ByteBuffer content )
+	{
+		this.context = context;
+		this.content = content;
+	}
+
+	private final ReaderContext context;
+	private final ByteBuffer content;
+
+	/**
+	 * Check if collection content may have enough elements for parallel decoding.
+	 * Short content is decoded by calling thread without scanning element boundaries,
+	 * content over 2GB can not be sliced, so it is decoded by calling thread too.
+	 *
+	 * @param reader the reader
+	 * @param length content length of collection
+	 * @return true if content should be decoded by this class
+	 */
+	static boolean isApplicable( @NotNull AbstractBerReader reader, long length )
+	{
+		return reader.getParallelPool() != null
+				&& length >= (long)reader.getParallelThreshold() * MIN_ELEMENT_SIZE
+				&& length <= Integer.MAX_VALUE;
+	}
+
+	@NotNull
+	Value[] decode() throws IOException, Asn1Exception
+	{
+		int[] offsets = scanOffsets();
+		int count = offsets.length - 1;
+		AbstractBerReader reader = context.getReader();
+		ForkJoinPool pool = reader.getParallelPool();
+		Value[] values = new Value[count];
+		if( pool == null || count < reader.getParallelThreshold() )
+		{
+			decodeRange( offsets, 0, count, values );
+			return values;
+		}
+
+		int rangeCount = Math.min( count, pool.getParallelism() * RANGES_PER_THREAD );
+		Collection<Callable<Void>> tasks = new ArrayList<>( rangeCount );
+		for( int i = 0; i < rangeCount; i++ )
+		{
+			int from = (int)( (long)count * i / rangeCount );
+			int to = (int)( (long)count * ( i + 1 ) / rangeCount );
+			tasks.add( () -> {
+				decodeRange( offsets, from, to, values );
+				return null;
+			} );
+		}
+
+		for( Future<Void> future : pool.invokeAll( tasks ) )
+			await( future );
+		return values;
+	}
+
+	private int[] scanOffsets() throws IOException
+	{
+		BerFrameSplitter splitter = new BerFrameSplitter();
+		ByteBuffer buffer = content.duplicate();
+		int[] offsets = new int[16];
+		int count = 1;
+		offsets[0] = buffer.position();
+		while( splitter.scan( buffer ) )
+		{
+			if( count == offsets.length )
+				offsets = Arrays.copyOf( offsets, count * 2 );
+			offsets[count] = buffer.position();
+			count++;
+		}
+		splitter.finish();
+		return Arrays.copyOf( offsets, count );
+	}
+
+	private void decodeRange( int[] offsets, int from, int to, Value[] values ) throws IOException, Asn1Exception
+	{
+		ByteBuffer buffer = content.duplicate();
+		buffer.limit( offsets[to] );
+		buffer.position( offsets[from] );
+		AbstractBerReader reader = createReader( buffer );
+		// every range has own scope, so value levels of elements are not shared between threads
+		Scope scope = context.getScope().typedScope( context.getType() );
+		ReaderContext elementContext = new ReaderContext( reader, scope, context.getType(), null, -1, false );
+		for( int i = from; i < to; i++ )
+		{
+			elementContext.readTagInfo( false );
+			values[i] = elementContext.readCopy();
+			if( buffer.position() != offsets[i + 1] )
+				throw new IOException( "Element " + i + " ends at " + buffer.position() + ", but its frame ends at " + offsets[i + 1] );
+		}
+	}
+
+	private AbstractBerReader createReader( ByteBuffer buffer )
+	{
+		AbstractBerReader source = context.getReader();
+		AbstractBerReader reader = new ByteBufferBerReader( buffer, source.getValueFactory() );
+		reader.setZeroCopyOctetStrings( source.isZeroCopyOctetStrings() );
+		reader.setLazyCollections( source.isLazyCollections() );
+		return reader;
+	}
+
+	private static void await( Future<Void> future ) throws IOException, Asn1Exception
+	{
+		try
+		{
+			future.get();
+		} catch( InterruptedException e )
+		{
+			Thread.currentThread().interrupt();
+			throw new IOException( "Interrupted", e );
+		} catch( ExecutionException e )
+		{
+			// pool wraps checked exceptions of tasks, find the original failure
+			for( Throwable cause = e.getCause(); cause != null; cause = cause.getCause() )
+			{
+				if( cause instanceof IOException )
+					throw (IOException)cause;
+				if( cause instanceof Asn1Exception )
+					throw (Asn1Exception)cause;
+			}
+			throw new IllegalStateException( e.getCause() );
+		}
+	}
+}
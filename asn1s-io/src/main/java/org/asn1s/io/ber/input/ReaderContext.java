@@ -33,6 +33,7 @@ import org.asn1s.api.exception.Asn1Exception;
 import org.asn1s.api.type.Type;
 import org.asn1s.api.value.Value;
 import org.asn1s.api.value.ValueFactory;
+import org.asn1s.io.Projection;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -45,7 +46,7 @@ public final class ReaderContext
 		this.reader = reader;
 	}
 
-	public ReaderContext( AbstractBerReader reader, @NotNull Scope scope, @NotNull Type type, @Nullable Tag tag, int length, boolean implicit )
+	public ReaderContext( AbstractBerReader reader, @NotNull Scope scope, @NotNull Type type, @Nullable Tag tag, long length, boolean implicit )
 	{
 		this.reader = reader;
 		this.scope = scope;
@@ -59,8 +60,9 @@ public final class ReaderContext
 	private Scope scope;
 	private Type type;
 	private Tag tag;
-	private int length;
+	private long length;
 	private boolean implicit;
+	private Projection projection;
 
 	public AbstractBerReader getReader()
 	{
@@ -107,11 +109,41 @@ public final class ReaderContext
 		return tag;
 	}
 
-	public int getLength()
+	public long getLength()
 	{
 		return length;
 	}
 
+	/**
+	 * Returns length of primitive value content, which must fit into array
+	 *
+	 * @return length or -1 for indefinite form
+	 * @throws IOException if length is too big
+	 */
+	public int getContentLength() throws IOException
+	{
+		if( length > Integer.MAX_VALUE )
+			throw new IOException( "Content is too long: " + length );
+		//noinspection NumericCastThatLosesPrecision
+		return (int)length;
+	}
+
+	/**
+	 * Returns projection of value being read
+	 *
+	 * @return projection or null if value must be read completely
+	 */
+	@Nullable
+	Projection getProjection()
+	{
+		return projection;
+	}
+
+	void setProjection( @Nullable Projection projection )
+	{
+		this.projection = projection == null || projection.isComplete() ? null : projection;
+	}
+
 	boolean isImplicit()
 	{
 		return implicit;
@@ -145,7 +177,7 @@ public final class ReaderContext
 
 	}
 
-	private static void assertTag( @NotNull Type type, @Nullable Tag tag ) throws IOException
+	static void assertTag( @NotNull Type type, @Nullable Tag tag ) throws IOException
 	{
 		if( tag == null )
 			throw new IllegalStateException();
@@ -168,17 +200,68 @@ public final class ReaderContext
 
 	ReaderContext toSiblingContext( @NotNull Type componentType )
 	{
-		return new ReaderContext( reader, componentType.getScope( scope ), componentType, tag, length, implicit );
+		ReaderContext context = new ReaderContext( reader, componentType.getScope( scope ), componentType, tag, length, implicit );
+		context.projection = projection;
+		return context;
+	}
+
+	private void reset( @NotNull Scope scope, @NotNull Type type, @Nullable Tag tag, long length, boolean implicit, @Nullable Projection projection )
+	{
+		this.scope = scope;
+		this.type = type;
+		this.tag = tag;
+		this.length = length;
+		this.implicit = implicit;
+		setProjection( projection );
+	}
+
+	private Value readPooled( @NotNull Scope scope, @NotNull Type type, @Nullable Tag tag, long length, boolean implicit, @Nullable Projection projection ) throws IOException, Asn1Exception
+	{
+		ReaderContext context = reader.acquireContext();
+		try
+		{
+			context.reset( scope, type, tag, length, implicit, projection );
+			return reader.readInternal( context );
+		} finally
+		{
+			reader.releaseContext();
+		}
+	}
+
+	Value readComponentType( @NotNull Type componentType, Tag tag, long length ) throws IOException, Asn1Exception
+	{
+		return readPooled( componentType.getScope( scope ), componentType, tag, length, false, null );
+	}
+
+	Value readComponentType( @NotNull Type componentType, Tag tag, long length, @Nullable Projection projection ) throws IOException, Asn1Exception
+	{
+		return readPooled( componentType.getScope( scope ), componentType, tag, length, false, projection );
 	}
 
-	private ReaderContext toSiblingContext( @NotNull Type componentType, Tag tag, int length )
+	/**
+	 * Read CHOICE alternative using tag information of this context
+	 *
+	 * @param alternative the alternative type
+	 * @param projection  the alternative projection
+	 * @return value, null only if value is not selected by projection
+	 * @throws IOException   in case of IO problems
+	 * @throws Asn1Exception if type or value can not be resolved
+	 */
+	Value readAlternative( @NotNull Type alternative, @Nullable Projection projection ) throws IOException, Asn1Exception
 	{
-		return new ReaderContext( reader, componentType.getScope( scope ), componentType, tag, length, false );
+		return readPooled( alternative.getScope( scope ), alternative, tag, length, implicit, projection );
 	}
 
-	Value readComponentType( @NotNull Type componentType, Tag tag, int length ) throws IOException, Asn1Exception
+	/**
+	 * Same as {@link #readInternal(ReaderContext)} with {@link #copy()} of this context, but context is taken from pool
+	 *
+	 * @return value, null only if value is not selected by projection
+	 * @throws IOException   in case of IO problems
+	 * @throws Asn1Exception if type or value can not be resolved
+	 */
+	Value readCopy() throws IOException, Asn1Exception
 	{
-		return reader.readInternal( toSiblingContext( componentType, tag, length ) );
+		return readPooled( scope, type, tag, length, implicit, projection );
 	}
 
 	public byte read() throws IOException
@@ -191,7 +274,7 @@ public final class ReaderContext
 		return reader.read( buffer );
 	}
 
-	int position()
+	long position()
 	{
 		return reader.position();
 	}
@@ -201,7 +284,7 @@ public final class ReaderContext
 		return reader.readInternal( context );
 	}
 
-	void ensureConstructedRead( int start, int length, @Nullable Tag tag ) throws IOException
+	void ensureConstructedRead( long start, long length, @Nullable Tag tag ) throws IOException
 	{
 		reader.ensureConstructedRead( start, length, tag );
 	}
@@ -211,13 +294,15 @@ public final class ReaderContext
 		reader.skipToEoc();
 	}
 
-	void skip( int amount ) throws IOException
+	void skip( long amount ) throws IOException
 	{
 		reader.skip( amount );
 	}
 
 	public ReaderContext copy()
 	{
-		return new ReaderContext( reader, scope, type, tag, length, implicit );
+		ReaderContext context = new ReaderContext( reader, scope, type, tag, length, implicit );
+		context.projection = projection;
+		return context;
 	}
 }
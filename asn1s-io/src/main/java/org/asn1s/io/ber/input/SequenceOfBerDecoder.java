@@ -32,9 +32,11 @@ import org.asn1s.api.type.Type.Family;
 import org.asn1s.api.value.Value;
 import org.asn1s.api.value.ValueFactory;
 import org.asn1s.api.value.x680.ValueCollection;
+import org.asn1s.io.Projection;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 final class SequenceOfBerDecoder implements BerDecoder
 {
@@ -48,7 +50,7 @@ final class SequenceOfBerDecoder implements BerDecoder
 
 	static Value readComponents( @NotNull ReaderContext ctx ) throws IOException, Asn1Exception
 	{
-		int ctxLength = ctx.getLength();
+		long ctxLength = ctx.getLength();
 		CollectionOfType type = (CollectionOfType)ctx.getType();
 		ValueFactory valueFactory = ctx.getValueFactory();
 		ComponentType componentType = type.getComponentType();
@@ -57,17 +59,32 @@ final class SequenceOfBerDecoder implements BerDecoder
 		if( ctxLength == 0 )
 			return valueFactory.collection( isDummy );
 
-		int start = ctx.position();
+		long start = ctx.position();
 		ValueCollection collection = valueFactory.collection( isDummy );
 		ctx.getScope().setValueLevel( collection );
+		Projection projection = ctx.getProjection();
 		ctx = ctx.toSiblingContext( componentType );
+		if( projection != null )
+			ctx.setProjection( projection.getChild( componentType.getComponentName() ) );
+		else if( ctxLength > 0 && ParallelElementDecoder.isApplicable( ctx.getReader(), ctxLength ) )
+		{
+			ByteBuffer content = ctx.getReader().readSlice( ctx.getContentLength() );
+			if( content != null )
+			{
+				for( Value componentValue : new ParallelElementDecoder( ctx, content ).decode() )
+					collection.add( isDummy ? valueFactory.named( componentType.getComponentName(), componentValue ) : componentValue );
+				return collection;
+			}
+		}
 		boolean indefinite = ctxLength == -1;
 		while( indefinite || start + ctxLength > ctx.position() )
 		{
 			if( ctx.readTagInfoEocPossible( !indefinite ) )
 				break;
 
-			Value componentValue = ctx.readInternal( ctx.copy() );
+			Value componentValue = ctx.readCopy();
+			if( componentValue == null )
+				continue;
 			if( isDummy )
 				componentValue = valueFactory.named( componentType.getComponentName(), componentValue );
 			collection.add( componentValue );
@@ -0,0 +1,153 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.ber.input;
+
+import org.asn1s.api.exception.Asn1Exception;
+import org.asn1s.api.type.CollectionOfType;
+import org.asn1s.api.type.ComponentType;
+import org.asn1s.api.type.Type.Family;
+import org.asn1s.api.value.Value;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+
+/**
+ * Pull-style iterator over SEQUENCE OF or SET OF elements, each element is decoded on demand.
+ * Both definite and indefinite length forms are supported.
+ * I/O and decoding failures are reported as {@link IllegalStateException}.
+ *
+ * @see AbstractBerReader#readSequenceOf(org.asn1s.api.Scope, org.asn1s.api.Ref, String)
+ */
+public final class SequenceOfIterator implements Iterator<Value>
+{
+	SequenceOfIterator( @NotNull ReaderContext context, @Nullable ReaderContext enclosing, long enclosingStart )
+	{
+		Family family = context.getType().getFamily();
+		if( family != Family.SEQUENCE_OF && family != Family.SET_OF )
+			throw new IllegalArgumentException( "Type must be SEQUENCE OF or SET OF: " + context.getType() );
+
+		componentType = ( (CollectionOfType)context.getType() ).getComponentType();
+		named = !componentType.isDummy();
+		start = context.position();
+		length = context.getLength();
+		this.enclosing = enclosing;
+		this.enclosingStart = enclosingStart;
+		elementContext = context.toSiblingContext( componentType );
+		finished = length == 0;
+		if( finished )
+			finish();
+	}
+
+	private final ComponentType componentType;
+	private final boolean named;
+	private final long start;
+	private final long length;
+	private final ReaderContext enclosing;
+	private final long enclosingStart;
+	private final ReaderContext elementContext;
+	private boolean finished;
+	private boolean hasElement;
+
+	@Override
+	public boolean hasNext()
+	{
+		if( hasElement )
+			return true;
+
+		if( finished )
+			return false;
+
+		try
+		{
+			boolean indefinite = length == -1;
+			if( !indefinite && start + length <= elementContext.position() || elementContext.readTagInfoEocPossible( !indefinite ) )
+			{
+				finished = true;
+				elementContext.ensureConstructedRead( start, length, elementContext.getTag() );
+				finish();
+				return false;
+			}
+		} catch( IOException e )
+		{
+			throw new IllegalStateException( e );
+		}
+		hasElement = true;
+		return true;
+	}
+
+	@Override
+	public Value next()
+	{
+		if( !hasNext() )
+			throw new NoSuchElementException();
+
+		hasElement = false;
+		try
+		{
+			Value value = elementContext.readCopy();
+			return named ? elementContext.getValueFactory().named( componentType.getComponentName(), value ) : value;
+		} catch( IOException | Asn1Exception e )
+		{
+			throw new IllegalStateException( e );
+		}
+	}
+
+	/**
+	 * Returns sequential spliterator over remaining elements
+	 *
+	 * @return spliterator
+	 */
+	public Spliterator<Value> spliterator()
+	{
+		return Spliterators.spliteratorUnknownSize( this, Spliterator.ORDERED | Spliterator.NONNULL );
+	}
+
+	private void finish()
+	{
+		if( enclosing == null )
+			return;
+
+		try
+		{
+			ReaderContext context = enclosing.copy();
+			boolean indefinite = enclosing.getLength() == -1;
+			while( indefinite || enclosingStart + enclosing.getLength() > context.position() )
+			{
+				if( context.readTagInfoEocPossible( !indefinite ) )
+					break;
+				context.getReader().skipValue( context );
+			}
+		} catch( IOException e )
+		{
+			throw new IllegalStateException( e );
+		}
+	}
+}
@@ -26,12 +26,8 @@
 package org.asn1s.io.ber.input;
 
 import org.asn1s.api.encoding.tag.Tag;
-import org.asn1s.api.type.ComponentType;
 import org.asn1s.api.type.Type.Family;
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
-
-import java.util.Iterator;
 
 public class SetBerDecoder extends AbstractCollectionBerDecoder
 {
@@ -42,20 +38,9 @@ public class SetBerDecoder extends AbstractCollectionBerDecoder
 		return Family.SET;
 	}
 
-	@Nullable
 	@Override
-	protected ComponentType chooseComponent( @NotNull Iterable<ComponentType> components, @NotNull Tag tag, int lastIndex )
+	protected int chooseComponent( @NotNull CollectionDecodePlan plan, @NotNull Tag tag, int lastPosition, @NotNull long[] presence )
 	{
-		Iterator<ComponentType> iterator = components.iterator();
-		while( iterator.hasNext() )
-		{
-			ComponentType component = iterator.next();
-			if( !BerDecoderUtils.isComponentTag( tag, component ) )
-				continue;
-
-			iterator.remove();
-			return component;
-		}
-		return null;
+		return plan.findAbsent( tag, presence );
 	}
 }
@@ -46,7 +46,7 @@ public class StringBerDecoder implements BerDecoder
 			assert type != null;
 			type = type.getSibling();
 		}
-		byte[] content = BerDecoderUtils.readString( context.getReader(), context.getLength() );
+		byte[] content = BerDecoderUtils.readStringContent( context );
 		return context.getValueFactory().cString( new String( content, ( (StringType)type ).getCharset() ) );
 	}
 }
@@ -68,8 +68,9 @@ abstract class AbstractBerWriter implements Asn1Writer
 	 * Add level of buffering, allowing coders to write data and compute length after all jobs done
 	 *
 	 * @param sizeHint probable amount of bytes. If set to -1, then buffer size must be unlimited
+	 * @throws IOException in case of I/O failure
 	 */
-	public abstract void startBuffer( int sizeHint );
+	public abstract void startBuffer( int sizeHint ) throws IOException;
 
 	/**
 	 * Write buffer data into underlying stream, write tag and length before any data copying.
@@ -83,6 +84,27 @@ abstract class AbstractBerWriter implements Asn1Writer
 
 	public abstract void write( byte[] bytes ) throws IOException;
 
+	/**
+	 * Write part of array without copying it, every writer must implement it against its own storage
+	 *
+	 * @param bytes  the source array
+	 * @param offset first byte to write
+	 * @param length amount of bytes to write
+	 * @throws IOException in case of I/O failure
+	 */
+	public abstract void write( byte[] bytes, int offset, int length ) throws IOException;
+
+	/**
+	 * Returns true if constructed values are written using definite length form, which requires buffering.
+	 * CER requires indefinite length form for all constructed values, so nothing is buffered, see X.690, p 9.1
+	 *
+	 * @return boolean
+	 */
+	public boolean isDefiniteConstructed()
+	{
+		return getRules() != BerRules.CER && isBufferingAvailable();
+	}
+
 	public void writeHeader( Tag tag, int length ) throws IOException
 	{
 		writeTag( tag );
@@ -118,6 +140,22 @@ abstract class AbstractBerWriter implements Asn1Writer
 		writeInternal( new WriterContext( this, scope, type, value, true ) );
 	}
 
+	/**
+	 * Write single value by encoder, which uses {@link BerDirectWriter} to write it without building of value tree.
+	 * Encoder may be called more than once by some writers, so it must produce same output every time.
+	 *
+	 * @param scope   the resolution scope
+	 * @param encoder the encoder
+	 * @throws IOException   in case of IO problems
+	 * @throws Asn1Exception if value can not be written
+	 */
+	public void write( @NotNull Scope scope, @NotNull BerDirectWriter.Encoder encoder ) throws IOException, Asn1Exception
+	{
+		BerDirectWriter output = new BerDirectWriter( this, scope );
+		encoder.encode( output );
+		output.finish();
+	}
+
 	public final void writeInternal( @NotNull WriterContext context ) throws IOException, Asn1Exception
 	{
 		context = context.narrow();
@@ -219,10 +257,10 @@ abstract class AbstractBerWriter implements Asn1Writer
 				encoding.getTagMethod() != TagMethod.IMPLICIT
 						|| context.getType().isConstructedValue( context.getScope(), context.getValue() )
 						|| context.getValue().getKind() == Kind.OPEN_TYPE;
-		Tag tag = new Tag( encoding.getTagClass(), constructed, encoding.getTagNumber() );
+		Tag tag = context.toHeaderTag( new Tag( encoding.getTagClass(), constructed, encoding.getTagNumber() ) );
 		if( !context.isWriteHeader() )
 			writeInternal( context.toSiblingContext( encoding.getTagMethod() == TagMethod.EXPLICIT ) );
-		else if( isBufferingAvailable() )
+		else if( isDefiniteConstructed() )
 		{
 			startBuffer( -1 );
 			writeInternal( context.toSiblingContext( encoding.getTagMethod() != TagMethod.IMPLICIT || context.getValue().getKind() == Kind.OPEN_TYPE ) );
@@ -230,10 +268,18 @@ abstract class AbstractBerWriter implements Asn1Writer
 		}
 		else if( getRules() == BerRules.DER )
 			throw new IOException( "Encoding rules requires definite length forms" );
+		else if( encoding.getTagMethod() == TagMethod.IMPLICIT && context.getValue().getKind() != Kind.OPEN_TYPE )
+		{
+			// header of underlying value is written using this tag, outer IMPLICIT tag has priority
+			if( context.getImplicitTag() == null )
+				context.setImplicitTag( encoding );
+			writeInternal( context.toSiblingContext( true ) );
+		}
 		else
 		{
 			writeHeader( tag, -1 );
-			writeInternal( context.toSiblingContext( encoding.getTagMethod() != TagMethod.IMPLICIT ) );
+			context.setImplicitTag( null );
+			writeInternal( context.toSiblingContext( true ) );
 			write( (byte)0 );
 			write( (byte)0 );
 		}
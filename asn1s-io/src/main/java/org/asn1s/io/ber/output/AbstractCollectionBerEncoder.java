@@ -62,7 +62,7 @@ abstract class AbstractCollectionBerEncoder implements BerEncoder
 	private void encodeWithHeader( WriterContext context ) throws Asn1Exception, IOException
 	{
 		Tag tag = getTag( context.getType() );
-		if( context.isBufferingAvailable() )
+		if( context.isDefiniteConstructed() )
 		{
 			context.startBuffer( -1 );
 			writeCollectionValues( context, getValues( context ) );
@@ -0,0 +1,612 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.ber.output;
+
+import org.asn1s.api.Scope;
+import org.asn1s.api.encoding.EncodingInstructions;
+import org.asn1s.api.encoding.tag.Tag;
+import org.asn1s.api.encoding.tag.TagClass;
+import org.asn1s.api.encoding.tag.TagEncoding;
+import org.asn1s.api.encoding.tag.TagMethod;
+import org.asn1s.api.exception.Asn1Exception;
+import org.asn1s.api.type.CollectionOfType;
+import org.asn1s.api.type.ComponentType;
+import org.asn1s.api.type.NamedType;
+import org.asn1s.api.type.StringType;
+import org.asn1s.api.type.TaggedType;
+import org.asn1s.api.type.Type;
+import org.asn1s.api.type.Type.Family;
+import org.asn1s.api.util.RefUtils;
+import org.asn1s.api.value.Value;
+import org.asn1s.io.ber.BerRules;
+import org.asn1s.io.ber.BerUtils;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * Typed push interface over BER writers, values are written by caller one by one,
+ * so java objects may be encoded without building of {@link Value} tree.
+ * Constructed values are started by {@link #beginCollection(Type)}, {@link #beginCollectionOf(Type)}
+ * or {@link #beginChoice(Type, String)} and finished by {@link #end()}, CHOICE is finished once alternative is written.
+ * Values are not validated against type constraints.
+ * Under canonical rules SET components are sorted by tags, SET OF elements are sorted by encodings and
+ * components equal to default values are omitted, see X.690, p 10.3 and 11. Such values are collected in
+ * {@link EncodingArena} until {@link #end()}, other constructed values are written as they go.
+ * For CER constructed values use indefinite length form, so nothing else is buffered.
+ *
+ * @see AbstractBerWriter#write(Scope, Encoder)
+ */
+public final class BerDirectWriter
+{
+	private static final Tag END_OF_CONTENTS = new Tag( TagClass.UNIVERSAL, false, 0 );
+	private static final int INITIAL_CAPACITY = 16;
+
+	BerDirectWriter( @NotNull AbstractBerWriter writer, @NotNull Scope scope )
+	{
+		this.writer = writer;
+		this.scope = scope;
+	}
+
+	/**
+	 * Current target, replaced by arena writer while value is collected for reordering
+	 */
+	private AbstractBerWriter writer;
+	private final Scope scope;
+	private final Deque<Frame> frames = new ArrayDeque<>();
+	/**
+	 * Tags of started buffers, innermost first. {@link #END_OF_CONTENTS} is used for indefinite length values.
+	 */
+	private final Deque<Tag> buffers = new ArrayDeque<>();
+
+	/**
+	 * State of selected CHOICE alternative: amount of buffers to keep, header flag and scope
+	 */
+	private int pendingMark = -1;
+	private boolean pendingHeader;
+	private Scope pendingScope;
+
+	// result of open()
+	private Type openType;
+	private Scope openScope;
+	private int openMark;
+	private boolean openHeader;
+	private TagEncoding openImplicitTag;
+
+	/**
+	 * Write value of type, fallback for types without direct access
+	 *
+	 * @param type  the type of value
+	 * @param value the value
+	 * @throws IOException   in case of IO problems
+	 * @throws Asn1Exception if value can not be written
+	 */
+	public void writeValue( @NotNull Type type, @NotNull Value value ) throws IOException, Asn1Exception
+	{
+		Scope valueScope = take( type );
+		WriterContext context = new WriterContext( writer, type.getScope( valueScope ), type, value, openHeader );
+		context.setImplicitTag( openImplicitTag );
+		writer.writeInternal( context );
+		close( openMark );
+	}
+
+	public void writeBoolean( @NotNull Type type, boolean value ) throws IOException
+	{
+		open( type, Family.BOOLEAN );
+		writeHeader( false, 1 );
+		writer.write( value ? BerUtils.BOOLEAN_TRUE : BerUtils.BOOLEAN_FALSE );
+		close( openMark );
+	}
+
+	public void writeLong( @NotNull Type type, long value ) throws IOException
+	{
+		open( type, Family.INTEGER );
+		IntegerBerEncoder.writeLong( writer, value, headerTag( false ), openHeader );
+		close( openMark );
+	}
+
+	public void writeBigInteger( @NotNull Type type, @NotNull BigInteger value ) throws IOException
+	{
+		if( value.bitLength() < Long.SIZE )
+			writeLong( type, value.longValue() );
+		else
+		{
+			open( type, Family.INTEGER );
+			byte[] content = value.toByteArray();
+			writeHeader( false, content.length );
+			writer.write( content );
+			close( openMark );
+		}
+	}
+
+	public void writeOctets( @NotNull Type type, @NotNull byte[] value ) throws IOException
+	{
+		open( type, Family.OCTET_STRING );
+		writeString( value );
+		close( openMark );
+	}
+
+	/**
+	 * Write restricted character string value, content is encoded using charset of type
+	 *
+	 * @param type  the type of value
+	 * @param value the string
+	 * @throws IOException in case of IO problems
+	 */
+	public void writeString( @NotNull Type type, @NotNull String value ) throws IOException
+	{
+		open( type, Family.RESTRICTED_STRING );
+		Type stringType = openType;
+		while( !( stringType instanceof StringType ) )
+		{
+			assert stringType != null;
+			stringType = stringType.getSibling();
+		}
+		writeString( value.getBytes( ( (StringType)stringType ).getCharset() ) );
+		close( openMark );
+	}
+
+	/**
+	 * Start SEQUENCE or SET value, components are written using types returned by {@link #getComponent(String)}
+	 *
+	 * @param type the type of value
+	 * @throws IOException in case of IO problems
+	 */
+	public void beginCollection( @NotNull Type type ) throws IOException
+	{
+		open( type, null );
+		Family family = openType.getFamily();
+		if( family != Family.SEQUENCE && family != Family.SET )
+			throw new IllegalArgumentException( "Type must be SEQUENCE or SET: " + type );
+		begin( null );
+	}
+
+	/**
+	 * Returns component of current SEQUENCE or SET
+	 *
+	 * @param name the component name
+	 * @return component type
+	 */
+	@NotNull
+	public ComponentType getComponent( @NotNull String name )
+	{
+		Frame frame = current();
+		if( frame.elementType != null )
+			throw new IllegalStateException( "Current value is not SEQUENCE or SET" );
+
+		ComponentType component = frame.type.getNamedType( name );
+		if( component == null )
+			throw new IllegalArgumentException( "No component '" + name + "' in type: " + frame.type );
+		return component;
+	}
+
+	/**
+	 * Start SEQUENCE OF or SET OF value
+	 *
+	 * @param type the type of value
+	 * @return element type, which must be used to write elements
+	 * @throws IOException in case of IO problems
+	 */
+	@NotNull
+	public ComponentType beginCollectionOf( @NotNull Type type ) throws IOException
+	{
+		open( type, null );
+		Family family = openType.getFamily();
+		if( family != Family.SEQUENCE_OF && family != Family.SET_OF )
+			throw new IllegalArgumentException( "Type must be SEQUENCE OF or SET OF: " + type );
+
+		ComponentType elementType = ( (CollectionOfType)openType ).getComponentType();
+		begin( elementType );
+		return elementType;
+	}
+
+	/**
+	 * Select alternative of CHOICE value, alternative value must be written next using returned type
+	 *
+	 * @param type the CHOICE type
+	 * @param name the alternative name
+	 * @return alternative type
+	 * @throws IOException in case of IO problems
+	 */
+	@NotNull
+	public ComponentType beginChoice( @NotNull Type type, @NotNull String name ) throws IOException
+	{
+		open( type, Family.CHOICE );
+		ComponentType alternative = openType.getNamedType( name );
+		if( alternative == null )
+			throw new IllegalArgumentException( "No alternative '" + name + "' in type: " + type );
+
+		pendingMark = openMark;
+		pendingHeader = openHeader;
+		pendingScope = openScope;
+		return alternative;
+	}
+
+	/**
+	 * Finish current constructed value
+	 *
+	 * @throws IOException   in case of IO problems
+	 * @throws Asn1Exception if default value can not be encoded
+	 */
+	public void end() throws IOException, Asn1Exception
+	{
+		if( pendingMark != -1 )
+			throw new IllegalStateException( "CHOICE alternative is not written" );
+
+		Frame frame = current();
+		if( frame.arena != null )
+		{
+			writer = frame.parent;
+			writeCollected( frame );
+		}
+		close( frame.mark );
+		frames.pop();
+	}
+
+	/**
+	 * Returns nesting depth of constructed values
+	 *
+	 * @return depth, 0 for top level
+	 */
+	public int getDepth()
+	{
+		return frames.size();
+	}
+
+	void finish()
+	{
+		if( !frames.isEmpty() || !buffers.isEmpty() || pendingMark != -1 )
+			throw new IllegalStateException( "Value is not finished" );
+	}
+
+	/**
+	 * Write string contents, CER segments strings longer than 1000 octets, see X.690, p 9.2
+	 *
+	 * @param content the contents octets
+	 * @throws IOException in case of I/O failure
+	 */
+	private void writeString( byte[] content ) throws IOException
+	{
+		if( openHeader && writer.getRules() == BerRules.CER && content.length > BerRules.CER_SEGMENT_SIZE )
+		{
+			writeHeader( true, -1 );
+			BerEncoderUtils.writeSegments( writer, content );
+		}
+		else
+		{
+			writeHeader( false, content.length );
+			writer.write( content );
+		}
+	}
+
+	private void begin( ComponentType elementType ) throws IOException
+	{
+		if( openHeader )
+			startConstructed( headerTag( true ) );
+
+		Frame frame = new Frame( openType, openScope, openMark, elementType );
+		if( writer.getRules().isCanonical() && isReordered( openType ) )
+		{
+			frame.collect( writer );
+			writer = new DefaultBerWriter( writer.getRules(), frame.arena );
+		}
+		frames.push( frame );
+	}
+
+	/**
+	 * Returns true if values of type may not be written in order of calls under canonical rules
+	 */
+	private static boolean isReordered( Type type )
+	{
+		Family family = type.getFamily();
+		if( family == Family.SET || family == Family.SET_OF )
+			return true;
+
+		for( NamedType namedType : type.getNamedTypes() )
+			if( namedType instanceof ComponentType && ( (ComponentType)namedType ).getDefaultValueRef() != null )
+				return true;
+		return false;
+	}
+
+	/**
+	 * Write collected elements to parent writer, dropping default values and sorting SET and SET OF
+	 *
+	 * @param frame the frame of constructed value
+	 * @throws IOException   in case of I/O failure
+	 * @throws Asn1Exception if default value can not be encoded
+	 */
+	private void writeCollected( Frame frame ) throws IOException, Asn1Exception
+	{
+		int[] offsets = frame.finishCollecting();
+		int[] order = new int[frame.count];
+		int count = 0;
+		for( int i = 0; i < frame.count; i++ )
+			if( !isDefaultValue( frame, offsets, i ) )
+				order[count++] = i;
+
+		if( count < order.length )
+			order = Arrays.copyOf( order, count );
+
+		Family family = frame.type.getFamily();
+		if( family == Family.SET || family == Family.SET_OF )
+			frame.arena.sort( offsets, order, family == Family.SET );
+		frame.arena.write( writer, offsets, order );
+	}
+
+	private boolean isDefaultValue( Frame frame, int[] offsets, int index ) throws IOException, Asn1Exception
+	{
+		Type type = frame.types[index];
+		if( !( type instanceof ComponentType ) || ( (ComponentType)type ).getDefaultValueRef() == null )
+			return false;
+
+		Scope componentScope = type.getScope( frame.scope );
+		Value value = RefUtils.toBasicValue( componentScope, ( (ComponentType)type ).getDefaultValueRef() );
+		//noinspection resource
+		AbstractBerWriter defaultWriter = new DefaultBerWriter( writer.getRules() );
+		defaultWriter.writeInternal( new WriterContext( defaultWriter, componentScope, type, value, true ) );
+		return frame.arena.isEqual( offsets, index, defaultWriter.toByteArray() );
+	}
+
+	/**
+	 * Start constructed value using buffer or indefinite length form
+	 *
+	 * @param tag the header tag
+	 * @throws IOException in case of I/O failure
+	 */
+	private void startConstructed( Tag tag ) throws IOException
+	{
+		if( writer.isDefiniteConstructed() )
+		{
+			writer.startBuffer( -1 );
+			buffers.push( tag );
+		}
+		else
+		{
+			writer.writeHeader( tag, -1 );
+			buffers.push( END_OF_CONTENTS );
+		}
+	}
+
+	/**
+	 * Follow type chain up to type with encoder, starting buffers for every tag.
+	 * If buffering is not used, EXPLICIT tags are written using indefinite length form and
+	 * IMPLICIT tag replaces tag of value header.
+	 * Results are stored in open* fields.
+	 *
+	 * @param type   the type
+	 * @param family expected family or null to skip check
+	 * @throws IOException in case of I/O failure
+	 */
+	private void open( Type type, Family family ) throws IOException
+	{
+		Scope typeScope = take( type );
+		boolean header = openHeader;
+		TagEncoding implicitTag = null;
+		while( true )
+		{
+			typeScope = type.getScope( typeScope );
+			if( type.hasConstraint() )
+				type = type.getSibling();
+			else if( type.isTagged() && ( (TaggedType)type ).getInstructions() == EncodingInstructions.TAG )
+			{
+				TagEncoding encoding = (TagEncoding)type.getEncoding( EncodingInstructions.TAG );
+				boolean implicit = encoding.getTagMethod() == TagMethod.IMPLICIT;
+				type = type.getSibling();
+				if( header && writer.isDefiniteConstructed() )
+				{
+					writer.startBuffer( -1 );
+					buffers.push( encoding.toTag( !implicit || isConstructed( type ) ) );
+					header = !implicit;
+				}
+				else if( header && writer.getRules() == BerRules.DER )
+					throw new IOException( "Buffering is required for direct writing" );
+				else if( header && implicit )
+				{
+					// outer IMPLICIT tag has priority
+					if( implicitTag == null )
+						implicitTag = encoding;
+				}
+				else if( header )
+				{
+					startConstructed( implicitTag == null ? encoding.toTag( true ) : implicitTag.toTag( true ) );
+					implicitTag = null;
+				}
+				else
+					header = encoding.getTagMethod() == TagMethod.EXPLICIT;
+			}
+			else if( type.hasSibling() )
+				type = type.getSibling();
+			else
+				break;
+			assert type != null;
+		}
+
+		if( family != null && type.getFamily() != family )
+			throw new IllegalArgumentException( "Type must be " + family + ": " + type );
+
+		openType = type;
+		openScope = typeScope;
+		openHeader = header;
+		openImplicitTag = implicitTag;
+	}
+
+	/**
+	 * Returns scope for next value, sets openMark and openHeader.
+	 * If current constructed value is collected, new element is started.
+	 *
+	 * @param type the type of value
+	 * @return scope
+	 */
+	private Scope take( Type type )
+	{
+		if( pendingMark != -1 )
+		{
+			openMark = pendingMark;
+			openHeader = pendingHeader;
+			pendingMark = -1;
+			return pendingScope;
+		}
+
+		openImplicitTag = null;
+		openMark = buffers.size();
+		openHeader = true;
+		Frame frame = frames.peek();
+		if( frame == null )
+			return scope;
+
+		if( frame.arena != null )
+			frame.startElement( type );
+		return frame.scope;
+	}
+
+	private static boolean isConstructed( Type type )
+	{
+		while( true )
+		{
+			if( type.isTagged() && ( (TaggedType)type ).getInstructions() == EncodingInstructions.TAG )
+			{
+				TagEncoding encoding = (TagEncoding)type.getEncoding( EncodingInstructions.TAG );
+				if( encoding.getTagMethod() != TagMethod.IMPLICIT )
+					return true;
+			}
+			else if( !type.hasSibling() )
+			{
+				Family family = type.getFamily();
+				return family == Family.SEQUENCE || family == Family.SET || family == Family.SEQUENCE_OF
+						|| family == Family.SET_OF || family == Family.CHOICE;
+			}
+			type = type.getSibling();
+			assert type != null;
+		}
+	}
+
+	private Tag universalTag( boolean constructed )
+	{
+		TagEncoding encoding = (TagEncoding)openType.getEncoding( EncodingInstructions.TAG );
+		if( encoding == null )
+			throw new IllegalStateException( "No encoding for type: " + openType );
+		return encoding.toTag( constructed );
+	}
+
+	private Tag headerTag( boolean constructed )
+	{
+		return openImplicitTag == null ? universalTag( constructed ) : openImplicitTag.toTag( constructed );
+	}
+
+	private void writeHeader( boolean constructed, int length ) throws IOException
+	{
+		if( openHeader )
+			writer.writeHeader( headerTag( constructed ), length );
+	}
+
+	private void close( int mark ) throws IOException
+	{
+		while( buffers.size() > mark )
+		{
+			Tag tag = buffers.pop();
+			if( tag.isEoc() )
+			{
+				writer.write( 0 );
+				writer.write( 0 );
+			}
+			else
+				writer.stopBuffer( tag );
+		}
+	}
+
+	private Frame current()
+	{
+		Frame frame = frames.peek();
+		if( frame == null )
+			throw new IllegalStateException( "No constructed value started" );
+		return frame;
+	}
+
+	/**
+	 * Writes single value using direct writer
+	 */
+	@FunctionalInterface
+	public interface Encoder
+	{
+		void encode( @NotNull BerDirectWriter output ) throws IOException, Asn1Exception;
+	}
+
+	private static final class Frame
+	{
+		private Frame( Type type, Scope scope, int mark, ComponentType elementType )
+		{
+			this.type = type;
+			this.scope = scope;
+			this.mark = mark;
+			this.elementType = elementType;
+		}
+
+		private final Type type;
+		private final Scope scope;
+		private final int mark;
+		private final ComponentType elementType;
+
+		// collected elements, used if value is reordered
+		private AbstractBerWriter parent;
+		private EncodingArena arena;
+		private int[] offsets;
+		private Type[] types;
+		private int count;
+
+		private void collect( AbstractBerWriter writer )
+		{
+			parent = writer;
+			arena = new EncodingArena();
+			offsets = new int[INITIAL_CAPACITY];
+			types = new Type[INITIAL_CAPACITY];
+		}
+
+		private void startElement( Type type )
+		{
+			if( count + 1 == offsets.length )
+			{
+				offsets = Arrays.copyOf( offsets, offsets.length * 2 );
+				types = Arrays.copyOf( types, types.length * 2 );
+			}
+			offsets[count] = arena.size();
+			types[count] = type;
+			count++;
+		}
+
+		/**
+		 * Returns offsets of elements, last one is arena size
+		 */
+		private int[] finishCollecting()
+		{
+			offsets[count] = arena.size();
+			return offsets;
+		}
+	}
+}
@@ -25,22 +25,112 @@
 
 package org.asn1s.io.ber.output;
 
+import org.asn1s.api.UniversalType;
 import org.asn1s.api.encoding.tag.Tag;
+import org.asn1s.api.encoding.tag.TagClass;
+import org.asn1s.io.ber.BerRules;
 import org.asn1s.io.ber.BerUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
 
 final class BerEncoderUtils
 {
+	private static final Tag OCTET_STRING_SEGMENT = new Tag( TagClass.UNIVERSAL, false, UniversalType.OCTET_STRING.tagNumber() );
+	private static final Tag BIT_STRING_SEGMENT = new Tag( TagClass.UNIVERSAL, false, UniversalType.BIT_STRING.tagNumber() );
+
 	private BerEncoderUtils()
 	{
 	}
 
-	static void writeString( AbstractBerWriter os, byte[] content, Tag tag, boolean writeHeader ) throws IOException
+	/**
+	 * Write OCTET STRING or restricted string value. CER requires constructed form for contents longer than
+	 * 1000 octets, see X.690, p 9.2
+	 *
+	 * @param context the writer context
+	 * @param tag     the primitive tag of value
+	 * @param content the contents octets
+	 * @throws IOException in case of I/O failure
+	 */
+	static void writeString( @NotNull WriterContext context, @NotNull Tag tag, @Nullable byte[] content ) throws IOException
+	{
+		int length = content == null ? 0 : content.length;
+		if( isSegmented( context, length ) )
+		{
+			assert content != null;
+			context.writeHeader( new Tag( tag.getTagClass(), true, tag.getTagNumber() ), -1 );
+			writeSegments( context.getWriter(), content );
+		}
+		else
+		{
+			context.writeHeader( tag, length );
+			context.write( content );
+		}
+	}
+
+	/**
+	 * Write BIT STRING value, segments are split the same way as for {@link #writeString(WriterContext, Tag, byte[])}
+	 *
+	 * @param context   the writer context
+	 * @param tag       the primitive tag of value
+	 * @param content   the bits
+	 * @param emptyBits amount of unused bits in last byte
+	 * @throws IOException in case of I/O failure
+	 */
+	static void writeBitString( @NotNull WriterContext context, @NotNull Tag tag, @NotNull byte[] content, int emptyBits ) throws IOException
+	{
+		if( isSegmented( context, content.length + 1 ) )
+		{
+			context.writeHeader( new Tag( tag.getTagClass(), true, tag.getTagNumber() ), -1 );
+			AbstractBerWriter writer = context.getWriter();
+			int segmentSize = BerRules.CER_SEGMENT_SIZE - 1;
+			for( int offset = 0; offset < content.length; offset += segmentSize )
+			{
+				int length = Math.min( segmentSize, content.length - offset );
+				writer.writeHeader( BIT_STRING_SEGMENT, length + 1 );
+				writer.write( offset + length == content.length ? emptyBits : 0 );
+				writer.write( content, offset, length );
+			}
+			writer.write( 0 );
+			writer.write( 0 );
+		}
+		else if( content.length == 0 )
+		{
+			context.writeHeader( tag, 1 );
+			context.write( 0 );
+		}
+		else
+		{
+			context.writeHeader( tag, content.length + 1 );
+			context.write( emptyBits );
+			context.write( content );
+		}
+	}
+
+	/**
+	 * Write contents as primitive OCTET STRING segments followed by end-of-contents octets,
+	 * header of constructed value must be written by caller
+	 *
+	 * @param writer  the writer
+	 * @param content the contents octets
+	 * @throws IOException in case of I/O failure
+	 */
+	static void writeSegments( @NotNull AbstractBerWriter writer, @NotNull byte[] content ) throws IOException
+	{
+		for( int offset = 0; offset < content.length; offset += BerRules.CER_SEGMENT_SIZE )
+		{
+			int length = Math.min( BerRules.CER_SEGMENT_SIZE, content.length - offset );
+			writer.writeHeader( OCTET_STRING_SEGMENT, length );
+			writer.write( content, offset, length );
+		}
+		writer.write( 0 );
+		writer.write( 0 );
+	}
+
+	private static boolean isSegmented( WriterContext context, int length )
 	{
-		if( writeHeader )
-			os.writeHeader( tag, content.length );
-		os.write( content );
+		return length > BerRules.CER_SEGMENT_SIZE && context.isWriteHeader() && context.getRules() == BerRules.CER;
 	}
 
 	static void writeTagNumber( AbstractBerWriter writer, long tagNumber ) throws IOException
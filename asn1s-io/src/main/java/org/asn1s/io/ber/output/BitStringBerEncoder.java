@@ -32,7 +32,6 @@ import org.asn1s.api.encoding.tag.TagClass;
 import org.asn1s.api.type.Type.Family;
 import org.asn1s.api.value.ByteArrayValue;
 import org.asn1s.api.value.Value.Kind;
-import org.asn1s.io.ber.BerRules;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.IOException;
@@ -52,7 +51,7 @@ final class BitStringBerEncoder implements BerEncoder
 		byte[] bytes = arrayValue.asByteArray();
 		int usedBits = arrayValue.getUsedBits();
 		int emptyBits = bytes.length * 8 - usedBits;
-		if( context.getRules() == BerRules.DER )
+		if( context.getRules().isCanonical() )
 		{
 			boolean hasSizeConstraint = Boolean.TRUE.equals( context.getScope().getScopeOption( ConstraintUtils.OPTION_HAS_SIZE_CONSTRAINT ) );
 
@@ -67,16 +66,7 @@ final class BitStringBerEncoder implements BerEncoder
 			}
 		}
 
-		int length = bytes.length == 0 ? 1 : 1 + bytes.length;
-		context.writeHeader( TAG, length );
-
-		if( length > 1 )
-		{
-			context.write( emptyBits );
-			context.write( bytes );
-		}
-		else
-			context.write( 0 );
+		BerEncoderUtils.writeBitString( context, TAG, bytes, emptyBits );
 	}
 
 	private static int getTrailingZerosCount( byte last )
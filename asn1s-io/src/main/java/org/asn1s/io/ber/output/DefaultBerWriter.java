@@ -32,29 +32,75 @@ import org.jetbrains.annotations.NotNull;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
 import java.util.Deque;
-import java.util.LinkedList;
 
+/**
+ * Writer that keeps content of every started buffer in separate byte array stream.
+ * Streams of stopped buffers are returned to pool of this writer and reused, so single instance
+ * (e.g. one per thread) may be used for many values by calling {@link #reset()} between them.
+ * Value may be encoded directly into caller array or byte buffer, see {@link #reset(byte[], int)}
+ * and {@link #reset(ByteBuffer)}.
+ */
 public final class DefaultBerWriter extends AbstractBerWriter
 {
+	/**
+	 * Streams which have grown beyond this capacity are not reused, so single huge value does not pin memory
+	 */
+	private static final int MAX_POOLED_CAPACITY = 1 << 16;
+
 	public DefaultBerWriter( BerRules rules )
 	{
 		this.rules = rules;
-		os = new ByteArrayOutputStream();
-		internalOs = true;
+		output = new Buffer();
+		os = output;
 	}
 
 	public DefaultBerWriter( BerRules rules, OutputStream os )
 	{
 		this.rules = rules;
 		this.os = os;
-		internalOs = false;
+		output = null;
+	}
+
+	/**
+	 * Create writer which encodes into caller array, see {@link #reset(byte[], int)}
+	 *
+	 * @param rules  the encoding rules
+	 * @param target the target array
+	 * @param offset the offset in target array
+	 */
+	public DefaultBerWriter( BerRules rules, @NotNull byte[] target, int offset )
+	{
+		this( rules );
+		reset( target, offset );
+	}
+
+	/**
+	 * Create writer which encodes into caller byte buffer, see {@link #reset(ByteBuffer)}
+	 *
+	 * @param rules  the encoding rules
+	 * @param target the target buffer
+	 */
+	public DefaultBerWriter( BerRules rules, @NotNull ByteBuffer target )
+	{
+		this( rules );
+		reset( target );
 	}
 
 	private final BerRules rules;
-	private final OutputStream os;
-	private final Deque<ByteArrayOutputStream> outputStack = new LinkedList<>();
-	private final boolean internalOs;
+	private final Deque<Buffer> outputStack = new ArrayDeque<>();
+	private final Deque<Buffer> pool = new ArrayDeque<>();
+	/**
+	 * The top-level stream: internal buffer, caller storage or provided stream
+	 */
+	private OutputStream os;
+	/**
+	 * Internal top-level buffer, null if writer uses provided stream
+	 */
+	private Buffer output;
+	private Target target;
 
 	@Override
 	public BerRules getRules()
@@ -71,17 +117,98 @@ public final class DefaultBerWriter extends AbstractBerWriter
 	@Override
 	public void startBuffer( int sizeHint )
 	{
-		outputStack.push( new ByteArrayOutputStream() );
+		Buffer buffer = pool.poll();
+		outputStack.push( buffer == null ? new Buffer() : buffer );
 	}
 
 	@Override
 	public void stopBuffer( @NotNull Tag tag ) throws IOException
 	{
-		try( ByteArrayOutputStream stream = outputStack.pop() )
+		Buffer buffer = outputStack.pop();
+		writeHeader( tag, buffer.size() );
+		write( buffer.array(), 0, buffer.size() );
+		release( buffer );
+	}
+
+	/**
+	 * Discard written content and started buffers, so writer may be used for next value.
+	 * Next value is written to internal buffer. Content written to provided stream is not affected.
+	 */
+	public void reset()
+	{
+		releaseBuffers();
+		if( output == null )
+			return;
+
+		if( output.array().length > MAX_POOLED_CAPACITY )
+			output = new Buffer();
+		else
+			output.reset();
+		os = output;
+	}
+
+	/**
+	 * Same as {@link #reset()}, but next value is encoded directly into caller array, starting at offset.
+	 * Writing beyond array end fails with {@link IOException}.
+	 *
+	 * @param target the target array
+	 * @param offset the offset in target array
+	 * @throws IllegalStateException if writer uses provided stream
+	 */
+	public void reset( @NotNull byte[] target, int offset )
+	{
+		if( offset < 0 || offset > target.length )
+			throw new IndexOutOfBoundsException( "Illegal offset: " + offset );
+		reset( ByteBuffer.wrap( target, offset, target.length - offset ) );
+	}
+
+	/**
+	 * Same as {@link #reset()}, but next value is encoded directly into caller buffer, starting at its position.
+	 * Buffer position is advanced as octets are written, writing beyond its limit fails with {@link IOException}.
+	 *
+	 * @param target the target buffer
+	 * @throws IllegalStateException if writer uses provided stream
+	 */
+	public void reset( @NotNull ByteBuffer target )
+	{
+		if( output == null )
+			throw new IllegalStateException( "Writer uses provided stream" );
+
+		releaseBuffers();
+		if( this.target == null )
+			this.target = new Target();
+		this.target.reset( target );
+		os = this.target;
+	}
+
+	/**
+	 * Returns amount of octets written since creation or last reset
+	 *
+	 * @return octet count
+	 * @throws IOException if writer uses provided stream
+	 */
+	public int size() throws IOException
+	{
+		if( os == target )
+			return target.size();
+
+		if( output == null )
+			throw new IOException( "Unable to get bytes from provided stream" );
+		return output.size();
+	}
+
+	private void releaseBuffers()
+	{
+		while( !outputStack.isEmpty() )
+			release( outputStack.pop() );
+	}
+
+	private void release( Buffer buffer )
+	{
+		if( buffer.array().length <= MAX_POOLED_CAPACITY )
 		{
-			byte[] bytes = stream.toByteArray();
-			writeHeader( tag, bytes.length );
-			write( bytes );
+			buffer.reset();
+			pool.push( buffer );
 		}
 	}
 
@@ -105,19 +232,81 @@ public final class DefaultBerWriter extends AbstractBerWriter
 		outputStream.write( bytes );
 	}
 
+	@Override
+	public void write( byte[] bytes, int offset, int length ) throws IOException
+	{
+		//noinspection resource
+		OutputStream outputStream = outputStack.peek();
+		if( outputStream == null )
+			outputStream = os;
+		outputStream.write( bytes, offset, length );
+	}
+
 	@Override
 	public void close() throws Exception
 	{
-		if( internalOs )
-			os.close();
+		if( output != null )
+			output.close();
 	}
 
 	@Override
 	public byte[] toByteArray() throws IOException
 	{
-		if( !internalOs )
-			throw new IOException( "Unable to get bytes from provided stream" );
+		if( os != output )
+			throw new IOException( "Unable to get bytes from provided stream or caller storage" );
+
+		return output.toByteArray();
+	}
+
+	/**
+	 * Byte array stream with access to its array, so content may be copied without intermediate array
+	 */
+	private static final class Buffer extends ByteArrayOutputStream
+	{
+		private byte[] array()
+		{
+			return buf;
+		}
+	}
+
+	/**
+	 * Stream over caller byte buffer
+	 */
+	private static final class Target extends OutputStream
+	{
+		private ByteBuffer buffer;
+		private int start;
+
+		private void reset( ByteBuffer buffer )
+		{
+			this.buffer = buffer;
+			start = buffer.position();
+		}
 
-		return ( (ByteArrayOutputStream)os ).toByteArray();
+		private int size()
+		{
+			return buffer.position() - start;
+		}
+
+		@Override
+		public void write( int b ) throws IOException
+		{
+			ensureRemaining( 1 );
+			//noinspection NumericCastThatLosesPrecision
+			buffer.put( (byte)b );
+		}
+
+		@Override
+		public void write( @NotNull byte[] b, int off, int len ) throws IOException
+		{
+			ensureRemaining( len );
+			buffer.put( b, off, len );
+		}
+
+		private void ensureRemaining( int count ) throws IOException
+		{
+			if( buffer.remaining() < count )
+				throw new IOException( "Not enough space in target: " + ( (long)size() + count ) + " octets required" );
+		}
 	}
 }
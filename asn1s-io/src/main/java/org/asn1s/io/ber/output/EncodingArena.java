@@ -0,0 +1,199 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.ber.output;
+
+import org.asn1s.io.ber.BerUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * Buffer of element encodings, which may be compared in place and copied to writer in canonical order.
+ * Elements are stored one after another, element i occupies range [offsets[i], offsets[i + 1]).
+ * See X.690, p 10.3 and 11.6
+ */
+final class EncodingArena extends ByteArrayOutputStream
+{
+	private static final int TAG_CLASS_SHIFT = 6;
+	private static final int TAG_NUMBER_MASK = 0x1F;
+	private static final int TAG_OCTET_MASK = 0x7F;
+	private static final int TAG_MORE_FLAG = 0x80;
+
+	/**
+	 * Write all elements ordered by their encodings
+	 *
+	 * @param writer  the target writer
+	 * @param offsets element offsets, last one is arena size
+	 * @throws IOException in case of I/O failure
+	 */
+	void writeSorted( AbstractBerWriter writer, int[] offsets ) throws IOException
+	{
+		int count = offsets.length - 1;
+		if( isSorted( offsets ) )
+		{
+			// common case, elements are written in single call
+			if( count > 0 )
+				writer.write( buf, 0, size() );
+			return;
+		}
+
+		int[] order = new int[count];
+		for( int i = 0; i < count; i++ )
+			order[i] = i;
+		sort( offsets, order, false );
+		write( writer, offsets, order );
+	}
+
+	/**
+	 * Sort element indexes by encodings or by tags of encodings, order of equal elements is kept
+	 *
+	 * @param offsets element offsets
+	 * @param order   element indexes to sort
+	 * @param byTag   true if only tags must be compared
+	 */
+	void sort( int[] offsets, int[] order, boolean byTag )
+	{
+		sort( offsets, order, new int[order.length], 0, order.length, byTag );
+	}
+
+	/**
+	 * Write elements in order
+	 *
+	 * @param writer  the target writer
+	 * @param offsets element offsets
+	 * @param order   element indexes
+	 * @throws IOException in case of I/O failure
+	 */
+	void write( AbstractBerWriter writer, int[] offsets, int[] order ) throws IOException
+	{
+		for( int index : order )
+			writer.write( buf, offsets[index], offsets[index + 1] - offsets[index] );
+	}
+
+	/**
+	 * Check if element encoding is same as given one
+	 *
+	 * @param offsets  element offsets
+	 * @param index    element index
+	 * @param encoding the encoding
+	 * @return true if equal
+	 */
+	boolean isEqual( int[] offsets, int index, byte[] encoding )
+	{
+		int start = offsets[index];
+		if( offsets[index + 1] - start != encoding.length )
+			return false;
+
+		for( int i = 0; i < encoding.length; i++ )
+			if( buf[start + i] != encoding[i] )
+				return false;
+		return true;
+	}
+
+	private boolean isSorted( int[] offsets )
+	{
+		for( int i = 1; i < offsets.length - 1; i++ )
+			if( compare( offsets, i - 1, i ) > 0 )
+				return false;
+		return true;
+	}
+
+	/**
+	 * Merge sort of element indexes in range [from, to)
+	 */
+	private void sort( int[] offsets, int[] order, int[] temp, int from, int to, boolean byTag )
+	{
+		if( to - from < 2 )
+			return;
+
+		int middle = ( from + to ) >>> 1;
+		sort( offsets, order, temp, from, middle, byTag );
+		sort( offsets, order, temp, middle, to, byTag );
+		if( compare( offsets, order[middle - 1], order[middle], byTag ) <= 0 )
+			return;
+
+		System.arraycopy( order, from, temp, from, to - from );
+		int left = from;
+		int right = middle;
+		for( int i = from; i < to; i++ )
+		{
+			if( right >= to || left < middle && compare( offsets, temp[left], temp[right], byTag ) <= 0 )
+				order[i] = temp[left++];
+			else
+				order[i] = temp[right++];
+		}
+	}
+
+	private int compare( int[] offsets, int first, int second, boolean byTag )
+	{
+		return byTag ? compareTags( offsets[first], offsets[second] ) : compare( offsets, first, second );
+	}
+
+	/**
+	 * Compare encodings as unsigned octet strings, shorter one is less if it is prefix of longer one
+	 */
+	private int compare( int[] offsets, int first, int second )
+	{
+		int start1 = offsets[first];
+		int start2 = offsets[second];
+		int length1 = offsets[first + 1] - start1;
+		int length2 = offsets[second + 1] - start2;
+		int length = Math.min( length1, length2 );
+		for( int i = 0; i < length; i++ )
+		{
+			int result = Integer.compare( buf[start1 + i] & BerUtils.BYTE_MASK, buf[start2 + i] & BerUtils.BYTE_MASK );
+			if( result != 0 )
+				return result;
+		}
+		return Integer.compare( length1, length2 );
+	}
+
+	/**
+	 * Compare identifier octets by tag class, then by tag number, see X.680, p 8.6
+	 */
+	private int compareTags( int first, int second )
+	{
+		int result = Integer.compare( ( buf[first] & BerUtils.BYTE_MASK ) >> TAG_CLASS_SHIFT, ( buf[second] & BerUtils.BYTE_MASK ) >> TAG_CLASS_SHIFT );
+		return result == 0 ? Long.compare( readTagNumber( first ), readTagNumber( second ) ) : result;
+	}
+
+	private long readTagNumber( int offset )
+	{
+		long number = buf[offset] & TAG_NUMBER_MASK;
+		if( number != TAG_NUMBER_MASK )
+			return number;
+
+		number = 0L;
+		int value;
+		do
+		{
+			value = buf[++offset] & BerUtils.BYTE_MASK;
+			number = ( number << 7 ) | ( value & TAG_OCTET_MASK );
+		}
+		while( ( value & TAG_MORE_FLAG ) != 0 );
+		return number;
+	}
+}
@@ -43,6 +43,6 @@ final class EnumeratedBerEncoder implements BerEncoder
 	{
 		assert context.getType().getFamily() == Family.ENUMERATED;
 		assert context.getValue().getKind() == Kind.NAME && context.getValue().toNamedValue().getReferenceKind() == Kind.INTEGER;
-		IntegerBerEncoder.writeLong( context.getWriter(), context.getValue().toIntegerValue().asLong(), TAG, context.isWriteHeader() );
+		IntegerBerEncoder.writeLong( context.getWriter(), context.getValue().toIntegerValue().asLong(), context.toHeaderTag( TAG ), context.isWriteHeader() );
 	}
 }
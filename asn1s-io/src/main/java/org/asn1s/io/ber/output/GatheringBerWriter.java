@@ -0,0 +1,272 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.ber.output;
+
+import org.asn1s.api.encoding.tag.Tag;
+import org.asn1s.io.ber.BerRules;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writer that keeps encoding as list of byte buffer segments, which are written to channel
+ * by single gathering write, see {@link #writeTo(GatheringByteChannel)}.
+ * Small writes are collected in shared chunks, byte arrays of at least {@value #WRAP_THRESHOLD} octets
+ * (e.g. content of OCTET STRING values) are referenced without copying, so they must not be modified until
+ * writer is flushed or reset.
+ * Headers of constructed values are stored as separate segments in place reserved at buffer start,
+ * so content is never moved.
+ */
+public final class GatheringBerWriter extends AbstractBerWriter
+{
+	private static final int CHUNK_SIZE = 4096;
+	private static final int WRAP_THRESHOLD = 256;
+	private static final int INITIAL_DEPTH = 16;
+	/**
+	 * Tag with int tag number and length with 4 octets
+	 */
+	private static final int MAX_HEADER_SIZE = 16;
+
+	public GatheringBerWriter( BerRules rules )
+	{
+		this.rules = rules;
+	}
+
+	private final BerRules rules;
+	private final List<ByteBuffer> segments = new ArrayList<>();
+	private byte[] chunk = new byte[CHUNK_SIZE];
+	private int chunkStart;
+	private int chunkPosition;
+	private long size;
+
+	/**
+	 * Stack of started buffers: index of reserved header segment and octet count at buffer start
+	 */
+	private int[] openSegments = new int[INITIAL_DEPTH];
+	private long[] openSizes = new long[INITIAL_DEPTH];
+	private int depth;
+
+	@Override
+	public BerRules getRules()
+	{
+		return rules;
+	}
+
+	@Override
+	public boolean isBufferingAvailable()
+	{
+		return true;
+	}
+
+	@Override
+	public void startBuffer( int sizeHint )
+	{
+		if( depth == openSegments.length )
+		{
+			openSegments = Arrays.copyOf( openSegments, depth * 2 );
+			openSizes = Arrays.copyOf( openSizes, depth * 2 );
+		}
+
+		seal();
+		openSegments[depth] = segments.size();
+		openSizes[depth] = size;
+		segments.add( null );
+		depth++;
+	}
+
+	@Override
+	public void stopBuffer( @NotNull Tag tag ) throws IOException
+	{
+		if( depth == 0 )
+			throw new IllegalStateException( "No buffer started" );
+
+		depth--;
+		long length = size - openSizes[depth];
+		if( length > Integer.MAX_VALUE )
+			throw new IOException( "Content is too long: " + length );
+
+		seal();
+		ensureChunk( MAX_HEADER_SIZE );
+		int headerStart = chunkPosition;
+		//noinspection NumericCastThatLosesPrecision
+		writeHeader( tag, (int)length );
+		segments.set( openSegments[depth], ByteBuffer.wrap( chunk, headerStart, chunkPosition - headerStart ).slice() );
+		chunkStart = chunkPosition;
+	}
+
+	@Override
+	public void write( int aByte ) throws IOException
+	{
+		ensureChunk( 1 );
+		//noinspection NumericCastThatLosesPrecision
+		chunk[chunkPosition++] = (byte)aByte;
+		size++;
+	}
+
+	@Override
+	public void write( byte[] bytes ) throws IOException
+	{
+		write( bytes, 0, bytes.length );
+	}
+
+	@Override
+	public void write( byte[] bytes, int offset, int length ) throws IOException
+	{
+		if( length >= WRAP_THRESHOLD )
+		{
+			seal();
+			segments.add( ByteBuffer.wrap( bytes, offset, length ).slice() );
+			size += length;
+			return;
+		}
+
+		int position = offset;
+		int end = offset + length;
+		while( position < end )
+		{
+			ensureChunk( 1 );
+			int count = Math.min( end - position, chunk.length - chunkPosition );
+			System.arraycopy( bytes, position, chunk, chunkPosition, count );
+			chunkPosition += count;
+			position += count;
+		}
+		size += length;
+	}
+
+	/**
+	 * Returns amount of octets written since creation or last {@link #reset()}
+	 *
+	 * @return octet count
+	 */
+	public long size()
+	{
+		return size;
+	}
+
+	/**
+	 * Returns segments of encoding in order. Buffers share content with writer and are valid until {@link #reset()}
+	 *
+	 * @return list of buffers
+	 */
+	@NotNull
+	public List<ByteBuffer> getSegments()
+	{
+		assertFinished();
+		seal();
+		List<ByteBuffer> result = new ArrayList<>( segments.size() );
+		for( ByteBuffer segment : segments )
+			result.add( segment.duplicate() );
+		return result;
+	}
+
+	/**
+	 * Write all segments to channel using gathering write. Channel must be in blocking mode,
+	 * if channel writes segments partially, writing is repeated for the rest of them.
+	 *
+	 * @param channel the channel
+	 * @return amount of written octets
+	 * @throws IOException in case of I/O failure
+	 */
+	public long writeTo( @NotNull GatheringByteChannel channel ) throws IOException
+	{
+		List<ByteBuffer> list = getSegments();
+		ByteBuffer[] buffers = list.toArray( new ByteBuffer[list.size()] );
+		long written = 0L;
+		while( written < size )
+			written += channel.write( buffers );
+		return written;
+	}
+
+	/**
+	 * Discard written segments, so writer may be used for next value. Segments returned earlier become invalid.
+	 */
+	public void reset()
+	{
+		segments.clear();
+		chunkStart = 0;
+		chunkPosition = 0;
+		size = 0L;
+		depth = 0;
+	}
+
+	@Override
+	public void close()
+	{
+		reset();
+	}
+
+	@Override
+	public byte[] toByteArray() throws IOException
+	{
+		if( size > Integer.MAX_VALUE )
+			throw new IOException( "Content is too long: " + size );
+
+		//noinspection NumericCastThatLosesPrecision
+		byte[] result = new byte[(int)size];
+		int position = 0;
+		for( ByteBuffer segment : getSegments() )
+		{
+			int length = segment.remaining();
+			segment.get( result, position, length );
+			position += length;
+		}
+		return result;
+	}
+
+	private void assertFinished()
+	{
+		if( depth != 0 )
+			throw new IllegalStateException( "Value is not finished" );
+	}
+
+	/**
+	 * Add collected octets of current chunk as segment
+	 */
+	private void seal()
+	{
+		if( chunkPosition > chunkStart )
+		{
+			segments.add( ByteBuffer.wrap( chunk, chunkStart, chunkPosition - chunkStart ).slice() );
+			chunkStart = chunkPosition;
+		}
+	}
+
+	private void ensureChunk( int required )
+	{
+		if( chunk.length - chunkPosition < required )
+		{
+			seal();
+			chunk = new byte[CHUNK_SIZE];
+			chunkStart = 0;
+			chunkPosition = 0;
+		}
+	}
+}
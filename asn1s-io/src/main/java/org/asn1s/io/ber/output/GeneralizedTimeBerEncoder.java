@@ -32,7 +32,6 @@ import org.asn1s.api.exception.Asn1Exception;
 import org.asn1s.api.type.Type.Family;
 import org.asn1s.api.util.TimeUtils;
 import org.asn1s.api.value.Value.Kind;
-import org.asn1s.io.ber.BerRules;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.IOException;
@@ -48,7 +47,7 @@ public class GeneralizedTimeBerEncoder implements BerEncoder
 		assert context.getType().getFamily() == Family.GENERALIZED_TIME;
 		assert context.getValue().getKind() == Kind.TIME;
 		Instant instant = context.getValue().toDateValue().asInstant();
-		boolean optimize = context.getRules() != BerRules.DER;
+		boolean optimize = !context.getRules().isCanonical();
 		String content = TimeUtils.formatInstant( instant, TimeUtils.GENERALIZED_TIME_FORMAT, optimize );
 		byte[] bytes = content.getBytes( TimeUtils.CHARSET );
 		context.writeHeader( TAG, bytes.length );
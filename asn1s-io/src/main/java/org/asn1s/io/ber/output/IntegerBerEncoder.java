@@ -49,7 +49,7 @@ final class IntegerBerEncoder implements BerEncoder
 	{
 		assert context.getType().getFamily() == Family.INTEGER;
 		assert context.getValue().getKind() == Kind.INTEGER;
-		writeLong( context.getWriter(), context.getValue().toIntegerValue().asLong(), TAG, context.isWriteHeader() );
+		writeLong( context.getWriter(), context.getValue().toIntegerValue().asLong(), context.toHeaderTag( TAG ), context.isWriteHeader() );
 	}
 
 	static void writeLong( @NotNull AbstractBerWriter os, long value, @Nullable Tag tag, boolean writeHeader ) throws IOException
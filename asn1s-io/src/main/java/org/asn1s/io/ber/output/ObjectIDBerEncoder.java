@@ -50,16 +50,23 @@ public class ObjectIDBerEncoder implements BerEncoder
 		assert context.getType().getFamily() == Family.OID;
 		assert context.getValue().getKind() == Kind.OID;
 
-		if( !context.isWriteHeader() )
-			writeObjectIDImpl( context.getWriter(), context.getValue().toObjectIdentifierValue() );
-		else if( context.isBufferingAvailable() )
-		{
-			context.startBuffer( -1 );
-			writeObjectIDImpl( context.getWriter(), context.getValue().toObjectIdentifierValue() );
-			context.stopBuffer( TAG );
-		}
-		else
-			throw new Asn1Exception( "Buffering is required for ObjectIdentifier" );
+		ObjectIdentifierValue value = context.getValue().toObjectIdentifierValue();
+		context.writeHeader( TAG, getObjectIDLength( value ) );
+		writeObjectIDImpl( context.getWriter(), value );
+	}
+
+	private static int getObjectIDLength( ObjectIdentifierValue value )
+	{
+		Long[] array = value.asIDArray();
+		int length = getObjectIDItemLength( array[0] * BerUtils.OID_FIRST_BYTE_MULTIPLIER + array[1] );
+		for( int i = 2; i < array.length; i++ )
+			length += getObjectIDItemLength( array[i] );
+		return length;
+	}
+
+	private static int getObjectIDItemLength( long item )
+	{
+		return item == 0 ? 1 : ( Long.SIZE - Long.numberOfLeadingZeros( item ) + 6 ) / 7;
 	}
 
 	private static void writeObjectIDImpl( AbstractBerWriter os, ObjectIdentifierValue value ) throws IOException
@@ -43,9 +43,6 @@ final class OctetStringBerEncoder implements BerEncoder
 	{
 		assert context.getType().getFamily() == Family.OCTET_STRING;
 		assert context.getValue().getKind() == Kind.BYTE_ARRAY;
-		byte[] bytes = context.getValue().toByteArrayValue().asByteArray();
-		int length = bytes == null ? 0 : bytes.length;
-		context.writeHeader( TAG, length );
-		context.write( bytes );
+		BerEncoderUtils.writeString( context, TAG, context.getValue().toByteArrayValue().asByteArray() );
 	}
 }
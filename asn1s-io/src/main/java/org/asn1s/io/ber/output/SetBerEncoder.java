@@ -35,7 +35,7 @@ import org.asn1s.api.type.ComponentType;
 import org.asn1s.api.type.Type;
 import org.asn1s.api.type.Type.Family;
 import org.asn1s.api.value.x680.NamedValue;
-import org.asn1s.io.ber.BerRules;
+import org.asn1s.io.ber.BerUtils;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.*;
@@ -56,7 +56,7 @@ final class SetBerEncoder extends AbstractCollectionBerEncoder
 	protected Collection<NamedValue> getValues( @NotNull WriterContext context )
 	{
 		List<NamedValue> values = context.getValue().toValueCollection().asNamedValueList();
-		return context.getRules() == BerRules.DER ? sortByTag( context.getType(), values ) : values;
+		return context.getRules().isCanonical() ? sortByTag( context.getType(), values ) : values;
 	}
 
 	@NotNull
@@ -78,7 +78,8 @@ final class SetBerEncoder extends AbstractCollectionBerEncoder
 
 	private static int compareByTag( TagEncoding t1, TagEncoding t2 )
 	{
-		int res = t1.getTagClass().compareTo( t2.getTagClass() );
+		// canonical order is universal, application, context-specific, private, see X.690, p 8.6
+		int res = Integer.compare( t1.getTagClass().getCode() & BerUtils.BYTE_MASK, t2.getTagClass().getCode() & BerUtils.BYTE_MASK );
 		if( res != 0 )
 			return res;
 		return Integer.compare( t1.getTagNumber(), t2.getTagNumber() );
@@ -25,13 +25,20 @@
 
 package org.asn1s.io.ber.output;
 
+import org.asn1s.api.Ref;
 import org.asn1s.api.exception.Asn1Exception;
+import org.asn1s.api.exception.IllegalValueException;
+import org.asn1s.api.type.CollectionOfType;
+import org.asn1s.api.type.ComponentType;
 import org.asn1s.api.type.Type.Family;
+import org.asn1s.api.value.Value;
 import org.asn1s.api.value.Value.Kind;
+import org.asn1s.api.value.x680.ValueCollection;
 import org.asn1s.io.ber.BerRules;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.IOException;
+import java.util.List;
 
 final class SetOfBerEncoder implements BerEncoder
 {
@@ -41,16 +48,16 @@ final class SetOfBerEncoder implements BerEncoder
 		assert context.getType().getFamily() == Family.SET_OF;
 		assert context.getValue().getKind() == Kind.COLLECTION || context.getValue().getKind() == Kind.NAMED_COLLECTION;
 
-		if( !context.isWriteHeader() )
+		if( context.getRules().isCanonical() )
+			encodeSorted( context );
+		else if( !context.isWriteHeader() )
 			SequenceOfBerEncoder.writeCollection( context );
-		else if( context.isBufferingAvailable() )
+		else if( context.isDefiniteConstructed() )
 		{
 			context.startBuffer( -1 );
 			SequenceOfBerEncoder.writeCollection( context );
 			context.stopBuffer( SetBerEncoder.TAG );
 		}
-		else if( context.getRules() == BerRules.DER )
-			throw new Asn1Exception( "Buffering is required for DER rules" );
 		else
 		{
 			context.writeHeader( SetBerEncoder.TAG, -1 );
@@ -59,4 +66,49 @@ final class SetOfBerEncoder implements BerEncoder
 			context.write( 0 );
 		}
 	}
+
+	/**
+	 * Canonical encodings require elements to be sorted by their encodings, see X.690, p 11.6.
+	 * Every element is encoded once into shared arena, then offsets are sorted and elements are copied in order.
+	 * Content length is known once arena is filled, so no buffering is required for definite length form.
+	 *
+	 * @param context the writer context
+	 * @throws IOException   in case of I/O failure
+	 * @throws Asn1Exception if element can not be written
+	 */
+	private static void encodeSorted( WriterContext context ) throws IOException, Asn1Exception
+	{
+		ValueCollection collection = context.getValue().toValueCollection();
+		ComponentType componentType = ( (CollectionOfType)context.getType() ).getComponentType();
+		List<Ref<Value>> values = collection.asValueList();
+		EncodingArena arena = new EncodingArena();
+		int[] offsets = new int[values.size() + 1];
+		context.getScope().setValueLevel( collection );
+		//noinspection resource
+		AbstractBerWriter writer = new DefaultBerWriter( context.getRules(), arena );
+		int index = 0;
+		for( Ref<Value> ref : values )
+		{
+			if( !( ref instanceof Value ) )
+				throw new IllegalValueException( "Unable to use references: " + ref );
+			writer.writeInternal( new WriterContext( writer, componentType.getScope( context.getScope() ), componentType, (Value)ref, true ) );
+			index++;
+			offsets[index] = arena.size();
+		}
+
+		if( !context.isWriteHeader() )
+			arena.writeSorted( context.getWriter(), offsets );
+		else if( context.getRules() == BerRules.CER )
+		{
+			context.writeHeader( SetBerEncoder.TAG, -1 );
+			arena.writeSorted( context.getWriter(), offsets );
+			context.write( 0 );
+			context.write( 0 );
+		}
+		else
+		{
+			context.writeHeader( SetBerEncoder.TAG, arena.size() );
+			arena.writeSorted( context.getWriter(), offsets );
+		}
+	}
 }
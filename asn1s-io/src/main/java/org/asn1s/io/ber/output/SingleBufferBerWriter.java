@@ -0,0 +1,256 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.ber.output;
+
+import org.asn1s.api.Ref;
+import org.asn1s.api.Scope;
+import org.asn1s.api.encoding.tag.Tag;
+import org.asn1s.api.exception.Asn1Exception;
+import org.asn1s.api.type.Type;
+import org.asn1s.api.value.Value;
+import org.asn1s.io.ber.BerRules;
+import org.asn1s.io.ber.output.BerDirectWriter.Encoder;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Writer that keeps content octets of whole value in single growable array.
+ * Buffering does not create nested buffers, instead headers of constructed values are stored separately
+ * along with offsets they belong to and spliced into content when value is complete.
+ * Every content octet is copied only once regardless of nesting depth, unlike {@link DefaultBerWriter}
+ * which copies it once per enclosing constructed value.
+ */
+public final class SingleBufferBerWriter extends AbstractBerWriter
+{
+	private static final int INITIAL_CAPACITY = 1024;
+	private static final int INITIAL_HEADERS = 32;
+
+	public SingleBufferBerWriter( BerRules rules )
+	{
+		this.rules = rules;
+		os = new ByteArrayOutputStream();
+		internalOs = true;
+	}
+
+	public SingleBufferBerWriter( BerRules rules, OutputStream os )
+	{
+		this.rules = rules;
+		this.os = os;
+		internalOs = false;
+	}
+
+	private final BerRules rules;
+	private final OutputStream os;
+	private final boolean internalOs;
+
+	private byte[] content = new byte[INITIAL_CAPACITY];
+	private int size;
+
+	/**
+	 * Headers are stored in order of buffer start, so headers with same offset are written outer first
+	 */
+	private int[] headerOffsets = new int[INITIAL_HEADERS];
+	private int[] headerStarts = new int[INITIAL_HEADERS];
+	private int[] headerLengths = new int[INITIAL_HEADERS];
+	private int headerCount;
+	private byte[] headerBytes = new byte[INITIAL_HEADERS];
+	private int headerSize;
+
+	/**
+	 * Stack of started buffers: header index and amount of header octets written before buffer start
+	 */
+	private int[] openHeaders = new int[INITIAL_HEADERS];
+	private int[] openHeaderSizes = new int[INITIAL_HEADERS];
+	private int depth;
+
+	@Override
+	public BerRules getRules()
+	{
+		return rules;
+	}
+
+	@Override
+	public boolean isBufferingAvailable()
+	{
+		return true;
+	}
+
+	@Override
+	public void write( @NotNull Scope scope, @NotNull Ref<Type> typeRef, @NotNull Value value ) throws IOException, Asn1Exception
+	{
+		clear();
+		super.write( scope, typeRef, value );
+		flush();
+	}
+
+	@Override
+	public void write( @NotNull Scope scope, @NotNull Encoder encoder ) throws IOException, Asn1Exception
+	{
+		clear();
+		super.write( scope, encoder );
+		flush();
+	}
+
+	@Override
+	public void startBuffer( int sizeHint )
+	{
+		if( headerCount == headerOffsets.length )
+		{
+			int capacity = headerCount * 2;
+			headerOffsets = Arrays.copyOf( headerOffsets, capacity );
+			headerStarts = Arrays.copyOf( headerStarts, capacity );
+			headerLengths = Arrays.copyOf( headerLengths, capacity );
+		}
+
+		if( depth == openHeaders.length )
+		{
+			openHeaders = Arrays.copyOf( openHeaders, depth * 2 );
+			openHeaderSizes = Arrays.copyOf( openHeaderSizes, depth * 2 );
+		}
+
+		headerOffsets[headerCount] = size;
+		openHeaders[depth] = headerCount;
+		openHeaderSizes[depth] = headerSize;
+		headerCount++;
+		depth++;
+	}
+
+	@Override
+	public void stopBuffer( @NotNull Tag tag ) throws IOException
+	{
+		if( depth == 0 )
+			throw new IllegalStateException( "No buffer started" );
+
+		depth--;
+		int index = openHeaders[depth];
+		int offset = headerOffsets[index];
+		int length = size - offset + headerSize - openHeaderSizes[depth];
+
+		// header is encoded at the end of content and moved out
+		int headerStart = size;
+		writeHeader( tag, length );
+		int headerLength = size - headerStart;
+		size = headerStart;
+
+		ensureHeaderCapacity( headerLength );
+		System.arraycopy( content, headerStart, headerBytes, headerSize, headerLength );
+		headerStarts[index] = headerSize;
+		headerLengths[index] = headerLength;
+		headerSize += headerLength;
+	}
+
+	@Override
+	public void write( int aByte ) throws IOException
+	{
+		ensureCapacity( 1 );
+		//noinspection NumericCastThatLosesPrecision
+		content[size++] = (byte)aByte;
+	}
+
+	@Override
+	public void write( byte[] bytes ) throws IOException
+	{
+		ensureCapacity( bytes.length );
+		System.arraycopy( bytes, 0, content, size, bytes.length );
+		size += bytes.length;
+	}
+
+	@Override
+	public void write( byte[] bytes, int offset, int length ) throws IOException
+	{
+		ensureCapacity( length );
+		System.arraycopy( bytes, offset, content, size, length );
+		size += length;
+	}
+
+	@Override
+	public void close() throws Exception
+	{
+		if( internalOs )
+			os.close();
+	}
+
+	@Override
+	public byte[] toByteArray() throws IOException
+	{
+		if( !internalOs )
+			throw new IOException( "Unable to get bytes from provided stream" );
+
+		return ( (ByteArrayOutputStream)os ).toByteArray();
+	}
+
+	/**
+	 * Write content with spliced headers to underlying stream
+	 *
+	 * @throws IOException in case of I/O failure
+	 */
+	private void flush() throws IOException
+	{
+		if( depth != 0 )
+			throw new IllegalStateException( "Buffer is not stopped" );
+
+		int position = 0;
+		for( int i = 0; i < headerCount; i++ )
+		{
+			int offset = headerOffsets[i];
+			if( offset > position )
+			{
+				os.write( content, position, offset - position );
+				position = offset;
+			}
+			os.write( headerBytes, headerStarts[i], headerLengths[i] );
+		}
+
+		if( size > position )
+			os.write( content, position, size - position );
+
+		clear();
+	}
+
+	private void clear()
+	{
+		size = 0;
+		headerCount = 0;
+		headerSize = 0;
+		depth = 0;
+	}
+
+	private void ensureCapacity( int amount )
+	{
+		if( size + amount > content.length )
+			content = Arrays.copyOf( content, Math.max( content.length * 2, size + amount ) );
+	}
+
+	private void ensureHeaderCapacity( int amount )
+	{
+		if( headerSize + amount > headerBytes.length )
+			headerBytes = Arrays.copyOf( headerBytes, Math.max( headerBytes.length * 2, headerSize + amount ) );
+	}
+}
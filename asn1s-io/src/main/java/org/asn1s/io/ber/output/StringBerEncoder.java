@@ -52,7 +52,6 @@ public class StringBerEncoder implements BerEncoder
 		}
 		Tag tag = ( (TagEncoding)type.getEncoding( EncodingInstructions.TAG ) ).toTag( false );
 		byte[] bytes = context.getValue().toStringValue().asString().getBytes( ( (StringType)type ).getCharset() );
-		context.writeHeader( tag, bytes.length );
-		context.write( bytes );
+		BerEncoderUtils.writeString( context, tag, bytes );
 	}
 }
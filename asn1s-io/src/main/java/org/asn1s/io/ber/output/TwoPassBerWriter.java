@@ -0,0 +1,245 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.ber.output;
+
+import org.asn1s.api.Ref;
+import org.asn1s.api.Scope;
+import org.asn1s.api.encoding.tag.Tag;
+import org.asn1s.api.exception.Asn1Exception;
+import org.asn1s.api.type.Type;
+import org.asn1s.api.value.Value;
+import org.asn1s.io.ber.BerRules;
+import org.asn1s.io.ber.output.BerDirectWriter.Encoder;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Writer that encodes each value twice. The first pass only counts octets and stores content length
+ * and tag of every constructed value, the second pass writes definite length encoding directly
+ * to underlying stream using stored lengths, so no content is buffered.
+ * Extra memory is single int and tag reference per constructed value plus stack of nesting depth.
+ * Since octets are written one by one, consider using buffered stream.
+ */
+public final class TwoPassBerWriter extends AbstractBerWriter
+{
+	private static final int INITIAL_CAPACITY = 32;
+
+	public TwoPassBerWriter( BerRules rules )
+	{
+		this.rules = rules;
+		os = new ByteArrayOutputStream();
+		internalOs = true;
+	}
+
+	public TwoPassBerWriter( BerRules rules, OutputStream os )
+	{
+		this.rules = rules;
+		this.os = os;
+		internalOs = false;
+	}
+
+	private final BerRules rules;
+	private final OutputStream os;
+	private final boolean internalOs;
+
+	private boolean measuring;
+	private long count;
+
+	/**
+	 * Lengths and tags of constructed values in order of buffer start
+	 */
+	private int[] lengths = new int[INITIAL_CAPACITY];
+	private Tag[] tags = new Tag[INITIAL_CAPACITY];
+	private int nodeCount;
+	private int cursor;
+
+	/**
+	 * Stack of started buffers: node index and octet count at buffer start
+	 */
+	private int[] openNodes = new int[INITIAL_CAPACITY];
+	private long[] openCounts = new long[INITIAL_CAPACITY];
+	private int depth;
+
+	@Override
+	public BerRules getRules()
+	{
+		return rules;
+	}
+
+	@Override
+	public boolean isBufferingAvailable()
+	{
+		return true;
+	}
+
+	@Override
+	public void write( @NotNull Scope scope, @NotNull Ref<Type> typeRef, @NotNull Value value ) throws IOException, Asn1Exception
+	{
+		Type type = typeRef.resolve( scope );
+		// resolve value to make sure it's correct
+		Value resolved = value.resolve( scope );
+		type.accept( scope, resolved );
+		writePasses( () -> writeInternal( new WriterContext( this, scope, type, resolved, true ) ) );
+	}
+
+	@Override
+	public void write( @NotNull Scope scope, @NotNull Encoder encoder ) throws IOException, Asn1Exception
+	{
+		writePasses( () -> super.write( scope, encoder ) );
+	}
+
+	private void writePasses( Pass pass ) throws IOException, Asn1Exception
+	{
+		measuring = true;
+		count = 0L;
+		nodeCount = 0;
+		depth = 0;
+		pass.run();
+
+		measuring = false;
+		cursor = 0;
+		try
+		{
+			pass.run();
+		} finally
+		{
+			Arrays.fill( tags, 0, nodeCount, null );
+		}
+
+		if( cursor != nodeCount )
+			throw new IllegalStateException( "Value structure differs between passes" );
+	}
+
+	@Override
+	public void startBuffer( int sizeHint ) throws IOException
+	{
+		if( measuring )
+			startMeasure();
+		else
+		{
+			if( cursor == nodeCount )
+				throw new IllegalStateException( "Value structure differs between passes" );
+
+			int index = cursor++;
+			writeHeader( tags[index], lengths[index] );
+		}
+	}
+
+	@Override
+	public void stopBuffer( @NotNull Tag tag ) throws IOException
+	{
+		if( !measuring )
+			return;
+
+		if( depth == 0 )
+			throw new IllegalStateException( "No buffer started" );
+
+		depth--;
+		int index = openNodes[depth];
+		long length = count - openCounts[depth];
+		if( length > Integer.MAX_VALUE )
+			throw new IOException( "Content is too long: " + length );
+
+		//noinspection NumericCastThatLosesPrecision
+		lengths[index] = (int)length;
+		tags[index] = tag;
+		// counts header octets
+		writeHeader( tag, lengths[index] );
+	}
+
+	@Override
+	public void write( int aByte ) throws IOException
+	{
+		if( measuring )
+			count++;
+		else
+			os.write( aByte );
+	}
+
+	@Override
+	public void write( byte[] bytes ) throws IOException
+	{
+		if( measuring )
+			count += bytes.length;
+		else
+			os.write( bytes );
+	}
+
+	@Override
+	public void write( byte[] bytes, int offset, int length ) throws IOException
+	{
+		if( measuring )
+			count += length;
+		else
+			os.write( bytes, offset, length );
+	}
+
+	@Override
+	public void close() throws Exception
+	{
+		if( internalOs )
+			os.close();
+	}
+
+	@Override
+	public byte[] toByteArray() throws IOException
+	{
+		if( !internalOs )
+			throw new IOException( "Unable to get bytes from provided stream" );
+
+		return ( (ByteArrayOutputStream)os ).toByteArray();
+	}
+
+	private void startMeasure()
+	{
+		if( nodeCount == lengths.length )
+		{
+			lengths = Arrays.copyOf( lengths, nodeCount * 2 );
+			tags = Arrays.copyOf( tags, nodeCount * 2 );
+		}
+
+		if( depth == openNodes.length )
+		{
+			openNodes = Arrays.copyOf( openNodes, depth * 2 );
+			openCounts = Arrays.copyOf( openCounts, depth * 2 );
+		}
+
+		openNodes[depth] = nodeCount;
+		openCounts[depth] = count;
+		nodeCount++;
+		depth++;
+	}
+
+	@FunctionalInterface
+	private interface Pass
+	{
+		void run() throws IOException, Asn1Exception;
+	}
+}
@@ -32,7 +32,6 @@ import org.asn1s.api.exception.Asn1Exception;
 import org.asn1s.api.type.Type.Family;
 import org.asn1s.api.util.TimeUtils;
 import org.asn1s.api.value.Value.Kind;
-import org.asn1s.io.ber.BerRules;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.IOException;
@@ -46,7 +45,7 @@ public class UTCTimeBerEncoder implements BerEncoder
 	{
 		assert context.getType().getFamily() == Family.UTC_TIME;
 		assert context.getValue().getKind() == Kind.TIME;
-		String content = TimeUtils.formatInstant( context.getValue().toDateValue().asInstant(), TimeUtils.UTC_TIME_FORMAT, context.getRules() != BerRules.DER );
+		String content = TimeUtils.formatInstant( context.getValue().toDateValue().asInstant(), TimeUtils.UTC_TIME_FORMAT, !context.getRules().isCanonical() );
 		byte[] bytes = content.getBytes( TimeUtils.CHARSET );
 		context.writeHeader( TAG, bytes.length );
 		context.write( bytes );
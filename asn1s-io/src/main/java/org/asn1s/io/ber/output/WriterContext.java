@@ -27,6 +27,7 @@ package org.asn1s.io.ber.output;
 
 import org.asn1s.api.Scope;
 import org.asn1s.api.encoding.tag.Tag;
+import org.asn1s.api.encoding.tag.TagEncoding;
 import org.asn1s.api.exception.Asn1Exception;
 import org.asn1s.api.exception.IllegalValueException;
 import org.asn1s.api.type.ComponentType;
@@ -61,6 +62,7 @@ public class WriterContext
 	private Type type;
 	private Value value;
 	private boolean writeHeader;
+	private TagEncoding implicitTag;
 
 	public AbstractBerWriter getWriter()
 	{
@@ -107,6 +109,34 @@ public class WriterContext
 		this.writeHeader = writeHeader;
 	}
 
+	/**
+	 * Returns tag which replaces tag of value header, it is used for IMPLICIT tags if constructed values are not buffered
+	 *
+	 * @return tag encoding or null
+	 */
+	@Nullable
+	public TagEncoding getImplicitTag()
+	{
+		return implicitTag;
+	}
+
+	public void setImplicitTag( @Nullable TagEncoding implicitTag )
+	{
+		this.implicitTag = implicitTag;
+	}
+
+	/**
+	 * Returns tag to be written in value header instead of tag
+	 *
+	 * @param tag the value tag
+	 * @return tag
+	 */
+	@NotNull
+	public Tag toHeaderTag( @NotNull Tag tag )
+	{
+		return implicitTag == null ? tag : implicitTag.toTag( tag.isConstructed() );
+	}
+
 	public WriterContext narrow() throws Asn1Exception
 	{
 		if( type instanceof ComponentType && !( (ComponentType)type ).isDummy() )
@@ -155,6 +185,7 @@ public class WriterContext
 	public WriterContext toSiblingContext( @NotNull Type type, @NotNull Value value, boolean writeHeader )
 	{
 		this.writeHeader = writeHeader;
+		implicitTag = null;
 		this.type = type;
 		scope = type.getScope( scope );
 		this.value = value;
@@ -171,14 +202,19 @@ public class WriterContext
 		return writer.isBufferingAvailable();
 	}
 
-	public void startBuffer( int sizeHint )
+	public boolean isDefiniteConstructed()
+	{
+		return getRules() != BerRules.CER && isBufferingAvailable();
+	}
+
+	public void startBuffer( int sizeHint ) throws IOException
 	{
 		writer.startBuffer( sizeHint );
 	}
 
 	public void stopBuffer( @NotNull Tag tag ) throws IOException
 	{
-		writer.stopBuffer( tag );
+		writer.stopBuffer( toHeaderTag( tag ) );
 	}
 
 	public void write( int aByte ) throws IOException
@@ -200,7 +236,7 @@ public class WriterContext
 	public void writeHeader( Tag tag, int length ) throws IOException
 	{
 		if( isWriteHeader() )
-			writer.writeHeader( tag, length );
+			writer.writeHeader( toHeaderTag( tag ), length );
 	}
 
 	public void writeInternal() throws IOException, Asn1Exception
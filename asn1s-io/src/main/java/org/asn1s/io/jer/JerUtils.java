@@ -0,0 +1,120 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.jer;
+
+import org.asn1s.api.constraint.EffectiveConstraint;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+public final class JerUtils
+{
+	/**
+	 * Members of JSON object used for BIT STRING without fixed size, see X.697
+	 */
+	public static final String BIT_STRING_VALUE = "value";
+	public static final String BIT_STRING_LENGTH = "length";
+
+	/**
+	 * Special real values are encoded as JSON strings, see X.697
+	 */
+	public static final String PLUS_INFINITY = "INF";
+	public static final String MINUS_INFINITY = "-INF";
+	public static final String NOT_A_NUMBER = "NaN";
+	public static final String MINUS_ZERO = "-0";
+
+	public static final char OID_SEPARATOR = '.';
+
+	private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+	private static final int HEX_RADIX = 16;
+	private static final int NIBBLE_BITS = 4;
+	private static final int NIBBLE_MASK = 0x0F;
+
+	private JerUtils()
+	{
+	}
+
+	/**
+	 * Returns fixed size from JER-visible size constraint, extensible constraints are not JER-visible
+	 *
+	 * @param constraint the effective constraint
+	 * @return size or -1 if size is not fixed
+	 */
+	public static long getFixedSize( @Nullable EffectiveConstraint constraint )
+	{
+		EffectiveConstraint size = constraint == null || constraint.isExtensible() ? null : constraint.getSize();
+		if( size == null || size.isExtensible() )
+			return -1L;
+
+		Long lowerBound = size.getLowerBound();
+		Long upperBound = size.getUpperBound();
+		return lowerBound != null && lowerBound.equals( upperBound ) ? lowerBound : -1L;
+	}
+
+	/**
+	 * Convert octets to hexadecimal digits
+	 *
+	 * @param bytes  the octets
+	 * @param length amount of octets to convert
+	 * @return string
+	 */
+	@NotNull
+	public static String toHexString( @NotNull byte[] bytes, int length )
+	{
+		char[] result = new char[length * 2];
+		for( int i = 0; i < length; i++ )
+		{
+			result[i * 2] = HEX_DIGITS[( bytes[i] >>> NIBBLE_BITS ) & NIBBLE_MASK];
+			result[i * 2 + 1] = HEX_DIGITS[bytes[i] & NIBBLE_MASK];
+		}
+		return new String( result );
+	}
+
+	/**
+	 * Convert hexadecimal digits to octets
+	 *
+	 * @param digits the digits
+	 * @return octets
+	 * @throws IllegalArgumentException if digits is not a valid hexadecimal string
+	 */
+	@NotNull
+	public static byte[] fromHexString( @NotNull CharSequence digits )
+	{
+		if( digits.length() % 2 != 0 )
+			throw new IllegalArgumentException( "Odd amount of hexadecimal digits: " + digits.length() );
+
+		byte[] result = new byte[digits.length() / 2];
+		for( int i = 0; i < result.length; i++ )
+		{
+			int high = Character.digit( digits.charAt( i * 2 ), HEX_RADIX );
+			int low = Character.digit( digits.charAt( i * 2 + 1 ), HEX_RADIX );
+			if( high == -1 || low == -1 )
+				throw new IllegalArgumentException( "Illegal hexadecimal digit at: " + i * 2 );
+			//noinspection NumericCastThatLosesPrecision
+			result[i] = (byte)( high << NIBBLE_BITS | low );
+		}
+		return result;
+	}
+}
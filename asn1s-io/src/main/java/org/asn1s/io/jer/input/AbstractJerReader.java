@@ -0,0 +1,170 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.jer.input;
+
+import org.asn1s.api.Ref;
+import org.asn1s.api.Scope;
+import org.asn1s.api.exception.Asn1Exception;
+import org.asn1s.api.exception.ResolutionException;
+import org.asn1s.api.type.ComponentType;
+import org.asn1s.api.type.InstanceOfTypeSelector;
+import org.asn1s.api.type.Type;
+import org.asn1s.api.type.Type.Family;
+import org.asn1s.api.type.TypeUtils;
+import org.asn1s.api.value.Value;
+import org.asn1s.api.value.ValueFactory;
+import org.asn1s.io.Asn1Reader;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Basic JER reader, values are pulled token by token from {@link JsonTokenizer},
+ * no document tree is built. See X.697
+ */
+abstract class AbstractJerReader implements Asn1Reader
+{
+	private static final Map<Family, JerDecoder> DECODERS = new EnumMap<>( Family.class );
+
+	static
+	{
+		DECODERS.put( Family.BOOLEAN, new BooleanJerDecoder() );
+		DECODERS.put( Family.INTEGER, new IntegerJerDecoder() );
+		DECODERS.put( Family.ENUMERATED, new EnumeratedJerDecoder() );
+		DECODERS.put( Family.REAL, new RealJerDecoder() );
+		DECODERS.put( Family.BIT_STRING, new BitStringJerDecoder() );
+		DECODERS.put( Family.OCTET_STRING, new OctetStringJerDecoder() );
+		DECODERS.put( Family.NULL, new NullJerDecoder() );
+		DECODERS.put( Family.SEQUENCE, new SequenceJerDecoder() );
+		DECODERS.put( Family.SEQUENCE_OF, new SequenceOfJerDecoder() );
+		DECODERS.put( Family.SET, new SequenceJerDecoder() );
+		DECODERS.put( Family.SET_OF, new SequenceOfJerDecoder() );
+		DECODERS.put( Family.RESTRICTED_STRING, new StringJerDecoder() );
+		DECODERS.put( Family.UTC_TIME, new TimeJerDecoder() );
+		DECODERS.put( Family.GENERALIZED_TIME, new TimeJerDecoder() );
+		DECODERS.put( Family.OID, new ObjectIDJerDecoder() );
+	}
+
+	AbstractJerReader( ValueFactory factory )
+	{
+		this.factory = factory;
+	}
+
+	private final ValueFactory factory;
+
+	@NotNull
+	@Override
+	public ValueFactory getValueFactory()
+	{
+		return factory;
+	}
+
+	/**
+	 * Returns tokenizer of input stream
+	 *
+	 * @return tokenizer
+	 */
+	@NotNull
+	public abstract JsonTokenizer getTokenizer();
+
+	@Override
+	public Value read( @NotNull Scope scope, @NotNull Ref<Type> typeRef ) throws IOException, Asn1Exception
+	{
+		Type type = typeRef.resolve( scope );
+		if( getTokenizer().next() == JsonToken.END_OF_INPUT )
+			throw new EOFException();
+
+		Value value = readInternal( new ReaderContext( this, scope, type ) );
+		type.accept( scope, value );
+		return value;
+	}
+
+	@NotNull
+	Value readInternal( @NotNull ReaderContext context ) throws IOException, Asn1Exception
+	{
+		Type type = context.getType();
+		if( type.hasSibling() )
+			return readInternal( context.toSiblingContext() );
+
+		if( type.getFamily() == Family.CHOICE )
+			return readChoiceType( context );
+
+		if( type.getFamily() == Family.OPEN_TYPE )
+			return readOpenType( context );
+
+		JerDecoder decoder = DECODERS.get( type.getFamily() );
+		if( decoder == null )
+			throw new IllegalStateException( "No decoder found for family: " + type.getFamily() );
+
+		return decoder.decode( context );
+	}
+
+	/**
+	 * Open type value is encoded as value of its actual type
+	 *
+	 * @param context the reader context
+	 * @return value
+	 * @throws IOException   in case of I/O failure
+	 * @throws Asn1Exception if value can not be decoded
+	 */
+	private Value readOpenType( @NotNull ReaderContext context ) throws Asn1Exception, IOException
+	{
+		InstanceOfTypeSelector selector = context.getScope().getScopeOption( TypeUtils.INSTANCE_OF_TYPE_KEY );
+		if( selector == null )
+			throw new ResolutionException( "Unable to locate InstanceOfTypeSelector." );
+
+		Type openTypeType = selector.resolveInstanceOfType( context.getScope() );
+		Value openTypeValue = readInternal( context.toSiblingContext( openTypeType ) );
+		return factory.openTypeValue( openTypeType, openTypeValue ).resolve( context.getScope() );
+	}
+
+	/**
+	 * Choice value is object with single member named after chosen alternative
+	 *
+	 * @param context the reader context
+	 * @return value
+	 * @throws IOException   in case of I/O failure
+	 * @throws Asn1Exception if value can not be decoded
+	 */
+	private Value readChoiceType( @NotNull ReaderContext context ) throws IOException, Asn1Exception
+	{
+		JsonTokenizer tokenizer = getTokenizer();
+		tokenizer.expect( JsonToken.START_OBJECT );
+		tokenizer.next( JsonToken.NAME );
+		String name = tokenizer.getText();
+		ComponentType component = context.getType().getNamedType( name );
+		if( component == null )
+			throw tokenizer.error( "Unable to read choice value, unknown alternative: " + name );
+
+		tokenizer.next();
+		Value value = factory.named( component.getName(), context.readComponentType( component ) );
+		tokenizer.next( JsonToken.END_OBJECT );
+		return value;
+	}
+}
@@ -0,0 +1,109 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.jer.input;
+
+import org.asn1s.api.type.Type.Family;
+import org.asn1s.api.value.Value;
+import org.asn1s.io.jer.JerUtils;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+
+/**
+ * Bit string of fixed size is hexadecimal string, otherwise object with hexadecimal value and bit count
+ */
+final class BitStringJerDecoder implements JerDecoder
+{
+	@Override
+	public Value decode( @NotNull ReaderContext context ) throws IOException
+	{
+		assert context.getType().getFamily() == Family.BIT_STRING;
+		JsonTokenizer tokenizer = context.getTokenizer();
+		long size = JerUtils.getFixedSize( context.getConstraint() );
+		String hex = null;
+		long length = size;
+		if( size >= 0 )
+		{
+			tokenizer.expect( JsonToken.STRING );
+			hex = tokenizer.getText();
+		}
+		else
+		{
+			tokenizer.expect( JsonToken.START_OBJECT );
+			while( tokenizer.next() == JsonToken.NAME )
+			{
+				String name = tokenizer.getText();
+				if( JerUtils.BIT_STRING_VALUE.equals( name ) )
+				{
+					tokenizer.next( JsonToken.STRING );
+					hex = tokenizer.getText();
+				}
+				else if( JerUtils.BIT_STRING_LENGTH.equals( name ) )
+				{
+					tokenizer.next( JsonToken.NUMBER );
+					length = parseLength( tokenizer );
+				}
+				else
+					throw tokenizer.error( "Unknown bit string member: " + name );
+			}
+			tokenizer.expect( JsonToken.END_OBJECT );
+			if( hex == null || length < 0 )
+				throw tokenizer.error( "Bit string value or length is missing" );
+		}
+		return toValue( context, hex, length );
+	}
+
+	private static long parseLength( JsonTokenizer tokenizer ) throws IOException
+	{
+		try
+		{
+			return Long.parseLong( tokenizer.getText() );
+		} catch( NumberFormatException e )
+		{
+			throw new IOException( "Illegal bit string length: " + tokenizer.getText(), e );
+		}
+	}
+
+	private static Value toValue( ReaderContext context, String hex, long length ) throws IOException
+	{
+		byte[] bytes;
+		try
+		{
+			bytes = JerUtils.fromHexString( hex );
+		} catch( IllegalArgumentException e )
+		{
+			throw new IOException( e.getMessage(), e );
+		}
+
+		if( ( length + Byte.SIZE - 1 ) / Byte.SIZE != bytes.length )
+			throw context.getTokenizer().error( "Bit string length does not match value: " + length );
+
+		if( length == 0 )
+			return context.getValueFactory().emptyByteArray();
+		//noinspection NumericCastThatLosesPrecision
+		return context.getValueFactory().byteArrayValue( (int)length, bytes );
+	}
+}
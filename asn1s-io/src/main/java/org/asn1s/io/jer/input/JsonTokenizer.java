@@ -0,0 +1,503 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.jer.input;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Pull tokenizer for stream of UTF-8 JSON values, tokens are read lazily on demand.
+ * Structure of input is validated, but value semantics is left to caller.
+ */
+public final class JsonTokenizer
+{
+	private static final int BUFFER_SIZE = 8192;
+	private static final int INITIAL_DEPTH = 16;
+	private static final int HEX_RADIX = 16;
+	private static final int UNICODE_ESCAPE_LENGTH = 4;
+
+	private static final int CONTROL_LIMIT = 0x20;
+	private static final int ONE_BYTE_LIMIT = 0x80;
+	private static final int CONTINUATION_PREFIX_MASK = 0xC0;
+	private static final int CONTINUATION = 0x80;
+	private static final int CONTINUATION_MASK = 0x3F;
+	private static final int TWO_BYTES_PREFIX_MASK = 0xE0;
+	private static final int TWO_BYTES_PREFIX = 0xC0;
+	private static final int TWO_BYTES_MASK = 0x1F;
+	private static final int THREE_BYTES_PREFIX_MASK = 0xF0;
+	private static final int THREE_BYTES_PREFIX = 0xE0;
+	private static final int THREE_BYTES_MASK = 0x0F;
+	private static final int FOUR_BYTES_PREFIX_MASK = 0xF8;
+	private static final int FOUR_BYTES_PREFIX = 0xF0;
+	private static final int FOUR_BYTES_MASK = 0x07;
+	private static final int SIX_BITS = 6;
+
+	public JsonTokenizer( InputStream is )
+	{
+		this.is = is;
+	}
+
+	private final InputStream is;
+	private final byte[] buffer = new byte[BUFFER_SIZE];
+	private int position;
+	private int limit;
+	private long offset;
+
+	private final StringBuilder text = new StringBuilder();
+	private JsonToken token;
+
+	/**
+	 * Container stack, true for objects
+	 */
+	private boolean[] objects = new boolean[INITIAL_DEPTH];
+	private int depth;
+	private boolean empty;
+	private boolean expectName;
+	private boolean needSeparator;
+
+	/**
+	 * Returns last read token
+	 *
+	 * @return token or null if nothing read yet
+	 */
+	public JsonToken getToken()
+	{
+		return token;
+	}
+
+	/**
+	 * Returns text of last read token, available for {@link JsonToken#NAME}, {@link JsonToken#STRING}
+	 * and {@link JsonToken#NUMBER} tokens
+	 *
+	 * @return text
+	 */
+	@NotNull
+	public String getText()
+	{
+		return text.toString();
+	}
+
+	/**
+	 * Returns current nesting level of objects and arrays
+	 *
+	 * @return depth
+	 */
+	public int getDepth()
+	{
+		return depth;
+	}
+
+	/**
+	 * Amount of octets consumed from stream
+	 *
+	 * @return offset
+	 */
+	public long getOffset()
+	{
+		return offset;
+	}
+
+	/**
+	 * Read next token
+	 *
+	 * @return token
+	 * @throws IOException in case of I/O failure or malformed input
+	 */
+	@NotNull
+	public JsonToken next() throws IOException
+	{
+		text.setLength( 0 );
+		token = readToken();
+		return token;
+	}
+
+	/**
+	 * Read next token and check it's type
+	 *
+	 * @param expected the expected token
+	 * @throws IOException in case of I/O failure, malformed input or if other token found
+	 */
+	public void next( @NotNull JsonToken expected ) throws IOException
+	{
+		next();
+		expect( expected );
+	}
+
+	/**
+	 * Check type of last read token
+	 *
+	 * @param expected the expected token
+	 * @throws IOException if other token found
+	 */
+	public void expect( @NotNull JsonToken expected ) throws IOException
+	{
+		if( token != expected )
+			throw error( "Expected " + expected + ", found: " + token );
+	}
+
+	/**
+	 * Skip current value, if last read token starts object or array all its content is skipped
+	 *
+	 * @throws IOException in case of I/O failure or malformed input
+	 */
+	public void skipValue() throws IOException
+	{
+		if( token != JsonToken.START_OBJECT && token != JsonToken.START_ARRAY )
+			return;
+
+		int level = depth;
+		while( depth >= level )
+			if( next() == JsonToken.END_OF_INPUT )
+				throw error( "Unexpected end of input" );
+	}
+
+	/**
+	 * Create exception for malformed input at current offset
+	 *
+	 * @param message the message
+	 * @return exception
+	 */
+	@NotNull
+	public IOException error( String message )
+	{
+		return new IOException( message + " (offset " + offset + ')' );
+	}
+
+	private JsonToken readToken() throws IOException
+	{
+		int c = skipWhitespace();
+		if( depth == 0 )
+		{
+			if( c == -1 )
+				return JsonToken.END_OF_INPUT;
+			return readValue( c );
+		}
+
+		if( c == -1 )
+			throw error( "Unexpected end of input" );
+
+		boolean object = objects[depth - 1];
+		if( c == ( object ? '}' : ']' ) && ( needSeparator || empty ) )
+		{
+			depth--;
+			afterValue();
+			return object ? JsonToken.END_OBJECT : JsonToken.END_ARRAY;
+		}
+
+		if( needSeparator )
+		{
+			if( c != ',' )
+				throw error( "Expected ',' found: " + (char)c );
+			c = skipWhitespace();
+			needSeparator = false;
+		}
+		empty = false;
+
+		if( object && expectName )
+		{
+			if( c != '"' )
+				throw error( "Expected member name" );
+			readString();
+			if( skipWhitespace() != ':' )
+				throw error( "Expected ':' after member name" );
+			expectName = false;
+			return JsonToken.NAME;
+		}
+		return readValue( c );
+	}
+
+	private JsonToken readValue( int c ) throws IOException
+	{
+		switch( c )
+		{
+			case '{':
+				push( true );
+				return JsonToken.START_OBJECT;
+
+			case '[':
+				push( false );
+				return JsonToken.START_ARRAY;
+
+			case '"':
+				readString();
+				afterValue();
+				return JsonToken.STRING;
+
+			case 't':
+				readLiteral( "rue" );
+				afterValue();
+				return JsonToken.TRUE;
+
+			case 'f':
+				readLiteral( "alse" );
+				afterValue();
+				return JsonToken.FALSE;
+
+			case 'n':
+				readLiteral( "ull" );
+				afterValue();
+				return JsonToken.NULL;
+
+			default:
+				if( c == '-' || isDigit( c ) )
+				{
+					readNumber( c );
+					afterValue();
+					return JsonToken.NUMBER;
+				}
+				throw error( c == -1 ? "Unexpected end of input" : "Unexpected character: " + (char)c );
+		}
+	}
+
+	private void push( boolean object )
+	{
+		if( depth == objects.length )
+			objects = Arrays.copyOf( objects, depth * 2 );
+		objects[depth++] = object;
+		empty = true;
+		expectName = object;
+		needSeparator = false;
+	}
+
+	private void afterValue()
+	{
+		empty = false;
+		needSeparator = depth > 0;
+		expectName = depth > 0 && objects[depth - 1];
+	}
+
+	private void readLiteral( String rest ) throws IOException
+	{
+		for( int i = 0; i < rest.length(); i++ )
+			if( read() != rest.charAt( i ) )
+				throw error( "Illegal literal" );
+		if( isLetterOrDigit( peek() ) )
+			throw error( "Illegal literal" );
+	}
+
+	private void readNumber( int c ) throws IOException
+	{
+		if( c == '-' )
+		{
+			text.append( '-' );
+			c = read();
+		}
+
+		if( c == '0' )
+			text.append( '0' );
+		else if( isDigit( c ) )
+		{
+			text.append( (char)c );
+			readDigits( false );
+		}
+		else
+			throw error( "Illegal number" );
+
+		if( peek() == '.' )
+		{
+			text.append( (char)read() );
+			readDigits( true );
+		}
+
+		int next = peek();
+		if( next == 'e' || next == 'E' )
+		{
+			text.append( (char)read() );
+			next = peek();
+			if( next == '+' || next == '-' )
+				text.append( (char)read() );
+			readDigits( true );
+		}
+
+		if( isLetterOrDigit( peek() ) || peek() == '.' )
+			throw error( "Illegal number" );
+	}
+
+	private void readDigits( boolean required ) throws IOException
+	{
+		if( required && !isDigit( peek() ) )
+			throw error( "Illegal number" );
+
+		while( isDigit( peek() ) )
+			text.append( (char)read() );
+	}
+
+	private void readString() throws IOException
+	{
+		while( true )
+		{
+			int c = read();
+			if( c == '"' )
+				return;
+
+			if( c == -1 )
+				throw error( "Unterminated string" );
+
+			if( c == '\\' )
+				readEscape();
+			else if( c < CONTROL_LIMIT )
+				throw error( "Control character in string" );
+			else if( c < ONE_BYTE_LIMIT )
+				text.append( (char)c );
+			else
+				readMultiByte( c );
+		}
+	}
+
+	private void readEscape() throws IOException
+	{
+		int c = read();
+		switch( c )
+		{
+			case '"':
+			case '\\':
+			case '/':
+				text.append( (char)c );
+				break;
+
+			case 'b':
+				text.append( '\b' );
+				break;
+
+			case 'f':
+				text.append( '\f' );
+				break;
+
+			case 'n':
+				text.append( '\n' );
+				break;
+
+			case 'r':
+				text.append( '\r' );
+				break;
+
+			case 't':
+				text.append( '\t' );
+				break;
+
+			case 'u':
+				int value = 0;
+				for( int i = 0; i < UNICODE_ESCAPE_LENGTH; i++ )
+				{
+					int digit = Character.digit( read(), HEX_RADIX );
+					if( digit == -1 )
+						throw error( "Illegal unicode escape" );
+					value = value * HEX_RADIX + digit;
+				}
+				text.append( (char)value );
+				break;
+
+			default:
+				throw error( "Illegal escape sequence" );
+		}
+	}
+
+	private void readMultiByte( int lead ) throws IOException
+	{
+		int count;
+		int codePoint;
+		if( ( lead & TWO_BYTES_PREFIX_MASK ) == TWO_BYTES_PREFIX )
+		{
+			count = 1;
+			codePoint = lead & TWO_BYTES_MASK;
+		}
+		else if( ( lead & THREE_BYTES_PREFIX_MASK ) == THREE_BYTES_PREFIX )
+		{
+			count = 2;
+			codePoint = lead & THREE_BYTES_MASK;
+		}
+		else if( ( lead & FOUR_BYTES_PREFIX_MASK ) == FOUR_BYTES_PREFIX )
+		{
+			count = 3;
+			codePoint = lead & FOUR_BYTES_MASK;
+		}
+		else
+			throw error( "Illegal UTF-8 sequence" );
+
+		for( int i = 0; i < count; i++ )
+		{
+			int c = read();
+			if( c == -1 || ( c & CONTINUATION_PREFIX_MASK ) != CONTINUATION )
+				throw error( "Illegal UTF-8 sequence" );
+			codePoint = codePoint << SIX_BITS | c & CONTINUATION_MASK;
+		}
+
+		if( !Character.isValidCodePoint( codePoint ) )
+			throw error( "Illegal UTF-8 sequence" );
+		text.appendCodePoint( codePoint );
+	}
+
+	private int skipWhitespace() throws IOException
+	{
+		while( true )
+		{
+			int c = read();
+			if( c != ' ' && c != '\t' && c != '\n' && c != '\r' )
+				return c;
+		}
+	}
+
+	private int read() throws IOException
+	{
+		if( position == limit && !fill() )
+			return -1;
+
+		offset++;
+		return buffer[position++] & 0xFF;
+	}
+
+	private int peek() throws IOException
+	{
+		if( position == limit && !fill() )
+			return -1;
+
+		return buffer[position] & 0xFF;
+	}
+
+	private boolean fill() throws IOException
+	{
+		int count = is.read( buffer, 0, buffer.length );
+		if( count <= 0 )
+			return false;
+
+		position = 0;
+		limit = count;
+		return true;
+	}
+
+	private static boolean isDigit( int c )
+	{
+		return c >= '0' && c <= '9';
+	}
+
+	private static boolean isLetterOrDigit( int c )
+	{
+		return isDigit( c ) || c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z';
+	}
+}
@@ -0,0 +1,74 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.jer.input;
+
+import org.asn1s.api.type.Type.Family;
+import org.asn1s.api.value.Value;
+import org.asn1s.api.value.ValueFactory;
+import org.asn1s.io.jer.JerUtils;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+
+/**
+ * Real value is either number or string for special values and negative zero
+ */
+final class RealJerDecoder implements JerDecoder
+{
+	@Override
+	public Value decode( @NotNull ReaderContext context ) throws IOException
+	{
+		assert context.getType().getFamily() == Family.REAL;
+		JsonTokenizer tokenizer = context.getTokenizer();
+		ValueFactory factory = context.getValueFactory();
+		String text = tokenizer.getText();
+		if( tokenizer.getToken() == JsonToken.STRING )
+		{
+			switch( text )
+			{
+				case JerUtils.PLUS_INFINITY:
+					return factory.rPositiveInfinity();
+				case JerUtils.MINUS_INFINITY:
+					return factory.rNegativeInfinity();
+				case JerUtils.NOT_A_NUMBER:
+					return factory.rNan();
+				case JerUtils.MINUS_ZERO:
+					return factory.rNegativeZero();
+				default:
+					throw tokenizer.error( "Illegal real value: " + text );
+			}
+		}
+
+		tokenizer.expect( JsonToken.NUMBER );
+		try
+		{
+			return factory.real( text );
+		} catch( IllegalArgumentException e )
+		{
+			throw new IOException( "Illegal real value: " + text, e );
+		}
+	}
+}
@@ -0,0 +1,81 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.jer.input;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.asn1s.api.exception.Asn1Exception;
+import org.asn1s.api.type.CollectionType;
+import org.asn1s.api.type.ComponentType;
+import org.asn1s.api.type.Type.Family;
+import org.asn1s.api.util.RefUtils;
+import org.asn1s.api.value.Value;
+import org.asn1s.api.value.x680.ValueCollection;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+
+/**
+ * Decodes SEQUENCE and SET types from objects, components are selected by member names.
+ * Components with default values are omitted, unknown members of extensible types are skipped.
+ */
+final class SequenceJerDecoder implements JerDecoder
+{
+	private static final Log log = LogFactory.getLog( SequenceJerDecoder.class );
+
+	@Override
+	public Value decode( @NotNull ReaderContext context ) throws IOException, Asn1Exception
+	{
+		assert context.getType().getFamily() == Family.SEQUENCE || context.getType().getFamily() == Family.SET;
+
+		JsonTokenizer tokenizer = context.getTokenizer();
+		tokenizer.expect( JsonToken.START_OBJECT );
+		ValueCollection collection = context.getValueFactory().collection( true );
+		context.getScope().setValueLevel( collection );
+		while( tokenizer.next() == JsonToken.NAME )
+		{
+			String name = tokenizer.getText();
+			ComponentType component = context.getType().getNamedType( name );
+			tokenizer.next();
+			if( component != null )
+			{
+				Value value = context.readComponentType( component );
+				// values equal to default are not part of value
+				if( !RefUtils.isSameAsDefaultValue( context.getScope(), component, value ) )
+					collection.addNamed( component.getComponentName(), value );
+			}
+			else if( ( (CollectionType)context.getType() ).isExtensible() )
+			{
+				log.warn( "Unknown extension addition: " + name + ", skipping." );
+				tokenizer.skipValue();
+			}
+			else
+				throw tokenizer.error( "Unknown component: " + name );
+		}
+		tokenizer.expect( JsonToken.END_OBJECT );
+		return collection;
+	}
+}
@@ -0,0 +1,152 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.jer.output;
+
+import org.asn1s.api.Ref;
+import org.asn1s.api.Scope;
+import org.asn1s.api.exception.Asn1Exception;
+import org.asn1s.api.exception.ResolutionException;
+import org.asn1s.api.type.ComponentType;
+import org.asn1s.api.type.Type;
+import org.asn1s.api.type.Type.Family;
+import org.asn1s.api.util.RefUtils;
+import org.asn1s.api.value.Value;
+import org.asn1s.api.value.x680.NamedValue;
+import org.asn1s.io.Asn1Writer;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Basic JER writer, values are written directly to {@link JsonGenerator}, no document tree is built.
+ * Each value written by {@link #write(Scope, Ref, Value)} is a separate JSON text. See X.697
+ */
+abstract class AbstractJerWriter implements Asn1Writer
+{
+	private static final Map<Family, JerEncoder> ENCODERS = new EnumMap<>( Family.class );
+
+	static
+	{
+		ENCODERS.put( Family.BOOLEAN, new BooleanJerEncoder() );
+		ENCODERS.put( Family.INTEGER, new IntegerJerEncoder() );
+		ENCODERS.put( Family.ENUMERATED, new EnumeratedJerEncoder() );
+		ENCODERS.put( Family.REAL, new RealJerEncoder() );
+		ENCODERS.put( Family.BIT_STRING, new BitStringJerEncoder() );
+		ENCODERS.put( Family.OCTET_STRING, new OctetStringJerEncoder() );
+		ENCODERS.put( Family.NULL, new NullJerEncoder() );
+		ENCODERS.put( Family.SEQUENCE, new SequenceJerEncoder() );
+		ENCODERS.put( Family.SEQUENCE_OF, new SequenceOfJerEncoder() );
+		ENCODERS.put( Family.SET, new SequenceJerEncoder() );
+		ENCODERS.put( Family.SET_OF, new SequenceOfJerEncoder() );
+		ENCODERS.put( Family.RESTRICTED_STRING, new StringJerEncoder() );
+		ENCODERS.put( Family.UTC_TIME, new TimeJerEncoder() );
+		ENCODERS.put( Family.GENERALIZED_TIME, new TimeJerEncoder() );
+		ENCODERS.put( Family.OID, new ObjectIDJerEncoder() );
+	}
+
+	/**
+	 * Returns generator for JSON output
+	 *
+	 * @return generator
+	 */
+	@NotNull
+	public abstract JsonGenerator getGenerator();
+
+	@Override
+	public void write( @NotNull Scope scope, @NotNull Ref<Type> typeRef, @NotNull Value value ) throws IOException, Asn1Exception
+	{
+		Type type = typeRef.resolve( scope );
+		// resolve value to make sure it's correct
+		value = value.resolve( scope );
+		type.accept( scope, value );
+		writeInternal( new WriterContext( this, scope, type, value ) );
+		JsonGenerator generator = getGenerator();
+		generator.endValue();
+		generator.flush();
+	}
+
+	public final void writeInternal( @NotNull WriterContext context ) throws IOException, Asn1Exception
+	{
+		context = context.narrow();
+		Type type = context.getType();
+
+		// tags are not encoded by JER
+		if( type.hasSibling() )
+			writeInternal( context.toSiblingContext() );
+		else if( type.getFamily() == Family.CHOICE )
+			writeChoiceType( context );
+		else if( type.getFamily() == Family.OPEN_TYPE )
+			writeOpenType( context );
+		else
+		{
+			JerEncoder encoder = ENCODERS.get( type.getFamily() );
+			if( encoder == null )
+				throw new IllegalStateException( "No encoder found for family: " + type.getFamily() );
+
+			encoder.encode( context );
+		}
+	}
+
+	/**
+	 * Open type value is encoded as value of its actual type
+	 *
+	 * @param context the writer context
+	 * @throws IOException   in case of I/O failure
+	 * @throws Asn1Exception if value can not be encoded
+	 */
+	private void writeOpenType( @NotNull WriterContext context ) throws IOException, Asn1Exception
+	{
+		Value value = RefUtils.toBasicValue( context.getScope(), context.getValue() );
+		Type type = value.toOpenTypeValue().getType().resolve( context.getScope() );
+		Value openValue = value.toOpenTypeValue().getValueRef().resolve( context.getScope() );
+		writeInternal( context.toSiblingContext( type, openValue ) );
+	}
+
+	/**
+	 * Choice value is encoded as object with single member named after chosen alternative
+	 *
+	 * @param context the writer context
+	 * @throws IOException   in case of I/O failure
+	 * @throws Asn1Exception if value can not be encoded
+	 */
+	private void writeChoiceType( @NotNull WriterContext context ) throws IOException, Asn1Exception
+	{
+		context.getScope().setValueLevel( context.getValue() );
+
+		NamedValue namedValue = context.getValue().toNamedValue();
+		ComponentType componentType = context.getType().getNamedType( namedValue.getName() );
+		if( componentType == null )
+			throw new ResolutionException( "Unknown component: " + namedValue.getName() );
+
+		JsonGenerator generator = getGenerator();
+		generator.startObject();
+		generator.writeName( componentType.getComponentName() );
+		context.writeComponent( componentType, namedValue );
+		generator.endObject();
+	}
+}
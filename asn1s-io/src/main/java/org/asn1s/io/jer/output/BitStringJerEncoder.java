@@ -0,0 +1,66 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.jer.output;
+
+import org.asn1s.api.type.Type.Family;
+import org.asn1s.api.value.ByteArrayValue;
+import org.asn1s.api.value.Value.Kind;
+import org.asn1s.io.jer.JerUtils;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+
+/**
+ * Bit string of fixed size is encoded as hexadecimal string,
+ * otherwise as object with hexadecimal value and bit count
+ */
+final class BitStringJerEncoder implements JerEncoder
+{
+	@Override
+	public void encode( @NotNull WriterContext context ) throws IOException
+	{
+		assert context.getType().getFamily() == Family.BIT_STRING;
+		assert context.getValue().getKind() == Kind.BYTE_ARRAY;
+		ByteArrayValue value = context.getValue().toByteArrayValue();
+		byte[] bytes = value.asByteArray();
+		int bitCount = value.getUsedBits();
+		String hex = bytes == null ? "" : JerUtils.toHexString( bytes, ( bitCount + Byte.SIZE - 1 ) / Byte.SIZE );
+
+		JsonGenerator generator = context.getWriter().getGenerator();
+		if( JerUtils.getFixedSize( context.getConstraint() ) >= 0 )
+		{
+			generator.writeString( hex );
+			return;
+		}
+
+		generator.startObject();
+		generator.writeName( JerUtils.BIT_STRING_VALUE );
+		generator.writeString( hex );
+		generator.writeName( JerUtils.BIT_STRING_LENGTH );
+		generator.writeNumber( bitCount );
+		generator.endObject();
+	}
+}
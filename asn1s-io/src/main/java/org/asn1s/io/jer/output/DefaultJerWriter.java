@@ -0,0 +1,80 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.jer.output;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * JER writer, values are written as UTF-8 JSON texts separated by new line
+ */
+public final class DefaultJerWriter extends AbstractJerWriter
+{
+	public DefaultJerWriter()
+	{
+		os = new ByteArrayOutputStream();
+		internalOs = true;
+		generator = new JsonGenerator( os );
+	}
+
+	public DefaultJerWriter( OutputStream os )
+	{
+		this.os = os;
+		internalOs = false;
+		generator = new JsonGenerator( os );
+	}
+
+	private final OutputStream os;
+	private final boolean internalOs;
+	private final JsonGenerator generator;
+
+	@NotNull
+	@Override
+	public JsonGenerator getGenerator()
+	{
+		return generator;
+	}
+
+	@Override
+	public void close() throws Exception
+	{
+		generator.flush();
+		if( internalOs )
+			os.close();
+	}
+
+	@Override
+	public byte[] toByteArray() throws IOException
+	{
+		if( !internalOs )
+			throw new IOException( "Unable to get bytes from provided stream" );
+
+		return ( (ByteArrayOutputStream)os ).toByteArray();
+	}
+}
@@ -0,0 +1,301 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.jer.output;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Minimal JSON generator writing UTF-8 directly to output stream through internal buffer.
+ * Separators are inserted automatically, the caller is responsible for proper nesting.
+ */
+public final class JsonGenerator implements Flushable
+{
+	private static final int BUFFER_SIZE = 8192;
+	private static final int INITIAL_DEPTH = 16;
+	private static final byte[] HEX_DIGITS = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'};
+	private static final byte[] TRUE = {'t', 'r', 'u', 'e'};
+	private static final byte[] FALSE = {'f', 'a', 'l', 's', 'e'};
+	private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+
+	private static final int CONTROL_LIMIT = 0x20;
+	private static final int ONE_BYTE_LIMIT = 0x80;
+	private static final int TWO_BYTES_LIMIT = 0x800;
+	private static final int THREE_BYTES_LIMIT = 0x10000;
+	private static final int CONTINUATION = 0x80;
+	private static final int CONTINUATION_MASK = 0x3F;
+	private static final int TWO_BYTES_PREFIX = 0xC0;
+	private static final int THREE_BYTES_PREFIX = 0xE0;
+	private static final int FOUR_BYTES_PREFIX = 0xF0;
+	private static final int SIX_BITS = 6;
+	private static final int NIBBLE_BITS = 4;
+	private static final int NIBBLE_MASK = 0x0F;
+
+	public JsonGenerator( OutputStream os )
+	{
+		this.os = os;
+	}
+
+	private final OutputStream os;
+	private final byte[] buffer = new byte[BUFFER_SIZE];
+	private int position;
+	/**
+	 * For each nesting level: true if level already contains an item
+	 */
+	private boolean[] levels = new boolean[INITIAL_DEPTH];
+	private int depth;
+	private boolean afterName;
+
+	public void startObject() throws IOException
+	{
+		beforeValue();
+		write( '{' );
+		push();
+	}
+
+	public void endObject() throws IOException
+	{
+		pop();
+		write( '}' );
+	}
+
+	public void startArray() throws IOException
+	{
+		beforeValue();
+		write( '[' );
+		push();
+	}
+
+	public void endArray() throws IOException
+	{
+		pop();
+		write( ']' );
+	}
+
+	/**
+	 * Write member name of object, next written item is the member value
+	 *
+	 * @param name the name
+	 * @throws IOException in case of I/O failure
+	 */
+	public void writeName( @NotNull CharSequence name ) throws IOException
+	{
+		beforeValue();
+		writeQuoted( name );
+		write( ':' );
+		afterName = true;
+	}
+
+	public void writeString( @NotNull CharSequence value ) throws IOException
+	{
+		beforeValue();
+		writeQuoted( value );
+	}
+
+	/**
+	 * Write number, the text must be a valid JSON number
+	 *
+	 * @param text the number text
+	 * @throws IOException in case of I/O failure
+	 */
+	public void writeNumber( @NotNull CharSequence text ) throws IOException
+	{
+		beforeValue();
+		for( int i = 0; i < text.length(); i++ )
+			write( text.charAt( i ) );
+	}
+
+	public void writeNumber( long value ) throws IOException
+	{
+		writeNumber( Long.toString( value ) );
+	}
+
+	public void writeBoolean( boolean value ) throws IOException
+	{
+		beforeValue();
+		write( value ? TRUE : FALSE );
+	}
+
+	public void writeNull() throws IOException
+	{
+		beforeValue();
+		write( NULL );
+	}
+
+	/**
+	 * Finish top level value, values are separated by new line
+	 *
+	 * @throws IOException in case of I/O failure
+	 */
+	public void endValue() throws IOException
+	{
+		if( depth != 0 )
+			throw new IllegalStateException( "Unclosed object or array" );
+		write( '\n' );
+	}
+
+	@Override
+	public void flush() throws IOException
+	{
+		os.write( buffer, 0, position );
+		position = 0;
+		os.flush();
+	}
+
+	private void beforeValue() throws IOException
+	{
+		if( afterName )
+		{
+			afterName = false;
+			return;
+		}
+
+		if( depth > 0 )
+		{
+			if( levels[depth - 1] )
+				write( ',' );
+			levels[depth - 1] = true;
+		}
+	}
+
+	private void push()
+	{
+		if( depth == levels.length )
+			levels = Arrays.copyOf( levels, depth * 2 );
+		levels[depth++] = false;
+	}
+
+	private void pop()
+	{
+		if( depth == 0 )
+			throw new IllegalStateException( "No object or array started" );
+		depth--;
+	}
+
+	private void writeQuoted( CharSequence value ) throws IOException
+	{
+		write( '"' );
+		int length = value.length();
+		for( int i = 0; i < length; i++ )
+		{
+			char c = value.charAt( i );
+			if( c == '"' || c == '\\' )
+			{
+				write( '\\' );
+				write( c );
+			}
+			else if( c < CONTROL_LIMIT )
+				writeControl( c );
+			else if( c < ONE_BYTE_LIMIT )
+				write( c );
+			else if( Character.isHighSurrogate( c ) && i + 1 < length && Character.isLowSurrogate( value.charAt( i + 1 ) ) )
+			{
+				writeCodePoint( Character.toCodePoint( c, value.charAt( i + 1 ) ) );
+				i++;
+			}
+			else
+				writeCodePoint( c );
+		}
+		write( '"' );
+	}
+
+	private void writeControl( char c ) throws IOException
+	{
+		write( '\\' );
+		switch( c )
+		{
+			case '\n':
+				write( 'n' );
+				break;
+
+			case '\r':
+				write( 'r' );
+				break;
+
+			case '\t':
+				write( 't' );
+				break;
+
+			case '\b':
+				write( 'b' );
+				break;
+
+			case '\f':
+				write( 'f' );
+				break;
+
+			default:
+				write( 'u' );
+				write( '0' );
+				write( '0' );
+				write( HEX_DIGITS[c >>> NIBBLE_BITS] );
+				write( HEX_DIGITS[c & NIBBLE_MASK] );
+		}
+	}
+
+	private void writeCodePoint( int codePoint ) throws IOException
+	{
+		if( codePoint < TWO_BYTES_LIMIT )
+		{
+			write( TWO_BYTES_PREFIX | codePoint >>> SIX_BITS );
+			write( CONTINUATION | codePoint & CONTINUATION_MASK );
+		}
+		else if( codePoint < THREE_BYTES_LIMIT )
+		{
+			write( THREE_BYTES_PREFIX | codePoint >>> SIX_BITS * 2 );
+			write( CONTINUATION | codePoint >>> SIX_BITS & CONTINUATION_MASK );
+			write( CONTINUATION | codePoint & CONTINUATION_MASK );
+		}
+		else
+		{
+			write( FOUR_BYTES_PREFIX | codePoint >>> SIX_BITS * 3 );
+			write( CONTINUATION | codePoint >>> SIX_BITS * 2 & CONTINUATION_MASK );
+			write( CONTINUATION | codePoint >>> SIX_BITS & CONTINUATION_MASK );
+			write( CONTINUATION | codePoint & CONTINUATION_MASK );
+		}
+	}
+
+	private void write( byte[] bytes ) throws IOException
+	{
+		for( byte value : bytes )
+			write( value );
+	}
+
+	private void write( int value ) throws IOException
+	{
+		if( position == buffer.length )
+		{
+			os.write( buffer, 0, position );
+			position = 0;
+		}
+		//noinspection NumericCastThatLosesPrecision
+		buffer[position++] = (byte)value;
+	}
+}
@@ -0,0 +1,147 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.jer.output;
+
+import org.asn1s.api.Scope;
+import org.asn1s.api.constraint.EffectiveConstraint;
+import org.asn1s.api.exception.Asn1Exception;
+import org.asn1s.api.exception.IllegalValueException;
+import org.asn1s.api.type.ComponentType;
+import org.asn1s.api.type.NamedType;
+import org.asn1s.api.type.Type;
+import org.asn1s.api.value.Value;
+import org.asn1s.api.value.Value.Kind;
+import org.asn1s.io.per.PerUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+
+public class WriterContext
+{
+	public WriterContext( AbstractJerWriter writer, Scope scope, Type type, Value value )
+	{
+		this.writer = writer;
+		this.scope = scope;
+		this.type = type;
+		this.value = value;
+	}
+
+	private final AbstractJerWriter writer;
+	private Scope scope;
+	private Type type;
+	private Value value;
+	private EffectiveConstraint constraint;
+
+	public AbstractJerWriter getWriter()
+	{
+		return writer;
+	}
+
+	public Scope getScope()
+	{
+		return scope;
+	}
+
+	public Type getType()
+	{
+		return type;
+	}
+
+	public Value getValue()
+	{
+		return value;
+	}
+
+	/**
+	 * Returns JER-visible constraint collected from all constrained types passed by this context
+	 *
+	 * @return effective constraint or null
+	 */
+	@Nullable
+	public EffectiveConstraint getConstraint()
+	{
+		return constraint;
+	}
+
+	public WriterContext narrow() throws Asn1Exception
+	{
+		if( type instanceof ComponentType && !( (ComponentType)type ).isDummy() )
+		{
+			if( value.getKind() == Kind.NAME )
+			{
+				if( !value.toNamedValue().getName().equals( ( (NamedType)type ).getName() ) )
+					throw new IllegalValueException( "Named value has illegal name: " + value.toNamedValue().getName() + ". Expected: " + ( (NamedType)type ).getName() );
+
+				type = type.getSibling();
+				assert type != null;
+				scope = type.getScope( scope );
+				//noinspection ConstantConditions
+				value = value.toNamedValue().getValueRef().resolve( scope );
+			}
+			else
+			{
+				type = type.getSibling();
+				assert type != null;
+				scope = type.getScope( scope );
+			}
+			return narrow();
+		}
+
+		if( type.hasConstraint() )
+		{
+			constraint = PerUtils.applyConstraint( constraint, type );
+			type = type.getSibling();
+			assert type != null;
+			scope = type.getScope( scope );
+			return narrow();
+		}
+
+		return this;
+	}
+
+	public WriterContext toSiblingContext()
+	{
+		type = type.getSibling();
+		assert type != null;
+		scope = type.getScope( scope );
+		return this;
+	}
+
+	public WriterContext toSiblingContext( @NotNull Type type, @NotNull Value value )
+	{
+		this.type = type;
+		scope = type.getScope( scope );
+		this.value = value;
+		constraint = null;
+		return this;
+	}
+
+	public void writeComponent( ComponentType component, Value value ) throws Asn1Exception, IOException
+	{
+		writer.writeInternal( new WriterContext( writer, component.getScope( scope ), component, value ) );
+	}
+}
@@ -0,0 +1,171 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.oer;
+
+import org.asn1s.api.constraint.EffectiveConstraint;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Common routines and constants of OER, see X.696
+ */
+public final class OerUtils
+{
+	public static final int BYTE_MASK = 0x00FF;
+	public static final int BYTE_BITS = 8;
+
+	/**
+	 * Length determinant, see X.696, p 8.6
+	 */
+	public static final int SHORT_LENGTH_LIMIT = 128;
+	public static final int LONG_LENGTH_FLAG = 0x80;
+	public static final int LONG_LENGTH_MASK = 0x7F;
+
+	/**
+	 * Tag of CHOICE alternative, see X.696, p 8.7
+	 */
+	public static final int TAG_CLASS_MASK = 0xC0;
+	public static final int TAG_NUMBER_MASK = 0x3F;
+	public static final int TAG_NUMBER_FLAG = 0x80;
+	public static final int TAG_NUMBER_OCTET_MASK = 0x7F;
+	public static final int TAG_NUMBER_BITS = 7;
+
+	/**
+	 * Boolean TRUE value, see X.696, p 9
+	 */
+	public static final int TRUE_OCTET = 0xFF;
+
+	/**
+	 * Enumerated values 0..127 are encoded as single octet, see X.696, p 11
+	 */
+	public static final int SHORT_ENUMERATED_LIMIT = 128;
+
+	private static final long ONE_OCTET_MAX = 0xFFL;
+	private static final long TWO_OCTETS_MAX = 0xFFFFL;
+	private static final long FOUR_OCTETS_MAX = 0xFFFFFFFFL;
+
+	private OerUtils()
+	{
+	}
+
+	/**
+	 * Extensible constraints are not OER-visible, see X.696, p 8.2
+	 *
+	 * @param constraint the constraint
+	 * @return constraint or null if it is not OER-visible
+	 */
+	@Nullable
+	public static EffectiveConstraint getVisibleConstraint( @Nullable EffectiveConstraint constraint )
+	{
+		return constraint == null || constraint.isExtensible() ? null : constraint;
+	}
+
+	/**
+	 * Returns amount of octets for integer encoded without length determinant, see X.696, p 10.3 and 10.4
+	 *
+	 * @param constraint OER-visible constraint
+	 * @return octet count, 0 if length determinant is required
+	 */
+	public static int getIntegerOctetCount( @Nullable EffectiveConstraint constraint )
+	{
+		if( constraint == null || !constraint.hasRange() )
+			return 0;
+
+		Long lowerBound = constraint.getLowerBound();
+		Long upperBound = constraint.getUpperBound();
+		if( lowerBound == null || upperBound == null )
+			return 0;
+
+		if( lowerBound >= 0 )
+		{
+			if( upperBound <= ONE_OCTET_MAX )
+				return 1;
+			if( upperBound <= TWO_OCTETS_MAX )
+				return 2;
+			return upperBound <= FOUR_OCTETS_MAX ? 4 : 8;
+		}
+
+		if( lowerBound >= Byte.MIN_VALUE && upperBound <= Byte.MAX_VALUE )
+			return 1;
+		if( lowerBound >= Short.MIN_VALUE && upperBound <= Short.MAX_VALUE )
+			return 2;
+		return lowerBound >= Integer.MIN_VALUE && upperBound <= Integer.MAX_VALUE ? 4 : 8;
+	}
+
+	/**
+	 * Returns true if integer is encoded as non-negative binary integer, see X.696, p 10.2
+	 *
+	 * @param constraint OER-visible constraint
+	 * @return boolean
+	 */
+	public static boolean isUnsignedInteger( @Nullable EffectiveConstraint constraint )
+	{
+		if( constraint == null || !constraint.hasRange() )
+			return false;
+
+		Long lowerBound = constraint.getLowerBound();
+		return lowerBound != null && lowerBound >= 0;
+	}
+
+	/**
+	 * Returns fixed size from OER-visible size constraint, types with fixed size are encoded without length determinant.
+	 *
+	 * @param constraint the effective constraint, may be null
+	 * @return size or -1 if size is not fixed
+	 */
+	public static long getFixedSize( @Nullable EffectiveConstraint constraint )
+	{
+		EffectiveConstraint size = constraint == null ? null : getVisibleConstraint( constraint.getSize() );
+		if( size == null )
+			return -1L;
+
+		Long lowerBound = size.getLowerBound();
+		Long upperBound = size.getUpperBound();
+		return lowerBound != null && lowerBound.equals( upperBound ) ? lowerBound : -1L;
+	}
+
+	/**
+	 * Pack bits into octets, most significant bit first, unused bits are zero.
+	 * Used for presence bitmaps of SEQUENCE and SET, see X.696, p 16.2
+	 *
+	 * @param bits the bits
+	 * @return octets
+	 */
+	@NotNull
+	public static byte[] toBitmap( @NotNull boolean[] bits )
+	{
+		byte[] result = new byte[( bits.length + BYTE_BITS - 1 ) / BYTE_BITS];
+		for( int i = 0; i < bits.length; i++ )
+			if( bits[i] )
+				result[i / BYTE_BITS] |= 0x80 >>> ( i % BYTE_BITS );
+		return result;
+	}
+
+	public static boolean isBitSet( @NotNull byte[] bitmap, int index )
+	{
+		return ( bitmap[index / BYTE_BITS] & ( 0x80 >>> ( index % BYTE_BITS ) ) ) != 0;
+	}
+}
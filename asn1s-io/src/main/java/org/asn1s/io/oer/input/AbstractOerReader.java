@@ -0,0 +1,392 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.oer.input;
+
+import org.asn1s.api.Ref;
+import org.asn1s.api.Scope;
+import org.asn1s.api.encoding.EncodingInstructions;
+import org.asn1s.api.encoding.IEncoding;
+import org.asn1s.api.encoding.tag.Tag;
+import org.asn1s.api.encoding.tag.TagClass;
+import org.asn1s.api.encoding.tag.TagEncoding;
+import org.asn1s.api.exception.Asn1Exception;
+import org.asn1s.api.exception.ResolutionException;
+import org.asn1s.api.type.*;
+import org.asn1s.api.type.Type.Family;
+import org.asn1s.api.value.Value;
+import org.asn1s.api.value.ValueFactory;
+import org.asn1s.api.value.x680.IntegerValue;
+import org.asn1s.io.Asn1Reader;
+import org.asn1s.io.oer.OerRules;
+import org.asn1s.io.oer.OerUtils;
+import org.asn1s.io.per.CollectionLayout;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.*;
+
+abstract class AbstractOerReader implements Asn1Reader
+{
+	private static final Map<Family, OerDecoder> DECODERS = new EnumMap<>( Family.class );
+
+	static
+	{
+		DECODERS.put( Family.BOOLEAN, new BooleanOerDecoder() );
+		DECODERS.put( Family.INTEGER, new IntegerOerDecoder() );
+		DECODERS.put( Family.ENUMERATED, new EnumeratedOerDecoder() );
+		DECODERS.put( Family.REAL, new RealOerDecoder() );
+		DECODERS.put( Family.BIT_STRING, new BitStringOerDecoder() );
+		DECODERS.put( Family.OCTET_STRING, new OctetStringOerDecoder() );
+		DECODERS.put( Family.NULL, new NullOerDecoder() );
+		DECODERS.put( Family.SEQUENCE, new SequenceOerDecoder() );
+		DECODERS.put( Family.SEQUENCE_OF, new SequenceOfOerDecoder() );
+		DECODERS.put( Family.SET, new SequenceOerDecoder() );
+		DECODERS.put( Family.SET_OF, new SequenceOfOerDecoder() );
+		DECODERS.put( Family.RESTRICTED_STRING, new StringOerDecoder() );
+		DECODERS.put( Family.UTC_TIME, new TimeOerDecoder() );
+		DECODERS.put( Family.GENERALIZED_TIME, new TimeOerDecoder() );
+		DECODERS.put( Family.OID, new ObjectIDOerDecoder() );
+	}
+
+	AbstractOerReader( ValueFactory factory )
+	{
+		this.factory = factory;
+	}
+
+	private final ValueFactory factory;
+	private final Map<Type, CollectionLayout> layouts = new IdentityHashMap<>();
+	private final Map<Type, Map<Tag, ComponentType>> alternatives = new IdentityHashMap<>();
+	/**
+	 * Tag read by CHOICE which alternative is untagged CHOICE
+	 */
+	private Tag pendingTag;
+
+	@NotNull
+	@Override
+	public ValueFactory getValueFactory()
+	{
+		return factory;
+	}
+
+	@Override
+	public Value read( @NotNull Scope scope, @NotNull Ref<Type> typeRef ) throws IOException, Asn1Exception
+	{
+		Type type = typeRef.resolve( scope );
+		Value value = readInternal( new ReaderContext( this, scope, type ) );
+		type.accept( scope, value );
+		return value;
+	}
+
+	@NotNull
+	Value readInternal( @NotNull ReaderContext context ) throws IOException, Asn1Exception
+	{
+		Type type = context.getType();
+		// tags are not encoded by OER, except for CHOICE alternatives
+		if( type.hasSibling() )
+			return readInternal( context.toSiblingContext() );
+
+		if( type.getFamily() == Family.CHOICE )
+			return readChoiceType( context );
+
+		if( type.getFamily() == Family.OPEN_TYPE )
+			return readOpenType( context );
+
+		OerDecoder decoder = DECODERS.get( type.getFamily() );
+		if( decoder == null )
+			throw new IllegalStateException( "No decoder found for family: " + type.getFamily() );
+
+		return decoder.decode( context );
+	}
+
+	@NotNull
+	CollectionLayout getLayout( @NotNull Type type )
+	{
+		return layouts.computeIfAbsent( type, CollectionLayout:: create );
+	}
+
+	private Value readOpenType( @NotNull ReaderContext context ) throws Asn1Exception, IOException
+	{
+		InstanceOfTypeSelector selector = context.getScope().getScopeOption( TypeUtils.INSTANCE_OF_TYPE_KEY );
+		if( selector == null )
+			throw new ResolutionException( "Unable to locate InstanceOfTypeSelector." );
+
+		Type openTypeType = selector.resolveInstanceOfType( context.getScope() );
+		Value openTypeValue = readOpenType( () -> readInternal( context.toSiblingContext( openTypeType ) ) );
+		assert openTypeValue != null;
+		return factory.openTypeValue( openTypeType, openTypeValue ).resolve( context.getScope() );
+	}
+
+	/**
+	 * Alternative is selected by tag using dispatch table built once per CHOICE type, see X.696, p 20
+	 *
+	 * @param context the reader context
+	 * @return value
+	 * @throws IOException   in case of I/O failure
+	 * @throws Asn1Exception if value can not be decoded
+	 */
+	@NotNull
+	private Value readChoiceType( @NotNull ReaderContext context ) throws IOException, Asn1Exception
+	{
+		Tag tag = pendingTag == null ? readTag() : pendingTag;
+		pendingTag = null;
+
+		ComponentType component = alternatives.computeIfAbsent( context.getType(), AbstractOerReader:: createAlternatives ).get( tag );
+		if( component == null )
+			throw new IOException( "Unable to read choice value, unknown alternative tag: " + tag );
+
+		// untagged CHOICE alternative reuses tag of its own alternative
+		if( !( component.getEncoding( EncodingInstructions.TAG ) instanceof TagEncoding ) )
+			pendingTag = tag;
+
+		Value value = component.getVersion() > 1
+				? readOpenType( () -> context.readComponentType( component ) )
+				: context.readComponentType( component );
+		assert value != null;
+		return factory.named( component.getName(), value );
+	}
+
+	private static Map<Tag, ComponentType> createAlternatives( Type type )
+	{
+		Map<Tag, ComponentType> result = new HashMap<>();
+		for( ComponentType component : type.<ComponentType>getNamedTypes() )
+			for( Tag tag : collectTags( component ) )
+				result.put( tag, component );
+		return result;
+	}
+
+	private static Collection<Tag> collectTags( Type type )
+	{
+		IEncoding encoding = type.getEncoding( EncodingInstructions.TAG );
+		if( encoding instanceof TagEncoding )
+			return Collections.singletonList( ( (TagEncoding)encoding ).toTag( false ) );
+
+		if( type.getFamily() != Family.CHOICE )
+			return Collections.emptyList();
+
+		Collection<Tag> result = new ArrayList<>();
+		for( ComponentType component : type.<ComponentType>getNamedTypes() )
+			result.addAll( collectTags( component ) );
+		return result;
+	}
+
+	/**
+	 * Tag octets, see X.696, p 8.7
+	 *
+	 * @return tag
+	 * @throws IOException in case of I/O failure
+	 */
+	@NotNull
+	public Tag readTag() throws IOException
+	{
+		int first = read();
+		TagClass tagClass = TagClass.findByCode( (byte)( first & OerUtils.TAG_CLASS_MASK ) );
+		int number = first & OerUtils.TAG_NUMBER_MASK;
+		if( number == OerUtils.TAG_NUMBER_MASK )
+		{
+			number = 0;
+			int value;
+			do
+			{
+				value = read();
+				if( number > Integer.MAX_VALUE >>> OerUtils.TAG_NUMBER_BITS )
+					throw new IOException( "Tag number is too big" );
+				number = number << OerUtils.TAG_NUMBER_BITS | value & OerUtils.TAG_NUMBER_OCTET_MASK;
+			} while( ( value & OerUtils.TAG_NUMBER_FLAG ) != 0 );
+		}
+		return new Tag( tagClass, false, number );
+	}
+
+	/**
+	 * Length determinant, see X.696, p 8.6.
+	 * CANONICAL rules require the shortest form.
+	 *
+	 * @return length
+	 * @throws IOException in case of I/O failure or illegal length
+	 */
+	public int readLength() throws IOException
+	{
+		int first = read();
+		if( ( first & OerUtils.LONG_LENGTH_FLAG ) == 0 )
+			return first;
+
+		int count = first & OerUtils.LONG_LENGTH_MASK;
+		if( count == 0 || count > Integer.BYTES )
+			throw new IOException( "Unsupported length determinant octet count: " + count );
+
+		long length = readNumber( count );
+		if( length > Integer.MAX_VALUE )
+			throw new IOException( "Length is too big: " + length );
+
+		if( getRules() == OerRules.CANONICAL && ( length < OerUtils.SHORT_LENGTH_LIMIT || length >>> ( ( count - 1 ) * OerUtils.BYTE_BITS ) == 0 ) )
+			throw new IOException( "Length determinant is not canonical: " + length );
+
+		//noinspection NumericCastThatLosesPrecision
+		return (int)length;
+	}
+
+	/**
+	 * Read octets preceded by length determinant
+	 *
+	 * @return octets
+	 * @throws IOException in case of I/O failure
+	 */
+	public byte[] readOctets() throws IOException
+	{
+		return readOctets( readLength() );
+	}
+
+	public byte[] readOctets( int count ) throws IOException
+	{
+		byte[] bytes = new byte[count];
+		read( bytes );
+		return bytes;
+	}
+
+	/**
+	 * Read octets as unsigned number, most significant octet first
+	 *
+	 * @param count amount of octets, from 1 to 8
+	 * @return value
+	 * @throws IOException in case of I/O failure
+	 */
+	public long readNumber( int count ) throws IOException
+	{
+		long result = 0L;
+		for( int i = 0; i < count; i++ )
+			result = result << OerUtils.BYTE_BITS | read();
+		return result;
+	}
+
+	/**
+	 * Non-negative integer preceded by length determinant, see X.696, p 10.6
+	 *
+	 * @return value
+	 * @throws IOException in case of I/O failure
+	 */
+	public IntegerValue readUnsignedInteger() throws IOException
+	{
+		BigInteger value = new BigInteger( 1, readOctets() );
+		return value.bitLength() < Long.SIZE ? factory.integer( value.longValue() ) : factory.integer( value );
+	}
+
+	/**
+	 * Two's complement integer preceded by length determinant, see X.696, p 10.8
+	 *
+	 * @return value
+	 * @throws IOException in case of I/O failure
+	 */
+	public IntegerValue readSignedInteger() throws IOException
+	{
+		return factory.integer( readOctets() );
+	}
+
+	/**
+	 * Quantity field of SEQUENCE OF and SET OF, see X.696, p 17.1
+	 *
+	 * @return amount of items
+	 * @throws IOException in case of I/O failure
+	 */
+	public int readQuantity() throws IOException
+	{
+		byte[] bytes = readOctets();
+		if( bytes.length > Integer.BYTES )
+			throw new IOException( "Quantity is too big" );
+
+		int result = 0;
+		for( byte value : bytes )
+			result = result << OerUtils.BYTE_BITS | value & OerUtils.BYTE_MASK;
+		if( result < 0 )
+			throw new IOException( "Quantity is too big" );
+		return result;
+	}
+
+	/**
+	 * Read open type, see X.696, p 30
+	 *
+	 * @param contentReader reader of open type content
+	 * @return value returned by content reader
+	 * @throws IOException   in case of I/O failure
+	 * @throws Asn1Exception if content can not be read
+	 */
+	@Nullable
+	public Value readOpenType( @NotNull ContentReader contentReader ) throws IOException, Asn1Exception
+	{
+		byte[] content = readOctets();
+		pushInput( content );
+		try
+		{
+			return contentReader.read();
+		} finally
+		{
+			popInput();
+		}
+	}
+
+	/**
+	 * Skip open type without decoding
+	 *
+	 * @throws IOException in case of I/O failure
+	 */
+	public void skipOpenType() throws IOException
+	{
+		readOctets();
+	}
+
+	public abstract OerRules getRules();
+
+	/**
+	 * Read single octet
+	 *
+	 * @return octet value from 0 to 255
+	 * @throws IOException in case of I/O failure or end of stream
+	 */
+	public abstract int read() throws IOException;
+
+	/**
+	 * Read exactly target.length octets
+	 *
+	 * @param target the target array
+	 * @throws IOException in case of I/O failure or end of stream
+	 */
+	public abstract void read( @NotNull byte[] target ) throws IOException;
+
+	/**
+	 * Use content as input until {@link #popInput()} called
+	 *
+	 * @param content the octets
+	 */
+	protected abstract void pushInput( byte[] content );
+
+	protected abstract void popInput();
+
+	interface ContentReader
+	{
+		@Nullable
+		Value read() throws IOException, Asn1Exception;
+	}
+}
@@ -0,0 +1,73 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.oer.input;
+
+import org.asn1s.api.type.Type.Family;
+import org.asn1s.api.value.Value;
+import org.asn1s.io.oer.OerUtils;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+
+/**
+ * Bit strings with fixed size are decoded as bits padded to octet boundary,
+ * others are preceded by length determinant and initial octet with amount of unused bits.
+ * See X.696, p 13
+ */
+final class BitStringOerDecoder implements OerDecoder
+{
+	@Override
+	public Value decode( @NotNull ReaderContext context ) throws IOException
+	{
+		assert context.getType().getFamily() == Family.BIT_STRING;
+		AbstractOerReader reader = context.getReader();
+		long fixedSize = OerUtils.getFixedSize( context.getConstraint() );
+		int bitCount;
+		byte[] bytes;
+		if( fixedSize == -1L )
+		{
+			int length = reader.readLength();
+			if( length == 0 )
+				throw new IOException( "Bit string must contain initial octet" );
+
+			int unusedBits = reader.read();
+			bytes = reader.readOctets( length - 1 );
+			if( unusedBits >= OerUtils.BYTE_BITS || unusedBits > 0 && bytes.length == 0 )
+				throw new IOException( "Illegal amount of unused bits: " + unusedBits );
+			bitCount = bytes.length * OerUtils.BYTE_BITS - unusedBits;
+		}
+		else
+		{
+			//noinspection NumericCastThatLosesPrecision
+			bitCount = (int)fixedSize;
+			bytes = reader.readOctets( ( bitCount + OerUtils.BYTE_BITS - 1 ) / OerUtils.BYTE_BITS );
+		}
+
+		if( bitCount == 0 )
+			return context.getValueFactory().emptyByteArray();
+		return context.getValueFactory().byteArrayValue( bitCount, bytes );
+	}
+}
@@ -0,0 +1,108 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.oer.input;
+
+import org.asn1s.api.value.ValueFactory;
+import org.asn1s.io.oer.OerRules;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Deque;
+import java.util.LinkedList;
+
+/**
+ * OER reader, see X.696.
+ * CANONICAL rules reject encodings which are not canonical.
+ */
+public final class DefaultOerReader extends AbstractOerReader
+{
+	public DefaultOerReader( OerRules rules, InputStream is, ValueFactory factory )
+	{
+		super( factory );
+		this.rules = rules;
+		this.is = is;
+	}
+
+	private final OerRules rules;
+	private final InputStream is;
+	private final Deque<InputStream> inputStack = new LinkedList<>();
+
+	@Override
+	public OerRules getRules()
+	{
+		return rules;
+	}
+
+	@Override
+	public int read() throws IOException
+	{
+		int value = current().read();
+		if( value == -1 )
+			throw new EOFException();
+		return value;
+	}
+
+	@Override
+	public void read( @NotNull byte[] target ) throws IOException
+	{
+		InputStream current = current();
+		int offset = 0;
+		while( offset < target.length )
+		{
+			int count = current.read( target, offset, target.length - offset );
+			if( count == -1 )
+				throw new EOFException();
+			offset += count;
+		}
+	}
+
+	@Override
+	protected void pushInput( byte[] content )
+	{
+		inputStack.push( new ByteArrayInputStream( content ) );
+	}
+
+	@Override
+	protected void popInput()
+	{
+		inputStack.pop();
+	}
+
+	private InputStream current()
+	{
+		InputStream current = inputStack.peek();
+		return current == null ? is : current;
+	}
+
+	@Override
+	public void close() throws Exception
+	{
+		is.close();
+	}
+}
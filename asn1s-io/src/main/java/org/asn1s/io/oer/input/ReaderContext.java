@@ -0,0 +1,105 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.oer.input;
+
+import org.asn1s.api.Scope;
+import org.asn1s.api.constraint.EffectiveConstraint;
+import org.asn1s.api.exception.Asn1Exception;
+import org.asn1s.api.type.Type;
+import org.asn1s.api.value.Value;
+import org.asn1s.api.value.ValueFactory;
+import org.asn1s.io.per.PerUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+
+public final class ReaderContext
+{
+	public ReaderContext( AbstractOerReader reader, @NotNull Scope scope, @NotNull Type type )
+	{
+		this.reader = reader;
+		this.scope = scope;
+		this.type = type;
+	}
+
+	private final AbstractOerReader reader;
+	private Scope scope;
+	private Type type;
+	private EffectiveConstraint constraint;
+
+	public AbstractOerReader getReader()
+	{
+		return reader;
+	}
+
+	public ValueFactory getValueFactory()
+	{
+		return reader.getValueFactory();
+	}
+
+	public Scope getScope()
+	{
+		return scope;
+	}
+
+	public Type getType()
+	{
+		return type;
+	}
+
+	/**
+	 * Returns OER-visible constraint collected from all constrained types passed by this context
+	 *
+	 * @return effective constraint or null
+	 */
+	@Nullable
+	public EffectiveConstraint getConstraint()
+	{
+		return constraint;
+	}
+
+	ReaderContext toSiblingContext()
+	{
+		if( type.hasConstraint() )
+			constraint = PerUtils.applyConstraint( constraint, type );
+
+		type = type.getSibling();
+		assert type != null;
+		scope = type.getScope( scope );
+		return this;
+	}
+
+	ReaderContext toSiblingContext( @NotNull Type componentType )
+	{
+		return new ReaderContext( reader, componentType.getScope( scope ), componentType );
+	}
+
+	Value readComponentType( @NotNull Type componentType ) throws IOException, Asn1Exception
+	{
+		return reader.readInternal( toSiblingContext( componentType ) );
+	}
+}
@@ -0,0 +1,136 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.oer.input;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.asn1s.api.exception.Asn1Exception;
+import org.asn1s.api.type.ComponentType;
+import org.asn1s.api.type.Type.Family;
+import org.asn1s.api.util.RefUtils;
+import org.asn1s.api.value.Value;
+import org.asn1s.api.value.x680.ValueCollection;
+import org.asn1s.io.oer.OerUtils;
+import org.asn1s.io.per.CollectionLayout;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Decodes SEQUENCE and SET types, SET components are read in canonical tag order.
+ * See X.696, p 16 and 18
+ */
+final class SequenceOerDecoder implements OerDecoder
+{
+	private static final Log log = LogFactory.getLog( SequenceOerDecoder.class );
+
+	@Override
+	public Value decode( @NotNull ReaderContext context ) throws IOException, Asn1Exception
+	{
+		assert context.getType().getFamily() == Family.SEQUENCE || context.getType().getFamily() == Family.SET;
+
+		CollectionLayout layout = context.getReader().getLayout( context.getType() );
+		ValueCollection collection = context.getValueFactory().collection( true );
+		context.getScope().setValueLevel( collection );
+
+		boolean hasExtensions = readComponents( context, layout.getRootComponents(), collection, layout.isExtensible() );
+		if( hasExtensions )
+			readExtensions( context, layout, collection );
+		return collection;
+	}
+
+	private static void readExtensions( ReaderContext context, CollectionLayout layout, ValueCollection collection ) throws IOException, Asn1Exception
+	{
+		AbstractOerReader reader = context.getReader();
+		int length = reader.readLength();
+		if( length < 2 )
+			throw new IOException( "Extension bitmap is empty" );
+
+		int unusedBits = reader.read();
+		byte[] bitmap = reader.readOctets( length - 1 );
+		if( unusedBits >= OerUtils.BYTE_BITS )
+			throw new IOException( "Illegal amount of unused bits: " + unusedBits );
+
+		int count = bitmap.length * OerUtils.BYTE_BITS - unusedBits;
+		for( int i = 0; i < count; i++ )
+		{
+			if( !OerUtils.isBitSet( bitmap, i ) )
+				continue;
+
+			if( i >= layout.getExtensionCount() )
+			{
+				log.warn( "Unknown extension addition at index: " + i + ", skipping." );
+				reader.skipOpenType();
+				continue;
+			}
+
+			List<ComponentType> components = layout.getExtension( i );
+			if( layout.isExtensionGroup( i ) )
+				reader.readOpenType( () -> {
+					readComponents( context, components, collection, false );
+					return null;
+				} );
+			else
+			{
+				ComponentType component = components.get( 0 );
+				Value value = reader.readOpenType( () -> context.readComponentType( component ) );
+				assert value != null;
+				addComponent( context, collection, component, value );
+			}
+		}
+	}
+
+	/**
+	 * Read preamble and components
+	 *
+	 * @return extension bit from preamble
+	 */
+	private static boolean readComponents( ReaderContext context, List<ComponentType> components, ValueCollection collection, boolean extensible ) throws IOException, Asn1Exception
+	{
+		int offset = extensible ? 1 : 0;
+		int bitCount = offset;
+		for( ComponentType component : components )
+			if( !component.isRequired() )
+				bitCount++;
+
+		byte[] preamble = context.getReader().readOctets( ( bitCount + OerUtils.BYTE_BITS - 1 ) / OerUtils.BYTE_BITS );
+		int index = offset;
+		for( ComponentType component : components )
+		{
+			if( component.isRequired() || OerUtils.isBitSet( preamble, index++ ) )
+				addComponent( context, collection, component, context.readComponentType( component ) );
+		}
+		return extensible && OerUtils.isBitSet( preamble, 0 );
+	}
+
+	private static void addComponent( ReaderContext context, ValueCollection collection, ComponentType component, Value value ) throws Asn1Exception
+	{
+		// BASIC-OER allows DEFAULT values to be encoded, values equal to default are not part of value
+		if( !RefUtils.isSameAsDefaultValue( context.getScope(), component, value ) )
+			collection.addNamed( component.getComponentName(), value );
+	}
+}
@@ -0,0 +1,289 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.oer.output;
+
+import org.asn1s.api.Ref;
+import org.asn1s.api.Scope;
+import org.asn1s.api.encoding.EncodingInstructions;
+import org.asn1s.api.encoding.IEncoding;
+import org.asn1s.api.encoding.tag.TagEncoding;
+import org.asn1s.api.exception.Asn1Exception;
+import org.asn1s.api.exception.ResolutionException;
+import org.asn1s.api.type.ComponentType;
+import org.asn1s.api.type.Type;
+import org.asn1s.api.type.Type.Family;
+import org.asn1s.api.util.RefUtils;
+import org.asn1s.api.value.Value;
+import org.asn1s.api.value.x680.IntegerValue;
+import org.asn1s.api.value.x680.NamedValue;
+import org.asn1s.io.Asn1Writer;
+import org.asn1s.io.oer.OerRules;
+import org.asn1s.io.oer.OerUtils;
+import org.asn1s.io.per.CollectionLayout;
+import org.asn1s.io.per.PerUtils;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+abstract class AbstractOerWriter implements Asn1Writer
+{
+	private static final Map<Family, OerEncoder> ENCODERS = new EnumMap<>( Family.class );
+
+	static
+	{
+		ENCODERS.put( Family.BOOLEAN, new BooleanOerEncoder() );
+		ENCODERS.put( Family.INTEGER, new IntegerOerEncoder() );
+		ENCODERS.put( Family.ENUMERATED, new EnumeratedOerEncoder() );
+		ENCODERS.put( Family.REAL, new RealOerEncoder() );
+		ENCODERS.put( Family.BIT_STRING, new BitStringOerEncoder() );
+		ENCODERS.put( Family.OCTET_STRING, new OctetStringOerEncoder() );
+		ENCODERS.put( Family.NULL, new NullOerEncoder() );
+		ENCODERS.put( Family.SEQUENCE, new SequenceOerEncoder() );
+		ENCODERS.put( Family.SEQUENCE_OF, new SequenceOfOerEncoder() );
+		ENCODERS.put( Family.SET, new SequenceOerEncoder() );
+		ENCODERS.put( Family.SET_OF, new SequenceOfOerEncoder() );
+		ENCODERS.put( Family.RESTRICTED_STRING, new StringOerEncoder() );
+		ENCODERS.put( Family.UTC_TIME, new TimeOerEncoder() );
+		ENCODERS.put( Family.GENERALIZED_TIME, new TimeOerEncoder() );
+		ENCODERS.put( Family.OID, new ObjectIDOerEncoder() );
+	}
+
+	private final Map<Type, CollectionLayout> layouts = new IdentityHashMap<>();
+
+	public abstract OerRules getRules();
+
+	public abstract void write( int value ) throws IOException;
+
+	public abstract void write( @NotNull byte[] bytes ) throws IOException;
+
+	/**
+	 * Start buffering, all data written until {@link #stopBuffer()} is collected separately
+	 */
+	public abstract void startBuffer();
+
+	/**
+	 * Stop buffering and return collected data, the data is not written
+	 *
+	 * @return buffered octets
+	 */
+	@NotNull
+	public abstract byte[] stopBuffer();
+
+	@Override
+	public void write( @NotNull Scope scope, @NotNull Ref<Type> typeRef, @NotNull Value value ) throws IOException, Asn1Exception
+	{
+		Type type = typeRef.resolve( scope );
+		// resolve value to make sure it's correct
+		value = value.resolve( scope );
+		type.accept( scope, value );
+		writeInternal( new WriterContext( this, scope, type, value ) );
+	}
+
+	public final void writeInternal( @NotNull WriterContext context ) throws IOException, Asn1Exception
+	{
+		context = context.narrow();
+		Type type = context.getType();
+
+		// tags are not encoded by OER, except for CHOICE alternatives
+		if( type.hasSibling() )
+			writeInternal( context.toSiblingContext() );
+		else if( type.getFamily() == Family.CHOICE )
+			writeChoiceType( context );
+		else if( type.getFamily() == Family.OPEN_TYPE )
+			writeOpenType( context );
+		else
+		{
+			OerEncoder encoder = ENCODERS.get( type.getFamily() );
+			if( encoder == null )
+				throw new IllegalStateException( "No encoder found for family: " + type.getFamily() );
+
+			encoder.encode( context );
+		}
+	}
+
+	@NotNull
+	CollectionLayout getLayout( @NotNull Type type )
+	{
+		return layouts.computeIfAbsent( type, CollectionLayout:: create );
+	}
+
+	private void writeOpenType( @NotNull WriterContext context ) throws IOException, Asn1Exception
+	{
+		Value value = RefUtils.toBasicValue( context.getScope(), context.getValue() );
+		Type type = value.toOpenTypeValue().getType().resolve( context.getScope() );
+		Value openValue = value.toOpenTypeValue().getValueRef().resolve( context.getScope() );
+		startBuffer();
+		writeInternal( context.toSiblingContext( type, openValue ) );
+		writeOctets( stopBuffer() );
+	}
+
+	/**
+	 * Choice value is encoded as tag of chosen alternative followed by its encoding,
+	 * extension alternatives are encoded as open types, see X.696, p 20.
+	 * Untagged CHOICE alternative writes tag of its own chosen alternative.
+	 *
+	 * @param context the writer context
+	 * @throws IOException   in case of I/O failure
+	 * @throws Asn1Exception if value can not be encoded
+	 */
+	private void writeChoiceType( @NotNull WriterContext context ) throws IOException, Asn1Exception
+	{
+		context.getScope().setValueLevel( context.getValue() );
+
+		NamedValue namedValue = context.getValue().toNamedValue();
+		ComponentType componentType = context.getType().getNamedType( namedValue.getName() );
+		if( componentType == null )
+			throw new ResolutionException( "Unknown component: " + namedValue.getName() );
+
+		IEncoding encoding = componentType.getEncoding( EncodingInstructions.TAG );
+		if( encoding instanceof TagEncoding )
+			writeTag( (TagEncoding)encoding );
+
+		if( componentType.getVersion() > 1 )
+		{
+			startBuffer();
+			context.writeComponent( componentType, namedValue );
+			writeOctets( stopBuffer() );
+		}
+		else
+			context.writeComponent( componentType, namedValue );
+	}
+
+	/**
+	 * Tag octets, see X.696, p 8.7
+	 *
+	 * @param tag the tag
+	 * @throws IOException in case of I/O failure
+	 */
+	public void writeTag( @NotNull TagEncoding tag ) throws IOException
+	{
+		int classBits = tag.getTagClass().getCode() & OerUtils.TAG_CLASS_MASK;
+		int number = tag.getTagNumber();
+		if( number < OerUtils.TAG_NUMBER_MASK )
+		{
+			write( classBits | number );
+			return;
+		}
+
+		write( classBits | OerUtils.TAG_NUMBER_MASK );
+		int shift = ( ( Integer.SIZE - Integer.numberOfLeadingZeros( number ) - 1 ) / OerUtils.TAG_NUMBER_BITS ) * OerUtils.TAG_NUMBER_BITS;
+		for( ; shift > 0; shift -= OerUtils.TAG_NUMBER_BITS )
+			write( OerUtils.TAG_NUMBER_FLAG | ( number >>> shift ) & OerUtils.TAG_NUMBER_OCTET_MASK );
+		write( number & OerUtils.TAG_NUMBER_OCTET_MASK );
+	}
+
+	/**
+	 * Length determinant, see X.696, p 8.6
+	 *
+	 * @param length the length
+	 * @throws IOException in case of I/O failure
+	 */
+	public void writeLength( long length ) throws IOException
+	{
+		if( length < OerUtils.SHORT_LENGTH_LIMIT )
+			write( (int)length );
+		else
+		{
+			byte[] bytes = PerUtils.toUnsignedByteArray( length );
+			write( OerUtils.LONG_LENGTH_FLAG | bytes.length );
+			write( bytes );
+		}
+	}
+
+	/**
+	 * Write octets preceded by length determinant
+	 *
+	 * @param bytes the octets
+	 * @throws IOException in case of I/O failure
+	 */
+	public void writeOctets( @NotNull byte[] bytes ) throws IOException
+	{
+		writeLength( bytes.length );
+		write( bytes );
+	}
+
+	/**
+	 * Write lowest octets of value, most significant octet first
+	 *
+	 * @param value the value
+	 * @param count amount of octets, from 1 to 8
+	 * @throws IOException in case of I/O failure
+	 */
+	public void writeNumber( long value, int count ) throws IOException
+	{
+		for( int i = count - 1; i >= 0; i-- )
+			write( (int)( value >>> ( i * OerUtils.BYTE_BITS ) ) & OerUtils.BYTE_MASK );
+	}
+
+	/**
+	 * Non-negative integer preceded by length determinant, see X.696, p 10.6
+	 *
+	 * @param value the value
+	 * @throws IOException in case of I/O failure
+	 */
+	public void writeUnsignedInteger( @NotNull IntegerValue value ) throws IOException
+	{
+		if( value.isLong() )
+			writeOctets( PerUtils.toUnsignedByteArray( value.asLong() ) );
+		else
+		{
+			byte[] bytes = value.asBigInteger().toByteArray();
+			// remove sign octet
+			if( bytes.length > 1 && bytes[0] == 0 )
+			{
+				byte[] unsigned = new byte[bytes.length - 1];
+				System.arraycopy( bytes, 1, unsigned, 0, unsigned.length );
+				bytes = unsigned;
+			}
+			writeOctets( bytes );
+		}
+	}
+
+	/**
+	 * Two's complement integer preceded by length determinant, see X.696, p 10.8
+	 *
+	 * @param value the value
+	 * @throws IOException in case of I/O failure
+	 */
+	public void writeSignedInteger( @NotNull IntegerValue value ) throws IOException
+	{
+		writeOctets( value.isLong() ? PerUtils.toSignedByteArray( value.asLong() ) : value.asBigInteger().toByteArray() );
+	}
+
+	/**
+	 * Quantity field of SEQUENCE OF and SET OF, see X.696, p 17.1
+	 *
+	 * @param quantity the amount of items
+	 * @throws IOException in case of I/O failure
+	 */
+	public void writeQuantity( long quantity ) throws IOException
+	{
+		writeOctets( PerUtils.toUnsignedByteArray( quantity ) );
+	}
+}
@@ -0,0 +1,96 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.oer.output;
+
+import org.asn1s.api.type.Type.Family;
+import org.asn1s.api.value.ByteArrayValue;
+import org.asn1s.api.value.Value.Kind;
+import org.asn1s.io.oer.OerUtils;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+
+/**
+ * Bit strings with fixed size are encoded as bits padded to octet boundary,
+ * others are preceded by length determinant and initial octet with amount of unused bits.
+ * See X.696, p 13
+ */
+final class BitStringOerEncoder implements OerEncoder
+{
+	@Override
+	public void encode( @NotNull WriterContext context ) throws IOException
+	{
+		assert context.getType().getFamily() == Family.BIT_STRING;
+		assert context.getValue().getKind() == Kind.BYTE_ARRAY;
+		ByteArrayValue arrayValue = context.getValue().toByteArrayValue();
+		byte[] bytes = arrayValue.asByteArray();
+		int bitCount = arrayValue.getUsedBits();
+		long fixedSize = OerUtils.getFixedSize( context.getConstraint() );
+		AbstractOerWriter writer = context.getWriter();
+		if( fixedSize != -1L )
+		{
+			//noinspection NumericCastThatLosesPrecision
+			writer.write( copyBits( bytes, bitCount, (int)fixedSize ) );
+			return;
+		}
+
+		// trailing zero bits must be removed for types with named bits
+		if( !context.getType().getNamedValues().isEmpty() )
+			bitCount = getSignificantBitCount( bytes, bitCount );
+
+		writer.writeLength( 1 + toOctetCount( bitCount ) );
+		writer.write( toOctetCount( bitCount ) * OerUtils.BYTE_BITS - bitCount );
+		writer.write( copyBits( bytes, bitCount, bitCount ) );
+	}
+
+	private static byte[] copyBits( byte[] bytes, int bitCount, int targetBitCount )
+	{
+		byte[] result = new byte[toOctetCount( targetBitCount )];
+		int count = Math.min( bitCount, targetBitCount );
+		System.arraycopy( bytes, 0, result, 0, toOctetCount( count ) );
+		// unused bits must be zero
+		if( count % OerUtils.BYTE_BITS != 0 )
+			result[count / OerUtils.BYTE_BITS] &= 0xFF << ( OerUtils.BYTE_BITS - count % OerUtils.BYTE_BITS );
+		return result;
+	}
+
+	private static int toOctetCount( int bitCount )
+	{
+		return ( bitCount + OerUtils.BYTE_BITS - 1 ) / OerUtils.BYTE_BITS;
+	}
+
+	private static int getSignificantBitCount( byte[] bytes, int bitCount )
+	{
+		while( bitCount > 0 )
+		{
+			int index = bitCount - 1;
+			if( ( bytes[index / OerUtils.BYTE_BITS] & ( 0x80 >>> ( index % OerUtils.BYTE_BITS ) ) ) != 0 )
+				break;
+			bitCount--;
+		}
+		return bitCount;
+	}
+}
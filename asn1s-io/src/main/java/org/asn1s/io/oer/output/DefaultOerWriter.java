@@ -0,0 +1,114 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.oer.output;
+
+import org.asn1s.io.oer.OerRules;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Deque;
+import java.util.LinkedList;
+
+/**
+ * OER writer, see X.696.
+ * Encodings are always canonical except for time representation and SET OF item order, which depend on rules.
+ */
+public final class DefaultOerWriter extends AbstractOerWriter
+{
+	public DefaultOerWriter( OerRules rules )
+	{
+		this.rules = rules;
+		os = new ByteArrayOutputStream();
+		internalOs = true;
+	}
+
+	public DefaultOerWriter( OerRules rules, OutputStream os )
+	{
+		this.rules = rules;
+		this.os = os;
+		internalOs = false;
+	}
+
+	private final OerRules rules;
+	private final OutputStream os;
+	private final boolean internalOs;
+	private final Deque<ByteArrayOutputStream> bufferStack = new LinkedList<>();
+
+	@Override
+	public OerRules getRules()
+	{
+		return rules;
+	}
+
+	@Override
+	public void write( int value ) throws IOException
+	{
+		current().write( value );
+	}
+
+	@Override
+	public void write( @NotNull byte[] bytes ) throws IOException
+	{
+		current().write( bytes );
+	}
+
+	@Override
+	public void startBuffer()
+	{
+		bufferStack.push( new ByteArrayOutputStream() );
+	}
+
+	@NotNull
+	@Override
+	public byte[] stopBuffer()
+	{
+		return bufferStack.pop().toByteArray();
+	}
+
+	private OutputStream current()
+	{
+		OutputStream current = bufferStack.peek();
+		return current == null ? os : current;
+	}
+
+	@Override
+	public void close() throws Exception
+	{
+		if( internalOs )
+			os.close();
+	}
+
+	@Override
+	public byte[] toByteArray() throws IOException
+	{
+		if( !internalOs )
+			throw new IOException( "Unable to get bytes from provided stream" );
+
+		return ( (ByteArrayOutputStream)os ).toByteArray();
+	}
+}
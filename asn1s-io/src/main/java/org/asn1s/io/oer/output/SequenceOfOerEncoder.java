@@ -0,0 +1,108 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.oer.output;
+
+import org.asn1s.api.Ref;
+import org.asn1s.api.exception.Asn1Exception;
+import org.asn1s.api.exception.IllegalValueException;
+import org.asn1s.api.type.CollectionOfType;
+import org.asn1s.api.type.ComponentType;
+import org.asn1s.api.type.Type.Family;
+import org.asn1s.api.value.Value;
+import org.asn1s.api.value.Value.Kind;
+import org.asn1s.api.value.x680.ValueCollection;
+import org.asn1s.io.oer.OerRules;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encodes SEQUENCE OF and SET OF types as quantity field followed by items.
+ * CANONICAL rules require SET OF items to be sorted by their encodings.
+ * See X.696, p 17 and 19
+ */
+final class SequenceOfOerEncoder implements OerEncoder
+{
+	@Override
+	public void encode( @NotNull WriterContext context ) throws IOException, Asn1Exception
+	{
+		assert context.getType().getFamily() == Family.SEQUENCE_OF || context.getType().getFamily() == Family.SET_OF;
+		assert context.getValue().getKind() == Kind.COLLECTION || context.getValue().getKind() == Kind.NAMED_COLLECTION;
+
+		ComponentType componentType = ( (CollectionOfType)context.getType() ).getComponentType();
+		ValueCollection collection = context.getValue().toValueCollection();
+		List<Ref<Value>> values = collection.asValueList();
+		context.getScope().setValueLevel( collection );
+
+		AbstractOerWriter writer = context.getWriter();
+		writer.writeQuantity( values.size() );
+		if( context.getType().getFamily() == Family.SET_OF && writer.getRules() == OerRules.CANONICAL )
+		{
+			writeSorted( context, componentType, values );
+			return;
+		}
+
+		for( Ref<Value> ref : values )
+			context.writeComponent( componentType, toValue( ref ) );
+	}
+
+	private static void writeSorted( WriterContext context, ComponentType componentType, Iterable<Ref<Value>> values ) throws IOException, Asn1Exception
+	{
+		AbstractOerWriter writer = context.getWriter();
+		List<byte[]> encodings = new ArrayList<>();
+		for( Ref<Value> ref : values )
+		{
+			writer.startBuffer();
+			context.writeComponent( componentType, toValue( ref ) );
+			encodings.add( writer.stopBuffer() );
+		}
+
+		encodings.sort( SequenceOfOerEncoder:: compareEncodings );
+		for( byte[] encoding : encodings )
+			writer.write( encoding );
+	}
+
+	private static Value toValue( Ref<Value> ref ) throws IllegalValueException
+	{
+		if( !( ref instanceof Value ) )
+			throw new IllegalValueException( "Unable to use references: " + ref );
+		return (Value)ref;
+	}
+
+	private static int compareEncodings( byte[] first, byte[] second )
+	{
+		int length = Math.min( first.length, second.length );
+		for( int i = 0; i < length; i++ )
+		{
+			int result = Integer.compare( first[i] & 0xFF, second[i] & 0xFF );
+			if( result != 0 )
+				return result;
+		}
+		return Integer.compare( first.length, second.length );
+	}
+}
@@ -0,0 +1,183 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.per;
+
+import org.asn1s.api.type.CollectionType;
+import org.asn1s.api.type.CollectionTypeExtensionGroup;
+import org.asn1s.api.type.ComponentType;
+import org.asn1s.api.type.ComponentType.Kind;
+import org.asn1s.api.type.Type;
+import org.asn1s.api.type.Type.Family;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Component layout of SEQUENCE, SET or CHOICE as seen by PER, see X.691, p 19, 21 and 23.
+ * Root components are sorted in canonical tag order for SET and CHOICE,
+ * extension additions are kept in definition order, each addition group occupies single slot.
+ */
+public final class CollectionLayout
+{
+	private CollectionLayout( boolean extensible, List<ComponentType> rootComponents, List<List<ComponentType>> extensions, List<Boolean> groups )
+	{
+		this.extensible = extensible;
+		this.rootComponents = Collections.unmodifiableList( rootComponents );
+		this.extensions = Collections.unmodifiableList( extensions );
+		this.groups = groups;
+		int count = 0;
+		for( ComponentType component : rootComponents )
+			if( !component.isRequired() )
+				count++;
+		optionalCount = count;
+	}
+
+	private final boolean extensible;
+	private final List<ComponentType> rootComponents;
+	private final List<List<ComponentType>> extensions;
+	private final List<Boolean> groups;
+	private final int optionalCount;
+
+	@NotNull
+	public static CollectionLayout create( @NotNull Type type )
+	{
+		Family family = type.getFamily();
+		if( family != Family.SEQUENCE && family != Family.SET && family != Family.CHOICE )
+			throw new IllegalArgumentException( "Unable to create layout for: " + type );
+
+		List<ComponentType> root = new ArrayList<>();
+		List<List<ComponentType>> extensions = new ArrayList<>();
+		int lastVersion = 1;
+		for( ComponentType component : type.<ComponentType>getNamedTypes() )
+		{
+			if( component.getVersion() <= 1 )
+				root.add( component );
+			else if( family == Family.CHOICE || component.getVersion() != lastVersion )
+			{
+				List<ComponentType> slot = new ArrayList<>();
+				slot.add( component );
+				extensions.add( slot );
+				lastVersion = component.getVersion();
+			}
+			else
+				extensions.get( extensions.size() - 1 ).add( component );
+		}
+
+		if( family != Family.SEQUENCE )
+			root.sort( PerUtils.CANONICAL_TAG_ORDER );
+
+		CollectionType collectionType = (CollectionType)type;
+		return new CollectionLayout( collectionType.isExtensible(), root, extensions, detectGroups( collectionType, extensions ) );
+	}
+
+	private static List<Boolean> detectGroups( CollectionType type, List<List<ComponentType>> extensions )
+	{
+		List<Boolean> result = new ArrayList<>( extensions.size() );
+		List<Type> sources = type.getFamily() == Family.CHOICE ? Collections.emptyList() : type.getComponents( Kind.EXTENSION );
+		boolean useSources = sources.size() == extensions.size();
+		for( int i = 0; i < extensions.size(); i++ )
+			result.add( useSources ? sources.get( i ) instanceof CollectionTypeExtensionGroup : extensions.get( i ).size() > 1 );
+		return result;
+	}
+
+	public boolean isExtensible()
+	{
+		return extensible;
+	}
+
+	@NotNull
+	public List<ComponentType> getRootComponents()
+	{
+		return rootComponents;
+	}
+
+	/**
+	 * Amount of root components which are OPTIONAL or has DEFAULT value, i.e. preamble size.
+	 *
+	 * @return count
+	 */
+	public int getOptionalCount()
+	{
+		return optionalCount;
+	}
+
+	public int getExtensionCount()
+	{
+		return extensions.size();
+	}
+
+	@NotNull
+	public List<ComponentType> getExtension( int index )
+	{
+		return extensions.get( index );
+	}
+
+	/**
+	 * Returns true if extension addition is group and must be encoded as SEQUENCE
+	 *
+	 * @param index extension addition index
+	 * @return boolean
+	 */
+	public boolean isExtensionGroup( int index )
+	{
+		return groups.get( index );
+	}
+
+	/**
+	 * Returns index of root component by name or -1
+	 *
+	 * @param name component name
+	 * @return index
+	 */
+	public int getRootIndex( @NotNull String name )
+	{
+		return indexOf( rootComponents, name );
+	}
+
+	/**
+	 * Returns index of extension addition containing component by name or -1
+	 *
+	 * @param name component name
+	 * @return index
+	 */
+	public int getExtensionIndex( @NotNull String name )
+	{
+		for( int i = 0; i < extensions.size(); i++ )
+			if( indexOf( extensions.get( i ), name ) != -1 )
+				return i;
+		return -1;
+	}
+
+	private static int indexOf( List<ComponentType> components, String name )
+	{
+		for( int i = 0; i < components.size(); i++ )
+			if( components.get( i ).getComponentName().equals( name ) )
+				return i;
+		return -1;
+	}
+}
@@ -0,0 +1,219 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.per;
+
+import org.asn1s.api.UniversalType;
+import org.asn1s.api.encoding.EncodingInstructions;
+import org.asn1s.api.encoding.IEncoding;
+import org.asn1s.api.encoding.tag.TagClass;
+import org.asn1s.api.encoding.tag.TagEncoding;
+import org.asn1s.api.type.Type;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Known-multiplier character string types, see X.691, p 30.
+ * Each character is encoded using fixed amount of bits.
+ */
+public enum KnownMultiplierString
+{
+	NUMERIC( UniversalType.NUMERIC_STRING, 4, " 0123456789" ),
+	PRINTABLE( UniversalType.PRINTABLE_STRING, 7, null ),
+	VISIBLE( UniversalType.VISIBLE_STRING, 7, null ),
+	IA5( UniversalType.IA5_STRING, 7, null ),
+	BMP( UniversalType.BMP_STRING, 16, null ),
+	UNIVERSAL( UniversalType.UNIVERSAL_STRING, 32, null );
+
+	KnownMultiplierString( UniversalType universalType, int bitCount, @Nullable String alphabet )
+	{
+		this.universalType = universalType;
+		this.bitCount = bitCount;
+		this.alphabet = alphabet;
+	}
+
+	private final UniversalType universalType;
+	private final int bitCount;
+	private final String alphabet;
+
+	/**
+	 * Find known-multiplier string type for restricted string type
+	 *
+	 * @param type the restricted string type
+	 * @return known-multiplier type or null
+	 */
+	@Nullable
+	public static KnownMultiplierString find( @NotNull Type type )
+	{
+		IEncoding encoding = type.getEncoding( EncodingInstructions.TAG );
+		if( !( encoding instanceof TagEncoding ) || ( (TagEncoding)encoding ).getTagClass() != TagClass.UNIVERSAL )
+			return null;
+
+		long tagNumber = ( (TagEncoding)encoding ).getTagNumber();
+		for( KnownMultiplierString value : values() )
+			if( value.universalType.tagNumber() == tagNumber )
+				return value;
+
+		return null;
+	}
+
+	/**
+	 * Amount of bits per character, for ALIGNED variant it is rounded up to power of 2, see X.691, p 30.5.2
+	 *
+	 * @param rules the encoding rules
+	 * @return bit count
+	 */
+	public int getBitCount( @NotNull PerRules rules )
+	{
+		if( rules == PerRules.UNALIGNED || Integer.bitCount( bitCount ) == 1 )
+			return bitCount;
+
+		return Integer.highestOneBit( bitCount ) << 1;
+	}
+
+	/**
+	 * Amount of bits per character for effective permitted alphabet, see X.691, p 30.5.3
+	 *
+	 * @param rules    the encoding rules
+	 * @param alphabet the effective permitted alphabet or null if not constrained
+	 * @return bit count
+	 */
+	public int getBitCount( @NotNull PerRules rules, @Nullable int[] alphabet )
+	{
+		if( alphabet == null )
+			return getBitCount( rules );
+
+		int count = Integer.SIZE - Integer.numberOfLeadingZeros( Math.max( alphabet.length, 1 ) - 1 );
+		if( rules == PerRules.UNALIGNED || Integer.bitCount( count ) <= 1 )
+			return count;
+
+		return Integer.highestOneBit( count ) << 1;
+	}
+
+	/**
+	 * Amount of octets per character in octet-oriented encodings, see X.696, p 25
+	 *
+	 * @return octet count
+	 */
+	public int getOctetCount()
+	{
+		return ( bitCount + Byte.SIZE - 1 ) / Byte.SIZE;
+	}
+
+	/**
+	 * Returns true if characters are encoded as code points, false if characters UTF-16 units used
+	 *
+	 * @return boolean
+	 */
+	public boolean isCodePoints()
+	{
+		return this == UNIVERSAL;
+	}
+
+	/**
+	 * Convert character to encoded value, see X.691, p 30.5.4
+	 *
+	 * @param character the character
+	 * @return encoded value
+	 */
+	public long encode( int character )
+	{
+		if( alphabet == null )
+			return character & 0xFFFFFFFFL;
+
+		int index = alphabet.indexOf( character );
+		if( index == -1 )
+			throw new IllegalArgumentException( "Character is not allowed for " + universalType.typeName() + ": " + character );
+		return index;
+	}
+
+	/**
+	 * Convert encoded value to character
+	 *
+	 * @param value encoded value
+	 * @return character
+	 */
+	public int decode( long value )
+	{
+		if( alphabet == null )
+			//noinspection NumericCastThatLosesPrecision
+			return (int)value;
+
+		if( value >= alphabet.length() )
+			throw new IllegalArgumentException( "Illegal character index for " + universalType.typeName() + ": " + value );
+		//noinspection NumericCastThatLosesPrecision
+		return alphabet.charAt( (int)value );
+	}
+
+	/**
+	 * Convert character to encoded value using effective permitted alphabet, see X.691, p 30.5.4.
+	 * Character is encoded as is if every permitted character fits into bit count, otherwise as index in alphabet.
+	 *
+	 * @param character the character
+	 * @param bitCount  the bit count, see {@link #getBitCount(PerRules, int[])}
+	 * @param alphabet  the effective permitted alphabet or null if not constrained
+	 * @return encoded value
+	 */
+	public long encode( int character, int bitCount, @Nullable int[] alphabet )
+	{
+		if( alphabet == null )
+			return encode( character );
+
+		int index = Arrays.binarySearch( alphabet, character );
+		if( index < 0 )
+			throw new IllegalArgumentException( "Character is not in permitted alphabet of " + universalType.typeName() + ": " + character );
+		return isIndexed( bitCount, alphabet ) ? index : character & 0xFFFFFFFFL;
+	}
+
+	/**
+	 * Convert encoded value to character using effective permitted alphabet
+	 *
+	 * @param value    encoded value
+	 * @param bitCount the bit count, see {@link #getBitCount(PerRules, int[])}
+	 * @param alphabet the effective permitted alphabet or null if not constrained
+	 * @return character
+	 */
+	public int decode( long value, int bitCount, @Nullable int[] alphabet )
+	{
+		if( alphabet == null )
+			return decode( value );
+
+		if( !isIndexed( bitCount, alphabet ) )
+			//noinspection NumericCastThatLosesPrecision
+			return (int)value;
+
+		if( value >= alphabet.length )
+			throw new IllegalArgumentException( "Illegal character index for permitted alphabet of " + universalType.typeName() + ": " + value );
+		//noinspection NumericCastThatLosesPrecision
+		return alphabet[(int)value];
+	}
+
+	private static boolean isIndexed( int bitCount, int[] alphabet )
+	{
+		return alphabet.length > 0 && ( alphabet[alphabet.length - 1] & 0xFFFFFFFFL ) >= 1L << bitCount;
+	}
+}
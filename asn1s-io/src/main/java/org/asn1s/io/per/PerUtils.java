@@ -0,0 +1,349 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.per;
+
+import org.asn1s.api.Ref;
+import org.asn1s.api.Scope;
+import org.asn1s.api.constraint.EffectiveConstraint;
+import org.asn1s.api.encoding.EncodingInstructions;
+import org.asn1s.api.encoding.IEncoding;
+import org.asn1s.api.encoding.tag.TagEncoding;
+import org.asn1s.api.exception.Asn1Exception;
+import org.asn1s.api.type.ComponentType;
+import org.asn1s.api.type.Enumerated;
+import org.asn1s.api.type.Enumerated.ItemKind;
+import org.asn1s.api.type.Type;
+import org.asn1s.api.type.Type.Family;
+import org.asn1s.api.value.Value;
+import org.asn1s.api.value.Value.Kind;
+import org.asn1s.api.value.ValueFactory;
+import org.asn1s.api.value.x680.NamedValue;
+import org.asn1s.io.ber.BerRules;
+import org.asn1s.io.ber.BerUtils;
+import org.asn1s.io.ber.input.DefaultBerReader;
+import org.asn1s.io.ber.output.DefaultBerWriter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+@SuppressWarnings( "NumericCastThatLosesPrecision" )
+public final class PerUtils
+{
+	public static final int BYTE_MASK = 0x00FF;
+	public static final int BYTE_BITS = 8;
+
+	/**
+	 * Length determinant values, see X.691, p 11.9
+	 */
+	public static final int SHORT_LENGTH_LIMIT = 128;
+	public static final int LONG_LENGTH_FLAG = 0x80;
+	public static final int LONG_LENGTH_MASK = 0x3F;
+	public static final int FRAGMENT_FLAG = 0xC0;
+	public static final int FRAGMENT_SIZE = 16384;
+	public static final int MAX_FRAGMENTS = 4;
+	public static final int CONSTRAINED_LENGTH_LIMIT = 65536;
+
+	/**
+	 * Normally small non-negative whole number, see X.691, p 11.6
+	 */
+	public static final int NORMALLY_SMALL_LIMIT = 64;
+	public static final int NORMALLY_SMALL_BITS = 6;
+
+	/**
+	 * Constrained whole number ranges (upper bound minus lower bound) of ALIGNED variant, see X.691, p 11.5.7
+	 */
+	public static final long ONE_OCTET_RANGE = 255L;
+	public static final long TWO_OCTETS_RANGE = 65535L;
+
+	/**
+	 * Fixed size fields up to this amount of bits are never octet-aligned, see X.691, p 16.9 and 17.6
+	 */
+	public static final int MAX_UNALIGNED_FIELD_BITS = 16;
+
+	public static final Comparator<Type> CANONICAL_TAG_ORDER = PerUtils:: compareCanonicalTags;
+
+	private PerUtils()
+	{
+	}
+
+	/**
+	 * Returns amount of bits required for constrained whole number in range [lowerBound, upperBound], see X.691, p 11.5.7.1
+	 *
+	 * @param lowerBound the lower bound
+	 * @param upperBound the upper bound
+	 * @return bit count, 0 if range has single value
+	 */
+	public static int getRangeBitCount( long lowerBound, long upperBound )
+	{
+		// unsigned difference, so full long range is supported
+		return Long.SIZE - Long.numberOfLeadingZeros( upperBound - lowerBound );
+	}
+
+	/**
+	 * Apply PER-visible constraint of constrained type to constraint collected from outer types.
+	 *
+	 * @param constraint constraint of outer types
+	 * @param type       the type with constraint
+	 * @return effective constraint
+	 */
+	@Nullable
+	public static EffectiveConstraint applyConstraint( @Nullable EffectiveConstraint constraint, @NotNull Type type )
+	{
+		EffectiveConstraint typeConstraint = type.getEffectiveConstraint();
+		if( typeConstraint == null )
+			return constraint;
+
+		return constraint == null ? typeConstraint : constraint.applyTo( typeConstraint );
+	}
+
+	public static boolean isInRange( @NotNull EffectiveConstraint constraint, long value )
+	{
+		Long lowerBound = constraint.getLowerBound();
+		Long upperBound = constraint.getUpperBound();
+		return ( lowerBound == null || lowerBound <= value ) && ( upperBound == null || value <= upperBound );
+	}
+
+	/**
+	 * Sizes are never negative, so missing lower bound is treated as zero.
+	 *
+	 * @param size the size constraint
+	 * @return lower bound
+	 */
+	public static long getLowerSizeBound( @NotNull EffectiveConstraint size )
+	{
+		Long lowerBound = size.getLowerBound();
+		return lowerBound == null ? 0L : lowerBound;
+	}
+
+	/**
+	 * Returns true if length determinant must be encoded as constrained whole number
+	 *
+	 * @param size the size constraint
+	 * @return boolean
+	 */
+	public static boolean isConstrainedLength( @Nullable EffectiveConstraint size )
+	{
+		return size != null && size.getUpperBound() != null && size.getUpperBound() < CONSTRAINED_LENGTH_LIMIT;
+	}
+
+	/**
+	 * Returns true if field of items must be octet-aligned in ALIGNED variant
+	 *
+	 * @param size     the size constraint, may be null
+	 * @param itemBits amount of bits per item
+	 * @return boolean
+	 */
+	public static boolean isAlignedField( @Nullable EffectiveConstraint size, int itemBits )
+	{
+		if( size == null || size.getUpperBound() == null )
+			return true;
+
+		long upperBound = size.getUpperBound();
+		return upperBound != getLowerSizeBound( size ) || upperBound * itemBits > MAX_UNALIGNED_FIELD_BITS;
+	}
+
+	/**
+	 * Returns tag used for canonical ordering, see X.680, p 8.6.
+	 * Untagged CHOICE types use smallest tag of its alternatives.
+	 *
+	 * @param type the type
+	 * @return tag encoding or null if type has no tag
+	 */
+	@Nullable
+	public static TagEncoding getCanonicalTag( @NotNull Type type )
+	{
+		IEncoding encoding = type.getEncoding( EncodingInstructions.TAG );
+		if( encoding instanceof TagEncoding )
+			return (TagEncoding)encoding;
+
+		if( type.getFamily() != Family.CHOICE )
+			return null;
+
+		TagEncoding result = null;
+		for( ComponentType component : type.<ComponentType>getNamedTypes() )
+		{
+			TagEncoding tag = getCanonicalTag( component );
+			if( result == null || tag != null && compareTags( tag, result ) < 0 )
+				result = tag;
+		}
+		return result;
+	}
+
+	private static int compareCanonicalTags( Type first, Type second )
+	{
+		TagEncoding firstTag = getCanonicalTag( first );
+		TagEncoding secondTag = getCanonicalTag( second );
+		if( firstTag == null || secondTag == null )
+			return firstTag == null ? secondTag == null ? 0 : 1 : -1;
+		return compareTags( firstTag, secondTag );
+	}
+
+	private static int compareTags( TagEncoding first, TagEncoding second )
+	{
+		int result = Integer.compare( first.getTagClass().getCode() & BYTE_MASK, second.getTagClass().getCode() & BYTE_MASK );
+		return result == 0 ? Long.compare( first.getTagNumber(), second.getTagNumber() ) : result;
+	}
+
+	/**
+	 * Returns root items of ENUMERATED sorted by value, see X.691, p 14.1
+	 *
+	 * @param type the enumerated type
+	 * @return list of items
+	 */
+	@NotNull
+	public static List<NamedValue> getSortedRootItems( @NotNull Enumerated type )
+	{
+		List<NamedValue> items = new ArrayList<>( type.getItems( ItemKind.PRIMARY ) );
+		items.sort( Comparator.comparingLong( PerUtils:: getItemValue ) );
+		return items;
+	}
+
+	private static long getItemValue( NamedValue item )
+	{
+		Ref<Value> valueRef = item.getValueRef();
+		if( !( valueRef instanceof Value ) || ( (Value)valueRef ).getKind() != Kind.INTEGER )
+			throw new IllegalStateException( "Enumerated item is not resolved: " + item );
+		return ( (Value)valueRef ).toIntegerValue().asLong();
+	}
+
+	/**
+	 * Returns minimal two's-complement representation of value, see X.691, p 11.4
+	 *
+	 * @param value the value
+	 * @return byte array, at least 1 byte long
+	 */
+	public static byte[] toSignedByteArray( long value )
+	{
+		int size = Long.BYTES;
+		while( size > 1 )
+		{
+			long rest = value >> ( ( size - 1 ) * BYTE_BITS - 1 );
+			if( rest != 0L && rest != -1L )
+				break;
+			size--;
+		}
+		return toByteArray( value, size );
+	}
+
+	/**
+	 * Returns minimal non-negative binary integer representation of value, see X.691, p 11.3
+	 *
+	 * @param value the value, treated as unsigned
+	 * @return byte array, at least 1 byte long
+	 */
+	public static byte[] toUnsignedByteArray( long value )
+	{
+		int size = Math.max( 1, ( Long.SIZE - Long.numberOfLeadingZeros( value ) + BYTE_BITS - 1 ) / BYTE_BITS );
+		return toByteArray( value, size );
+	}
+
+	private static byte[] toByteArray( long value, int size )
+	{
+		byte[] result = new byte[size];
+		for( int i = 0; i < size; i++ )
+			result[i] = (byte)( value >>> ( ( size - i - 1 ) * BYTE_BITS ) );
+		return result;
+	}
+
+	/**
+	 * Encode value using DER and return content octets only.
+	 * Used by types which PER encoding refers to BER content, like REAL or OBJECT IDENTIFIER.
+	 *
+	 * @param scope the resolution scope
+	 * @param type  the builtin type with universal tag
+	 * @param value the value
+	 * @return content octets
+	 * @throws IOException   if io fails
+	 * @throws Asn1Exception if value can not be encoded
+	 */
+	public static byte[] toBerContent( @NotNull Scope scope, @NotNull Type type, @NotNull Value value ) throws IOException, Asn1Exception
+	{
+		byte[] bytes;
+		try( DefaultBerWriter writer = new DefaultBerWriter( BerRules.DER ) )
+		{
+			writer.write( scope, type, value );
+			bytes = writer.toByteArray();
+		} catch( IOException | Asn1Exception e )
+		{
+			throw e;
+		} catch( Exception e )
+		{
+			throw new IOException( e );
+		}
+
+		// single byte universal tag
+		int offset = 1;
+		int lengthByte = bytes[offset] & BYTE_MASK;
+		offset += ( lengthByte & BerUtils.BYTE_SIGN_MASK ) == 0 ? 1 : 1 + ( lengthByte & BerUtils.UNSIGNED_BYTE_MASK );
+		byte[] content = new byte[bytes.length - offset];
+		System.arraycopy( bytes, offset, content, 0, content.length );
+		return content;
+	}
+
+	/**
+	 * Decode value from BER content octets.
+	 *
+	 * @param scope     the resolution scope
+	 * @param type      the builtin type with universal tag
+	 * @param factory   the value factory
+	 * @param tagNumber universal tag number of type
+	 * @param content   content octets
+	 * @return value
+	 * @throws IOException   if io fails
+	 * @throws Asn1Exception if value can not be decoded
+	 */
+	public static Value fromBerContent( @NotNull Scope scope, @NotNull Type type, @NotNull ValueFactory factory, int tagNumber, @NotNull byte[] content ) throws IOException, Asn1Exception
+	{
+		ByteArrayOutputStream os = new ByteArrayOutputStream( content.length + 6 );
+		os.write( tagNumber );
+		if( content.length < SHORT_LENGTH_LIMIT )
+			os.write( content.length );
+		else
+		{
+			byte[] length = toUnsignedByteArray( content.length );
+			os.write( BerUtils.BYTE_SIGN_MASK | length.length );
+			os.write( length );
+		}
+		os.write( content );
+
+		try( DefaultBerReader reader = new DefaultBerReader( new ByteArrayInputStream( os.toByteArray() ), factory ) )
+		{
+			return reader.read( scope, type );
+		} catch( IOException | Asn1Exception e )
+		{
+			throw e;
+		} catch( Exception e )
+		{
+			throw new IOException( e );
+		}
+	}
+}
@@ -0,0 +1,436 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.per.input;
+
+import org.asn1s.api.Ref;
+import org.asn1s.api.Scope;
+import org.asn1s.api.constraint.EffectiveConstraint;
+import org.asn1s.api.exception.Asn1Exception;
+import org.asn1s.api.exception.ResolutionException;
+import org.asn1s.api.type.*;
+import org.asn1s.api.type.Type.Family;
+import org.asn1s.api.value.Value;
+import org.asn1s.api.value.ValueFactory;
+import org.asn1s.api.value.x680.IntegerValue;
+import org.asn1s.io.Asn1Reader;
+import org.asn1s.io.per.CollectionLayout;
+import org.asn1s.io.per.PerRules;
+import org.asn1s.io.per.PerUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+abstract class AbstractPerReader implements Asn1Reader
+{
+	private static final Map<Family, PerDecoder> DECODERS = new EnumMap<>( Family.class );
+
+	static
+	{
+		DECODERS.put( Family.BOOLEAN, new BooleanPerDecoder() );
+		DECODERS.put( Family.INTEGER, new IntegerPerDecoder() );
+		DECODERS.put( Family.ENUMERATED, new EnumeratedPerDecoder() );
+		DECODERS.put( Family.REAL, new RealPerDecoder() );
+		DECODERS.put( Family.BIT_STRING, new BitStringPerDecoder() );
+		DECODERS.put( Family.OCTET_STRING, new OctetStringPerDecoder() );
+		DECODERS.put( Family.NULL, new NullPerDecoder() );
+		DECODERS.put( Family.SEQUENCE, new SequencePerDecoder() );
+		DECODERS.put( Family.SEQUENCE_OF, new SequenceOfPerDecoder() );
+		DECODERS.put( Family.SET, new SequencePerDecoder() );
+		DECODERS.put( Family.SET_OF, new SequenceOfPerDecoder() );
+		DECODERS.put( Family.RESTRICTED_STRING, new StringPerDecoder() );
+		DECODERS.put( Family.UTC_TIME, new TimePerDecoder() );
+		DECODERS.put( Family.GENERALIZED_TIME, new TimePerDecoder() );
+		DECODERS.put( Family.OID, new ObjectIDPerDecoder() );
+	}
+
+	AbstractPerReader( ValueFactory factory )
+	{
+		this.factory = factory;
+	}
+
+	private final ValueFactory factory;
+	private final Map<Type, CollectionLayout> layouts = new IdentityHashMap<>();
+
+	@NotNull
+	@Override
+	public ValueFactory getValueFactory()
+	{
+		return factory;
+	}
+
+	@Override
+	public Value read( @NotNull Scope scope, @NotNull Ref<Type> typeRef ) throws IOException, Asn1Exception
+	{
+		Type type = typeRef.resolve( scope );
+		long start = position();
+		Value value = readInternal( new ReaderContext( this, scope, type ) );
+		completeDecoding( start );
+		type.accept( scope, value );
+		return value;
+	}
+
+	@NotNull
+	Value readInternal( @NotNull ReaderContext context ) throws IOException, Asn1Exception
+	{
+		Type type = context.getType();
+		// tags are not encoded by PER
+		if( type.hasSibling() )
+			return readInternal( context.toSiblingContext() );
+
+		if( type.getFamily() == Family.CHOICE )
+			return readChoiceType( context );
+
+		if( type.getFamily() == Family.OPEN_TYPE )
+			return readOpenType( context );
+
+		PerDecoder decoder = DECODERS.get( type.getFamily() );
+		if( decoder == null )
+			throw new IllegalStateException( "No decoder found for family: " + type.getFamily() );
+
+		return decoder.decode( context );
+	}
+
+	@NotNull
+	CollectionLayout getLayout( @NotNull Type type )
+	{
+		return layouts.computeIfAbsent( type, CollectionLayout:: create );
+	}
+
+	private Value readOpenType( @NotNull ReaderContext context ) throws Asn1Exception, IOException
+	{
+		InstanceOfTypeSelector selector = context.getScope().getScopeOption( TypeUtils.INSTANCE_OF_TYPE_KEY );
+		if( selector == null )
+			throw new ResolutionException( "Unable to locate InstanceOfTypeSelector." );
+
+		Type openTypeType = selector.resolveInstanceOfType( context.getScope() );
+		Value openTypeValue = readOpenType( () -> readInternal( context.toSiblingContext( openTypeType ) ) );
+		assert openTypeValue != null;
+		return factory.openTypeValue( openTypeType, openTypeValue ).resolve( context.getScope() );
+	}
+
+	@NotNull
+	private Value readChoiceType( @NotNull ReaderContext context ) throws IOException, Asn1Exception
+	{
+		CollectionLayout layout = getLayout( context.getType() );
+		if( layout.isExtensible() && readBit() )
+		{
+			long index = readNormallySmallNumber();
+			if( index >= layout.getExtensionCount() )
+				throw new IOException( "Unable to read choice value, unknown extension alternative: " + index );
+
+			ComponentType component = layout.getExtension( (int)index ).get( 0 );
+			Value value = readOpenType( () -> context.readComponentType( component ) );
+			assert value != null;
+			return factory.named( component.getName(), value );
+		}
+
+		int count = layout.getRootComponents().size();
+		long index = readConstrainedWholeNumber( 0, count - 1 );
+		if( index >= count )
+			throw new IOException( "Unable to read choice value, illegal alternative index: " + index );
+
+		ComponentType component = layout.getRootComponents().get( (int)index );
+		return factory.named( component.getName(), context.readComponentType( component ) );
+	}
+
+	/**
+	 * Constrained whole number, see X.691, p 11.5
+	 *
+	 * @param lowerBound the lower bound
+	 * @param upperBound the upper bound
+	 * @return value
+	 * @throws IOException in case of I/O failure
+	 */
+	public long readConstrainedWholeNumber( long lowerBound, long upperBound ) throws IOException
+	{
+		long range = upperBound - lowerBound;
+		if( getRules() == PerRules.UNALIGNED || Long.compareUnsigned( range, PerUtils.ONE_OCTET_RANGE ) < 0 )
+			return lowerBound + readBits( PerUtils.getRangeBitCount( lowerBound, upperBound ) );
+
+		if( range == PerUtils.ONE_OCTET_RANGE )
+		{
+			align();
+			return lowerBound + readBits( PerUtils.BYTE_BITS );
+		}
+
+		if( Long.compareUnsigned( range, PerUtils.TWO_OCTETS_RANGE ) <= 0 )
+		{
+			align();
+			return lowerBound + readBits( PerUtils.BYTE_BITS * 2 );
+		}
+
+		// indefinite length case, X.691 p 11.5.7.4
+		long length = readConstrainedWholeNumber( 1, PerUtils.toUnsignedByteArray( range ).length );
+		align();
+		//noinspection NumericCastThatLosesPrecision
+		return lowerBound + readBits( (int)length * PerUtils.BYTE_BITS );
+	}
+
+	/**
+	 * Normally small non-negative whole number, see X.691, p 11.6
+	 *
+	 * @return value
+	 * @throws IOException in case of I/O failure
+	 */
+	public long readNormallySmallNumber() throws IOException
+	{
+		if( !readBit() )
+			return readBits( PerUtils.NORMALLY_SMALL_BITS );
+
+		byte[] bytes = readOctets();
+		if( bytes.length > Long.BYTES - 1 )
+			throw new IOException( "Number is too big" );
+		return new BigInteger( 1, bytes ).longValue();
+	}
+
+	/**
+	 * Semi-constrained whole number, see X.691, p 11.7
+	 *
+	 * @param lowerBound the lower bound
+	 * @return value
+	 * @throws IOException in case of I/O failure
+	 */
+	public IntegerValue readSemiConstrainedWholeNumber( long lowerBound ) throws IOException
+	{
+		BigInteger value = new BigInteger( 1, readOctets() ).add( BigInteger.valueOf( lowerBound ) );
+		return value.bitLength() < Long.SIZE ? factory.integer( value.longValue() ) : factory.integer( value );
+	}
+
+	/**
+	 * Unconstrained whole number, see X.691, p 11.8
+	 *
+	 * @return value
+	 * @throws IOException in case of I/O failure
+	 */
+	public IntegerValue readUnconstrainedWholeNumber() throws IOException
+	{
+		return factory.integer( readOctets() );
+	}
+
+	/**
+	 * Read octets preceded by unconstrained length determinant
+	 *
+	 * @return octets
+	 * @throws IOException in case of I/O failure
+	 */
+	public byte[] readOctets() throws IOException
+	{
+		ByteArrayOutputStream os = new ByteArrayOutputStream();
+		try
+		{
+			readItems( null, PerUtils.BYTE_BITS, count -> {
+				byte[] bytes = new byte[count];
+				readBits( bytes, 0, count * PerUtils.BYTE_BITS );
+				os.write( bytes, 0, count );
+			} );
+		} catch( Asn1Exception e )
+		{
+			throw new IllegalStateException( e );
+		}
+		return os.toByteArray();
+	}
+
+	/**
+	 * Read length determinant and items of component types, see X.691, p 11.9.
+	 *
+	 * @param size       the size constraint, may be null
+	 * @param itemReader reader of items
+	 * @throws IOException   in case of I/O failure
+	 * @throws Asn1Exception if item can not be read
+	 * @see #readItems(EffectiveConstraint, int, ItemReader)
+	 */
+	public void readItems( @Nullable EffectiveConstraint size, @NotNull ItemReader itemReader ) throws IOException, Asn1Exception
+	{
+		readItems( size, 0, itemReader );
+	}
+
+	/**
+	 * Read length determinant and items, see X.691, p 11.9.
+	 * Item reader is called for each fragment.
+	 * For ALIGNED variant each fragment of items with fixed bit size is octet-aligned,
+	 * unless the whole field has fixed size up to 16 bits.
+	 *
+	 * @param size       the size constraint, may be null
+	 * @param itemBits   amount of bits per item, 0 if items are encoded as component types and never aligned
+	 * @param itemReader reader of items
+	 * @throws IOException   in case of I/O failure
+	 * @throws Asn1Exception if item can not be read
+	 */
+	public void readItems( @Nullable EffectiveConstraint size, int itemBits, @NotNull ItemReader itemReader ) throws IOException, Asn1Exception
+	{
+		if( size != null && size.isExtensible() && readBit() )
+			size = null;
+
+		boolean aligned = itemBits > 0 && PerUtils.isAlignedField( size, itemBits );
+		if( PerUtils.isConstrainedLength( size ) )
+		{
+			//noinspection ConstantConditions,NumericCastThatLosesPrecision
+			int count = (int)readConstrainedWholeNumber( PerUtils.getLowerSizeBound( size ), size.getUpperBound() );
+			if( aligned )
+				align();
+			itemReader.read( count );
+			return;
+		}
+
+		while( true )
+		{
+			align();
+			//noinspection NumericCastThatLosesPrecision
+			int first = (int)readBits( PerUtils.BYTE_BITS );
+			int count;
+			boolean last = true;
+			if( ( first & PerUtils.LONG_LENGTH_FLAG ) == 0 )
+				count = first;
+			else if( ( first & PerUtils.FRAGMENT_FLAG ) == PerUtils.LONG_LENGTH_FLAG )
+				//noinspection NumericCastThatLosesPrecision
+				count = ( first & PerUtils.LONG_LENGTH_MASK ) << PerUtils.BYTE_BITS | (int)readBits( PerUtils.BYTE_BITS );
+			else
+			{
+				int fragments = first & PerUtils.LONG_LENGTH_MASK;
+				if( fragments < 1 || fragments > PerUtils.MAX_FRAGMENTS )
+					throw new IOException( "Illegal fragment count: " + fragments );
+				count = fragments * PerUtils.FRAGMENT_SIZE;
+				last = false;
+			}
+
+			if( aligned )
+				align();
+			itemReader.read( count );
+			if( last )
+				return;
+		}
+	}
+
+	/**
+	 * Read open type, see X.691, p 11.2
+	 *
+	 * @param contentReader reader of open type content
+	 * @return value returned by content reader
+	 * @throws IOException   in case of I/O failure
+	 * @throws Asn1Exception if content can not be read
+	 */
+	@Nullable
+	public Value readOpenType( @NotNull ContentReader contentReader ) throws IOException, Asn1Exception
+	{
+		byte[] content = readOctets();
+		pushInput( content );
+		try
+		{
+			return contentReader.read();
+		} finally
+		{
+			popInput();
+		}
+	}
+
+	/**
+	 * Skip open type without decoding
+	 *
+	 * @throws IOException in case of I/O failure
+	 */
+	public void skipOpenType() throws IOException
+	{
+		readOctets();
+	}
+
+	public abstract PerRules getRules();
+
+	public abstract boolean readBit() throws IOException;
+
+	/**
+	 * Skip padding bits until octet boundary, does nothing for UNALIGNED variant
+	 *
+	 * @throws IOException in case of I/O failure
+	 */
+	public abstract void align() throws IOException;
+
+	/**
+	 * Read bits as unsigned number, most significant bit first
+	 *
+	 * @param count amount of bits, from 0 to 64
+	 * @return value
+	 * @throws IOException in case of I/O failure
+	 */
+	public abstract long readBits( int count ) throws IOException;
+
+	/**
+	 * Read bits into byte array
+	 *
+	 * @param target target array
+	 * @param offset offset in bits, must be multiple of 8
+	 * @param count  amount of bits to read
+	 * @throws IOException in case of I/O failure
+	 */
+	public abstract void readBits( byte[] target, int offset, int count ) throws IOException;
+
+	/**
+	 * Returns current position in bits
+	 *
+	 * @return position
+	 */
+	protected abstract long position();
+
+	/**
+	 * Use content as input until {@link #popInput()} called
+	 *
+	 * @param content the octets
+	 */
+	protected abstract void pushInput( byte[] content );
+
+	protected abstract void popInput();
+
+	/**
+	 * Skip padding bits of outermost value, see X.691, p 11.1
+	 *
+	 * @param start position before value decoding
+	 * @throws IOException in case of I/O failure
+	 */
+	protected abstract void completeDecoding( long start ) throws IOException;
+
+	interface ItemReader
+	{
+		/**
+		 * Read items
+		 *
+		 * @param count amount of items to read
+		 * @throws IOException   in case of I/O failure
+		 * @throws Asn1Exception if item can not be read
+		 */
+		void read( int count ) throws IOException, Asn1Exception;
+	}
+
+	interface ContentReader
+	{
+		@Nullable
+		Value read() throws IOException, Asn1Exception;
+	}
+}
@@ -0,0 +1,118 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.per.input;
+
+import org.asn1s.io.per.PerUtils;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads bits from stream, starting from most significant bit of each octet.
+ */
+final class BitInput
+{
+	BitInput( InputStream is )
+	{
+		this.is = is;
+	}
+
+	private final InputStream is;
+	private int current;
+	private int available;
+	private long position;
+
+	long position()
+	{
+		return position;
+	}
+
+	boolean readBit() throws IOException
+	{
+		ensureAvailable();
+		available--;
+		position++;
+		return ( current >>> available & 1 ) != 0;
+	}
+
+	/**
+	 * Read bits as unsigned number, most significant bit first
+	 *
+	 * @param count amount of bits, from 0 to 64
+	 * @return value
+	 * @throws IOException if no more data available
+	 */
+	long readBits( int count ) throws IOException
+	{
+		long value = 0L;
+		while( count > 0 )
+		{
+			ensureAvailable();
+			int amount = Math.min( available, count );
+			available -= amount;
+			value = value << amount | current >>> available & ( 1 << amount ) - 1;
+			position += amount;
+			count -= amount;
+		}
+		return value;
+	}
+
+	@SuppressWarnings( "NumericCastThatLosesPrecision" )
+	void readBits( byte[] target, int offset, int count ) throws IOException
+	{
+		int index = offset / PerUtils.BYTE_BITS;
+		while( count >= PerUtils.BYTE_BITS )
+		{
+			target[index] = (byte)readBits( PerUtils.BYTE_BITS );
+			index++;
+			count -= PerUtils.BYTE_BITS;
+		}
+
+		if( count > 0 )
+			target[index] = (byte)( readBits( count ) << PerUtils.BYTE_BITS - count );
+	}
+
+	/**
+	 * Skip bits until octet boundary
+	 */
+	void align()
+	{
+		position += available;
+		available = 0;
+	}
+
+	private void ensureAvailable() throws IOException
+	{
+		if( available > 0 )
+			return;
+
+		current = is.read();
+		if( current == -1 )
+			throw new EOFException( "Unexpected end of data" );
+		available = PerUtils.BYTE_BITS;
+	}
+}
@@ -0,0 +1,126 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.per.input;
+
+import org.asn1s.api.value.ValueFactory;
+import org.asn1s.io.per.PerRules;
+import org.asn1s.io.per.PerUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Deque;
+import java.util.LinkedList;
+
+/**
+ * PER reader, see X.691.
+ * Every read value is expected to be padded to octet boundary.
+ */
+public final class DefaultPerReader extends AbstractPerReader
+{
+	public DefaultPerReader( PerRules rules, InputStream is, ValueFactory factory )
+	{
+		super( factory );
+		this.rules = rules;
+		this.is = is;
+		input = new BitInput( is );
+	}
+
+	private final PerRules rules;
+	private final InputStream is;
+	private final BitInput input;
+	private final Deque<BitInput> inputStack = new LinkedList<>();
+
+	@Override
+	public PerRules getRules()
+	{
+		return rules;
+	}
+
+	@Override
+	public void align()
+	{
+		if( rules == PerRules.ALIGNED )
+			current().align();
+	}
+
+	@Override
+	public boolean readBit() throws IOException
+	{
+		return current().readBit();
+	}
+
+	@Override
+	public long readBits( int count ) throws IOException
+	{
+		return current().readBits( count );
+	}
+
+	@Override
+	public void readBits( byte[] target, int offset, int count ) throws IOException
+	{
+		current().readBits( target, offset, count );
+	}
+
+	@Override
+	protected long position()
+	{
+		return input.position();
+	}
+
+	@Override
+	protected void pushInput( byte[] content )
+	{
+		inputStack.push( new BitInput( new ByteArrayInputStream( content ) ) );
+	}
+
+	@Override
+	protected void popInput()
+	{
+		inputStack.pop();
+	}
+
+	@Override
+	protected void completeDecoding( long start ) throws IOException
+	{
+		// empty encoding is replaced by single zero octet
+		if( input.position() == start )
+			input.readBits( PerUtils.BYTE_BITS );
+		input.align();
+	}
+
+	private BitInput current()
+	{
+		BitInput current = inputStack.peek();
+		return current == null ? input : current;
+	}
+
+	@Override
+	public void close() throws Exception
+	{
+		is.close();
+	}
+}
@@ -0,0 +1,118 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.per.input;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.asn1s.api.exception.Asn1Exception;
+import org.asn1s.api.type.ComponentType;
+import org.asn1s.api.type.Type.Family;
+import org.asn1s.api.value.Value;
+import org.asn1s.api.value.x680.ValueCollection;
+import org.asn1s.io.per.CollectionLayout;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Decodes SEQUENCE and SET types, SET components are read in canonical tag order.
+ * See X.691, p 19 and 21
+ */
+final class SequencePerDecoder implements PerDecoder
+{
+	private static final Log log = LogFactory.getLog( SequencePerDecoder.class );
+
+	@Override
+	public Value decode( @NotNull ReaderContext context ) throws IOException, Asn1Exception
+	{
+		assert context.getType().getFamily() == Family.SEQUENCE || context.getType().getFamily() == Family.SET;
+
+		AbstractPerReader reader = context.getReader();
+		CollectionLayout layout = reader.getLayout( context.getType() );
+		ValueCollection collection = context.getValueFactory().collection( true );
+		context.getScope().setValueLevel( collection );
+
+		boolean hasExtensions = layout.isExtensible() && reader.readBit();
+		readComponents( context, layout.getRootComponents(), collection );
+		if( hasExtensions )
+			readExtensions( context, layout, collection );
+		return collection;
+	}
+
+	private static void readExtensions( ReaderContext context, CollectionLayout layout, ValueCollection collection ) throws IOException, Asn1Exception
+	{
+		AbstractPerReader reader = context.getReader();
+		long count = reader.readNormallySmallNumber() + 1;
+		boolean[] presence = new boolean[(int)count];
+		for( int i = 0; i < count; i++ )
+			presence[i] = reader.readBit();
+
+		for( int i = 0; i < count; i++ )
+		{
+			if( !presence[i] )
+				continue;
+
+			if( i >= layout.getExtensionCount() )
+			{
+				log.warn( "Unknown extension addition at index: " + i + ", skipping." );
+				reader.skipOpenType();
+				continue;
+			}
+
+			List<ComponentType> components = layout.getExtension( i );
+			if( layout.isExtensionGroup( i ) )
+				reader.readOpenType( () -> {
+					readComponents( context, components, collection );
+					return null;
+				} );
+			else
+			{
+				ComponentType component = components.get( 0 );
+				Value value = reader.readOpenType( () -> context.readComponentType( component ) );
+				assert value != null;
+				collection.addNamed( component.getComponentName(), value );
+			}
+		}
+	}
+
+	private static void readComponents( ReaderContext context, List<ComponentType> components, ValueCollection collection ) throws IOException, Asn1Exception
+	{
+		AbstractPerReader reader = context.getReader();
+		boolean[] presence = new boolean[components.size()];
+		for( int i = 0; i < presence.length; i++ )
+			presence[i] = components.get( i ).isRequired() || reader.readBit();
+
+		for( int i = 0; i < presence.length; i++ )
+		{
+			if( !presence[i] )
+				continue;
+
+			ComponentType component = components.get( i );
+			collection.addNamed( component.getComponentName(), context.readComponentType( component ) );
+		}
+	}
+}
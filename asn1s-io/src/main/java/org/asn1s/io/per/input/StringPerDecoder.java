@@ -0,0 +1,80 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.per.input;
+
+import org.asn1s.api.constraint.EffectiveConstraint;
+import org.asn1s.api.exception.Asn1Exception;
+import org.asn1s.api.type.StringType;
+import org.asn1s.api.type.Type;
+import org.asn1s.api.type.Type.Family;
+import org.asn1s.api.value.Value;
+import org.asn1s.io.per.KnownMultiplierString;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+
+/**
+ * Known-multiplier strings are decoded with fixed amount of bits per character, PER-visible size constraint
+ * and effective permitted alphabet, others are decoded as unconstrained octet strings using type charset.
+ * See X.691, p 30 and 31
+ */
+final class StringPerDecoder implements PerDecoder
+{
+	@Override
+	public Value decode( @NotNull ReaderContext context ) throws IOException, Asn1Exception
+	{
+		assert context.getType().getFamily() == Family.RESTRICTED_STRING;
+		Type type = context.getType();
+		KnownMultiplierString stringType = KnownMultiplierString.find( type );
+		if( stringType == null )
+		{
+			while( !( type instanceof StringType ) )
+			{
+				assert type != null;
+				type = type.getSibling();
+			}
+			byte[] content = context.getReader().readOctets();
+			return context.getValueFactory().cString( new String( content, ( (StringType)type ).getCharset() ) );
+		}
+
+		EffectiveConstraint constraint = context.getConstraint();
+		EffectiveConstraint size = constraint == null ? null : constraint.getSize();
+		return context.getValueFactory().cString( readString( context.getReader(), stringType, size, constraint == null ? null : constraint.getAlphabet() ) );
+	}
+
+	static String readString( @NotNull AbstractPerReader reader, @NotNull KnownMultiplierString stringType,
+	                          @Nullable EffectiveConstraint size, @Nullable int[] alphabet ) throws IOException, Asn1Exception
+	{
+		StringBuilder sb = new StringBuilder();
+		int bitCount = stringType.getBitCount( reader.getRules(), alphabet );
+		reader.readItems( size, bitCount, count -> {
+			for( int i = 0; i < count; i++ )
+				sb.appendCodePoint( stringType.decode( reader.readBits( bitCount ), bitCount, alphabet ) );
+		} );
+		return sb.toString();
+	}
+}
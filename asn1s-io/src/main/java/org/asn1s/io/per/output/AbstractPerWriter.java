@@ -0,0 +1,400 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.per.output;
+
+import org.asn1s.api.Ref;
+import org.asn1s.api.Scope;
+import org.asn1s.api.constraint.EffectiveConstraint;
+import org.asn1s.api.exception.Asn1Exception;
+import org.asn1s.api.exception.ResolutionException;
+import org.asn1s.api.type.ComponentType;
+import org.asn1s.api.type.Type;
+import org.asn1s.api.type.Type.Family;
+import org.asn1s.api.util.RefUtils;
+import org.asn1s.api.value.Value;
+import org.asn1s.api.value.x680.IntegerValue;
+import org.asn1s.api.value.x680.NamedValue;
+import org.asn1s.io.Asn1Writer;
+import org.asn1s.io.per.CollectionLayout;
+import org.asn1s.io.per.PerRules;
+import org.asn1s.io.per.PerUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+abstract class AbstractPerWriter implements Asn1Writer
+{
+	private static final Map<Family, PerEncoder> ENCODERS = new EnumMap<>( Family.class );
+
+	static
+	{
+		ENCODERS.put( Family.BOOLEAN, new BooleanPerEncoder() );
+		ENCODERS.put( Family.INTEGER, new IntegerPerEncoder() );
+		ENCODERS.put( Family.ENUMERATED, new EnumeratedPerEncoder() );
+		ENCODERS.put( Family.REAL, new RealPerEncoder() );
+		ENCODERS.put( Family.BIT_STRING, new BitStringPerEncoder() );
+		ENCODERS.put( Family.OCTET_STRING, new OctetStringPerEncoder() );
+		ENCODERS.put( Family.NULL, new NullPerEncoder() );
+		ENCODERS.put( Family.SEQUENCE, new SequencePerEncoder() );
+		ENCODERS.put( Family.SEQUENCE_OF, new SequenceOfPerEncoder() );
+		ENCODERS.put( Family.SET, new SequencePerEncoder() );
+		ENCODERS.put( Family.SET_OF, new SequenceOfPerEncoder() );
+		ENCODERS.put( Family.RESTRICTED_STRING, new StringPerEncoder() );
+		ENCODERS.put( Family.UTC_TIME, new TimePerEncoder() );
+		ENCODERS.put( Family.GENERALIZED_TIME, new TimePerEncoder() );
+		ENCODERS.put( Family.OID, new ObjectIDPerEncoder() );
+	}
+
+	private final Map<Type, CollectionLayout> layouts = new IdentityHashMap<>();
+
+	public abstract PerRules getRules();
+
+	public abstract void writeBit( boolean value ) throws IOException;
+
+	/**
+	 * Pad current field to octet boundary with zero bits, does nothing for UNALIGNED variant
+	 *
+	 * @throws IOException in case of I/O failure
+	 */
+	public abstract void align() throws IOException;
+
+	/**
+	 * Write lowest bits of value, most significant bit first
+	 *
+	 * @param value the value
+	 * @param count amount of bits to write, from 0 to 64
+	 * @throws IOException in case of I/O failure
+	 */
+	public abstract void writeBits( long value, int count ) throws IOException;
+
+	/**
+	 * Write bits from byte array
+	 *
+	 * @param bytes  source bytes
+	 * @param offset offset in bits, must be multiple of 8
+	 * @param count  amount of bits to write
+	 * @throws IOException in case of I/O failure
+	 */
+	public abstract void writeBits( byte[] bytes, int offset, int count ) throws IOException;
+
+	/**
+	 * Start open type encoding, all data written until {@link #stopBuffer()} is collected separately
+	 */
+	public abstract void startBuffer();
+
+	/**
+	 * Write buffered data as open type: length determinant and padded octets, see X.691, p 11.2
+	 *
+	 * @throws IOException in case of I/O failure
+	 */
+	public abstract void stopBuffer() throws IOException;
+
+	/**
+	 * Complete encoding of outermost value, see X.691, p 11.1
+	 *
+	 * @throws IOException in case of I/O failure
+	 */
+	protected abstract void completeEncoding() throws IOException;
+
+	@Override
+	public void write( @NotNull Scope scope, @NotNull Ref<Type> typeRef, @NotNull Value value ) throws IOException, Asn1Exception
+	{
+		Type type = typeRef.resolve( scope );
+		// resolve value to make sure it's correct
+		value = value.resolve( scope );
+		type.accept( scope, value );
+		writeInternal( new WriterContext( this, scope, type, value ) );
+		completeEncoding();
+	}
+
+	public final void writeInternal( @NotNull WriterContext context ) throws IOException, Asn1Exception
+	{
+		context = context.narrow();
+		Type type = context.getType();
+
+		// tags are not encoded by PER
+		if( type.hasSibling() )
+			writeInternal( context.toSiblingContext() );
+		else if( type.getFamily() == Family.CHOICE )
+			writeChoiceType( context );
+		else if( type.getFamily() == Family.OPEN_TYPE )
+			writeOpenType( context );
+		else
+		{
+			PerEncoder encoder = ENCODERS.get( type.getFamily() );
+			if( encoder == null )
+				throw new IllegalStateException( "No encoder found for family: " + type.getFamily() );
+
+			encoder.encode( context );
+		}
+	}
+
+	@NotNull
+	CollectionLayout getLayout( @NotNull Type type )
+	{
+		return layouts.computeIfAbsent( type, CollectionLayout:: create );
+	}
+
+	private void writeOpenType( @NotNull WriterContext context ) throws IOException, Asn1Exception
+	{
+		Value value = RefUtils.toBasicValue( context.getScope(), context.getValue() );
+		Type type = value.toOpenTypeValue().getType().resolve( context.getScope() );
+		Value openValue = value.toOpenTypeValue().getValueRef().resolve( context.getScope() );
+		startBuffer();
+		writeInternal( context.toSiblingContext( type, openValue ) );
+		stopBuffer();
+	}
+
+	private void writeChoiceType( @NotNull WriterContext context ) throws IOException, Asn1Exception
+	{
+		context.getScope().setValueLevel( context.getValue() );
+
+		NamedValue namedValue = context.getValue().toNamedValue();
+		ComponentType componentType = context.getType().getNamedType( namedValue.getName() );
+		if( componentType == null )
+			throw new ResolutionException( "Unknown component: " + namedValue.getName() );
+
+		CollectionLayout layout = getLayout( context.getType() );
+		int index = layout.getRootIndex( namedValue.getName() );
+		if( layout.isExtensible() )
+			writeBit( index == -1 );
+
+		if( index == -1 )
+		{
+			writeNormallySmallNumber( layout.getExtensionIndex( namedValue.getName() ) );
+			startBuffer();
+			context.writeComponent( componentType, namedValue );
+			stopBuffer();
+		}
+		else
+		{
+			writeConstrainedWholeNumber( index, 0, layout.getRootComponents().size() - 1 );
+			context.writeComponent( componentType, namedValue );
+		}
+	}
+
+	/**
+	 * Constrained whole number, see X.691, p 11.5
+	 *
+	 * @param value      the value
+	 * @param lowerBound the lower bound
+	 * @param upperBound the upper bound
+	 * @throws IOException in case of I/O failure
+	 */
+	public void writeConstrainedWholeNumber( long value, long lowerBound, long upperBound ) throws IOException
+	{
+		long offset = value - lowerBound;
+		long range = upperBound - lowerBound;
+		if( getRules() == PerRules.UNALIGNED || Long.compareUnsigned( range, PerUtils.ONE_OCTET_RANGE ) < 0 )
+			writeBits( offset, PerUtils.getRangeBitCount( lowerBound, upperBound ) );
+		else if( range == PerUtils.ONE_OCTET_RANGE )
+		{
+			align();
+			writeBits( offset, PerUtils.BYTE_BITS );
+		}
+		else if( Long.compareUnsigned( range, PerUtils.TWO_OCTETS_RANGE ) <= 0 )
+		{
+			align();
+			writeBits( offset, PerUtils.BYTE_BITS * 2 );
+		}
+		else
+		{
+			// indefinite length case, X.691 p 11.5.7.4
+			byte[] bytes = PerUtils.toUnsignedByteArray( offset );
+			writeConstrainedWholeNumber( bytes.length, 1, PerUtils.toUnsignedByteArray( range ).length );
+			align();
+			writeBits( bytes, 0, bytes.length * PerUtils.BYTE_BITS );
+		}
+	}
+
+	/**
+	 * Normally small non-negative whole number, see X.691, p 11.6
+	 *
+	 * @param value the value
+	 * @throws IOException in case of I/O failure
+	 */
+	public void writeNormallySmallNumber( long value ) throws IOException
+	{
+		if( value < PerUtils.NORMALLY_SMALL_LIMIT )
+		{
+			writeBit( false );
+			writeBits( value, PerUtils.NORMALLY_SMALL_BITS );
+		}
+		else
+		{
+			writeBit( true );
+			writeOctets( PerUtils.toUnsignedByteArray( value ) );
+		}
+	}
+
+	/**
+	 * Semi-constrained whole number, see X.691, p 11.7
+	 *
+	 * @param value      the value
+	 * @param lowerBound the lower bound
+	 * @throws IOException in case of I/O failure
+	 */
+	public void writeSemiConstrainedWholeNumber( @NotNull IntegerValue value, long lowerBound ) throws IOException
+	{
+		if( value.isLong() )
+			writeOctets( PerUtils.toUnsignedByteArray( value.asLong() - lowerBound ) );
+		else
+		{
+			byte[] bytes = value.asBigInteger().subtract( BigInteger.valueOf( lowerBound ) ).toByteArray();
+			// remove sign octet
+			if( bytes.length > 1 && bytes[0] == 0 )
+			{
+				byte[] unsigned = new byte[bytes.length - 1];
+				System.arraycopy( bytes, 1, unsigned, 0, unsigned.length );
+				bytes = unsigned;
+			}
+			writeOctets( bytes );
+		}
+	}
+
+	/**
+	 * Unconstrained whole number, see X.691, p 11.8
+	 *
+	 * @param value the value
+	 * @throws IOException in case of I/O failure
+	 */
+	public void writeUnconstrainedWholeNumber( @NotNull IntegerValue value ) throws IOException
+	{
+		writeOctets( value.isLong() ? PerUtils.toSignedByteArray( value.asLong() ) : value.asBigInteger().toByteArray() );
+	}
+
+	/**
+	 * Write octets preceded by unconstrained length determinant
+	 *
+	 * @param bytes the octets
+	 * @throws IOException in case of I/O failure
+	 */
+	public void writeOctets( @NotNull byte[] bytes ) throws IOException
+	{
+		try
+		{
+			writeItems( bytes.length, null, PerUtils.BYTE_BITS, ( offset, count ) -> writeBits( bytes, offset * PerUtils.BYTE_BITS, count * PerUtils.BYTE_BITS ) );
+		} catch( Asn1Exception e )
+		{
+			throw new IllegalStateException( e );
+		}
+	}
+
+	/**
+	 * Write length determinant and items of component types, see X.691, p 11.9.
+	 *
+	 * @param count      total amount of items
+	 * @param size       the size constraint, may be null
+	 * @param itemWriter writer of items
+	 * @throws IOException   in case of I/O failure
+	 * @throws Asn1Exception if item can not be written
+	 * @see #writeItems(int, EffectiveConstraint, int, ItemWriter)
+	 */
+	public void writeItems( int count, @Nullable EffectiveConstraint size, @NotNull ItemWriter itemWriter ) throws IOException, Asn1Exception
+	{
+		writeItems( count, size, 0, itemWriter );
+	}
+
+	/**
+	 * Write length determinant and items, see X.691, p 11.9.
+	 * If size constraint is extensible, then extension bit is written first.
+	 * Items count over 16K is written in fragments.
+	 * For ALIGNED variant each fragment of items with fixed bit size is octet-aligned,
+	 * unless the whole field has fixed size up to 16 bits.
+	 *
+	 * @param count      total amount of items
+	 * @param size       the size constraint, may be null
+	 * @param itemBits   amount of bits per item, 0 if items are encoded as component types and never aligned
+	 * @param itemWriter writer of items
+	 * @throws IOException   in case of I/O failure
+	 * @throws Asn1Exception if item can not be written
+	 */
+	public void writeItems( int count, @Nullable EffectiveConstraint size, int itemBits, @NotNull ItemWriter itemWriter ) throws IOException, Asn1Exception
+	{
+		if( size != null && size.isExtensible() )
+		{
+			boolean inRoot = PerUtils.isInRange( size, count );
+			writeBit( !inRoot );
+			if( !inRoot )
+				size = null;
+		}
+
+		boolean aligned = itemBits > 0 && PerUtils.isAlignedField( size, itemBits );
+		if( PerUtils.isConstrainedLength( size ) )
+		{
+			//noinspection ConstantConditions
+			writeConstrainedWholeNumber( count, PerUtils.getLowerSizeBound( size ), size.getUpperBound() );
+			if( aligned )
+				align();
+			itemWriter.write( 0, count );
+			return;
+		}
+
+		int offset = 0;
+		while( true )
+		{
+			align();
+			int remaining = count - offset;
+			if( remaining < PerUtils.SHORT_LENGTH_LIMIT )
+				writeBits( remaining, PerUtils.BYTE_BITS );
+			else if( remaining < PerUtils.FRAGMENT_SIZE )
+				writeBits( PerUtils.LONG_LENGTH_FLAG << PerUtils.BYTE_BITS | remaining, PerUtils.BYTE_BITS * 2 );
+			else
+			{
+				int fragments = Math.min( PerUtils.MAX_FRAGMENTS, remaining / PerUtils.FRAGMENT_SIZE );
+				writeBits( PerUtils.FRAGMENT_FLAG | fragments, PerUtils.BYTE_BITS );
+				if( aligned )
+					align();
+				itemWriter.write( offset, fragments * PerUtils.FRAGMENT_SIZE );
+				offset += fragments * PerUtils.FRAGMENT_SIZE;
+				continue;
+			}
+
+			if( aligned )
+				align();
+			itemWriter.write( offset, remaining );
+			return;
+		}
+	}
+
+	interface ItemWriter
+	{
+		/**
+		 * Write items
+		 *
+		 * @param offset index of first item
+		 * @param count  amount of items to write
+		 * @throws IOException   in case of I/O failure
+		 * @throws Asn1Exception if item can not be written
+		 */
+		void write( int offset, int count ) throws IOException, Asn1Exception;
+	}
+}
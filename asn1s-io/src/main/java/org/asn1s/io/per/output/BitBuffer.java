@@ -0,0 +1,132 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.per.output;
+
+import org.asn1s.io.per.PerUtils;
+
+import java.util.Arrays;
+
+/**
+ * Growable bit buffer, bits are stored starting from most significant bit of each octet.
+ */
+final class BitBuffer
+{
+	private static final int DEFAULT_CAPACITY = 64;
+
+	private byte[] buffer = new byte[DEFAULT_CAPACITY];
+	private int bitLength;
+
+	boolean isEmpty()
+	{
+		return bitLength == 0;
+	}
+
+	@SuppressWarnings( "NumericCastThatLosesPrecision" )
+	void writeBit( boolean value )
+	{
+		ensureCapacity( 1 );
+		if( value )
+			buffer[bitLength >>> 3] |= (byte)( 0x80 >>> ( bitLength & 7 ) );
+		bitLength++;
+	}
+
+	/**
+	 * Write lowest bits of value, most significant first
+	 *
+	 * @param value the value
+	 * @param count amount of bits, from 0 to 64
+	 */
+	@SuppressWarnings( "NumericCastThatLosesPrecision" )
+	void writeBits( long value, int count )
+	{
+		ensureCapacity( count );
+		while( count > 0 )
+		{
+			int free = PerUtils.BYTE_BITS - ( bitLength & 7 );
+			int amount = Math.min( free, count );
+			int chunk = (int)( value >>> ( count - amount ) ) & ( ( 1 << amount ) - 1 );
+			buffer[bitLength >>> 3] |= (byte)( chunk << ( free - amount ) );
+			bitLength += amount;
+			count -= amount;
+		}
+	}
+
+	/**
+	 * Write bits from byte array starting from octet boundary
+	 *
+	 * @param bytes    source bytes, missing bytes are treated as zeros
+	 * @param offset   bit offset, must be multiple of 8
+	 * @param count    amount of bits
+	 */
+	void writeBits( byte[] bytes, int offset, int count )
+	{
+		assert offset % PerUtils.BYTE_BITS == 0;
+		int index = offset / PerUtils.BYTE_BITS;
+		if( ( bitLength & 7 ) == 0 && count % PerUtils.BYTE_BITS == 0 && index + count / PerUtils.BYTE_BITS <= bytes.length )
+		{
+			int length = count / PerUtils.BYTE_BITS;
+			ensureCapacity( count );
+			System.arraycopy( bytes, index, buffer, bitLength >>> 3, length );
+			bitLength += count;
+			return;
+		}
+
+		while( count > 0 )
+		{
+			int amount = Math.min( PerUtils.BYTE_BITS, count );
+			int value = index < bytes.length ? bytes[index] & PerUtils.BYTE_MASK : 0;
+			writeBits( value >>> ( PerUtils.BYTE_BITS - amount ), amount );
+			index++;
+			count -= amount;
+		}
+	}
+
+	/**
+	 * Skip bits until octet boundary, skipped bits are zeros
+	 */
+	void align()
+	{
+		bitLength = ( bitLength + 7 ) & ~7;
+	}
+
+	byte[] toByteArray()
+	{
+		return Arrays.copyOf( buffer, ( bitLength + 7 ) >>> 3 );
+	}
+
+	void reset()
+	{
+		Arrays.fill( buffer, 0, ( bitLength + 7 ) >>> 3, (byte)0 );
+		bitLength = 0;
+	}
+
+	private void ensureCapacity( int bits )
+	{
+		int required = ( bitLength + bits + 7 ) >>> 3;
+		if( required > buffer.length )
+			buffer = Arrays.copyOf( buffer, Math.max( required, buffer.length * 2 ) );
+	}
+}
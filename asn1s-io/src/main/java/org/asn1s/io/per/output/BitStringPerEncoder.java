@@ -0,0 +1,77 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.per.output;
+
+import org.asn1s.api.constraint.EffectiveConstraint;
+import org.asn1s.api.exception.Asn1Exception;
+import org.asn1s.api.type.Type.Family;
+import org.asn1s.api.value.ByteArrayValue;
+import org.asn1s.api.value.Value.Kind;
+import org.asn1s.io.per.PerUtils;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+
+/**
+ * X.691, p 16
+ */
+final class BitStringPerEncoder implements PerEncoder
+{
+	@Override
+	public void encode( @NotNull WriterContext context ) throws IOException, Asn1Exception
+	{
+		assert context.getType().getFamily() == Family.BIT_STRING;
+		assert context.getValue().getKind() == Kind.BYTE_ARRAY;
+		ByteArrayValue arrayValue = context.getValue().toByteArrayValue();
+		byte[] bytes = arrayValue.asByteArray();
+		int bitCount = arrayValue.getUsedBits();
+		EffectiveConstraint size = context.getConstraint() == null ? null : context.getConstraint().getSize();
+
+		if( !context.getType().getNamedValues().isEmpty() )
+		{
+			// trailing zero bits must be removed for types with named bits, X.691 p 16.2
+			bitCount = getSignificantBitCount( bytes, bitCount );
+			if( size != null && bitCount < PerUtils.getLowerSizeBound( size ) )
+				//noinspection NumericCastThatLosesPrecision
+				bitCount = (int)PerUtils.getLowerSizeBound( size );
+		}
+
+		AbstractPerWriter writer = context.getWriter();
+		writer.writeItems( bitCount, size, 1, ( offset, count ) -> writer.writeBits( bytes, offset, count ) );
+	}
+
+	private static int getSignificantBitCount( byte[] bytes, int bitCount )
+	{
+		while( bitCount > 0 )
+		{
+			int index = bitCount - 1;
+			if( ( bytes[index / PerUtils.BYTE_BITS] & ( 0x80 >>> ( index % PerUtils.BYTE_BITS ) ) ) != 0 )
+				break;
+			bitCount--;
+		}
+		return bitCount;
+	}
+}
@@ -0,0 +1,139 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.per.output;
+
+import org.asn1s.io.per.PerRules;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Deque;
+import java.util.LinkedList;
+
+/**
+ * PER writer, see X.691.
+ * Every written value is padded to octet boundary.
+ */
+public final class DefaultPerWriter extends AbstractPerWriter
+{
+	public DefaultPerWriter( PerRules rules )
+	{
+		this.rules = rules;
+		os = new ByteArrayOutputStream();
+		internalOs = true;
+	}
+
+	public DefaultPerWriter( PerRules rules, OutputStream os )
+	{
+		this.rules = rules;
+		this.os = os;
+		internalOs = false;
+	}
+
+	private final PerRules rules;
+	private final OutputStream os;
+	private final boolean internalOs;
+	private final BitBuffer buffer = new BitBuffer();
+	private final Deque<BitBuffer> bufferStack = new LinkedList<>();
+
+	@Override
+	public PerRules getRules()
+	{
+		return rules;
+	}
+
+	@Override
+	public void writeBit( boolean value )
+	{
+		current().writeBit( value );
+	}
+
+	@Override
+	public void writeBits( long value, int count )
+	{
+		current().writeBits( value, count );
+	}
+
+	@Override
+	public void writeBits( byte[] bytes, int offset, int count )
+	{
+		current().writeBits( bytes, offset, count );
+	}
+
+	@Override
+	public void align()
+	{
+		if( rules == PerRules.ALIGNED )
+			current().align();
+	}
+
+	@Override
+	public void startBuffer()
+	{
+		bufferStack.push( new BitBuffer() );
+	}
+
+	@Override
+	public void stopBuffer() throws IOException
+	{
+		BitBuffer openType = bufferStack.pop();
+		// empty encoding is replaced by single zero octet
+		if( openType.isEmpty() )
+			openType.writeBits( 0, 8 );
+		writeOctets( openType.toByteArray() );
+	}
+
+	@Override
+	protected void completeEncoding() throws IOException
+	{
+		if( buffer.isEmpty() )
+			buffer.writeBits( 0, 8 );
+		os.write( buffer.toByteArray() );
+		buffer.reset();
+	}
+
+	private BitBuffer current()
+	{
+		BitBuffer current = bufferStack.peek();
+		return current == null ? buffer : current;
+	}
+
+	@Override
+	public void close() throws Exception
+	{
+		if( internalOs )
+			os.close();
+	}
+
+	@Override
+	public byte[] toByteArray() throws IOException
+	{
+		if( !internalOs )
+			throw new IOException( "Unable to get bytes from provided stream" );
+
+		return ( (ByteArrayOutputStream)os ).toByteArray();
+	}
+}
@@ -0,0 +1,80 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.per.output;
+
+import org.asn1s.api.constraint.EffectiveConstraint;
+import org.asn1s.api.type.Type.Family;
+import org.asn1s.api.value.Value.Kind;
+import org.asn1s.api.value.x680.IntegerValue;
+import org.asn1s.io.per.PerUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+
+/**
+ * Encodes integer using PER-visible constraints.
+ * See X.691, p 13
+ */
+final class IntegerPerEncoder implements PerEncoder
+{
+	@Override
+	public void encode( @NotNull WriterContext context ) throws IOException
+	{
+		assert context.getType().getFamily() == Family.INTEGER;
+		assert context.getValue().getKind() == Kind.INTEGER;
+		writeInteger( context.getWriter(), context.getValue().toIntegerValue(), context.getConstraint() );
+	}
+
+	static void writeInteger( @NotNull AbstractPerWriter writer, @NotNull IntegerValue value, @Nullable EffectiveConstraint constraint ) throws IOException
+	{
+		if( constraint == null || !constraint.hasRange() )
+		{
+			writer.writeUnconstrainedWholeNumber( value );
+			return;
+		}
+
+		if( constraint.isExtensible() )
+		{
+			boolean inRoot = value.isLong() && PerUtils.isInRange( constraint, value.asLong() );
+			writer.writeBit( !inRoot );
+			if( !inRoot )
+			{
+				writer.writeUnconstrainedWholeNumber( value );
+				return;
+			}
+		}
+
+		Long lowerBound = constraint.getLowerBound();
+		Long upperBound = constraint.getUpperBound();
+		if( lowerBound != null && upperBound != null )
+			writer.writeConstrainedWholeNumber( value.asLong(), lowerBound, upperBound );
+		else if( lowerBound != null )
+			writer.writeSemiConstrainedWholeNumber( value, lowerBound );
+		else
+			writer.writeUnconstrainedWholeNumber( value );
+	}
+}
@@ -0,0 +1,136 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.per.output;
+
+import org.asn1s.api.exception.Asn1Exception;
+import org.asn1s.api.exception.IllegalValueException;
+import org.asn1s.api.type.ComponentType;
+import org.asn1s.api.type.Type.Family;
+import org.asn1s.api.util.RefUtils;
+import org.asn1s.api.value.Value.Kind;
+import org.asn1s.api.value.x680.NamedValue;
+import org.asn1s.io.per.CollectionLayout;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes SEQUENCE and SET types, SET components are written in canonical tag order.
+ * See X.691, p 19 and 21
+ */
+final class SequencePerEncoder implements PerEncoder
+{
+	@Override
+	public void encode( @NotNull WriterContext context ) throws IOException, Asn1Exception
+	{
+		assert context.getType().getFamily() == Family.SEQUENCE || context.getType().getFamily() == Family.SET;
+		assert context.getValue().getKind() == Kind.NAMED_COLLECTION || context.getValue().getKind() == Kind.COLLECTION && context.getValue().toValueCollection().isEmpty();
+
+		AbstractPerWriter writer = context.getWriter();
+		CollectionLayout layout = writer.getLayout( context.getType() );
+		Map<String, NamedValue> values = collectValues( context );
+
+		boolean hasExtensions = false;
+		for( int i = 0; i < layout.getExtensionCount() && !hasExtensions; i++ )
+			hasExtensions = isAnyPresent( layout.getExtension( i ), values );
+
+		if( layout.isExtensible() )
+			writer.writeBit( hasExtensions );
+		else if( hasExtensions )
+			throw new IllegalValueException( "Extension additions are not allowed for type: " + context.getType() );
+
+		writeComponents( context, layout.getRootComponents(), values );
+		if( hasExtensions )
+			writeExtensions( context, layout, values );
+	}
+
+	private static Map<String, NamedValue> collectValues( WriterContext context ) throws Asn1Exception
+	{
+		Map<String, NamedValue> values = new HashMap<>();
+		for( NamedValue value : context.getValue().toValueCollection().asNamedValueList() )
+		{
+			ComponentType component = context.getType().getNamedType( value.getName() );
+			if( component == null )
+				throw new IllegalValueException( "Unknown component: " + value.getName() );
+
+			// default values are not encoded
+			if( !RefUtils.isSameAsDefaultValue( context.getScope(), component, value ) )
+				values.put( value.getName(), value );
+		}
+		return values;
+	}
+
+	private static void writeExtensions( WriterContext context, CollectionLayout layout, Map<String, NamedValue> values ) throws IOException, Asn1Exception
+	{
+		AbstractPerWriter writer = context.getWriter();
+		int count = layout.getExtensionCount();
+		writer.writeNormallySmallNumber( count - 1 );
+		for( int i = 0; i < count; i++ )
+			writer.writeBit( isAnyPresent( layout.getExtension( i ), values ) );
+
+		for( int i = 0; i < count; i++ )
+		{
+			List<ComponentType> components = layout.getExtension( i );
+			if( !isAnyPresent( components, values ) )
+				continue;
+
+			writer.startBuffer();
+			if( layout.isExtensionGroup( i ) )
+				writeComponents( context, components, values );
+			else
+				context.writeComponent( components.get( 0 ), values.get( components.get( 0 ).getComponentName() ) );
+			writer.stopBuffer();
+		}
+	}
+
+	private static void writeComponents( WriterContext context, Iterable<ComponentType> components, Map<String, NamedValue> values ) throws IOException, Asn1Exception
+	{
+		AbstractPerWriter writer = context.getWriter();
+		for( ComponentType component : components )
+			if( !component.isRequired() )
+				writer.writeBit( values.containsKey( component.getComponentName() ) );
+
+		for( ComponentType component : components )
+		{
+			NamedValue value = values.get( component.getComponentName() );
+			if( value != null )
+				context.writeComponent( component, value );
+			else if( component.isRequired() )
+				throw new IllegalValueException( "Missing required component: " + component.getComponentName() );
+		}
+	}
+
+	private static boolean isAnyPresent( Iterable<ComponentType> components, Map<String, NamedValue> values )
+	{
+		for( ComponentType component : components )
+			if( values.containsKey( component.getComponentName() ) )
+				return true;
+		return false;
+	}
+}
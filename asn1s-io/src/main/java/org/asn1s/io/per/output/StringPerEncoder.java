@@ -0,0 +1,82 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.per.output;
+
+import org.asn1s.api.constraint.EffectiveConstraint;
+import org.asn1s.api.exception.Asn1Exception;
+import org.asn1s.api.type.StringType;
+import org.asn1s.api.type.Type;
+import org.asn1s.api.type.Type.Family;
+import org.asn1s.api.value.Value.Kind;
+import org.asn1s.io.per.KnownMultiplierString;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+
+/**
+ * Known-multiplier strings are encoded with fixed amount of bits per character, PER-visible size constraint
+ * and effective permitted alphabet, others are encoded as unconstrained octet strings using type charset.
+ * See X.691, p 30 and 31
+ */
+final class StringPerEncoder implements PerEncoder
+{
+	@Override
+	public void encode( @NotNull WriterContext context ) throws IOException, Asn1Exception
+	{
+		assert context.getType().getFamily() == Family.RESTRICTED_STRING;
+		assert context.getValue().getKind() == Kind.C_STRING;
+		Type type = context.getType();
+		String value = context.getValue().toStringValue().asString();
+		KnownMultiplierString stringType = KnownMultiplierString.find( type );
+		if( stringType == null )
+		{
+			while( !( type instanceof StringType ) )
+			{
+				assert type != null;
+				type = type.getSibling();
+			}
+			context.getWriter().writeOctets( value.getBytes( ( (StringType)type ).getCharset() ) );
+		}
+		else
+		{
+			EffectiveConstraint constraint = context.getConstraint();
+			EffectiveConstraint size = constraint == null ? null : constraint.getSize();
+			writeString( context.getWriter(), stringType, value, size, constraint == null ? null : constraint.getAlphabet() );
+		}
+	}
+
+	static void writeString( @NotNull AbstractPerWriter writer, @NotNull KnownMultiplierString stringType, @NotNull String value,
+	                         @Nullable EffectiveConstraint size, @Nullable int[] alphabet ) throws IOException, Asn1Exception
+	{
+		int[] characters = stringType.isCodePoints() ? value.codePoints().toArray() : value.chars().toArray();
+		int bitCount = stringType.getBitCount( writer.getRules(), alphabet );
+		writer.writeItems( characters.length, size, bitCount, ( offset, count ) -> {
+			for( int i = offset; i < offset + count; i++ )
+				writer.writeBits( stringType.encode( characters[i], bitCount, alphabet ), bitCount );
+		} );
+	}
+}
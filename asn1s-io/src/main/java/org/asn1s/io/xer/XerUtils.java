@@ -0,0 +1,244 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.xer;
+
+import org.asn1s.api.UniversalType;
+import org.asn1s.api.encoding.EncodingInstructions;
+import org.asn1s.api.encoding.IEncoding;
+import org.asn1s.api.encoding.tag.TagClass;
+import org.asn1s.api.encoding.tag.TagEncoding;
+import org.asn1s.api.type.ComponentType;
+import org.asn1s.api.type.DefinedType;
+import org.asn1s.api.type.Type;
+import org.asn1s.api.type.Type.Family;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+public final class XerUtils
+{
+	public static final String ENCODING = "UTF-8";
+	public static final String VERSION = "1.0";
+
+	public static final String TRUE = "true";
+	public static final String FALSE = "false";
+
+	public static final String PLUS_INFINITY = "PLUS-INFINITY";
+	public static final String MINUS_INFINITY = "MINUS-INFINITY";
+	public static final String NOT_A_NUMBER = "NOT-A-NUMBER";
+
+	public static final char OID_SEPARATOR = '.';
+
+	private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+	private static final int HEX_RADIX = 16;
+	private static final int NIBBLE_BITS = 4;
+	private static final int NIBBLE_MASK = 0x0F;
+	private static final int BYTE_MASK = 0xFF;
+	private static final int HIGH_BIT = 0x80;
+
+	private static final Map<Family, String> TYPE_NAMES = new EnumMap<>( Family.class );
+
+	static
+	{
+		TYPE_NAMES.put( Family.BOOLEAN, "BOOLEAN" );
+		TYPE_NAMES.put( Family.INTEGER, "INTEGER" );
+		TYPE_NAMES.put( Family.ENUMERATED, "ENUMERATED" );
+		TYPE_NAMES.put( Family.REAL, "REAL" );
+		TYPE_NAMES.put( Family.BIT_STRING, "BIT_STRING" );
+		TYPE_NAMES.put( Family.OCTET_STRING, "OCTET_STRING" );
+		TYPE_NAMES.put( Family.NULL, "NULL" );
+		TYPE_NAMES.put( Family.SEQUENCE, "SEQUENCE" );
+		TYPE_NAMES.put( Family.SEQUENCE_OF, "SEQUENCE_OF" );
+		TYPE_NAMES.put( Family.SET, "SET" );
+		TYPE_NAMES.put( Family.SET_OF, "SET_OF" );
+		TYPE_NAMES.put( Family.CHOICE, "CHOICE" );
+		TYPE_NAMES.put( Family.OID, "OBJECT_IDENTIFIER" );
+		TYPE_NAMES.put( Family.UTC_TIME, "UTCTime" );
+		TYPE_NAMES.put( Family.GENERALIZED_TIME, "GeneralizedTime" );
+	}
+
+	private XerUtils()
+	{
+	}
+
+	/**
+	 * Returns element name used for values of type when no identifier is available,
+	 * that is the type reference name or the builtin XML type name, see X.680, XMLTypedValue.
+	 *
+	 * @param type the type
+	 * @return element name
+	 */
+	@NotNull
+	public static String getTypeName( @NotNull Type type )
+	{
+		// names of parameterized types are not used
+		while( !( type instanceof DefinedType ) || ( (DefinedType)type ).getTemplate() != null )
+		{
+			if( type instanceof ComponentType )
+				type = ( (ComponentType)type ).getComponentType();
+			else if( type.hasSibling() )
+				type = type.getSibling();
+			else
+				return getBuiltinTypeName( type );
+		}
+		return ( (DefinedType)type ).getName();
+	}
+
+	private static String getBuiltinTypeName( Type type )
+	{
+		if( type.getFamily() == Family.RESTRICTED_STRING )
+		{
+			IEncoding encoding = type.getEncoding( EncodingInstructions.TAG );
+			if( encoding instanceof TagEncoding && ( (TagEncoding)encoding ).getTagClass() == TagClass.UNIVERSAL )
+				for( UniversalType universalType : UniversalType.values() )
+					if( universalType.tagNumber() == ( (TagEncoding)encoding ).getTagNumber() )
+						return universalType.typeName().getName();
+		}
+
+		String name = TYPE_NAMES.get( type.getFamily() );
+		if( name == null )
+			throw new IllegalArgumentException( "Unable to find XML type name for family: " + type.getFamily() );
+		return name;
+	}
+
+	/**
+	 * Values of BOOLEAN, ENUMERATED and CHOICE types are encoded as single child element,
+	 * such values are not wrapped by type name in SEQUENCE OF and SET OF, see X.680, XMLValueList.
+	 *
+	 * @param type the type
+	 * @return true if value is encoded as single element
+	 */
+	public static boolean isValueElement( @NotNull Type type )
+	{
+		Family family = type.getFamily();
+		return family == Family.BOOLEAN || family == Family.ENUMERATED || family == Family.CHOICE;
+	}
+
+	/**
+	 * Convert octets to hexadecimal digits
+	 *
+	 * @param bytes the octets
+	 * @return string
+	 */
+	@NotNull
+	public static String toHexString( @NotNull byte[] bytes )
+	{
+		char[] result = new char[bytes.length * 2];
+		for( int i = 0; i < bytes.length; i++ )
+		{
+			result[i * 2] = HEX_DIGITS[( bytes[i] >>> NIBBLE_BITS ) & NIBBLE_MASK];
+			result[i * 2 + 1] = HEX_DIGITS[bytes[i] & NIBBLE_MASK];
+		}
+		return new String( result );
+	}
+
+	/**
+	 * Convert hexadecimal digits to octets, white spaces are ignored
+	 *
+	 * @param content the digits
+	 * @return octets
+	 * @throws IllegalArgumentException if content is not a valid hexadecimal string
+	 */
+	@NotNull
+	public static byte[] fromHexString( @NotNull CharSequence content )
+	{
+		String digits = removeWhitespaces( content );
+		if( digits.length() % 2 != 0 )
+			throw new IllegalArgumentException( "Odd amount of hexadecimal digits: " + digits.length() );
+
+		byte[] result = new byte[digits.length() / 2];
+		for( int i = 0; i < result.length; i++ )
+		{
+			int high = Character.digit( digits.charAt( i * 2 ), HEX_RADIX );
+			int low = Character.digit( digits.charAt( i * 2 + 1 ), HEX_RADIX );
+			if( high == -1 || low == -1 )
+				throw new IllegalArgumentException( "Illegal hexadecimal digit at: " + i * 2 );
+			//noinspection NumericCastThatLosesPrecision
+			result[i] = (byte)( high << NIBBLE_BITS | low );
+		}
+		return result;
+	}
+
+	/**
+	 * Convert first bitCount bits to binary digits
+	 *
+	 * @param bytes    the octets
+	 * @param bitCount amount of bits
+	 * @return string
+	 */
+	@NotNull
+	public static String toBinaryString( @NotNull byte[] bytes, int bitCount )
+	{
+		char[] result = new char[bitCount];
+		for( int i = 0; i < bitCount; i++ )
+			result[i] = ( bytes[i / Byte.SIZE] & BYTE_MASK & ( HIGH_BIT >>> ( i % Byte.SIZE ) ) ) == 0 ? '0' : '1';
+		return new String( result );
+	}
+
+	/**
+	 * Convert binary digits to octets, white spaces are ignored.
+	 * Amount of bits is the length of returned string.
+	 *
+	 * @param content the digits
+	 * @return digits without white spaces
+	 * @throws IllegalArgumentException if content is not a valid binary string
+	 */
+	@NotNull
+	public static String toBinaryDigits( @NotNull CharSequence content )
+	{
+		String digits = removeWhitespaces( content );
+		for( int i = 0; i < digits.length(); i++ )
+			if( digits.charAt( i ) != '0' && digits.charAt( i ) != '1' )
+				throw new IllegalArgumentException( "Illegal binary digit at: " + i );
+		return digits;
+	}
+
+	/**
+	 * Convert binary digits without white spaces to octets
+	 *
+	 * @param digits the digits
+	 * @return octets
+	 */
+	@NotNull
+	public static byte[] fromBinaryDigits( @NotNull CharSequence digits )
+	{
+		byte[] result = new byte[( digits.length() + Byte.SIZE - 1 ) / Byte.SIZE];
+		for( int i = 0; i < digits.length(); i++ )
+			if( digits.charAt( i ) == '1' )
+				result[i / Byte.SIZE] |= HIGH_BIT >>> ( i % Byte.SIZE );
+		return result;
+	}
+
+	private static String removeWhitespaces( CharSequence content )
+	{
+		StringBuilder sb = new StringBuilder( content.length() );
+		for( int i = 0; i < content.length(); i++ )
+			if( !Character.isWhitespace( content.charAt( i ) ) )
+				sb.append( content.charAt( i ) );
+		return sb.toString();
+	}
+}
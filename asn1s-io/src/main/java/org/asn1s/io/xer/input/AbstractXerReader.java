@@ -0,0 +1,295 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.xer.input;
+
+import org.asn1s.api.Ref;
+import org.asn1s.api.Scope;
+import org.asn1s.api.exception.Asn1Exception;
+import org.asn1s.api.exception.ResolutionException;
+import org.asn1s.api.type.ComponentType;
+import org.asn1s.api.type.InstanceOfTypeSelector;
+import org.asn1s.api.type.Type;
+import org.asn1s.api.type.Type.Family;
+import org.asn1s.api.type.TypeUtils;
+import org.asn1s.api.value.Value;
+import org.asn1s.api.value.ValueFactory;
+import org.asn1s.io.Asn1Reader;
+import org.asn1s.io.xer.XerUtils;
+import org.jetbrains.annotations.NotNull;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Basic XER reader, values are pulled element by element from {@link XMLStreamReader},
+ * no document tree is built. See X.693
+ */
+abstract class AbstractXerReader implements Asn1Reader
+{
+	private static final Map<Family, XerDecoder> DECODERS = new EnumMap<>( Family.class );
+
+	static
+	{
+		DECODERS.put( Family.BOOLEAN, new BooleanXerDecoder() );
+		DECODERS.put( Family.INTEGER, new IntegerXerDecoder() );
+		DECODERS.put( Family.ENUMERATED, new EnumeratedXerDecoder() );
+		DECODERS.put( Family.REAL, new RealXerDecoder() );
+		DECODERS.put( Family.BIT_STRING, new BitStringXerDecoder() );
+		DECODERS.put( Family.OCTET_STRING, new OctetStringXerDecoder() );
+		DECODERS.put( Family.NULL, new NullXerDecoder() );
+		DECODERS.put( Family.SEQUENCE, new SequenceXerDecoder() );
+		DECODERS.put( Family.SEQUENCE_OF, new SequenceOfXerDecoder() );
+		DECODERS.put( Family.SET, new SequenceXerDecoder() );
+		DECODERS.put( Family.SET_OF, new SequenceOfXerDecoder() );
+		DECODERS.put( Family.RESTRICTED_STRING, new StringXerDecoder() );
+		DECODERS.put( Family.UTC_TIME, new TimeXerDecoder() );
+		DECODERS.put( Family.GENERALIZED_TIME, new TimeXerDecoder() );
+		DECODERS.put( Family.OID, new ObjectIDXerDecoder() );
+	}
+
+	AbstractXerReader( ValueFactory factory )
+	{
+		this.factory = factory;
+	}
+
+	private final ValueFactory factory;
+
+	@NotNull
+	@Override
+	public ValueFactory getValueFactory()
+	{
+		return factory;
+	}
+
+	/**
+	 * Start reading next XML document
+	 *
+	 * @return stream reader for document
+	 * @throws IOException in case of I/O failure or if there are no more documents
+	 */
+	@NotNull
+	protected abstract XMLStreamReader startDocument() throws IOException;
+
+	/**
+	 * Release resources of current document
+	 *
+	 * @throws IOException in case of I/O failure
+	 */
+	protected abstract void endDocument() throws IOException;
+
+	/**
+	 * Returns stream reader of current document
+	 *
+	 * @return stream reader
+	 */
+	@NotNull
+	public abstract XMLStreamReader getStreamReader();
+
+	@Override
+	public Value read( @NotNull Scope scope, @NotNull Ref<Type> typeRef ) throws IOException, Asn1Exception
+	{
+		Type type = typeRef.resolve( scope );
+		startDocument();
+		Value value;
+		try
+		{
+			nextStartElement();
+			value = readInternal( new ReaderContext( this, scope, type ), true );
+		} finally
+		{
+			endDocument();
+		}
+		type.accept( scope, value );
+		return value;
+	}
+
+	/**
+	 * Read value
+	 *
+	 * @param context the reader context
+	 * @param wrapped true if reader is positioned at start of element enclosing value,
+	 *                false if it is positioned at value element itself
+	 * @return value
+	 * @throws IOException   in case of I/O failure
+	 * @throws Asn1Exception if value can not be decoded
+	 */
+	@NotNull
+	Value readInternal( @NotNull ReaderContext context, boolean wrapped ) throws IOException, Asn1Exception
+	{
+		Type type = context.getType();
+		if( type.hasSibling() )
+			return readInternal( context.toSiblingContext(), wrapped );
+
+		if( !wrapped || !XerUtils.isValueElement( type ) )
+			return readValue( context );
+
+		nextStartElement();
+		Value value = readValue( context );
+		nextEndElement();
+		return value;
+	}
+
+	private Value readValue( @NotNull ReaderContext context ) throws IOException, Asn1Exception
+	{
+		Type type = context.getType();
+		if( type.getFamily() == Family.CHOICE )
+			return readChoiceType( context );
+
+		if( type.getFamily() == Family.OPEN_TYPE )
+			return readOpenType( context );
+
+		XerDecoder decoder = DECODERS.get( type.getFamily() );
+		if( decoder == null )
+			throw new IllegalStateException( "No decoder found for family: " + type.getFamily() );
+
+		return decoder.decode( context );
+	}
+
+	/**
+	 * Open type value is enclosed by element named after its actual type
+	 *
+	 * @param context the reader context
+	 * @return value
+	 * @throws IOException   in case of I/O failure
+	 * @throws Asn1Exception if value can not be decoded
+	 */
+	private Value readOpenType( @NotNull ReaderContext context ) throws Asn1Exception, IOException
+	{
+		InstanceOfTypeSelector selector = context.getScope().getScopeOption( TypeUtils.INSTANCE_OF_TYPE_KEY );
+		if( selector == null )
+			throw new ResolutionException( "Unable to locate InstanceOfTypeSelector." );
+
+		Type openTypeType = selector.resolveInstanceOfType( context.getScope() );
+		nextStartElement();
+		Value openTypeValue = readInternal( context.toSiblingContext( openTypeType ), true );
+		nextEndElement();
+		return factory.openTypeValue( openTypeType, openTypeValue ).resolve( context.getScope() );
+	}
+
+	/**
+	 * Alternative is selected by name of value element
+	 *
+	 * @param context the reader context
+	 * @return value
+	 * @throws IOException   in case of I/O failure
+	 * @throws Asn1Exception if value can not be decoded
+	 */
+	private Value readChoiceType( @NotNull ReaderContext context ) throws IOException, Asn1Exception
+	{
+		String name = getStreamReader().getLocalName();
+		ComponentType component = context.getType().getNamedType( name );
+		if( component == null )
+			throw new IOException( "Unable to read choice value, unknown alternative: " + name );
+
+		return factory.named( component.getName(), context.readComponentType( component ) );
+	}
+
+	/**
+	 * Move to next start element, white spaces, comments and processing instructions are skipped
+	 *
+	 * @throws IOException if there is no start element
+	 */
+	public void nextStartElement() throws IOException
+	{
+		if( nextTag() != XMLStreamConstants.START_ELEMENT )
+			throw new IOException( "Start of element expected: " + getStreamReader().getLocation() );
+	}
+
+	/**
+	 * Move to next end element, white spaces, comments and processing instructions are skipped
+	 *
+	 * @throws IOException if there is no end element
+	 */
+	public void nextEndElement() throws IOException
+	{
+		if( nextTag() != XMLStreamConstants.END_ELEMENT )
+			throw new IOException( "End of element expected: " + getStreamReader().getLocation() );
+	}
+
+	/**
+	 * Move to next start or end element, white spaces, comments and processing instructions are skipped
+	 *
+	 * @return event type
+	 * @throws IOException in case of I/O failure or if text content is found
+	 */
+	public int nextTag() throws IOException
+	{
+		try
+		{
+			return getStreamReader().nextTag();
+		} catch( XMLStreamException e )
+		{
+			throw new IOException( e );
+		}
+	}
+
+	/**
+	 * Read text content of current element, the reader is left at end of element
+	 *
+	 * @return text
+	 * @throws IOException in case of I/O failure or if element contains child elements
+	 */
+	@NotNull
+	public String readText() throws IOException
+	{
+		try
+		{
+			return getStreamReader().getElementText();
+		} catch( XMLStreamException e )
+		{
+			throw new IOException( e );
+		}
+	}
+
+	/**
+	 * Skip current element with all its content
+	 *
+	 * @throws IOException in case of I/O failure
+	 */
+	public void skipElement() throws IOException
+	{
+		XMLStreamReader reader = getStreamReader();
+		try
+		{
+			int depth = 1;
+			while( depth > 0 )
+			{
+				int event = reader.next();
+				if( event == XMLStreamConstants.START_ELEMENT )
+					depth++;
+				else if( event == XMLStreamConstants.END_ELEMENT )
+					depth--;
+			}
+		} catch( XMLStreamException e )
+		{
+			throw new IOException( e );
+		}
+	}
+}
@@ -0,0 +1,115 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.xer.input;
+
+import org.asn1s.api.value.ValueFactory;
+import org.jetbrains.annotations.NotNull;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+
+/**
+ * Reads values from stream of concatenated XML documents, one value per document
+ */
+public final class DefaultXerReader extends AbstractXerReader
+{
+	private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+
+	public DefaultXerReader( InputStream is, ValueFactory factory )
+	{
+		super( factory );
+		this.is = new PushbackInputStream( new BufferedInputStream( is ), DocumentInputStream.PUSHBACK_SIZE );
+	}
+
+	private final PushbackInputStream is;
+	private DocumentInputStream document;
+	private XMLStreamReader reader;
+
+	@NotNull
+	@Override
+	protected XMLStreamReader startDocument() throws IOException
+	{
+		document = new DocumentInputStream( is );
+		if( document.isEndOfStream() )
+			throw new EOFException();
+
+		try
+		{
+			reader = INPUT_FACTORY.createXMLStreamReader( document );
+			return reader;
+		} catch( XMLStreamException e )
+		{
+			throw new IOException( e );
+		}
+	}
+
+	@Override
+	protected void endDocument() throws IOException
+	{
+		try
+		{
+			// does not close underlying stream
+			reader.close();
+			reader = null;
+		} catch( XMLStreamException e )
+		{
+			throw new IOException( e );
+		}
+
+		document.skipRemaining();
+		document = null;
+	}
+
+	@NotNull
+	@Override
+	public XMLStreamReader getStreamReader()
+	{
+		if( reader == null )
+			throw new IllegalStateException( "No document started" );
+		return reader;
+	}
+
+	@Override
+	public void close() throws Exception
+	{
+		is.close();
+	}
+
+	private static XMLInputFactory createInputFactory()
+	{
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty( XMLInputFactory.SUPPORT_DTD, false );
+		factory.setProperty( XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false );
+		factory.setProperty( XMLInputFactory.IS_COALESCING, true );
+		return factory;
+	}
+}
@@ -0,0 +1,145 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.xer.input;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+
+/**
+ * View of single XML document in stream of concatenated documents.
+ * Document ends right before XML declaration of the next one.
+ */
+final class DocumentInputStream extends InputStream
+{
+	private static final byte[] DECLARATION = {'<', '?', 'x', 'm', 'l'};
+	/**
+	 * Required capacity of pushback buffer: declaration and following white space
+	 */
+	static final int PUSHBACK_SIZE = DECLARATION.length + 1;
+
+	DocumentInputStream( PushbackInputStream is )
+	{
+		this.is = is;
+	}
+
+	private final PushbackInputStream is;
+	private long position;
+	private boolean finished;
+
+	@Override
+	public int read() throws IOException
+	{
+		if( finished )
+			return -1;
+
+		int value = is.read();
+		if( value == DECLARATION[0] && position > 0 && isDeclaration() )
+		{
+			is.unread( value );
+			finished = true;
+			return -1;
+		}
+
+		if( value == -1 )
+			finished = true;
+		else
+			position++;
+		return value;
+	}
+
+	@Override
+	public int read( byte[] b, int off, int len ) throws IOException
+	{
+		if( len == 0 )
+			return 0;
+
+		int count = 0;
+		while( count < len )
+		{
+			int value = read();
+			if( value == -1 )
+				break;
+			//noinspection NumericCastThatLosesPrecision
+			b[off + count] = (byte)value;
+			count++;
+		}
+		return count == 0 ? -1 : count;
+	}
+
+	/**
+	 * Check that the octets after '<' are the rest of XML declaration, stream is left unchanged
+	 *
+	 * @return boolean
+	 * @throws IOException in case of I/O failure
+	 */
+	private boolean isDeclaration() throws IOException
+	{
+		byte[] buffer = new byte[DECLARATION.length];
+		int count = 0;
+		while( count < buffer.length )
+		{
+			int value = is.read();
+			if( value == -1 )
+				break;
+			//noinspection NumericCastThatLosesPrecision
+			buffer[count++] = (byte)value;
+			// declaration is followed by white space
+			if( count < DECLARATION.length && value != DECLARATION[count] || count == DECLARATION.length && !Character.isWhitespace( value ) )
+				break;
+		}
+		is.unread( buffer, 0, count );
+		return count == DECLARATION.length && Character.isWhitespace( buffer[count - 1] );
+	}
+
+	/**
+	 * Skip trailing content of document, so the next one starts at its declaration
+	 *
+	 * @throws IOException in case of I/O failure
+	 */
+	void skipRemaining() throws IOException
+	{
+		int value;
+		do
+			value = read();
+		while( value != -1 );
+	}
+
+	/**
+	 * Returns true if there are no more documents
+	 *
+	 * @return boolean
+	 * @throws IOException in case of I/O failure
+	 */
+	boolean isEndOfStream() throws IOException
+	{
+		int value = is.read();
+		if( value == -1 )
+			return true;
+		is.unread( value );
+		return false;
+	}
+}
@@ -0,0 +1,81 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.xer.input;
+
+import org.asn1s.api.type.Type.Family;
+import org.asn1s.api.value.Value;
+import org.jetbrains.annotations.NotNull;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+
+/**
+ * Real value is either decimal number or empty element for special values
+ */
+final class RealXerDecoder implements XerDecoder
+{
+	@Override
+	public Value decode( @NotNull ReaderContext context ) throws IOException
+	{
+		assert context.getType().getFamily() == Family.REAL;
+		String content = readContent( context.getReader() ).trim();
+		try
+		{
+			return context.getValueFactory().real( content );
+		} catch( IllegalArgumentException e )
+		{
+			throw new IOException( "Illegal real value: " + content, e );
+		}
+	}
+
+	private static String readContent( AbstractXerReader reader ) throws IOException
+	{
+		XMLStreamReader streamReader = reader.getStreamReader();
+		StringBuilder sb = new StringBuilder();
+		try
+		{
+			while( true )
+			{
+				int event = streamReader.next();
+				if( event == XMLStreamConstants.END_ELEMENT )
+					return sb.toString();
+
+				if( event == XMLStreamConstants.START_ELEMENT )
+				{
+					sb.append( streamReader.getLocalName() );
+					reader.nextEndElement();
+				}
+				else if( event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA || event == XMLStreamConstants.SPACE )
+					sb.append( streamReader.getText() );
+			}
+		} catch( XMLStreamException e )
+		{
+			throw new IOException( e );
+		}
+	}
+}
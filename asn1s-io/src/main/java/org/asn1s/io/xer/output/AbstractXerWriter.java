@@ -0,0 +1,251 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.xer.output;
+
+import org.asn1s.api.Ref;
+import org.asn1s.api.Scope;
+import org.asn1s.api.exception.Asn1Exception;
+import org.asn1s.api.exception.ResolutionException;
+import org.asn1s.api.type.ComponentType;
+import org.asn1s.api.type.Type;
+import org.asn1s.api.type.Type.Family;
+import org.asn1s.api.util.RefUtils;
+import org.asn1s.api.value.Value;
+import org.asn1s.api.value.x680.NamedValue;
+import org.asn1s.io.Asn1Writer;
+import org.asn1s.io.per.CollectionLayout;
+import org.asn1s.io.xer.XerUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Basic XER writer, values are written element by element directly to {@link XMLStreamWriter},
+ * so memory consumption does not depend on value size. See X.693
+ */
+abstract class AbstractXerWriter implements Asn1Writer
+{
+	private static final Map<Family, XerEncoder> ENCODERS = new EnumMap<>( Family.class );
+
+	static
+	{
+		ENCODERS.put( Family.BOOLEAN, new BooleanXerEncoder() );
+		ENCODERS.put( Family.INTEGER, new IntegerXerEncoder() );
+		ENCODERS.put( Family.ENUMERATED, new EnumeratedXerEncoder() );
+		ENCODERS.put( Family.REAL, new RealXerEncoder() );
+		ENCODERS.put( Family.BIT_STRING, new BitStringXerEncoder() );
+		ENCODERS.put( Family.OCTET_STRING, new OctetStringXerEncoder() );
+		ENCODERS.put( Family.NULL, new NullXerEncoder() );
+		ENCODERS.put( Family.SEQUENCE, new SequenceXerEncoder() );
+		ENCODERS.put( Family.SEQUENCE_OF, new SequenceOfXerEncoder() );
+		ENCODERS.put( Family.SET, new SequenceXerEncoder() );
+		ENCODERS.put( Family.SET_OF, new SequenceOfXerEncoder() );
+		ENCODERS.put( Family.RESTRICTED_STRING, new StringXerEncoder() );
+		ENCODERS.put( Family.UTC_TIME, new TimeXerEncoder() );
+		ENCODERS.put( Family.GENERALIZED_TIME, new TimeXerEncoder() );
+		ENCODERS.put( Family.OID, new ObjectIDXerEncoder() );
+	}
+
+	private final Map<Type, CollectionLayout> layouts = new IdentityHashMap<>();
+
+	/**
+	 * Start new XML document, every written value is a separate document
+	 *
+	 * @return stream writer for document
+	 * @throws IOException in case of I/O failure
+	 */
+	@NotNull
+	protected abstract XMLStreamWriter startDocument() throws IOException;
+
+	/**
+	 * Finish current document and flush written data
+	 *
+	 * @throws IOException in case of I/O failure
+	 */
+	protected abstract void endDocument() throws IOException;
+
+	/**
+	 * Returns stream writer of current document
+	 *
+	 * @return stream writer
+	 */
+	@NotNull
+	protected abstract XMLStreamWriter getStreamWriter();
+
+	@Override
+	public void write( @NotNull Scope scope, @NotNull Ref<Type> typeRef, @NotNull Value value ) throws IOException, Asn1Exception
+	{
+		Type type = typeRef.resolve( scope );
+		// resolve value to make sure it's correct
+		value = value.resolve( scope );
+		type.accept( scope, value );
+		XMLStreamWriter writer = startDocument();
+		try
+		{
+			writer.writeStartDocument( XerUtils.ENCODING, XerUtils.VERSION );
+			writeInternal( new WriterContext( this, scope, type, value ), XerUtils.getTypeName( type ) );
+			writer.writeEndDocument();
+		} catch( XMLStreamException e )
+		{
+			throw new IOException( e );
+		}
+		endDocument();
+	}
+
+	/**
+	 * Write value
+	 *
+	 * @param context     the writer context
+	 * @param elementName name of enclosing element, if null - the value is written without one
+	 * @throws IOException   in case of I/O failure
+	 * @throws Asn1Exception if value can not be encoded
+	 */
+	public final void writeInternal( @NotNull WriterContext context, @Nullable String elementName ) throws IOException, Asn1Exception
+	{
+		context = context.narrow();
+		Type type = context.getType();
+		if( type.hasSibling() )
+		{
+			writeInternal( context.toSiblingContext(), elementName );
+			return;
+		}
+
+		if( elementName != null )
+			writeStartElement( elementName );
+
+		if( type.getFamily() == Family.CHOICE )
+			writeChoiceType( context );
+		else if( type.getFamily() == Family.OPEN_TYPE )
+			writeOpenType( context );
+		else
+		{
+			XerEncoder encoder = ENCODERS.get( type.getFamily() );
+			if( encoder == null )
+				throw new IllegalStateException( "No encoder found for family: " + type.getFamily() );
+
+			encoder.encode( context );
+		}
+
+		if( elementName != null )
+			writeEndElement();
+	}
+
+	@NotNull
+	CollectionLayout getLayout( @NotNull Type type )
+	{
+		return layouts.computeIfAbsent( type, CollectionLayout:: create );
+	}
+
+	/**
+	 * Open type value is enclosed by element named after its actual type
+	 *
+	 * @param context the writer context
+	 * @throws IOException   in case of I/O failure
+	 * @throws Asn1Exception if value can not be encoded
+	 */
+	private void writeOpenType( @NotNull WriterContext context ) throws IOException, Asn1Exception
+	{
+		Value value = RefUtils.toBasicValue( context.getScope(), context.getValue() );
+		Type type = value.toOpenTypeValue().getType().resolve( context.getScope() );
+		Value openValue = value.toOpenTypeValue().getValueRef().resolve( context.getScope() );
+		writeInternal( context.toSiblingContext( type, openValue ), XerUtils.getTypeName( type ) );
+	}
+
+	/**
+	 * Chosen alternative is enclosed by element named after it
+	 *
+	 * @param context the writer context
+	 * @throws IOException   in case of I/O failure
+	 * @throws Asn1Exception if value can not be encoded
+	 */
+	private static void writeChoiceType( @NotNull WriterContext context ) throws IOException, Asn1Exception
+	{
+		context.getScope().setValueLevel( context.getValue() );
+
+		NamedValue namedValue = context.getValue().toNamedValue();
+		ComponentType componentType = context.getType().getNamedType( namedValue.getName() );
+		if( componentType == null )
+			throw new ResolutionException( "Unknown component: " + namedValue.getName() );
+
+		context.writeComponent( componentType, namedValue, componentType.getComponentName() );
+	}
+
+	public void writeStartElement( @NotNull String name ) throws IOException
+	{
+		try
+		{
+			getStreamWriter().writeStartElement( name );
+		} catch( XMLStreamException e )
+		{
+			throw new IOException( e );
+		}
+	}
+
+	public void writeEndElement() throws IOException
+	{
+		try
+		{
+			getStreamWriter().writeEndElement();
+		} catch( XMLStreamException e )
+		{
+			throw new IOException( e );
+		}
+	}
+
+	public void writeEmptyElement( @NotNull String name ) throws IOException
+	{
+		try
+		{
+			getStreamWriter().writeEmptyElement( name );
+		} catch( XMLStreamException e )
+		{
+			throw new IOException( e );
+		}
+	}
+
+	/**
+	 * Write text content, markup characters are escaped
+	 *
+	 * @param text the text
+	 * @throws IOException in case of I/O failure
+	 */
+	public void writeCharacters( @NotNull String text ) throws IOException
+	{
+		try
+		{
+			getStreamWriter().writeCharacters( text );
+		} catch( XMLStreamException e )
+		{
+			throw new IOException( e );
+		}
+	}
+}
@@ -0,0 +1,112 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.xer.output;
+
+import org.asn1s.io.xer.XerUtils;
+import org.jetbrains.annotations.NotNull;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+public final class DefaultXerWriter extends AbstractXerWriter
+{
+	private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newInstance();
+
+	public DefaultXerWriter()
+	{
+		os = new ByteArrayOutputStream();
+		internalOs = true;
+	}
+
+	public DefaultXerWriter( OutputStream os )
+	{
+		this.os = os;
+		internalOs = false;
+	}
+
+	private final OutputStream os;
+	private final boolean internalOs;
+	private XMLStreamWriter writer;
+
+	@NotNull
+	@Override
+	protected XMLStreamWriter startDocument() throws IOException
+	{
+		try
+		{
+			writer = OUTPUT_FACTORY.createXMLStreamWriter( os, XerUtils.ENCODING );
+			return writer;
+		} catch( XMLStreamException e )
+		{
+			throw new IOException( e );
+		}
+	}
+
+	@Override
+	protected void endDocument() throws IOException
+	{
+		try
+		{
+			writer.flush();
+			// does not close underlying stream
+			writer.close();
+			writer = null;
+		} catch( XMLStreamException e )
+		{
+			throw new IOException( e );
+		}
+		os.flush();
+	}
+
+	@NotNull
+	@Override
+	protected XMLStreamWriter getStreamWriter()
+	{
+		if( writer == null )
+			throw new IllegalStateException( "No document started" );
+		return writer;
+	}
+
+	@Override
+	public void close() throws Exception
+	{
+		if( internalOs )
+			os.close();
+	}
+
+	@Override
+	public byte[] toByteArray() throws IOException
+	{
+		if( !internalOs )
+			throw new IOException( "Unable to get bytes from provided stream" );
+
+		return ( (ByteArrayOutputStream)os ).toByteArray();
+	}
+}
@@ -0,0 +1,64 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.xer.output;
+
+import org.asn1s.api.type.Type.Family;
+import org.asn1s.api.value.Value.Kind;
+import org.asn1s.api.value.x680.RealValue;
+import org.asn1s.io.xer.XerUtils;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+
+/**
+ * Special real values are encoded as empty elements, others as decimal numbers
+ */
+final class RealXerEncoder implements XerEncoder
+{
+	@Override
+	public void encode( @NotNull WriterContext context ) throws IOException
+	{
+		assert context.getType().getFamily() == Family.REAL;
+		assert context.getValue().getKind() == Kind.REAL;
+		RealValue value = context.getValue().toRealValue();
+		AbstractXerWriter writer = context.getWriter();
+		if( !value.isFloat() && !value.isDouble() )
+		{
+			writer.writeCharacters( value.asBigDecimal().stripTrailingZeros().toString() );
+			return;
+		}
+
+		double doubleValue = value.asDouble();
+		if( Double.isNaN( doubleValue ) )
+			writer.writeEmptyElement( XerUtils.NOT_A_NUMBER );
+		else if( Double.isInfinite( doubleValue ) )
+			writer.writeEmptyElement( doubleValue > 0 ? XerUtils.PLUS_INFINITY : XerUtils.MINUS_INFINITY );
+		else if( doubleValue == 0.0d )
+			writer.writeCharacters( 1.0d / doubleValue < 0 ? "-0" : "0" );
+		else
+			writer.writeCharacters( Double.toString( doubleValue ) );
+	}
+}
@@ -0,0 +1,96 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.xer.output;
+
+import org.asn1s.api.exception.Asn1Exception;
+import org.asn1s.api.exception.IllegalValueException;
+import org.asn1s.api.type.ComponentType;
+import org.asn1s.api.type.Type.Family;
+import org.asn1s.api.value.Value.Kind;
+import org.asn1s.api.value.x680.NamedValue;
+import org.asn1s.io.per.CollectionLayout;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Encodes SEQUENCE and SET types, each component value is enclosed by element named after component.
+ * SET components are written in canonical tag order.
+ */
+final class SequenceXerEncoder implements XerEncoder
+{
+	@Override
+	public void encode( @NotNull WriterContext context ) throws IOException, Asn1Exception
+	{
+		assert context.getType().getFamily() == Family.SEQUENCE || context.getType().getFamily() == Family.SET;
+		assert context.getValue().getKind() == Kind.NAMED_COLLECTION || context.getValue().getKind() == Kind.COLLECTION && context.getValue().toValueCollection().isEmpty();
+
+		context.getScope().setValueLevel( context.getValue() );
+		List<NamedValue> values = context.getValue().toValueCollection().asNamedValueList();
+		if( context.getType().getFamily() == Family.SET )
+			values = toCanonicalOrder( context, values );
+
+		for( NamedValue value : values )
+		{
+			ComponentType component = context.getType().getNamedType( value.getName() );
+			if( component == null )
+				throw new IllegalValueException( "Unknown component: " + value.getName() );
+
+			context.writeComponent( component, value, component.getComponentName() );
+		}
+	}
+
+	/**
+	 * Root components of SET are ordered by tags, extension additions follow in definition order
+	 */
+	private static List<NamedValue> toCanonicalOrder( WriterContext context, Collection<NamedValue> values )
+	{
+		Map<String, NamedValue> map = new HashMap<>();
+		for( NamedValue value : values )
+			map.put( value.getName(), value );
+
+		CollectionLayout layout = context.getWriter().getLayout( context.getType() );
+		List<NamedValue> result = new ArrayList<>( values.size() );
+		addValues( layout.getRootComponents(), map, result );
+		for( int i = 0; i < layout.getExtensionCount(); i++ )
+			addValues( layout.getExtension( i ), map, result );
+
+		// unknown components are reported by caller
+		result.addAll( map.values() );
+		return result;
+	}
+
+	private static void addValues( Iterable<ComponentType> components, Map<String, NamedValue> map, Collection<NamedValue> result )
+	{
+		for( ComponentType component : components )
+		{
+			NamedValue value = map.remove( component.getComponentName() );
+			if( value != null )
+				result.add( value );
+		}
+	}
+}
@@ -0,0 +1,212 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io;
+
+import org.asn1s.api.Asn1Factory;
+import org.asn1s.api.Ref;
+import org.asn1s.api.Scope;
+import org.asn1s.api.UniversalType;
+import org.asn1s.api.module.Module;
+import org.asn1s.api.type.CollectionOfType;
+import org.asn1s.api.type.CollectionType;
+import org.asn1s.api.type.ComponentType.Kind;
+import org.asn1s.api.type.DefinedType;
+import org.asn1s.api.type.Type.Family;
+import org.asn1s.api.value.Value;
+import org.asn1s.api.value.x680.ValueCollection;
+import org.asn1s.core.DefaultAsn1Factory;
+import org.asn1s.core.value.CoreValueFactory;
+import org.asn1s.io.ber.BerRules;
+import org.asn1s.io.ber.input.DefaultBerReader;
+import org.asn1s.io.ber.output.DefaultBerWriter;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+
+public class ProjectionTest
+{
+	private Asn1Factory factory;
+	private DefinedType type;
+	private Scope scope;
+	private byte[] content;
+
+	@Before
+	public void setUp() throws Exception
+	{
+		factory = new DefaultAsn1Factory();
+		Module module = factory.types().dummyModule();
+
+		CollectionType infoType = factory.types().collection( Family.SEQUENCE );
+		infoType.addComponent( Kind.PRIMARY, "subscriber", UniversalType.OCTET_STRING.ref() );
+		infoType.addComponent( Kind.PRIMARY, "duration", UniversalType.INTEGER.ref() );
+		DefinedType info = factory.types().define( "Info", infoType, null );
+
+		CollectionType callType = factory.types().collection( Family.SEQUENCE );
+		callType.addComponent( Kind.PRIMARY, "info", info.toRef() );
+		callType.addComponent( Kind.PRIMARY, "extra", UniversalType.INTEGER.ref() );
+		DefinedType call = factory.types().define( "Call", callType, null );
+
+		CollectionType eventType = factory.types().collection( Family.CHOICE );
+		eventType.addComponent( Kind.PRIMARY, "moc", call.toRef() );
+		eventType.addComponent( Kind.PRIMARY, "mtc", call.toRef() );
+
+		CollectionOfType eventsType = factory.types().collectionOf( Family.SEQUENCE_OF );
+		eventsType.setComponent( "event", eventType );
+
+		CollectionType batchType = factory.types().collection( Family.SEQUENCE );
+		batchType.addComponent( Kind.PRIMARY, "header", UniversalType.INTEGER.ref() );
+		batchType.addComponent( Kind.PRIMARY, "events", eventsType );
+		batchType.addComponent( Kind.PRIMARY, "trailer", UniversalType.INTEGER.ref() );
+		type = factory.types().define( "Batch", batchType, null );
+		module.validate();
+		scope = type.createScope();
+
+		ValueCollection events = factory.values().collection( true );
+		for( int i = 0; i < 4; i++ )
+			events.addNamed( "event", factory.values().named( i % 2 == 0 ? "moc" : "mtc", call( i ) ) );
+
+		ValueCollection batch = factory.values().collection( true );
+		batch.addNamed( "header", factory.values().integer( 1 ) );
+		batch.addNamed( "events", events );
+		batch.addNamed( "trailer", factory.values().integer( 2 ) );
+		try( Asn1Writer writer = new DefaultBerWriter( BerRules.DER ) )
+		{
+			writer.write( scope, type, batch );
+			content = writer.toByteArray();
+		}
+	}
+
+	private Value call( int index )
+	{
+		ValueCollection info = factory.values().collection( true );
+		info.addNamed( "subscriber", factory.values().byteArrayValue( 8, new byte[]{(byte)index} ) );
+		info.addNamed( "duration", factory.values().integer( index * 10 ) );
+		ValueCollection call = factory.values().collection( true );
+		call.addNamed( "info", info );
+		call.addNamed( "extra", factory.values().integer( 100 + index ) );
+		return call;
+	}
+
+	@Test
+	public void testPaths()
+	{
+		Projection projection = Projection.of( "a/b", "a/c/d", "x", "a/c" );
+		Projection a = projection.getChild( "a" );
+		Assert.assertNotNull( "a", a );
+		Assert.assertFalse( "a is not complete", a.isComplete() );
+		Assert.assertTrue( "a/c is complete", a.getChild( "c" ).isComplete() );
+		Assert.assertTrue( "x is complete", projection.getChild( "x" ).isComplete() );
+		Assert.assertNull( "y is not selected", projection.getChild( "y" ) );
+		Assert.assertNotNull( "Any matches", Projection.of( "*/b" ).getChild( "y" ) );
+	}
+
+	@Test
+	public void testOverlappingPaths()
+	{
+		Projection a = Projection.of( "a/x", "*/y" ).getChild( "a" );
+		Assert.assertNotNull( "a/x is selected", a.getChild( "x" ) );
+		Assert.assertNotNull( "a/y is selected by wildcard", a.getChild( "y" ) );
+		Assert.assertNull( "a/z is not selected", a.getChild( "z" ) );
+		Assert.assertNotNull( "b/y is selected by wildcard", Projection.of( "a/x", "*/y" ).getChild( "b" ).getChild( "y" ) );
+		Assert.assertTrue( "a is complete by wildcard", Projection.of( "a/x", "*" ).getChild( "a" ).isComplete() );
+	}
+
+	@Test
+	public void testReadOverlappingPaths() throws Exception
+	{
+		Value result;
+		try( DefaultBerReader reader = new DefaultBerReader( new ByteArrayInputStream( content ), new CoreValueFactory() ) )
+		{
+			result = reader.read( scope, type, Projection.of( "events/*/moc/info/subscriber", "events/*/*/extra" ) );
+		}
+
+		ValueCollection events = factory.values().collection( true );
+		for( int i = 0; i < 4; i++ )
+		{
+			ValueCollection call = factory.values().collection( true );
+			if( i % 2 == 0 )
+			{
+				ValueCollection info = factory.values().collection( true );
+				info.addNamed( "subscriber", factory.values().byteArrayValue( 8, new byte[]{(byte)i} ) );
+				call.addNamed( "info", info );
+			}
+			call.addNamed( "extra", factory.values().integer( 100 + i ) );
+			events.addNamed( "event", factory.values().named( i % 2 == 0 ? "moc" : "mtc", call ) );
+		}
+		ValueCollection expected = factory.values().collection( true );
+		expected.addNamed( "events", events );
+		Assert.assertTrue( "Projected value: " + result, expected.isEqualTo( result ) );
+	}
+
+	@Test( expected = IllegalArgumentException.class )
+	public void testValidateUnknown()
+	{
+		Projection.of( "events/*/moc/info/unknown" ).validate( type );
+	}
+
+	@Test( expected = IllegalArgumentException.class )
+	public void testValidateElement()
+	{
+		Projection.of( "events/moc" ).validate( type );
+	}
+
+	@Test
+	public void testReadProjection() throws Exception
+	{
+		Value result;
+		try( DefaultBerReader reader = new DefaultBerReader( new ByteArrayInputStream( content ), new CoreValueFactory() ) )
+		{
+			result = reader.read( scope, type, Projection.of( "events/*/moc/info/subscriber", "trailer" ) );
+			Assert.assertEquals( "Position", content.length, reader.position() );
+		}
+
+		ValueCollection events = factory.values().collection( true );
+		for( int i = 0; i < 4; i += 2 )
+		{
+			ValueCollection info = factory.values().collection( true );
+			info.addNamed( "subscriber", factory.values().byteArrayValue( 8, new byte[]{(byte)i} ) );
+			ValueCollection call = factory.values().collection( true );
+			call.addNamed( "info", info );
+			events.addNamed( "event", factory.values().named( "moc", call ) );
+		}
+		ValueCollection expected = factory.values().collection( true );
+		expected.addNamed( "events", events );
+		expected.addNamed( "trailer", factory.values().integer( 2 ) );
+		Assert.assertTrue( "Projected value: " + result, expected.isEqualTo( result ) );
+	}
+
+	@Test
+	public void testReadComplete() throws Exception
+	{
+		try( DefaultBerReader reader = new DefaultBerReader( new ByteArrayInputStream( content ), new CoreValueFactory() ) )
+		{
+			Ref<Value> events = reader.read( scope, type, Projection.of( "events" ) ).toValueCollection().getNamedValue( "events" ).getValueRef();
+			Assert.assertEquals( "All elements", 4, ( (Value)events ).toValueCollection().size() );
+		}
+	}
+}
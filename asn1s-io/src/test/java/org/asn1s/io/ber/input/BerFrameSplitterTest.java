@@ -0,0 +1,142 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.ber.input;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class BerFrameSplitterTest
+{
+	// [APPLICATION 32] 'AA'H, multi-byte tag
+	private static final String HIGH_TAG = "5F2001AA";
+	// nested indefinite length values
+	private static final String INDEFINITE = "3080800105A18002010102010200008201FF0000";
+	// empty SEQUENCE
+	private static final String EMPTY = "3000";
+
+	@Test
+	public void testWhole() throws Exception
+	{
+		byte[] content = content();
+		BerFrameSplitter splitter = new BerFrameSplitter();
+		ByteBuffer buffer = ByteBuffer.wrap( content );
+		List<Long> lengths = new ArrayList<>();
+		while( splitter.scan( buffer ) )
+		{
+			lengths.add( splitter.getFrameLength() );
+			Assert.assertTrue( "Idle", splitter.isIdle() );
+		}
+		Assert.assertEquals( "Frame lengths", expectedLengths(), lengths );
+		Assert.assertFalse( "No data left", buffer.hasRemaining() );
+		splitter.finish();
+	}
+
+	@Test
+	public void testByteByByte() throws Exception
+	{
+		byte[] content = content();
+		BerFrameSplitter splitter = new BerFrameSplitter();
+		List<Long> lengths = new ArrayList<>();
+		List<Integer> ends = new ArrayList<>();
+		for( int i = 0; i < content.length; i++ )
+		{
+			if( splitter.scan( ByteBuffer.wrap( content, i, 1 ) ) )
+			{
+				lengths.add( splitter.getFrameLength() );
+				ends.add( i + 1 );
+			}
+		}
+		Assert.assertEquals( "Frame lengths", expectedLengths(), lengths );
+		Assert.assertEquals( "Frame ends", Arrays.asList( 4, 135, 155, 157 ), ends );
+		splitter.finish();
+	}
+
+	@Test( expected = EOFException.class )
+	public void testIncomplete() throws Exception
+	{
+		BerFrameSplitter splitter = new BerFrameSplitter();
+		Assert.assertFalse( "Incomplete", splitter.scan( ByteBuffer.wrap( InputUtils.parseHex( INDEFINITE ), 0, 10 ) ) );
+		Assert.assertEquals( "Consumed", 10L, splitter.getFrameLength() );
+		splitter.finish();
+	}
+
+	@Test( expected = IOException.class )
+	public void testUnexpectedEoc() throws Exception
+	{
+		new BerFrameSplitter().scan( ByteBuffer.wrap( new byte[]{0, 0} ) );
+	}
+
+	@Test( expected = IOException.class )
+	public void testPrimitiveIndefinite() throws Exception
+	{
+		new BerFrameSplitter().scan( ByteBuffer.wrap( new byte[]{4, (byte)0x80} ) );
+	}
+
+	@Test( expected = IOException.class )
+	public void testMaxFrameSize() throws Exception
+	{
+		BerFrameSplitter splitter = new BerFrameSplitter();
+		splitter.setMaxFrameSize( 100 );
+		ByteBuffer buffer = ByteBuffer.wrap( content() );
+		//noinspection StatementWithEmptyBody
+		while( splitter.scan( buffer ) )
+		{
+		}
+	}
+
+	private static List<Long> expectedLengths()
+	{
+		return Arrays.asList( 4L, 131L, 20L, 2L );
+	}
+
+	private static byte[] content()
+	{
+		// OCTET STRING of 128 bytes, long form length
+		byte[] longForm = new byte[131];
+		longForm[0] = 0x04;
+		longForm[1] = (byte)0x81;
+		longForm[2] = (byte)0x80;
+
+		byte[] highTag = InputUtils.parseHex( HIGH_TAG );
+		byte[] indefinite = InputUtils.parseHex( INDEFINITE );
+		byte[] empty = InputUtils.parseHex( EMPTY );
+		byte[] content = new byte[highTag.length + longForm.length + indefinite.length + empty.length];
+		int offset = 0;
+		for( byte[] bytes : Arrays.asList( highTag, longForm, indefinite, empty ) )
+		{
+			System.arraycopy( bytes, 0, content, offset, bytes.length );
+			offset += bytes.length;
+		}
+		return content;
+	}
+}
@@ -0,0 +1,172 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.ber.input;
+
+import org.asn1s.api.Asn1Factory;
+import org.asn1s.api.Scope;
+import org.asn1s.api.UniversalType;
+import org.asn1s.api.encoding.tag.Tag;
+import org.asn1s.api.encoding.tag.TagClass;
+import org.asn1s.api.module.Module;
+import org.asn1s.api.type.CollectionOfType;
+import org.asn1s.api.type.CollectionType;
+import org.asn1s.api.type.ComponentType.Kind;
+import org.asn1s.api.type.DefinedType;
+import org.asn1s.api.type.Type.Family;
+import org.asn1s.api.value.Value;
+import org.asn1s.api.value.x680.ValueCollection;
+import org.asn1s.core.DefaultAsn1Factory;
+import org.asn1s.core.value.CoreValueFactory;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class BerOffsetIndexTest
+{
+	private static final int RECORD_COUNT = 100;
+
+	private Asn1Factory factory;
+	private DefinedType type;
+	private CollectionType recordType;
+	private Scope scope;
+	private Path file;
+	private Path indexFile;
+
+	@Before
+	public void setUp() throws Exception
+	{
+		// SEQUENCE { version INTEGER, records SEQUENCE OF SEQUENCE { id INTEGER, name UTF8String } }
+		factory = new DefaultAsn1Factory();
+		Module module = factory.types().dummyModule();
+		recordType = factory.types().collection( Family.SEQUENCE );
+		recordType.addComponent( Kind.PRIMARY, "id", UniversalType.INTEGER.ref() );
+		recordType.addComponent( Kind.PRIMARY, "name", UniversalType.UTF8_STRING.ref() );
+		CollectionOfType recordsType = factory.types().collectionOf( Family.SEQUENCE_OF );
+		recordsType.setComponent( "record", recordType );
+		CollectionType batchType = factory.types().collection( Family.SEQUENCE );
+		batchType.addComponent( Kind.PRIMARY, "version", UniversalType.INTEGER.ref() );
+		batchType.addComponent( Kind.PRIMARY, "records", recordsType );
+		type = factory.types().define( "Batch", batchType, null );
+		module.validate();
+		scope = type.createScope();
+
+		ValueCollection records = factory.values().collection( true );
+		for( int i = 0; i < RECORD_COUNT; i++ )
+			records.addNamed( "record", createRecord( i ) );
+		ValueCollection batch = factory.values().collection( true );
+		batch.addNamed( "version", factory.values().integer( 1 ) );
+		batch.addNamed( "records", records );
+
+		file = Files.createTempFile( "asn1s-index", ".ber" );
+		Files.write( file, InputUtils.writeValue( scope, type, batch ) );
+		indexFile = Files.createTempFile( "asn1s-index", ".idx" );
+	}
+
+	@After
+	public void tearDown() throws Exception
+	{
+		Files.deleteIfExists( file );
+		Files.deleteIfExists( indexFile );
+	}
+
+	@Test
+	public void testBuildAndRead() throws Exception
+	{
+		try( MappedBerReader reader = new MappedBerReader( file, new CoreValueFactory() ) )
+		{
+			BerOffsetIndex index = BerOffsetIndex.build( reader, scope, type, null, "records" );
+			Assert.assertTrue( "Must read all", reader.isEndOfInput() );
+			Assert.assertEquals( "Size", RECORD_COUNT, index.size() );
+			for( int i = 1; i < index.size(); i++ )
+				Assert.assertEquals( "Offsets", index.getOffset( i - 1 ) + index.getLength( i - 1 ), index.getOffset( i ) );
+
+			for( int i : new int[]{57, 0, RECORD_COUNT - 1} )
+				assertRecord( i, index.read( reader, scope, recordType, i ) );
+		}
+	}
+
+	@Test
+	public void testSaveAndLoad() throws Exception
+	{
+		try( MappedBerReader reader = new MappedBerReader( file, new CoreValueFactory() ) )
+		{
+			BerOffsetIndex index = BerOffsetIndex.build( reader, scope, type, null, "records" );
+			index.save( indexFile );
+			BerOffsetIndex loaded = BerOffsetIndex.load( indexFile );
+			Assert.assertEquals( "Size", index.size(), loaded.size() );
+			for( int i = 0; i < index.size(); i++ )
+			{
+				Assert.assertEquals( "Offset", index.getOffset( i ), loaded.getOffset( i ) );
+				Assert.assertEquals( "Length", index.getLength( i ), loaded.getLength( i ) );
+			}
+			assertRecord( 42, loaded.read( reader, scope, recordType, 42 ) );
+		}
+	}
+
+	@Test
+	public void testTagFilter() throws Exception
+	{
+		try( MappedBerReader reader = new MappedBerReader( file, new CoreValueFactory() ) )
+		{
+			Tag tag = new Tag( TagClass.CONTEXT_SPECIFIC, true, 0 );
+			Assert.assertEquals( "No elements", 0, BerOffsetIndex.build( reader, scope, type, tag, "records" ).size() );
+		}
+	}
+
+	@Test( expected = IOException.class )
+	public void testLoadCorrupted() throws Exception
+	{
+		Files.write( indexFile, new byte[24] );
+		BerOffsetIndex.load( indexFile );
+	}
+
+	@Test( expected = IllegalArgumentException.class )
+	public void testNotCollection() throws Exception
+	{
+		try( MappedBerReader reader = new MappedBerReader( file, new CoreValueFactory() ) )
+		{
+			BerOffsetIndex.build( reader, scope, type, null, "version" );
+		}
+	}
+
+	private Value createRecord( int id )
+	{
+		ValueCollection record = factory.values().collection( true );
+		record.addNamed( "id", factory.values().integer( id ) );
+		record.addNamed( "name", factory.values().cString( "record-" + id ) );
+		return record;
+	}
+
+	private void assertRecord( int id, Value value )
+	{
+		Assert.assertTrue( "Record #" + id, createRecord( id ).isEqualTo( value ) );
+	}
+}
@@ -0,0 +1,200 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.ber.input;
+
+import org.asn1s.api.Asn1Factory;
+import org.asn1s.api.Scope;
+import org.asn1s.api.UniversalType;
+import org.asn1s.api.exception.IllegalValueException;
+import org.asn1s.api.module.Module;
+import org.asn1s.api.type.CollectionOfType;
+import org.asn1s.api.type.CollectionType;
+import org.asn1s.api.type.ComponentType;
+import org.asn1s.api.type.ComponentType.Kind;
+import org.asn1s.api.type.DefinedType;
+import org.asn1s.api.type.Type.Family;
+import org.asn1s.api.value.x680.BooleanValue;
+import org.asn1s.api.value.x680.ValueCollection;
+import org.asn1s.core.DefaultAsn1Factory;
+import org.asn1s.core.value.CoreValueFactory;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BerPullReaderTest
+{
+	private Asn1Factory factory;
+	private DefinedType type;
+	private Scope scope;
+
+	@Before
+	public void setUp() throws Exception
+	{
+		factory = new DefaultAsn1Factory();
+		Module module = factory.types().dummyModule();
+
+		CollectionOfType sequenceOfType = factory.types().collectionOf( Family.SEQUENCE_OF );
+		sequenceOfType.setComponent( "item", UniversalType.INTEGER.ref() );
+
+		CollectionType choiceType = factory.types().collection( Family.CHOICE );
+		choiceType.addComponent( Kind.PRIMARY, "num", UniversalType.INTEGER.ref() );
+		choiceType.addComponent( Kind.PRIMARY, "text", UniversalType.UTF8_STRING.ref() );
+
+		CollectionType sequenceType = factory.types().collection( Family.SEQUENCE );
+		sequenceType.addComponent( Kind.PRIMARY, "a", UniversalType.INTEGER.ref() );
+		sequenceType.addComponent( Kind.PRIMARY, "name", UniversalType.UTF8_STRING.ref() );
+		sequenceType.addComponent( Kind.PRIMARY, "data", UniversalType.OCTET_STRING.ref() ).setOptional( true );
+		sequenceType.addComponent( Kind.PRIMARY, "events", sequenceOfType );
+		sequenceType.addComponent( Kind.PRIMARY, "pick", choiceType );
+		sequenceType.addComponent( Kind.PRIMARY, "z", UniversalType.BOOLEAN.ref() );
+		type = factory.types().define( "My-Seq", sequenceType, null );
+		module.validate();
+		scope = type.createScope();
+	}
+
+	@Test
+	public void testReadAll() throws Exception
+	{
+		byte[] content = writeValue( 5 );
+		try( DefaultBerReader reader = new DefaultBerReader( new ByteArrayInputStream( content ), new CoreValueFactory() ) )
+		{
+			BerPullReader input = reader.newPullReader( scope );
+			List<Long> events = new ArrayList<>();
+			String text = null;
+			boolean z = false;
+			long a = 0L;
+			String name = null;
+
+			input.beginCollection( type );
+			ComponentType component;
+			while( ( component = input.nextComponent() ) != null )
+			{
+				switch( component.getComponentName() )
+				{
+					case "a":
+						a = input.readLong( component );
+						break;
+
+					case "name":
+						name = input.readString( component );
+						break;
+
+					case "events":
+						ComponentType elementType = input.beginCollectionOf( component );
+						while( input.hasNextElement() )
+							events.add( input.readLong( elementType ) );
+						input.end();
+						break;
+
+					case "pick":
+						ComponentType alternative = input.readChoice( component );
+						Assert.assertEquals( "Alternative", "text", alternative.getComponentName() );
+						text = input.readString( alternative );
+						break;
+
+					case "z":
+						z = input.readBoolean( component );
+						break;
+
+					default:
+						Assert.fail( "Unexpected component: " + component.getComponentName() );
+				}
+			}
+			input.end();
+
+			Assert.assertEquals( "Depth", 0, input.getDepth() );
+			Assert.assertEquals( "a", 5L, a );
+			Assert.assertEquals( "name", "Имя", name );
+			Assert.assertEquals( "events", 10, events.size() );
+			Assert.assertEquals( "Last event", Long.valueOf( 900L ), events.get( 9 ) );
+			Assert.assertEquals( "pick", "choice", text );
+			Assert.assertTrue( "z", z );
+			Assert.assertEquals( "Position", content.length, reader.position() );
+		}
+	}
+
+	@Test
+	public void testSkipUnread() throws Exception
+	{
+		byte[] single = writeValue( 7 );
+		byte[] content = new byte[single.length * 2];
+		System.arraycopy( single, 0, content, 0, single.length );
+		System.arraycopy( single, 0, content, single.length, single.length );
+
+		try( ByteBufferBerReader reader = new ByteBufferBerReader( ByteBuffer.wrap( content ), new CoreValueFactory() ) )
+		{
+			BerPullReader input = reader.newPullReader( scope );
+			input.beginCollection( type );
+			ComponentType component = input.nextComponent();
+			Assert.assertNotNull( "First component", component );
+			Assert.assertEquals( "a", BigInteger.valueOf( 7L ), input.readBigInteger( component ) );
+			component = input.nextComponent();
+			Assert.assertNotNull( "Second component", component );
+			input.skipValue();
+			input.end();
+			Assert.assertEquals( "Position", single.length, reader.position() );
+
+			try( DefaultBerReader expected = new DefaultBerReader( new ByteArrayInputStream( single ), new CoreValueFactory() ) )
+			{
+				Assert.assertTrue( "Second value", expected.read( scope, type ).isEqualTo( input.readValue( type ) ) );
+			}
+			Assert.assertEquals( "End", content.length, reader.position() );
+		}
+	}
+
+	@Test( expected = IllegalValueException.class )
+	public void testMissingRequired() throws Exception
+	{
+		// SEQUENCE { a [0] 5 }
+		byte[] content = {0x30, 0x03, (byte)0x80, 0x01, 0x05};
+		try( DefaultBerReader reader = new DefaultBerReader( new ByteArrayInputStream( content ), new CoreValueFactory() ) )
+		{
+			BerPullReader input = reader.newPullReader( scope );
+			input.beginCollection( type );
+			input.end();
+		}
+	}
+
+	private byte[] writeValue( int a ) throws Exception
+	{
+		ValueCollection value = factory.values().collection( true );
+		value.addNamed( "a", factory.values().integer( a ) );
+		value.addNamed( "name", factory.values().cString( "Имя" ) );
+		ValueCollection events = factory.values().collection( true );
+		for( int i = 0; i < 10; i++ )
+			events.addNamed( "item", factory.values().integer( i * 100 ) );
+		value.addNamed( "events", events );
+		value.addNamed( "pick", factory.values().named( "text", factory.values().cString( "choice" ) ) );
+		value.addNamed( "z", BooleanValue.TRUE );
+		return InputUtils.writeValue( scope, type, value );
+	}
+}
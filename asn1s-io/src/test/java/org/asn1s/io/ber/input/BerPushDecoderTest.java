@@ -0,0 +1,195 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.ber.input;
+
+import org.asn1s.api.Asn1Factory;
+import org.asn1s.api.Scope;
+import org.asn1s.api.UniversalType;
+import org.asn1s.api.encoding.tag.TagClass;
+import org.asn1s.api.encoding.tag.TagEncoding;
+import org.asn1s.api.encoding.tag.TagMethod;
+import org.asn1s.api.module.Module;
+import org.asn1s.api.type.CollectionOfType;
+import org.asn1s.api.type.CollectionType;
+import org.asn1s.api.type.ComponentType.Kind;
+import org.asn1s.api.type.DefinedType;
+import org.asn1s.api.type.Type.Family;
+import org.asn1s.api.value.Value;
+import org.asn1s.api.value.x680.BooleanValue;
+import org.asn1s.api.value.x680.ValueCollection;
+import org.asn1s.core.DefaultAsn1Factory;
+import org.asn1s.core.value.CoreValueFactory;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class BerPushDecoderTest
+{
+	// SEQUENCE { a 5, events { 1, 2 }, z TRUE } using indefinite length forms
+	private static final String INDEFINITE = "3080800105A18002010102010200008201FF0000";
+
+	private DefinedType type;
+	private Scope scope;
+	private ValueCollection value;
+	private byte[] content;
+
+	@Before
+	public void setUp() throws Exception
+	{
+		Asn1Factory factory = new DefaultAsn1Factory();
+		Module module = factory.types().dummyModule();
+		CollectionOfType sequenceOfType = factory.types().collectionOf( Family.SEQUENCE_OF );
+		sequenceOfType.setComponent( "item", UniversalType.INTEGER.ref() );
+		CollectionType sequenceType = factory.types().collection( Family.SEQUENCE );
+		sequenceType.addComponent( Kind.PRIMARY, "a", UniversalType.INTEGER.ref() );
+		sequenceType.addComponent( Kind.PRIMARY, "events", sequenceOfType );
+		sequenceType.addComponent( Kind.PRIMARY, "z", UniversalType.BOOLEAN.ref() );
+		type = factory.types().define( "My-Seq", sequenceType, null );
+		module.validate();
+		scope = type.createScope();
+
+		value = factory.values().collection( true );
+		value.addNamed( "a", factory.values().integer( 5 ) );
+		ValueCollection events = factory.values().collection( true );
+		events.addNamed( "item", factory.values().integer( 1 ) );
+		events.addNamed( "item", factory.values().integer( 2 ) );
+		value.addNamed( "events", events );
+		value.addNamed( "z", BooleanValue.TRUE );
+
+		byte[] definite = InputUtils.writeValue( scope, type, value );
+		byte[] indefinite = InputUtils.parseHex( INDEFINITE );
+		content = new byte[definite.length * 2 + indefinite.length];
+		System.arraycopy( definite, 0, content, 0, definite.length );
+		System.arraycopy( indefinite, 0, content, definite.length, indefinite.length );
+		System.arraycopy( definite, 0, content, definite.length + indefinite.length, definite.length );
+	}
+
+	@Test
+	public void testWhole() throws Exception
+	{
+		BerPushDecoder decoder = new BerPushDecoder( scope, type, new CoreValueFactory() );
+		assertValues( decoder.feed( ByteBuffer.wrap( content ) ) );
+		Assert.assertTrue( "Idle", decoder.isIdle() );
+		decoder.finish();
+	}
+
+	@Test
+	public void testChunks() throws Exception
+	{
+		for( int chunkSize = 1; chunkSize < 8; chunkSize++ )
+		{
+			BerPushDecoder decoder = new BerPushDecoder( scope, type, new CoreValueFactory() );
+			List<Value> values = new ArrayList<>();
+			for( int i = 0; i < content.length; i += chunkSize )
+				values.addAll( decoder.feed( ByteBuffer.wrap( content, i, Math.min( chunkSize, content.length - i ) ) ) );
+			assertValues( values );
+			decoder.finish();
+		}
+	}
+
+	@Test( expected = EOFException.class )
+	public void testIncomplete() throws Exception
+	{
+		BerPushDecoder decoder = new BerPushDecoder( scope, type, new CoreValueFactory() );
+		Assert.assertTrue( "No values", decoder.feed( ByteBuffer.wrap( Arrays.copyOf( content, 10 ) ) ).isEmpty() );
+		Assert.assertFalse( "Not idle", decoder.isIdle() );
+		decoder.finish();
+	}
+
+	@Test( expected = IOException.class )
+	public void testUnexpectedEoc() throws Exception
+	{
+		new BerPushDecoder( scope, type, new CoreValueFactory() ).feed( ByteBuffer.wrap( new byte[]{0, 0} ) );
+	}
+
+	@Test( expected = IOException.class )
+	public void testMaxContentSize() throws Exception
+	{
+		BerPushDecoder decoder = new BerPushDecoder( scope, type, new CoreValueFactory() );
+		decoder.setMaxContentSize( 1 );
+		// SEQUENCE { a 261 }
+		decoder.feed( ByteBuffer.wrap( InputUtils.parseHex( "300480020105" ) ) );
+	}
+
+	@Test
+	public void testInvalidTagOfIncompleteValue() throws Exception
+	{
+		BerPushDecoder decoder = new BerPushDecoder( scope, type, new CoreValueFactory() );
+		try
+		{
+			// OCTET STRING as element of events, value is not complete
+			decoder.feed( ByteBuffer.wrap( InputUtils.parseHex( "3080800105A180040101" ) ) );
+			Assert.fail( "Invalid tag must be detected before value is complete" );
+		} catch( IOException e )
+		{
+			Assert.assertTrue( "Message", e.getMessage().startsWith( "Invalid tag" ) );
+		}
+	}
+
+	@Test
+	public void testExplicitTagAndChoice() throws Exception
+	{
+		Asn1Factory factory = new DefaultAsn1Factory();
+		Module module = factory.types().dummyModule();
+		CollectionType choiceType = factory.types().collection( Family.CHOICE );
+		choiceType.addComponent( Kind.PRIMARY, "x", UniversalType.INTEGER.ref() );
+		choiceType.addComponent( Kind.PRIMARY, "y", UniversalType.BOOLEAN.ref() );
+		CollectionType sequenceType = factory.types().collection( Family.SEQUENCE );
+		TagEncoding encoding = TagEncoding.create( module.getTagMethod(), TagMethod.EXPLICIT, TagClass.CONTEXT_SPECIFIC, 5 );
+		sequenceType.addComponent( Kind.PRIMARY, "a", factory.types().tagged( encoding, UniversalType.INTEGER.ref() ) );
+		sequenceType.addComponent( Kind.PRIMARY, "c", choiceType );
+		DefinedType explicitType = factory.types().define( "My-Explicit", sequenceType, null );
+		module.validate();
+		Scope explicitScope = explicitType.createScope();
+
+		ValueCollection expected = factory.values().collection( true );
+		expected.addNamed( "a", factory.values().integer( 5 ) );
+		expected.addNamed( "c", factory.values().named( "y", BooleanValue.TRUE ) );
+		byte[] bytes = InputUtils.writeValue( explicitScope, explicitType, expected );
+
+		BerPushDecoder decoder = new BerPushDecoder( explicitScope, explicitType, new CoreValueFactory() );
+		List<Value> values = new ArrayList<>();
+		for( byte b : bytes )
+			values.addAll( decoder.feed( ByteBuffer.wrap( new byte[]{b} ) ) );
+		decoder.finish();
+		Assert.assertEquals( "Value count", 1, values.size() );
+		Assert.assertTrue( "Value", expected.isEqualTo( values.get( 0 ) ) );
+	}
+
+	private void assertValues( List<Value> values )
+	{
+		Assert.assertEquals( "Value count", 3, values.size() );
+		for( Value actual : values )
+			Assert.assertTrue( "Value", value.isEqualTo( actual ) );
+	}
+}
@@ -0,0 +1,151 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.ber.input;
+
+import org.asn1s.api.Asn1Factory;
+import org.asn1s.api.Scope;
+import org.asn1s.api.UniversalType;
+import org.asn1s.api.encoding.tag.TagClass;
+import org.asn1s.api.module.Module;
+import org.asn1s.api.type.CollectionOfType;
+import org.asn1s.api.type.CollectionType;
+import org.asn1s.api.type.ComponentType.Kind;
+import org.asn1s.api.type.DefinedType;
+import org.asn1s.api.type.Type.Family;
+import org.asn1s.api.value.Value;
+import org.asn1s.api.value.x680.BooleanValue;
+import org.asn1s.api.value.x680.ValueCollection;
+import org.asn1s.core.DefaultAsn1Factory;
+import org.asn1s.core.value.CoreValueFactory;
+import org.asn1s.io.ber.input.BerTokenizer.Event;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+public class BerTokenizerTest
+{
+	// SEQUENCE { a 5, events { 1, 2 }, z TRUE } using indefinite length forms, followed by INTEGER 7
+	private static final String INDEFINITE = "3080800105A18002010102010200008201FF0000020107";
+	// SEQUENCE { a 5, events { 1, 2 }, z TRUE }
+	private static final String DEFINITE = "300E800105A1060201010201028201FF";
+
+	@Test
+	public void testIndefiniteEvents() throws Exception
+	{
+		BerTokenizer tokenizer = new BerTokenizer( InputUtils.parseHex( INDEFINITE ) );
+		assertEvent( tokenizer, Event.START_CONSTRUCTED, 0, TagClass.UNIVERSAL, 16 );
+		Assert.assertEquals( "Indefinite", -1, tokenizer.getLength() );
+		assertEvent( tokenizer, Event.PRIMITIVE, 1, TagClass.CONTEXT_SPECIFIC, 0 );
+		Assert.assertEquals( "Content", ByteBuffer.wrap( new byte[]{5} ), tokenizer.getContent() );
+		assertEvent( tokenizer, Event.START_CONSTRUCTED, 1, TagClass.CONTEXT_SPECIFIC, 1 );
+		assertEvent( tokenizer, Event.PRIMITIVE, 2, TagClass.UNIVERSAL, 2 );
+		assertEvent( tokenizer, Event.PRIMITIVE, 2, TagClass.UNIVERSAL, 2 );
+		Assert.assertEquals( "End of events", Event.END_CONSTRUCTED, tokenizer.next() );
+		Assert.assertEquals( "Depth", 1, tokenizer.getDepth() );
+		assertEvent( tokenizer, Event.PRIMITIVE, 1, TagClass.CONTEXT_SPECIFIC, 2 );
+		Assert.assertEquals( "End of sequence", Event.END_CONSTRUCTED, tokenizer.next() );
+		Assert.assertEquals( "Depth", 0, tokenizer.getDepth() );
+		assertEvent( tokenizer, Event.PRIMITIVE, 0, TagClass.UNIVERSAL, 2 );
+		Assert.assertEquals( "Content offset", 22, tokenizer.getContentOffset() );
+		Assert.assertEquals( "End", Event.END_OF_INPUT, tokenizer.next() );
+	}
+
+	@Test
+	public void testSkipChildren() throws Exception
+	{
+		for( String hex : new String[]{INDEFINITE, DEFINITE} )
+		{
+			BerTokenizer tokenizer = new BerTokenizer( InputUtils.parseHex( hex ) );
+			tokenizer.next();
+			tokenizer.next();
+			assertEvent( tokenizer, Event.START_CONSTRUCTED, 1, TagClass.CONTEXT_SPECIFIC, 1 );
+			tokenizer.skipChildren();
+			assertEvent( tokenizer, Event.PRIMITIVE, 1, TagClass.CONTEXT_SPECIFIC, 2 );
+			Assert.assertEquals( "End of sequence", Event.END_CONSTRUCTED, tokenizer.next() );
+		}
+	}
+
+	@Test
+	public void testReadValue() throws Exception
+	{
+		Asn1Factory factory = new DefaultAsn1Factory();
+		Module module = factory.types().dummyModule();
+		CollectionOfType sequenceOfType = factory.types().collectionOf( Family.SEQUENCE_OF );
+		sequenceOfType.setComponent( "item", UniversalType.INTEGER.ref() );
+		CollectionType sequenceType = factory.types().collection( Family.SEQUENCE );
+		sequenceType.addComponent( Kind.PRIMARY, "a", UniversalType.INTEGER.ref() );
+		sequenceType.addComponent( Kind.PRIMARY, "events", sequenceOfType );
+		sequenceType.addComponent( Kind.PRIMARY, "z", UniversalType.BOOLEAN.ref() );
+		DefinedType type = factory.types().define( "My-Seq", sequenceType, null );
+		module.validate();
+		Scope scope = type.createScope();
+
+		ValueCollection expected = factory.values().collection( true );
+		expected.addNamed( "a", factory.values().integer( 5 ) );
+		ValueCollection events = factory.values().collection( true );
+		events.addNamed( "item", factory.values().integer( 1 ) );
+		events.addNamed( "item", factory.values().integer( 2 ) );
+		expected.addNamed( "events", events );
+		expected.addNamed( "z", BooleanValue.TRUE );
+
+		BerTokenizer tokenizer = new BerTokenizer( InputUtils.parseHex( INDEFINITE ) );
+		Assert.assertEquals( "Start", Event.START_CONSTRUCTED, tokenizer.next() );
+		Value value = tokenizer.readValue( scope, type, new CoreValueFactory() );
+		Assert.assertTrue( "Value", expected.isEqualTo( value ) );
+		assertEvent( tokenizer, Event.PRIMITIVE, 0, TagClass.UNIVERSAL, 2 );
+		Assert.assertTrue( "Integer", factory.values().integer( 7 ).isEqualTo( tokenizer.readValue( scope, UniversalType.INTEGER.ref(), new CoreValueFactory() ) ) );
+		Assert.assertEquals( "End", Event.END_OF_INPUT, tokenizer.next() );
+	}
+
+	@Test( expected = EOFException.class )
+	public void testTruncated() throws Exception
+	{
+		BerTokenizer tokenizer = new BerTokenizer( InputUtils.parseHex( DEFINITE.substring( 0, 20 ) ) );
+		tokenizer.next();
+		Assert.fail( "Must fail!" );
+	}
+
+	@Test( expected = IOException.class )
+	public void testUnexpectedEoc() throws Exception
+	{
+		BerTokenizer tokenizer = new BerTokenizer( InputUtils.parseHex( "300500000201050000" ) );
+		while( tokenizer.next() != Event.END_OF_INPUT )
+		{
+			// nothing to do
+		}
+		Assert.fail( "Must fail!" );
+	}
+
+	private static void assertEvent( BerTokenizer tokenizer, Event event, int depth, TagClass tagClass, long tagNumber ) throws IOException
+	{
+		Assert.assertEquals( "Event", event, tokenizer.next() );
+		Assert.assertEquals( "Depth", depth, tokenizer.getDepth() );
+		Assert.assertTrue( "Tag", tokenizer.isTag( tagClass, tagNumber ) );
+	}
+}
@@ -61,6 +61,21 @@ public class BitStringBerDecoderTest
 		}
 	}
 
+	@Test
+	public void testDecode_constructed() throws Exception
+	{
+		Scope scope = CoreModule.getInstance().createScope();
+		Type type = UniversalType.BIT_STRING.ref().resolve( scope );
+		Value expected = CoreUtils.byteArrayFromBitString( "'101011111111'b" );
+		byte[] result = {0x23, (byte)0x80, 0x03, 0x02, 0x00, (byte)0xAF, 0x03, 0x02, 0x04, (byte)0xF0, 0x00, 0x00};
+		try( ByteArrayInputStream is = new ByteArrayInputStream( result );
+		     Asn1Reader reader = new DefaultBerReader( is, new CoreValueFactory() ) )
+		{
+			Value value = reader.read( scope, type );
+			Assert.assertEquals( "Values are not equal", expected, value );
+		}
+	}
+
 	@Test( expected = AssertionError.class )
 	public void testDecode_fail_type() throws Exception
 	{
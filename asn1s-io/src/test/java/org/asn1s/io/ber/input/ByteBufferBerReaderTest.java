@@ -0,0 +1,141 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.ber.input;
+
+import org.asn1s.api.Asn1Factory;
+import org.asn1s.api.Scope;
+import org.asn1s.api.UniversalType;
+import org.asn1s.api.module.Module;
+import org.asn1s.api.type.CollectionType;
+import org.asn1s.api.type.ComponentType.Kind;
+import org.asn1s.api.type.DefinedType;
+import org.asn1s.api.type.Type.Family;
+import org.asn1s.api.value.Value;
+import org.asn1s.api.value.x680.ValueCollection;
+import org.asn1s.core.DefaultAsn1Factory;
+import org.asn1s.core.value.CoreValueFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+
+public class ByteBufferBerReaderTest
+{
+	@Test
+	public void testHeapBuffer() throws Exception
+	{
+		Fixture fixture = new Fixture();
+		try( ByteBufferBerReader reader = new ByteBufferBerReader( ByteBuffer.wrap( fixture.content ), new CoreValueFactory() ) )
+		{
+			fixture.assertRead( reader );
+		}
+	}
+
+	@Test
+	public void testDirectBuffer() throws Exception
+	{
+		Fixture fixture = new Fixture();
+		ByteBuffer buffer = ByteBuffer.allocateDirect( fixture.content.length + 2 );
+		buffer.put( new byte[]{1, 2} );
+		buffer.put( fixture.content );
+		buffer.flip();
+		buffer.position( 2 );
+		try( ByteBufferBerReader reader = new ByteBufferBerReader( buffer, new CoreValueFactory() ) )
+		{
+			fixture.assertRead( reader );
+		}
+	}
+
+	@Test
+	public void testChannel() throws Exception
+	{
+		Fixture fixture = new Fixture();
+		try( ByteBufferBerReader reader = new ByteBufferBerReader( Channels.newChannel( new ByteArrayInputStream( fixture.content ) ), 7, new CoreValueFactory() ) )
+		{
+			fixture.assertRead( reader );
+		}
+	}
+
+	@Test( expected = EOFException.class )
+	public void testTruncated() throws Exception
+	{
+		Fixture fixture = new Fixture();
+		byte[] content = Arrays.copyOf( fixture.content, fixture.content.length / 2 - 1 );
+		try( ByteBufferBerReader reader = new ByteBufferBerReader( Channels.newChannel( new ByteArrayInputStream( content ) ), new CoreValueFactory() ) )
+		{
+			reader.read( fixture.scope, fixture.type );
+			Assert.fail( "Must fail!" );
+		}
+	}
+
+	private static final class Fixture
+	{
+		private Fixture() throws Exception
+		{
+			Asn1Factory factory = new DefaultAsn1Factory();
+			Module module = factory.types().dummyModule();
+
+			CollectionType sequenceType = factory.types().collection( Family.SEQUENCE );
+			sequenceType.addComponent( Kind.PRIMARY, "a", UniversalType.INTEGER.ref() );
+			sequenceType.addComponent( Kind.PRIMARY, "b", UniversalType.OCTET_STRING.ref() );
+			sequenceType.addComponent( Kind.PRIMARY, "c", UniversalType.OBJECT_IDENTIFIER.ref() );
+			type = factory.types().define( "My-Seq", sequenceType, null );
+			module.validate();
+
+			byte[] bytes = new byte[300];
+			Arrays.fill( bytes, (byte)0x5A );
+			ValueCollection collection = factory.values().collection( true );
+			collection.addNamed( "a", factory.values().integer( 100500 ) );
+			collection.addNamed( "b", factory.values().byteArrayValue( bytes.length * Byte.SIZE, bytes ) );
+			scope = type.createScope();
+			Value oid = factory.values().objectIdentifier( Arrays.asList( factory.values().integer( 1 ), factory.values().integer( 2 ), factory.values().integer( 840 ) ) );
+			collection.addNamed( "c", UniversalType.OBJECT_IDENTIFIER.ref().resolve( scope ).optimize( scope, oid ) );
+			value = collection;
+
+			byte[] single = InputUtils.writeValue( scope, type, value );
+			content = new byte[single.length * 2];
+			System.arraycopy( single, 0, content, 0, single.length );
+			System.arraycopy( single, 0, content, single.length, single.length );
+		}
+
+		private final DefinedType type;
+		private final Value value;
+		private final Scope scope;
+		private final byte[] content;
+
+		private void assertRead( ByteBufferBerReader reader ) throws Exception
+		{
+			Assert.assertTrue( "First value", value.isEqualTo( reader.read( scope, type ) ) );
+			Assert.assertEquals( "Position", content.length / 2, reader.position() );
+			Assert.assertTrue( "Second value", value.isEqualTo( reader.read( scope, type ) ) );
+			Assert.assertTrue( "End of input", reader.isEndOfInput() );
+		}
+	}
+}
@@ -0,0 +1,119 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.ber.input;
+
+import org.asn1s.api.Scope;
+import org.asn1s.api.UniversalType;
+import org.asn1s.api.encoding.tag.Tag;
+import org.asn1s.api.encoding.tag.TagClass;
+import org.asn1s.api.type.ComponentType.Kind;
+import org.asn1s.api.value.Value;
+import org.asn1s.api.value.x680.BooleanValue;
+import org.asn1s.api.value.x680.ValueCollection;
+import org.asn1s.core.module.CoreModule;
+import org.asn1s.core.type.x680.collection.ChoiceType;
+import org.asn1s.core.type.x680.collection.SequenceType;
+import org.asn1s.core.value.CoreValueFactory;
+import org.asn1s.core.value.x680.IntegerValueInt;
+import org.asn1s.core.value.x680.NamedValueImpl;
+import org.asn1s.core.value.x680.ValueCollectionImpl;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+
+public class CollectionDecodePlanTest
+{
+	private static final Tag INTEGER = new Tag( TagClass.UNIVERSAL, false, UniversalType.INTEGER.tagNumber() );
+	private static final Tag BOOLEAN = new Tag( TagClass.UNIVERSAL, false, UniversalType.BOOLEAN.tagNumber() );
+	private static final Tag OCTET_STRING = new Tag( TagClass.UNIVERSAL, false, UniversalType.OCTET_STRING.tagNumber() );
+
+	private Scope scope;
+	private SequenceType type;
+
+	@Before
+	public void setUp() throws Exception
+	{
+		// SEQUENCE { a INTEGER, c CHOICE { x BOOLEAN, y OCTET STRING }, d INTEGER OPTIONAL }
+		scope = CoreModule.getInstance().createScope();
+		ChoiceType choiceType = new ChoiceType( false );
+		choiceType.addComponent( Kind.PRIMARY, "x", UniversalType.BOOLEAN.ref() );
+		choiceType.addComponent( Kind.PRIMARY, "y", UniversalType.OCTET_STRING.ref() );
+		type = new SequenceType( false );
+		type.addComponent( Kind.PRIMARY, "a", UniversalType.INTEGER.ref() );
+		type.addComponent( Kind.PRIMARY, "c", choiceType );
+		type.addComponent( Kind.PRIMARY, "d", UniversalType.INTEGER.ref() ).setOptional( true );
+		type.setNamespace( "A." );
+		type.validate( scope );
+	}
+
+	@Test
+	public void testDispatch()
+	{
+		CollectionDecodePlan plan = CollectionDecodePlan.create( type );
+		Assert.assertEquals( "Component count", 3, plan.getComponentCount() );
+		Assert.assertEquals( "First INTEGER", 0, plan.findNext( INTEGER, -1 ) );
+		Assert.assertEquals( "Second INTEGER", 2, plan.findNext( INTEGER, 0 ) );
+		Assert.assertEquals( "No more INTEGER", -1, plan.findNext( INTEGER, 2 ) );
+		Assert.assertEquals( "Untagged CHOICE by BOOLEAN", 1, plan.findNext( BOOLEAN, -1 ) );
+		Assert.assertEquals( "Untagged CHOICE by OCTET STRING", 1, plan.findNext( OCTET_STRING, -1 ) );
+		Assert.assertEquals( "Unknown tag", -1, plan.findNext( new Tag( TagClass.CONTEXT_SPECIFIC, false, 0 ), -1 ) );
+
+		long[] presence = plan.newPresence();
+		CollectionDecodePlan.setPresent( presence, 0 );
+		Assert.assertEquals( "Absent INTEGER", 2, plan.findAbsent( INTEGER, presence ) );
+		Assert.assertEquals( "Missing component", "c", plan.findMissing( presence ).getComponentName() );
+		CollectionDecodePlan.setPresent( presence, 1 );
+		Assert.assertNull( "Optional component is not required", plan.findMissing( presence ) );
+	}
+
+	@Test
+	public void testDecode() throws Exception
+	{
+		ValueCollection expected = new ValueCollectionImpl( true );
+		expected.add( new NamedValueImpl( "a", new IntegerValueInt( 1 ) ) );
+		expected.add( new NamedValueImpl( "c", new NamedValueImpl( "x", BooleanValue.TRUE ) ) );
+		expected.add( new NamedValueImpl( "d", new IntegerValueInt( 2 ) ) );
+
+		byte[] result = InputUtils.writeValue( scope, type, expected );
+		try( ByteArrayInputStream is = new ByteArrayInputStream( result );
+		     AbstractBerReader reader = new DefaultBerReader( is, new CoreValueFactory() ) )
+		{
+			Value value = reader.read( scope, type );
+			Assert.assertEquals( "Values are not equal", expected, value );
+			Assert.assertSame( "Plan is cached", reader.getDecodePlan( type ), reader.getDecodePlan( type ) );
+		}
+
+		try( ByteArrayInputStream is = new ByteArrayInputStream( result );
+		     AbstractBerReader reader = new DefaultBerReader( is, new CoreValueFactory() ) )
+		{
+			Assert.assertEquals( "Values are not equal", expected, reader.read( scope, type ) );
+			Assert.assertSame( "Plan is shared by readers", CollectionDecodePlan.forType( type ), reader.getDecodePlan( type ) );
+			Assert.assertSame( "Plan is cached on type", type.getCodecAttachment(), reader.getDecodePlan( type ) );
+		}
+	}
+}
@@ -29,6 +29,7 @@ import org.asn1s.api.Ref;
 import org.asn1s.api.Scope;
 import org.asn1s.api.type.Type;
 import org.asn1s.api.value.Value;
+import org.asn1s.core.CoreUtils;
 import org.asn1s.io.Asn1Writer;
 import org.asn1s.io.ber.BerRules;
 import org.asn1s.io.ber.output.DefaultBerWriter;
@@ -48,4 +49,9 @@ final class InputUtils
 			return writer.toByteArray();
 		}
 	}
+
+	static byte[] parseHex( @NotNull String hex )
+	{
+		return CoreUtils.byteArrayFromHexString( '\'' + hex + "'H" ).asByteArray();
+	}
 }
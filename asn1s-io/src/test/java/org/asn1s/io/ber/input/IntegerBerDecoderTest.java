@@ -39,6 +39,7 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
@@ -60,6 +61,38 @@ public class IntegerBerDecoderTest
 		}
 	}
 
+	@Test
+	public void testDecode_sizes() throws Exception
+	{
+		Scope scope = CoreModule.getInstance().createScope();
+		Type type = UniversalType.INTEGER.ref().resolve( scope );
+		long[] samples = {0, -1, 127, -128, 128, Integer.MAX_VALUE, Integer.MIN_VALUE, 1L << 40, -( 1L << 40 ), Long.MAX_VALUE, Long.MIN_VALUE};
+		for( long sample : samples )
+		{
+			Value expected = new CoreValueFactory().integer( sample );
+			byte[] result = InputUtils.writeValue( scope, type, expected );
+			try( ByteArrayInputStream is = new ByteArrayInputStream( result );
+			     AbstractBerReader reader = new DefaultBerReader( is, new CoreValueFactory() ) )
+			{
+				Value value = reader.read( scope, type );
+				Assert.assertEquals( "Values are not equal", sample, value.toIntegerValue().asLong() );
+			}
+		}
+	}
+
+	@Test( expected = IOException.class )
+	public void testDecode_eof() throws Exception
+	{
+		Scope scope = CoreModule.getInstance().createScope();
+		Type type = UniversalType.INTEGER.ref().resolve( scope );
+		try( ByteArrayInputStream is = new ByteArrayInputStream( new byte[]{2, 4, 1, 2} );
+		     AbstractBerReader reader = new DefaultBerReader( is, new CoreValueFactory() ) )
+		{
+			reader.read( scope, type );
+			fail( "Must fail" );
+		}
+	}
+
 	@Test( expected = AssertionError.class )
 	public void testDecode_fail_type() throws Exception
 	{
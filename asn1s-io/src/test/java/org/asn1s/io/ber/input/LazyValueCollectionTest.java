@@ -0,0 +1,180 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.ber.input;
+
+import org.asn1s.api.Asn1Factory;
+import org.asn1s.api.Scope;
+import org.asn1s.api.UniversalType;
+import org.asn1s.api.constraint.ConstraintTemplate;
+import org.asn1s.api.exception.ConstraintViolationException;
+import org.asn1s.api.module.Module;
+import org.asn1s.api.type.CollectionOfType;
+import org.asn1s.api.type.CollectionType;
+import org.asn1s.api.type.ComponentType.Kind;
+import org.asn1s.api.type.DefinedType;
+import org.asn1s.api.type.Type.Family;
+import org.asn1s.api.value.Value;
+import org.asn1s.api.value.x680.ValueCollection;
+import org.asn1s.core.DefaultAsn1Factory;
+import org.asn1s.core.value.CoreValueFactory;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+
+public class LazyValueCollectionTest
+{
+	private Asn1Factory factory;
+	private DefinedType type;
+	private Scope scope;
+	private ValueCollection value;
+	private byte[] content;
+
+	@Before
+	public void setUp() throws Exception
+	{
+		factory = new DefaultAsn1Factory();
+		Module module = factory.types().dummyModule();
+
+		CollectionType innerType = factory.types().collection( Family.SEQUENCE );
+		innerType.addComponent( Kind.PRIMARY, "x", UniversalType.INTEGER.ref() );
+		innerType.addComponent( Kind.PRIMARY, "y", UniversalType.OCTET_STRING.ref() );
+
+		CollectionOfType listType = factory.types().collectionOf( Family.SEQUENCE_OF );
+		listType.setComponent( "item", UniversalType.INTEGER.ref() );
+
+		CollectionType sequenceType = factory.types().collection( Family.SEQUENCE );
+		sequenceType.addComponent( Kind.PRIMARY, "a", UniversalType.INTEGER.ref() );
+		sequenceType.addComponent( Kind.PRIMARY, "b", UniversalType.OCTET_STRING.ref() );
+		sequenceType.addComponent( Kind.PRIMARY, "inner", innerType );
+		sequenceType.addComponent( Kind.PRIMARY, "list", listType );
+		type = factory.types().define( "My-Seq", sequenceType, null );
+		module.validate();
+		scope = type.createScope();
+
+		ValueCollection inner = factory.values().collection( true );
+		inner.addNamed( "x", factory.values().integer( 42 ) );
+		inner.addNamed( "y", factory.values().byteArrayValue( 16, new byte[]{1, 2} ) );
+		ValueCollection list = factory.values().collection( true );
+		list.addNamed( "item", factory.values().integer( 1 ) );
+		list.addNamed( "item", factory.values().integer( 2 ) );
+
+		value = factory.values().collection( true );
+		value.addNamed( "a", factory.values().integer( 100500 ) );
+		value.addNamed( "b", factory.values().byteArrayValue( 24, new byte[]{3, 4, 5} ) );
+		value.addNamed( "inner", inner );
+		value.addNamed( "list", list );
+		content = InputUtils.writeValue( scope, type, value );
+	}
+
+	@Test
+	public void testDeferredComponents() throws Exception
+	{
+		try( ByteBufferBerReader reader = new ByteBufferBerReader( ByteBuffer.wrap( content ), new CoreValueFactory() ) )
+		{
+			reader.setLazyCollections( true );
+			Value result = reader.read( scope, type );
+			Assert.assertTrue( "Must be lazy", result instanceof LazyValueCollection );
+			LazyValueCollection collection = (LazyValueCollection)result;
+			Assert.assertEquals( "Size", 4, collection.size() );
+			Assert.assertTrue( "a is deferred", collection.isDeferred( "a" ) );
+			Assert.assertTrue( "inner is deferred", collection.isDeferred( "inner" ) );
+
+			Value inner = (Value)collection.getNamedValue( "inner" ).getValueRef();
+			Assert.assertFalse( "inner is decoded", collection.isDeferred( "inner" ) );
+			Assert.assertTrue( "a is still deferred", collection.isDeferred( "a" ) );
+			Assert.assertTrue( "Nested collection must be lazy", inner instanceof LazyValueCollection );
+			Assert.assertTrue( "x is deferred", ( (LazyValueCollection)inner ).isDeferred( "x" ) );
+			Assert.assertSame( "Memoised", inner, collection.getNamedValue( "inner" ).getValueRef() );
+
+			Assert.assertTrue( "Value", value.isEqualTo( result ) );
+			Assert.assertFalse( "a is decoded", collection.isDeferred( "a" ) );
+		}
+	}
+
+	@Test
+	public void testStreamFallback() throws Exception
+	{
+		try( DefaultBerReader reader = new DefaultBerReader( new ByteArrayInputStream( content ), new CoreValueFactory() ) )
+		{
+			reader.setLazyCollections( true );
+			Value result = reader.read( scope, type );
+			Assert.assertTrue( "Value", value.isEqualTo( result ) );
+			Assert.assertFalse( "Stream reader does not support slicing", ( (LazyValueCollection)result ).isDeferred( "a" ) );
+		}
+	}
+
+	@Test
+	public void testEquality() throws Exception
+	{
+		Value plain = read( false );
+		Value first = read( true );
+		Value second = read( true );
+		Assert.assertEquals( "Lazy collections", first, second );
+		Assert.assertEquals( "Plain collection", first, plain );
+		Assert.assertEquals( "Hash code", plain.hashCode(), first.hashCode() );
+	}
+
+	private Value read( boolean lazy ) throws Exception
+	{
+		try( ByteBufferBerReader reader = new ByteBufferBerReader( ByteBuffer.wrap( content ), new CoreValueFactory() ) )
+		{
+			reader.setLazyCollections( lazy );
+			return reader.read( scope, type );
+		}
+	}
+
+	@Test
+	public void testCompleteCollectionValidated() throws Exception
+	{
+		Module module = factory.types().dummyModule();
+		CollectionType sequenceType = factory.types().collection( Family.SEQUENCE );
+		ConstraintTemplate range = factory.constraints().valueRange( factory.values().integer( 0 ), false, factory.values().integer( 7 ), false );
+		sequenceType.addComponent( Kind.PRIMARY, "a", factory.types().constrained( range, UniversalType.INTEGER.ref() ) );
+		DefinedType constrainedType = factory.types().define( "My-Constrained", sequenceType, null );
+		module.validate();
+		Scope constrainedScope = constrainedType.createScope();
+		// SEQUENCE { a 100 }
+		byte[] bytes = {0x30, 0x03, (byte)0x80, 0x01, 0x64};
+
+		try( ByteBufferBerReader reader = new ByteBufferBerReader( ByteBuffer.wrap( bytes ), new CoreValueFactory() ) )
+		{
+			reader.setLazyCollections( true );
+			Assert.assertTrue( "Deferred collection is not validated", reader.read( constrainedScope, constrainedType ) instanceof LazyValueCollection );
+		}
+
+		try( DefaultBerReader reader = new DefaultBerReader( new ByteArrayInputStream( bytes ), new CoreValueFactory() ) )
+		{
+			reader.setLazyCollections( true );
+			reader.read( constrainedScope, constrainedType );
+			Assert.fail( "Collection without deferred components must be validated" );
+		} catch( ConstraintViolationException ignored )
+		{
+		}
+	}
+}
@@ -0,0 +1,137 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.ber.input;
+
+import org.asn1s.api.Asn1Factory;
+import org.asn1s.api.Ref;
+import org.asn1s.api.Scope;
+import org.asn1s.api.UniversalType;
+import org.asn1s.api.module.Module;
+import org.asn1s.api.type.CollectionType;
+import org.asn1s.api.type.ComponentType.Kind;
+import org.asn1s.api.type.DefinedType;
+import org.asn1s.api.type.Type.Family;
+import org.asn1s.api.value.Value;
+import org.asn1s.api.value.x680.ValueCollection;
+import org.asn1s.core.DefaultAsn1Factory;
+import org.asn1s.core.value.CoreValueFactory;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+public class MappedBerReaderTest
+{
+	private Asn1Factory factory;
+	private DefinedType type;
+	private Scope scope;
+	private Value value;
+	private int length;
+	private Path file;
+
+	@Before
+	public void setUp() throws Exception
+	{
+		factory = new DefaultAsn1Factory();
+		Module module = factory.types().dummyModule();
+
+		CollectionType sequenceType = factory.types().collection( Family.SEQUENCE );
+		sequenceType.addComponent( Kind.PRIMARY, "a", UniversalType.INTEGER.ref() );
+		sequenceType.addComponent( Kind.PRIMARY, "b", UniversalType.OCTET_STRING.ref() );
+		type = factory.types().define( "My-Seq", sequenceType, null );
+		module.validate();
+
+		byte[] bytes = new byte[300];
+		for( int i = 0; i < bytes.length; i++ )
+			bytes[i] = (byte)i;
+		ValueCollection collection = factory.values().collection( true );
+		collection.addNamed( "a", factory.values().integer( 100500 ) );
+		collection.addNamed( "b", factory.values().byteArrayValue( bytes.length * Byte.SIZE, bytes ) );
+		value = collection;
+		scope = type.createScope();
+
+		byte[] single = InputUtils.writeValue( scope, type, value );
+		length = single.length;
+		file = Files.createTempFile( "asn1s-mapped", ".ber" );
+		Files.write( file, single );
+		Files.write( file, single, StandardOpenOption.APPEND );
+	}
+
+	@After
+	public void tearDown() throws Exception
+	{
+		Files.deleteIfExists( file );
+	}
+
+	@Test
+	public void testSmallSegments() throws Exception
+	{
+		try( MappedBerReader reader = new MappedBerReader( FileChannel.open( file ), 7, new CoreValueFactory() ) )
+		{
+			Assert.assertTrue( "First value", value.isEqualTo( reader.read( scope, type ) ) );
+			Assert.assertEquals( "Position", length, reader.position() );
+			Assert.assertTrue( "Second value", value.isEqualTo( reader.read( scope, type ) ) );
+			Assert.assertTrue( "End of input", reader.isEndOfInput() );
+		}
+	}
+
+	@Test
+	public void testZeroCopy() throws Exception
+	{
+		try( MappedBerReader reader = new MappedBerReader( FileChannel.open( file ), 512, new CoreValueFactory() ) )
+		{
+			reader.setZeroCopyOctetStrings( true );
+			for( int i = 0; i < 2; i++ )
+			{
+				Value result = reader.read( scope, type );
+				Assert.assertTrue( "Value #" + i, value.isEqualTo( result ) );
+				Ref<Value> octets = result.toValueCollection().getNamedValue( "b" ).getValueRef();
+				Assert.assertTrue( "Must be slice", octets instanceof ByteBufferValue );
+				Assert.assertEquals( "Slice size", 300, ( (ByteBufferValue)octets ).getBuffer().remaining() );
+			}
+		}
+	}
+
+	@Test
+	public void testSeek() throws Exception
+	{
+		try( MappedBerReader reader = new MappedBerReader( file, new CoreValueFactory() ) )
+		{
+			reader.seek( length );
+			Assert.assertTrue( "Value", value.isEqualTo( reader.read( scope, type ) ) );
+			Assert.assertTrue( "End of input", reader.isEndOfInput() );
+			reader.seek( 0L );
+			Assert.assertTrue( "Value again", value.isEqualTo( reader.read( scope, type ) ) );
+			Assert.assertFalse( "Not end of input", reader.isEndOfInput() );
+		}
+	}
+}
@@ -40,6 +40,7 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
@@ -76,6 +77,35 @@ public class OctetStringBerDecoderTest
 		}
 	}
 
+	@Test
+	public void testDecode_constructed() throws Exception
+	{
+		Scope scope = CoreModule.getInstance().createScope();
+		Type type = UniversalType.OCTET_STRING.ref().resolve( scope );
+		Value expected = CoreUtils.byteArrayFromHexString( "'AFF011'H" );
+		byte[] result = {0x24, (byte)0x80, 0x04, 0x02, (byte)0xAF, (byte)0xF0, 0x24, 0x03, 0x04, 0x01, 0x11, 0x00, 0x00};
+		try( ByteArrayInputStream is = new ByteArrayInputStream( result );
+		     Asn1Reader reader = new DefaultBerReader( is, new CoreValueFactory() ) )
+		{
+			Value value = reader.read( scope, type );
+			Assert.assertEquals( "Values are not equal", expected, value );
+		}
+	}
+
+	@Test( expected = IOException.class )
+	public void testDecode_constructed_fail_segment() throws Exception
+	{
+		Scope scope = CoreModule.getInstance().createScope();
+		Type type = UniversalType.OCTET_STRING.ref().resolve( scope );
+		byte[] result = {0x24, (byte)0x80, 0x03, 0x02, 0x00, (byte)0xAF, 0x00, 0x00};
+		try( ByteArrayInputStream is = new ByteArrayInputStream( result );
+		     Asn1Reader reader = new DefaultBerReader( is, new CoreValueFactory() ) )
+		{
+			reader.read( scope, type );
+			fail( "Must fail" );
+		}
+	}
+
 	@Test( expected = AssertionError.class )
 	public void testDecode_fail_type() throws Exception
 	{
@@ -0,0 +1,163 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.ber.input;
+
+import org.asn1s.api.Asn1Factory;
+import org.asn1s.api.Scope;
+import org.asn1s.api.UniversalType;
+import org.asn1s.api.module.Module;
+import org.asn1s.api.type.CollectionOfType;
+import org.asn1s.api.type.CollectionType;
+import org.asn1s.api.type.ComponentType.Kind;
+import org.asn1s.api.type.DefinedType;
+import org.asn1s.api.type.Type.Family;
+import org.asn1s.api.value.Value;
+import org.asn1s.api.value.x680.ValueCollection;
+import org.asn1s.core.DefaultAsn1Factory;
+import org.asn1s.core.value.CoreValueFactory;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ForkJoinPool;
+
+public class ParallelElementDecoderTest
+{
+	private static final int ELEMENT_COUNT = 5000;
+
+	private final ForkJoinPool pool = new ForkJoinPool( 4 );
+	private Asn1Factory factory;
+	private Module module;
+
+	@Before
+	public void setUp() throws Exception
+	{
+		factory = new DefaultAsn1Factory();
+		module = factory.types().dummyModule();
+	}
+
+	@After
+	public void tearDown()
+	{
+		pool.shutdown();
+	}
+
+	@Test
+	public void testSequenceOf() throws Exception
+	{
+		assertParallel( Family.SEQUENCE_OF );
+	}
+
+	@Test
+	public void testSetOf() throws Exception
+	{
+		assertParallel( Family.SET_OF );
+	}
+
+	@Test
+	public void testShortContent() throws Exception
+	{
+		DefinedType type = createType( Family.SEQUENCE_OF );
+		Scope scope = type.createScope();
+		ValueCollection expected = createValue();
+		byte[] content = InputUtils.writeValue( scope, type, expected );
+
+		// content is too short for threshold, elements are decoded by calling thread without scanning
+		AbstractBerReader reader = createReader( content );
+		reader.setParallelThreshold( content.length );
+		Assert.assertFalse( "Must not be applicable", ParallelElementDecoder.isApplicable( reader, content.length ) );
+		Assert.assertEquals( "Values are not equal", expected, reader.read( scope, type ) );
+	}
+
+	@Test
+	public void testHugeContent()
+	{
+		// content over 2GB can not be sliced, so it is decoded sequentially
+		AbstractBerReader reader = createReader( new byte[0] );
+		Assert.assertTrue( "Must be applicable", ParallelElementDecoder.isApplicable( reader, Integer.MAX_VALUE ) );
+		Assert.assertFalse( "Must not be applicable", ParallelElementDecoder.isApplicable( reader, Integer.MAX_VALUE + 1L ) );
+	}
+
+	@Test( expected = IOException.class )
+	public void testCorrupted() throws Exception
+	{
+		DefinedType type = createType( Family.SEQUENCE_OF );
+		Scope scope = type.createScope();
+		byte[] content = InputUtils.writeValue( scope, type, createValue() );
+		// break length of last element's OCTET STRING, so it runs out of its element
+		content[content.length - 4] = 0x7F;
+		createReader( content ).read( scope, type );
+	}
+
+	private void assertParallel( Family family ) throws Exception
+	{
+		DefinedType type = createType( family );
+		Scope scope = type.createScope();
+		ValueCollection expected = createValue();
+		byte[] content = InputUtils.writeValue( scope, type, expected );
+
+		AbstractBerReader reader = createReader( content );
+		Value value = reader.read( scope, type );
+		Assert.assertEquals( "Values are not equal", expected, value );
+		Assert.assertTrue( "Must read all", ( (ByteBufferBerReader)reader ).isEndOfInput() );
+	}
+
+	private AbstractBerReader createReader( byte[] content )
+	{
+		AbstractBerReader reader = new ByteBufferBerReader( ByteBuffer.wrap( content ), new CoreValueFactory() );
+		reader.setParallelPool( pool );
+		reader.setParallelThreshold( 16 );
+		return reader;
+	}
+
+	private DefinedType createType( Family family ) throws Exception
+	{
+		CollectionType recordType = factory.types().collection( Family.SEQUENCE );
+		recordType.addComponent( Kind.PRIMARY, "id", UniversalType.INTEGER.ref() );
+		recordType.addComponent( Kind.PRIMARY, "data", UniversalType.OCTET_STRING.ref() );
+		CollectionOfType collectionOfType = factory.types().collectionOf( family );
+		collectionOfType.setComponent( "record", recordType );
+		DefinedType type = factory.types().define( "Records", collectionOfType, null );
+		module.validate();
+		return type;
+	}
+
+	private ValueCollection createValue()
+	{
+		ValueCollection collection = factory.values().collection( true );
+		for( int i = 0; i < ELEMENT_COUNT; i++ )
+		{
+			ValueCollection record = factory.values().collection( true );
+			record.addNamed( "id", factory.values().integer( i ) );
+			record.addNamed( "data", factory.values().byteArrayValue( 16, new byte[]{(byte)i, (byte)( i >> 8 )} ) );
+			collection.addNamed( "record", record );
+		}
+		return collection;
+	}
+}
@@ -0,0 +1,142 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.ber.input;
+
+import org.asn1s.api.Asn1Factory;
+import org.asn1s.api.Scope;
+import org.asn1s.api.UniversalType;
+import org.asn1s.api.module.Module;
+import org.asn1s.api.type.CollectionOfType;
+import org.asn1s.api.type.CollectionType;
+import org.asn1s.api.type.ComponentType.Kind;
+import org.asn1s.api.type.DefinedType;
+import org.asn1s.api.type.Type.Family;
+import org.asn1s.api.value.Value;
+import org.asn1s.api.value.x680.BooleanValue;
+import org.asn1s.api.value.x680.ValueCollection;
+import org.asn1s.core.DefaultAsn1Factory;
+import org.asn1s.core.value.CoreValueFactory;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SequenceOfIteratorTest
+{
+	private Asn1Factory factory;
+	private DefinedType type;
+	private DefinedType listType;
+	private Scope scope;
+
+	@Before
+	public void setUp() throws Exception
+	{
+		factory = new DefaultAsn1Factory();
+		Module module = factory.types().dummyModule();
+
+		CollectionOfType sequenceOfType = factory.types().collectionOf( Family.SEQUENCE_OF );
+		sequenceOfType.setComponent( "item", UniversalType.INTEGER.ref() );
+		listType = factory.types().define( "My-List", sequenceOfType, null );
+
+		CollectionType sequenceType = factory.types().collection( Family.SEQUENCE );
+		sequenceType.addComponent( Kind.PRIMARY, "a", UniversalType.INTEGER.ref() );
+		sequenceType.addComponent( Kind.PRIMARY, "events", listType.toRef() );
+		sequenceType.addComponent( Kind.PRIMARY, "z", UniversalType.BOOLEAN.ref() );
+		type = factory.types().define( "My-Seq", sequenceType, null );
+		module.validate();
+		scope = type.createScope();
+	}
+
+	@Test
+	public void testDefinite() throws Exception
+	{
+		ValueCollection value = factory.values().collection( true );
+		value.addNamed( "a", factory.values().integer( 5 ) );
+		ValueCollection events = factory.values().collection( true );
+		for( int i = 0; i < 100; i++ )
+			events.addNamed( "item", factory.values().integer( i ) );
+		value.addNamed( "events", events );
+		value.addNamed( "z", BooleanValue.TRUE );
+
+		byte[] single = InputUtils.writeValue( scope, type, value );
+		byte[] content = new byte[single.length * 2];
+		System.arraycopy( single, 0, content, 0, single.length );
+		System.arraycopy( single, 0, content, single.length, single.length );
+
+		try( DefaultBerReader reader = new DefaultBerReader( new ByteArrayInputStream( content ), new CoreValueFactory() ) )
+		{
+			List<Value> list = collect( reader.readSequenceOf( scope, type, "events" ) );
+			Assert.assertEquals( "Size", 100, list.size() );
+			for( int i = 0; i < 100; i++ )
+				Assert.assertTrue( "Element #" + i, ( (Value)events.asValueList().get( i ) ).isEqualTo( list.get( i ) ) );
+			Assert.assertEquals( "Position", single.length, reader.position() );
+			Assert.assertTrue( "Second value", value.isEqualTo( reader.read( scope, type ) ) );
+		}
+	}
+
+	@Test
+	public void testIndefinite() throws Exception
+	{
+		// SEQUENCE { a 5, events { 1, 2 }, z TRUE } using indefinite length forms, followed by INTEGER 7
+		byte[] content = InputUtils.parseHex( "3080800105A18002010102010200008201FF0000020107" );
+		try( ByteBufferBerReader reader = new ByteBufferBerReader( ByteBuffer.wrap( content ), new CoreValueFactory() ) )
+		{
+			List<Value> list = collect( reader.readSequenceOf( scope, type, "events" ) );
+			Assert.assertEquals( "Size", 2, list.size() );
+			Assert.assertEquals( "Position", content.length - 3, reader.position() );
+		}
+	}
+
+	@Test
+	public void testTopLevel() throws Exception
+	{
+		ValueCollection events = factory.values().collection( true );
+		events.addNamed( "item", factory.values().integer( 1 ) );
+		events.addNamed( "item", factory.values().integer( 2 ) );
+		Scope listScope = listType.createScope();
+		byte[] content = InputUtils.writeValue( listScope, listType, events );
+		try( DefaultBerReader reader = new DefaultBerReader( new ByteArrayInputStream( content ), new CoreValueFactory() ) )
+		{
+			SequenceOfIterator iterator = reader.readSequenceOf( listScope, listType, null );
+			Assert.assertTrue( "First", iterator.hasNext() );
+			Assert.assertTrue( "Element 1", ( (Value)events.asValueList().get( 0 ) ).isEqualTo( iterator.next() ) );
+			Assert.assertTrue( "Element 2", ( (Value)events.asValueList().get( 1 ) ).isEqualTo( iterator.next() ) );
+			Assert.assertFalse( "No more elements", iterator.hasNext() );
+			Assert.assertEquals( "Position", content.length, reader.position() );
+		}
+	}
+
+	private static List<Value> collect( SequenceOfIterator iterator )
+	{
+		List<Value> list = new ArrayList<>();
+		iterator.forEachRemaining( list::add );
+		return list;
+	}
+}
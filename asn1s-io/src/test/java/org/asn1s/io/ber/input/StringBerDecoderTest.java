@@ -34,9 +34,14 @@ import org.asn1s.api.type.Type;
 import org.asn1s.api.value.Value;
 import org.asn1s.api.value.ValueFactory;
 import org.asn1s.core.module.CoreModule;
+import org.asn1s.core.value.CoreValueFactory;
 import org.asn1s.core.value.x680.StringValueImpl;
+import org.asn1s.io.Asn1Reader;
+import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.*;
@@ -69,6 +74,20 @@ public class StringBerDecoderTest
 		}
 	}
 
+	@Test
+	public void testDecode_constructed() throws Exception
+	{
+		Scope scope = CoreModule.getInstance().createScope();
+		Type type = UniversalType.UTF8_STRING.ref().resolve( scope );
+		byte[] result = {0x2C, 0x0A, 0x04, 0x02, 'E', 'x', 0x04, 0x04, 'a', 'm', 'p', 'l'};
+		try( ByteArrayInputStream is = new ByteArrayInputStream( result );
+		     Asn1Reader reader = new DefaultBerReader( is, new CoreValueFactory() ) )
+		{
+			Value value = reader.read( scope, type );
+			Assert.assertEquals( "Values are not equal", new StringValueImpl( "Exampl" ), value );
+		}
+	}
+
 	@Test( expected = AssertionError.class )
 	public void testDecode_fail_type() throws Exception
 	{
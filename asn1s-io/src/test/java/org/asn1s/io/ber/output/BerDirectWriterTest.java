@@ -0,0 +1,294 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.ber.output;
+
+import org.asn1s.api.Asn1Factory;
+import org.asn1s.api.Scope;
+import org.asn1s.api.UniversalType;
+import org.asn1s.api.encoding.tag.TagClass;
+import org.asn1s.api.encoding.tag.TagEncoding;
+import org.asn1s.api.encoding.tag.TagMethod;
+import org.asn1s.api.module.Module;
+import org.asn1s.api.type.CollectionOfType;
+import org.asn1s.api.type.CollectionType;
+import org.asn1s.api.type.ComponentType;
+import org.asn1s.api.type.ComponentType.Kind;
+import org.asn1s.api.type.DefinedType;
+import org.asn1s.api.type.Type.Family;
+import org.asn1s.api.value.Value;
+import org.asn1s.api.value.x680.BooleanValue;
+import org.asn1s.api.value.x680.ValueCollection;
+import org.asn1s.core.DefaultAsn1Factory;
+import org.asn1s.io.Asn1Reader;
+import org.asn1s.io.ber.BerRules;
+import org.asn1s.io.ber.input.DefaultBerReader;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigInteger;
+import java.util.Arrays;
+
+public class BerDirectWriterTest
+{
+	private Asn1Factory factory;
+	private Module module;
+	private DefinedType type;
+	private Scope scope;
+
+	@Before
+	public void setUp() throws Exception
+	{
+		factory = new DefaultAsn1Factory();
+		module = factory.types().dummyModule();
+
+		CollectionOfType sequenceOfType = factory.types().collectionOf( Family.SEQUENCE_OF );
+		sequenceOfType.setComponent( "item", UniversalType.INTEGER.ref() );
+
+		CollectionType choiceType = factory.types().collection( Family.CHOICE );
+		choiceType.addComponent( Kind.PRIMARY, "num", UniversalType.INTEGER.ref() );
+		choiceType.addComponent( Kind.PRIMARY, "text", UniversalType.UTF8_STRING.ref() );
+
+		CollectionType sequenceType = factory.types().collection( Family.SEQUENCE );
+		sequenceType.addComponent( Kind.PRIMARY, "a", UniversalType.INTEGER.ref() );
+		sequenceType.addComponent( Kind.PRIMARY, "name", UniversalType.UTF8_STRING.ref() );
+		sequenceType.addComponent( Kind.PRIMARY, "data", UniversalType.OCTET_STRING.ref() ).setOptional( true );
+		sequenceType.addComponent( Kind.PRIMARY, "events", sequenceOfType );
+		sequenceType.addComponent( Kind.PRIMARY, "pick", choiceType );
+		sequenceType.addComponent( Kind.PRIMARY, "z", UniversalType.BOOLEAN.ref() );
+		type = factory.types().define( "My-Seq", sequenceType, null );
+		module.validate();
+		scope = type.createScope();
+	}
+
+	@Test
+	public void testCollection() throws Exception
+	{
+		ValueCollection value = factory.values().collection( true );
+		value.addNamed( "a", factory.values().integer( BigInteger.valueOf( -1234567890123L ) ) );
+		value.addNamed( "name", factory.values().cString( "Имя" ) );
+		value.addNamed( "data", factory.values().byteArrayValue( 24, new byte[]{1, 2, 3} ) );
+		ValueCollection events = factory.values().collection( true );
+		for( int i = 0; i < 10; i++ )
+			events.addNamed( "item", factory.values().integer( i * 100 ) );
+		value.addNamed( "events", events );
+		value.addNamed( "pick", factory.values().named( "text", factory.values().cString( "choice" ) ) );
+		value.addNamed( "z", BooleanValue.TRUE );
+
+		BerDirectWriter.Encoder encoder = output -> {
+			output.beginCollection( type );
+			output.writeBigInteger( output.getComponent( "a" ), BigInteger.valueOf( -1234567890123L ) );
+			output.writeString( output.getComponent( "name" ), "Имя" );
+			output.writeOctets( output.getComponent( "data" ), new byte[]{1, 2, 3} );
+			ComponentType elementType = output.beginCollectionOf( output.getComponent( "events" ) );
+			for( int i = 0; i < 10; i++ )
+				output.writeLong( elementType, i * 100 );
+			output.end();
+			output.writeString( output.beginChoice( output.getComponent( "pick" ), "text" ), "choice" );
+			output.writeBoolean( output.getComponent( "z" ), true );
+			output.end();
+			Assert.assertEquals( "Depth", 0, output.getDepth() );
+		};
+
+		for( BerRules rules : new BerRules[]{BerRules.BER, BerRules.DER} )
+		{
+			byte[] expected = writeValue( new DefaultBerWriter( rules ), scope, value );
+			Assert.assertArrayEquals( "Default " + rules, expected, writeDirect( new DefaultBerWriter( rules ), scope, encoder ) );
+			Assert.assertArrayEquals( "Single buffer " + rules, expected, writeDirect( new SingleBufferBerWriter( rules ), scope, encoder ) );
+			Assert.assertArrayEquals( "Two pass " + rules, expected, writeDirect( new TwoPassBerWriter( rules ), scope, encoder ) );
+		}
+	}
+
+	@Test
+	public void testTagged() throws Exception
+	{
+		TagEncoding type2Encoding = TagEncoding.create( module.getTagMethod(), TagMethod.IMPLICIT, TagClass.APPLICATION, 3 );
+		DefinedType type2 = factory.types().define( "Type2", factory.types().tagged( type2Encoding, UniversalType.INTEGER.ref() ), null );
+		TagEncoding type3Encoding = TagEncoding.create( module.getTagMethod(), TagMethod.EXPLICIT, TagClass.CONTEXT_SPECIFIC, 2 );
+		DefinedType type3 = factory.types().define( "Type3", factory.types().tagged( type3Encoding, type2 ), null );
+		TagEncoding type4Encoding = TagEncoding.create( module.getTagMethod(), TagMethod.IMPLICIT, TagClass.APPLICATION, 7 );
+		DefinedType type4 = factory.types().define( "Type4", factory.types().tagged( type4Encoding, type3 ), null );
+		module.validate();
+
+		Value value = factory.values().integer( 100 );
+		for( DefinedType definedType : new DefinedType[]{type2, type3, type4} )
+		{
+			Scope typeScope = definedType.createScope();
+			byte[] expected = writeValue( new DefaultBerWriter( BerRules.DER ), typeScope, definedType, value );
+			byte[] actual = writeDirect( new DefaultBerWriter( BerRules.DER ), typeScope, output -> output.writeLong( definedType, 100L ) );
+			Assert.assertArrayEquals( definedType.getName(), expected, actual );
+		}
+	}
+
+	@Test
+	public void testCer() throws Exception
+	{
+		StringBuilder sb = new StringBuilder();
+		for( int i = 0; i < 400; i++ )
+			sb.append( "Имя" );
+		String name = sb.toString();
+		byte[] data = new byte[2100];
+		Arrays.fill( data, (byte)0x5A );
+
+		ValueCollection value = factory.values().collection( true );
+		value.addNamed( "a", factory.values().integer( 1 ) );
+		value.addNamed( "name", factory.values().cString( name ) );
+		value.addNamed( "data", factory.values().byteArrayValue( data.length * 8, data ) );
+		ValueCollection events = factory.values().collection( true );
+		events.addNamed( "item", factory.values().integer( 7 ) );
+		value.addNamed( "events", events );
+		value.addNamed( "pick", factory.values().named( "num", factory.values().integer( 2 ) ) );
+		value.addNamed( "z", BooleanValue.FALSE );
+
+		BerDirectWriter.Encoder encoder = output -> {
+			output.beginCollection( type );
+			output.writeLong( output.getComponent( "a" ), 1L );
+			output.writeString( output.getComponent( "name" ), name );
+			output.writeOctets( output.getComponent( "data" ), data );
+			ComponentType elementType = output.beginCollectionOf( output.getComponent( "events" ) );
+			output.writeLong( elementType, 7L );
+			output.end();
+			output.writeLong( output.beginChoice( output.getComponent( "pick" ), "num" ), 2L );
+			output.writeBoolean( output.getComponent( "z" ), false );
+			output.end();
+		};
+
+		byte[] expected = writeValue( new DefaultBerWriter( BerRules.CER ), scope, value );
+		Assert.assertArrayEquals( "Indefinite length", new byte[]{0x30, (byte)0x80}, Arrays.copyOf( expected, 2 ) );
+		Assert.assertArrayEquals( "Default", expected, writeDirect( new DefaultBerWriter( BerRules.CER ), scope, encoder ) );
+		Assert.assertArrayEquals( "Single buffer", expected, writeDirect( new SingleBufferBerWriter( BerRules.CER ), scope, encoder ) );
+		Assert.assertArrayEquals( "Two pass", expected, writeDirect( new TwoPassBerWriter( BerRules.CER ), scope, encoder ) );
+
+		try( Asn1Reader reader = new DefaultBerReader( new ByteArrayInputStream( expected ), factory.values() ) )
+		{
+			Value result = reader.read( scope, type );
+			Assert.assertEquals( "Values are not equal", value, result );
+		}
+	}
+
+	@Test
+	public void testTaggedCer() throws Exception
+	{
+		TagEncoding type2Encoding = TagEncoding.create( module.getTagMethod(), TagMethod.IMPLICIT, TagClass.APPLICATION, 3 );
+		DefinedType type2 = factory.types().define( "Type2", factory.types().tagged( type2Encoding, UniversalType.INTEGER.ref() ), null );
+		TagEncoding type3Encoding = TagEncoding.create( module.getTagMethod(), TagMethod.EXPLICIT, TagClass.CONTEXT_SPECIFIC, 2 );
+		DefinedType type3 = factory.types().define( "Type3", factory.types().tagged( type3Encoding, type2 ), null );
+		TagEncoding type4Encoding = TagEncoding.create( module.getTagMethod(), TagMethod.IMPLICIT, TagClass.APPLICATION, 7 );
+		DefinedType type4 = factory.types().define( "Type4", factory.types().tagged( type4Encoding, type3 ), null );
+		module.validate();
+
+		Value value = factory.values().integer( 100 );
+		Scope typeScope = type4.createScope();
+		byte[] expected = {0x67, (byte)0x80, 0x43, 0x01, 0x64, 0x00, 0x00};
+		Assert.assertArrayEquals( "Value", expected, writeValue( new DefaultBerWriter( BerRules.CER ), typeScope, type4, value ) );
+		Assert.assertArrayEquals( "Direct", expected, writeDirect( new DefaultBerWriter( BerRules.CER ), typeScope, output -> output.writeLong( type4, 100L ) ) );
+
+		try( Asn1Reader reader = new DefaultBerReader( new ByteArrayInputStream( expected ), factory.values() ) )
+		{
+			Assert.assertEquals( "Values are not equal", value, reader.read( typeScope, type4 ) );
+		}
+	}
+
+	@Test
+	public void testCanonicalSet() throws Exception
+	{
+		CollectionOfType setOfType = factory.types().collectionOf( Family.SET_OF );
+		setOfType.setComponent( "item", UniversalType.INTEGER.ref() );
+
+		CollectionType setType = factory.types().collection( Family.SET );
+		setType.addComponent( Kind.PRIMARY, "name", UniversalType.UTF8_STRING.ref() );
+		setType.addComponent( Kind.PRIMARY, "items", setOfType );
+		setType.addComponent( Kind.PRIMARY, "num", UniversalType.INTEGER.ref() );
+		setType.addComponent( Kind.PRIMARY, "flag", UniversalType.BOOLEAN.ref() ).setDefaultValueRef( BooleanValue.FALSE );
+		DefinedType definedType = factory.types().define( "My-Set", setType, null );
+		module.validate();
+		Scope setScope = definedType.createScope();
+
+		ValueCollection value = factory.values().collection( true );
+		value.addNamed( "name", factory.values().cString( "set" ) );
+		ValueCollection items = factory.values().collection( true );
+		for( int item : new int[]{300, 1, -1, 2} )
+			items.addNamed( "item", factory.values().integer( item ) );
+		value.addNamed( "items", items );
+		value.addNamed( "num", factory.values().integer( 5 ) );
+
+		BerDirectWriter.Encoder encoder = output -> {
+			output.beginCollection( definedType );
+			output.writeLong( output.getComponent( "num" ), 5L );
+			output.writeBoolean( output.getComponent( "flag" ), false );
+			ComponentType elementType = output.beginCollectionOf( output.getComponent( "items" ) );
+			for( int item : new int[]{300, 1, -1, 2} )
+				output.writeLong( elementType, item );
+			output.end();
+			output.writeString( output.getComponent( "name" ), "set" );
+			output.end();
+		};
+
+		for( BerRules rules : new BerRules[]{BerRules.DER, BerRules.CER} )
+		{
+			byte[] expected = writeValue( new DefaultBerWriter( rules ), setScope, definedType, value );
+			Assert.assertArrayEquals( "Default " + rules, expected, writeDirect( new DefaultBerWriter( rules ), setScope, encoder ) );
+			Assert.assertArrayEquals( "Single buffer " + rules, expected, writeDirect( new SingleBufferBerWriter( rules ), setScope, encoder ) );
+			Assert.assertArrayEquals( "Two pass " + rules, expected, writeDirect( new TwoPassBerWriter( rules ), setScope, encoder ) );
+		}
+
+		// components are sorted by automatic tags, default flag is omitted, SET OF elements are sorted
+		byte[] der = writeDirect( new DefaultBerWriter( BerRules.DER ), setScope, encoder );
+		Assert.assertArrayEquals( "Order", new byte[]{0x31, 0x17, (byte)0x80, 0x03, 0x73, 0x65, 0x74,
+		                                              (byte)0xA1, 0x0D, 0x02, 0x01, 0x01, 0x02, 0x01, 0x02, 0x02, 0x01, (byte)0xFF, 0x02, 0x02, 0x01, 0x2C,
+		                                              (byte)0x82, 0x01, 0x05}, der );
+	}
+
+	@Test( expected = IllegalStateException.class )
+	public void testUnfinished() throws Exception
+	{
+		writeDirect( new DefaultBerWriter( BerRules.DER ), scope, output -> output.beginCollection( type ) );
+	}
+
+	private byte[] writeValue( AbstractBerWriter writer, Scope scope, Value value ) throws Exception
+	{
+		return writeValue( writer, scope, type, value );
+	}
+
+	private static byte[] writeValue( AbstractBerWriter writer, Scope scope, DefinedType type, Value value ) throws Exception
+	{
+		try( AbstractBerWriter w = writer )
+		{
+			w.write( scope, type, value );
+			return w.toByteArray();
+		}
+	}
+
+	private static byte[] writeDirect( AbstractBerWriter writer, Scope scope, BerDirectWriter.Encoder encoder ) throws Exception
+	{
+		try( AbstractBerWriter w = writer )
+		{
+			w.write( scope, encoder );
+			return w.toByteArray();
+		}
+	}
+}
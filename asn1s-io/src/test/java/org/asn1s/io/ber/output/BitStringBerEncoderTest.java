@@ -35,11 +35,16 @@ import org.asn1s.api.value.x680.BooleanValue;
 import org.asn1s.core.CoreUtils;
 import org.asn1s.core.module.CoreModule;
 import org.asn1s.core.type.x680.string.BitStringType;
+import org.asn1s.core.value.CoreValueFactory;
 import org.asn1s.core.value.x680.IntegerValueInt;
 import org.asn1s.core.value.x680.NamedValueImpl;
+import org.asn1s.io.Asn1Reader;
 import org.asn1s.io.ber.BerRules;
+import org.asn1s.io.ber.input.DefaultBerReader;
+import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
 import java.util.Arrays;
 
 import static org.junit.Assert.fail;
@@ -205,6 +210,29 @@ public class BitStringBerEncoderTest
 		}
 	}
 
+	@Test
+	public void testWrite_Cer_Segmented() throws Exception
+	{
+		Scope scope = CoreModule.getInstance().createScope();
+		Type type = UniversalType.BIT_STRING.ref().resolve( scope );
+		byte[] content = new byte[1500];
+		Arrays.fill( content, (byte)0xF8 );
+		Value value = new CoreValueFactory().byteArrayValue( content.length * 8 - 3, content );
+		try( AbstractBerWriter writer = new DefaultBerWriter( BerRules.CER ) )
+		{
+			writer.write( scope, type, value );
+			byte[] bytes = writer.toByteArray();
+			Assert.assertEquals( "Length", 2 + 2 * 5 + content.length + 2, bytes.length );
+			Assert.assertArrayEquals( "Header", new byte[]{0x23, (byte)0x80, 0x03, (byte)0x82, 0x03, (byte)0xE8, 0x00}, Arrays.copyOf( bytes, 7 ) );
+			Assert.assertArrayEquals( "Last segment", new byte[]{0x03, (byte)0x82, 0x01, (byte)0xF6, 0x03}, Arrays.copyOfRange( bytes, 1006, 1011 ) );
+
+			try( Asn1Reader reader = new DefaultBerReader( new ByteArrayInputStream( bytes ), new CoreValueFactory() ) )
+			{
+				Assert.assertEquals( "Values are not equal", value, reader.read( scope, type ) );
+			}
+		}
+	}
+
 	@Test( expected = AssertionError.class )
 	public void testEncode_fail_type() throws Exception
 	{
@@ -60,6 +60,8 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 public class DefaultBerWriterTest
 {
@@ -117,6 +119,60 @@ public class DefaultBerWriterTest
 		}
 	}
 
+	@Test
+	public void testReset() throws Exception
+	{
+		Asn1Factory factory = new DefaultAsn1Factory();
+		Module module = factory.types().dummyModule();
+		CollectionType sequenceType = factory.types().collection( Family.SEQUENCE );
+		sequenceType.addComponent( Kind.PRIMARY, "a", UniversalType.INTEGER.ref() );
+		sequenceType.addComponent( Kind.PRIMARY, "b", UniversalType.UTF8_STRING.ref() );
+		DefinedType type = factory.types().define( "My-Seq", sequenceType, null );
+		module.validate();
+		Scope scope = type.createScope();
+
+		try( DefaultBerWriter writer = new DefaultBerWriter( BerRules.DER ) )
+		{
+			byte[] target = new byte[64];
+			ByteBuffer buffer = ByteBuffer.allocate( 64 );
+			for( int i = 0; i < 3; i++ )
+			{
+				ValueCollection value = factory.values().collection( true );
+				value.addNamed( "a", factory.values().integer( i ) );
+				value.addNamed( "b", factory.values().cString( "value " + i ) );
+				byte[] expected = writeValue( scope, type, value );
+
+				writer.reset();
+				writer.write( scope, type, value );
+				Assert.assertEquals( "Size", expected.length, writer.size() );
+				Assert.assertArrayEquals( "Content", expected, writer.toByteArray() );
+
+				writer.reset( target, 1 );
+				writer.write( scope, type, value );
+				Assert.assertEquals( "Written to array", expected.length, writer.size() );
+				Assert.assertArrayEquals( "Array content", expected, Arrays.copyOfRange( target, 1, 1 + expected.length ) );
+
+				buffer.clear();
+				writer.reset( buffer );
+				writer.write( scope, type, value );
+				Assert.assertEquals( "Written to buffer", expected.length, writer.size() );
+				Assert.assertEquals( "Buffer position", expected.length, buffer.position() );
+				Assert.assertArrayEquals( "Buffer content", expected, Arrays.copyOf( buffer.array(), expected.length ) );
+			}
+		}
+	}
+
+	@Test( expected = IOException.class )
+	public void testWriteToSmallArray() throws Exception
+	{
+		Scope scope = new CoreTypeFactory().dummyModule().createScope();
+		try( DefaultBerWriter writer = new DefaultBerWriter( BerRules.DER, new byte[2], 0 ) )
+		{
+			writer.write( scope, UniversalType.INTEGER.ref().resolve( scope ), new IntegerValueInt( 0 ) );
+			Assert.fail( "Must fail!" );
+		}
+	}
+
 	@Test
 	public void testChoiceReadWrite() throws Exception
 	{
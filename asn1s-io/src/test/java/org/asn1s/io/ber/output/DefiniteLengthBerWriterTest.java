@@ -0,0 +1,168 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.ber.output;
+
+import org.asn1s.api.Asn1Factory;
+import org.asn1s.api.Ref;
+import org.asn1s.api.Scope;
+import org.asn1s.api.UniversalType;
+import org.asn1s.api.encoding.tag.TagClass;
+import org.asn1s.api.encoding.tag.TagEncoding;
+import org.asn1s.api.encoding.tag.TagMethod;
+import org.asn1s.api.module.Module;
+import org.asn1s.api.type.CollectionOfType;
+import org.asn1s.api.type.CollectionType;
+import org.asn1s.api.type.ComponentType.Kind;
+import org.asn1s.api.type.DefinedType;
+import org.asn1s.api.type.Type;
+import org.asn1s.api.type.Type.Family;
+import org.asn1s.api.type.TypeFactory;
+import org.asn1s.api.type.TypeUtils;
+import org.asn1s.api.value.Value;
+import org.asn1s.api.value.x680.ValueCollection;
+import org.asn1s.core.DefaultAsn1Factory;
+import org.asn1s.core.type.CoreTypeFactory;
+import org.asn1s.core.value.x680.IntegerValueInt;
+import org.asn1s.io.Asn1Writer;
+import org.asn1s.io.ber.BerRules;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Tests of writers producing definite length encoding without nested buffers
+ */
+@RunWith( Parameterized.class )
+public class DefiniteLengthBerWriterTest
+{
+	@Parameters( name = "{0}" )
+	public static Collection<Object[]> data()
+	{
+		Collection<Object[]> list = new ArrayList<>();
+		list.add( new Object[]{"SingleBufferBerWriter",
+				(Function<BerRules, Asn1Writer>)SingleBufferBerWriter::new,
+				(BiFunction<BerRules, OutputStream, Asn1Writer>)SingleBufferBerWriter::new} );
+		list.add( new Object[]{"TwoPassBerWriter",
+				(Function<BerRules, Asn1Writer>)TwoPassBerWriter::new,
+				(BiFunction<BerRules, OutputStream, Asn1Writer>)TwoPassBerWriter::new} );
+		return list;
+	}
+
+	public DefiniteLengthBerWriterTest( String title, Function<BerRules, Asn1Writer> writerFactory,
+	                                    BiFunction<BerRules, OutputStream, Asn1Writer> streamWriterFactory )
+	{
+		this.writerFactory = writerFactory;
+		this.streamWriterFactory = streamWriterFactory;
+	}
+
+	private final Function<BerRules, Asn1Writer> writerFactory;
+	private final BiFunction<BerRules, OutputStream, Asn1Writer> streamWriterFactory;
+
+	@Test
+	public void testNestedCollections() throws Exception
+	{
+		Asn1Factory factory = new DefaultAsn1Factory();
+		Module module = factory.types().dummyModule();
+
+		CollectionOfType collectionOf = factory.types().collectionOf( Family.SEQUENCE_OF );
+		collectionOf.setComponent( TypeUtils.DUMMY, UniversalType.OCTET_STRING.ref() );
+
+		CollectionType sequenceType = factory.types().collection( Family.SEQUENCE );
+		sequenceType.addComponent( Kind.PRIMARY, "a", UniversalType.INTEGER.ref() );
+		sequenceType.addComponent( Kind.PRIMARY, "b", collectionOf );
+
+		TagEncoding encoding = TagEncoding.create( module.getTagMethod(), TagMethod.EXPLICIT, TagClass.CONTEXT_SPECIFIC, 1 );
+		DefinedType type = factory.types().define( "My-Seq", factory.types().tagged( encoding, sequenceType ), null );
+		module.validate();
+
+		byte[] bytes = new byte[300];
+		Arrays.fill( bytes, (byte)0x5A );
+		ValueCollection list = factory.values().collection( false );
+		list.add( factory.values().byteArrayValue( bytes.length * Byte.SIZE, bytes ) );
+		list.add( factory.values().emptyByteArray() );
+		ValueCollection collection = factory.values().collection( true );
+		collection.addNamed( "a", factory.values().integer( 1 ) );
+		collection.addNamed( "b", list );
+
+		Scope scope = type.createScope();
+		byte[] expected = writeValue( new DefaultBerWriter( BerRules.DER ), scope, type, collection );
+		Assert.assertArrayEquals( "Content is not equal", expected, writeValue( writerFactory.apply( BerRules.DER ), scope, type, collection ) );
+	}
+
+	@Test
+	public void testMultipleValues() throws Exception
+	{
+		TypeFactory factory = new CoreTypeFactory();
+		Module module = factory.dummyModule();
+		Scope scope = module.createScope();
+
+		Type tagged = factory.tagged( TagEncoding.application( 2048 ), UniversalType.INTEGER.ref() );
+		Type defined = factory.define( "MyTagged", tagged, null );
+		module.validate();
+		try( Asn1Writer writer = writerFactory.apply( BerRules.DER ) )
+		{
+			writer.write( scope, defined, new IntegerValueInt( 0 ) );
+			writer.write( scope, defined, new IntegerValueInt( 1 ) );
+			Assert.assertArrayEquals( "", new byte[]{0x7F, (byte)0x90, 0x00, 0x03, 0x02, 0x01, 0x00, 0x7F, (byte)0x90, 0x00, 0x03, 0x02, 0x01, 0x01}, writer.toByteArray() );
+		}
+	}
+
+	@Test( expected = IOException.class )
+	public void testNonInternalOsFail() throws Exception
+	{
+		TypeFactory factory = new CoreTypeFactory();
+		Module module = factory.dummyModule();
+		Scope scope = module.createScope();
+
+		try( ByteArrayOutputStream os = new ByteArrayOutputStream();
+		     Asn1Writer writer = streamWriterFactory.apply( BerRules.DER, os ) )
+		{
+			writer.write( scope, UniversalType.INTEGER.ref().resolve( scope ), new IntegerValueInt( 0 ) );
+			writer.toByteArray();
+			Assert.fail( "Must fail!" );
+		}
+	}
+
+	private static byte[] writeValue( Asn1Writer writer, Scope scope, Ref<Type> type, Value value ) throws Exception
+	{
+		try( Asn1Writer w = writer )
+		{
+			w.write( scope, type, value );
+			return w.toByteArray();
+		}
+	}
+}
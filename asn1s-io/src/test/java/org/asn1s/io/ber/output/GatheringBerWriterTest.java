@@ -0,0 +1,154 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.ber.output;
+
+import org.asn1s.api.Asn1Factory;
+import org.asn1s.api.Scope;
+import org.asn1s.api.UniversalType;
+import org.asn1s.api.module.Module;
+import org.asn1s.api.type.CollectionType;
+import org.asn1s.api.type.ComponentType.Kind;
+import org.asn1s.api.type.DefinedType;
+import org.asn1s.api.type.Type.Family;
+import org.asn1s.api.value.Value;
+import org.asn1s.api.value.x680.ValueCollection;
+import org.asn1s.core.DefaultAsn1Factory;
+import org.asn1s.io.Asn1Writer;
+import org.asn1s.io.ber.BerRules;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.util.Arrays;
+
+public class GatheringBerWriterTest
+{
+	@Test
+	public void testWriteTo() throws Exception
+	{
+		Asn1Factory factory = new DefaultAsn1Factory();
+		Module module = factory.types().dummyModule();
+		CollectionType sequenceType = factory.types().collection( Family.SEQUENCE );
+		sequenceType.addComponent( Kind.PRIMARY, "a", UniversalType.INTEGER.ref() );
+		sequenceType.addComponent( Kind.PRIMARY, "b", UniversalType.OCTET_STRING.ref() );
+		sequenceType.addComponent( Kind.PRIMARY, "c", UniversalType.UTF8_STRING.ref() );
+		DefinedType type = factory.types().define( "My-Seq", sequenceType, null );
+		module.validate();
+		Scope scope = type.createScope();
+
+		byte[] payload = new byte[5000];
+		for( int i = 0; i < payload.length; i++ )
+			//noinspection NumericCastThatLosesPrecision
+			payload[i] = (byte)i;
+
+		ValueCollection value = factory.values().collection( true );
+		value.addNamed( "a", factory.values().integer( 10 ) );
+		value.addNamed( "b", factory.values().byteArrayValue( payload.length * 8, payload ) );
+		value.addNamed( "c", factory.values().cString( "tail" ) );
+
+		for( BerRules rules : BerRules.values() )
+		{
+			byte[] expected = writeValue( rules, scope, type, value );
+			try( GatheringBerWriter writer = new GatheringBerWriter( rules ) )
+			{
+				writer.write( scope, type, value );
+				Assert.assertEquals( "Size: " + rules, expected.length, writer.size() );
+				Assert.assertArrayEquals( "Content: " + rules, expected, writer.toByteArray() );
+				Assert.assertTrue( "Payload must not be copied: " + rules, isReferenced( writer, payload ) );
+
+				RecordingChannel channel = new RecordingChannel();
+				Assert.assertEquals( "Written: " + rules, expected.length, writer.writeTo( channel ) );
+				Assert.assertEquals( "Gathering writes: " + rules, 1, channel.calls );
+				Assert.assertArrayEquals( "Channel content: " + rules, expected, channel.os.toByteArray() );
+
+				writer.reset();
+				Assert.assertEquals( "Reset", 0L, writer.size() );
+			}
+		}
+	}
+
+	private static boolean isReferenced( GatheringBerWriter writer, byte[] payload )
+	{
+		for( ByteBuffer segment : writer.getSegments() )
+			if( segment.hasArray() && segment.array() == payload )
+				return true;
+		return false;
+	}
+
+	private static byte[] writeValue( BerRules rules, Scope scope, DefinedType type, Value value ) throws Exception
+	{
+		try( Asn1Writer writer = new DefaultBerWriter( rules ) )
+		{
+			writer.write( scope, type, value );
+			return writer.toByteArray();
+		}
+	}
+
+	private static final class RecordingChannel implements GatheringByteChannel
+	{
+		private final ByteArrayOutputStream os = new ByteArrayOutputStream();
+		private int calls;
+
+		@Override
+		public long write( ByteBuffer[] srcs, int offset, int length )
+		{
+			calls++;
+			long written = 0L;
+			for( ByteBuffer src : Arrays.asList( srcs ).subList( offset, offset + length ) )
+				written += write( src );
+			return written;
+		}
+
+		@Override
+		public long write( ByteBuffer[] srcs )
+		{
+			return write( srcs, 0, srcs.length );
+		}
+
+		@Override
+		public int write( ByteBuffer src )
+		{
+			int length = src.remaining();
+			byte[] bytes = new byte[length];
+			src.get( bytes );
+			os.write( bytes, 0, length );
+			return length;
+		}
+
+		@Override
+		public boolean isOpen()
+		{
+			return true;
+		}
+
+		@Override
+		public void close()
+		{
+		}
+	}
+}
@@ -69,20 +69,17 @@ public class ObjectIDBerEncoderTest
 	}
 
 	@Test
-	public void testEncode_Buffered() throws Exception
+	public void testEncode_Header() throws Exception
 	{
 		Scope scope = CoreModule.getInstance().createScope();
 		Type type = UniversalType.OBJECT_IDENTIFIER.ref().resolve( scope );
 		try( AbstractBerWriter writer = mock( AbstractBerWriter.class ) )
 		{
-			when( writer.isBufferingAvailable() ).thenReturn( true );
 			new ObjectIDBerEncoder().encode( new WriterContext( writer, scope, type, OPTIMIZED_OID_VALUE, true ) );
-			verify( writer ).isBufferingAvailable();
-			verify( writer ).startBuffer( -1 );
+			verify( writer ).writeHeader( TAG, 4 );
 			verify( writer, times( 2 ) ).write( 0 );
 			verify( writer ).write( 1 );
 			verify( writer ).write( (byte)0x82 );
-			verify( writer ).stopBuffer( TAG );
 			verifyNoMoreInteractions( writer );
 		}
 	}
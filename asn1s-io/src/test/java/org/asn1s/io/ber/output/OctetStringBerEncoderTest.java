@@ -34,8 +34,16 @@ import org.asn1s.api.value.Value;
 import org.asn1s.api.value.x680.BooleanValue;
 import org.asn1s.core.CoreUtils;
 import org.asn1s.core.module.CoreModule;
+import org.asn1s.core.value.CoreValueFactory;
+import org.asn1s.io.Asn1Reader;
+import org.asn1s.io.ber.BerRules;
+import org.asn1s.io.ber.input.DefaultBerReader;
+import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.*;
 
@@ -72,6 +80,32 @@ public class OctetStringBerEncoderTest
 		}
 	}
 
+	@Test
+	public void testEncode_Cer_Segmented() throws Exception
+	{
+		Scope scope = CoreModule.getInstance().createScope();
+		Type type = UniversalType.OCTET_STRING.ref().resolve( scope );
+		byte[] content = new byte[2500];
+		for( int i = 0; i < content.length; i++ )
+			content[i] = (byte)i;
+		Value value = new CoreValueFactory().byteArrayValue( content.length * 8, content );
+		try( AbstractBerWriter writer = new DefaultBerWriter( BerRules.CER ) )
+		{
+			writer.write( scope, type, value );
+			byte[] bytes = writer.toByteArray();
+			Assert.assertEquals( "Length", 2 + 3 * 4 + content.length + 2, bytes.length );
+			Assert.assertArrayEquals( "Header", new byte[]{0x24, (byte)0x80, 0x04, (byte)0x82, 0x03, (byte)0xE8}, Arrays.copyOf( bytes, 6 ) );
+			Assert.assertArrayEquals( "Second segment", new byte[]{0x04, (byte)0x82, 0x03, (byte)0xE8}, Arrays.copyOfRange( bytes, 1006, 1010 ) );
+			Assert.assertArrayEquals( "Last segment", new byte[]{0x04, (byte)0x82, 0x01, (byte)0xF4}, Arrays.copyOfRange( bytes, 2010, 2014 ) );
+			Assert.assertArrayEquals( "End of contents", new byte[]{0x00, 0x00}, Arrays.copyOfRange( bytes, bytes.length - 2, bytes.length ) );
+
+			try( Asn1Reader reader = new DefaultBerReader( new ByteArrayInputStream( bytes ), new CoreValueFactory() ) )
+			{
+				Assert.assertEquals( "Values are not equal", value, reader.read( scope, type ) );
+			}
+		}
+	}
+
 	@Test( expected = AssertionError.class )
 	public void testEncode_fail_type() throws Exception
 	{
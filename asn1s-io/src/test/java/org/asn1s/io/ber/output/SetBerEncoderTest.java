@@ -25,19 +25,27 @@
 
 package org.asn1s.io.ber.output;
 
+import org.asn1s.api.Asn1Factory;
 import org.asn1s.api.Scope;
 import org.asn1s.api.UniversalType;
 import org.asn1s.api.encoding.tag.Tag;
 import org.asn1s.api.encoding.tag.TagClass;
+import org.asn1s.api.encoding.tag.TagEncoding;
+import org.asn1s.api.encoding.tag.TagMethod;
 import org.asn1s.api.exception.Asn1Exception;
 import org.asn1s.api.exception.IllegalValueException;
+import org.asn1s.api.module.Module;
+import org.asn1s.api.type.CollectionType;
 import org.asn1s.api.type.ComponentType;
 import org.asn1s.api.type.ComponentType.Kind;
+import org.asn1s.api.type.DefinedType;
 import org.asn1s.api.type.Type;
+import org.asn1s.api.type.Type.Family;
 import org.asn1s.api.value.Value;
 import org.asn1s.api.value.x680.BooleanValue;
 import org.asn1s.api.value.x680.NamedValue;
 import org.asn1s.api.value.x680.ValueCollection;
+import org.asn1s.core.DefaultAsn1Factory;
 import org.asn1s.core.module.CoreModule;
 import org.asn1s.core.type.x680.collection.SetType;
 import org.asn1s.core.value.x680.IntegerValueInt;
@@ -250,6 +258,30 @@ public class SetBerEncoderTest
 		}
 	}
 
+	@Test
+	public void testWriteSet_Der_TagOrder() throws Exception
+	{
+		Asn1Factory factory = new DefaultAsn1Factory();
+		Module module = factory.types().dummyModule();
+		TagEncoding privateEncoding = TagEncoding.create( module.getTagMethod(), TagMethod.IMPLICIT, TagClass.PRIVATE, 1 );
+		TagEncoding contextEncoding = TagEncoding.create( module.getTagMethod(), TagMethod.IMPLICIT, TagClass.CONTEXT_SPECIFIC, 2 );
+		CollectionType setType = factory.types().collection( Family.SET );
+		setType.addComponent( Kind.PRIMARY, "p", factory.types().tagged( privateEncoding, UniversalType.INTEGER.ref() ) );
+		setType.addComponent( Kind.PRIMARY, "c", factory.types().tagged( contextEncoding, UniversalType.INTEGER.ref() ) );
+		DefinedType type = factory.types().define( "My-Set", setType, null );
+		module.validate();
+
+		ValueCollection value = factory.values().collection( true );
+		value.addNamed( "p", factory.values().integer( 5 ) );
+		value.addNamed( "c", factory.values().integer( 7 ) );
+		try( AbstractBerWriter writer = new DefaultBerWriter( BerRules.DER ) )
+		{
+			writer.write( type.createScope(), type, value );
+			byte[] bytes = writer.toByteArray();
+			Assert.assertArrayEquals( "Arrays are not equal", new byte[]{0x31, 0x06, (byte)0x82, 0x01, 0x07, (byte)0xC1, 0x01, 0x05}, bytes );
+		}
+	}
+
 	@Test( expected = AssertionError.class )
 	public void testEncode_fail_type() throws Exception
 	{
@@ -29,7 +29,6 @@ import org.asn1s.api.Scope;
 import org.asn1s.api.UniversalType;
 import org.asn1s.api.encoding.tag.Tag;
 import org.asn1s.api.encoding.tag.TagClass;
-import org.asn1s.api.exception.Asn1Exception;
 import org.asn1s.api.type.ComponentType;
 import org.asn1s.api.type.Type;
 import org.asn1s.api.value.Value;
@@ -43,9 +42,10 @@ import org.asn1s.io.ber.BerRules;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Arrays;
+
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
 
 public class SetOfBerEncoderTest
 {
@@ -98,7 +98,7 @@ public class SetOfBerEncoderTest
 		}
 	}
 
-	@Test( expected = Asn1Exception.class )
+	@Test
 	public void testWriteSetOf_NonBuffered_Der() throws Exception
 	{
 		Scope scope = CoreModule.getInstance().createScope();
@@ -110,12 +110,19 @@ public class SetOfBerEncoderTest
 		ValueCollection value = new ValueCollectionImpl( false );
 		Value valueInt = new IntegerValueInt( 0 );
 		value.add( valueInt );
-		try( AbstractBerWriter writer = mock( AbstractBerWriter.class ) )
+		try( AbstractBerWriter writer = new DefaultBerWriter( BerRules.DER ) )
 		{
-			when( writer.isBufferingAvailable() ).thenReturn( false );
-			when( writer.getRules() ).thenReturn( BerRules.DER );
-			new SetOfBerEncoder().encode( new WriterContext( writer, scope, type, value, true ) );
-			fail( "Must fail" );
+			// sorted elements are collected before header is written, so no buffering is required
+			new SetOfBerEncoder().encode( new WriterContext( writer, scope, type, value, true )
+			{
+				@Override
+				public boolean isBufferingAvailable()
+				{
+					return false;
+				}
+			} );
+			byte[] bytes = writer.toByteArray();
+			Assert.assertArrayEquals( "Arrays are not equal", new byte[]{0x31, 0x03, 0x02, 0x01, 0x00}, bytes );
 		}
 	}
 
@@ -139,6 +146,34 @@ public class SetOfBerEncoderTest
 		}
 	}
 
+	@Test
+	public void testWriteSetOf_Sorted() throws Exception
+	{
+		Scope scope = CoreModule.getInstance().createScope();
+		SetOfType type = new SetOfType();
+		type.setComponent( "a", UniversalType.INTEGER.ref() );
+		type.validate( scope );
+		ValueCollection value = new ValueCollectionImpl( false );
+		for( int item : new int[]{300, 1, -1, 2, 1} )
+			value.add( new IntegerValueInt( item ) );
+
+		byte[] content = {0x02, 0x01, 0x01, 0x02, 0x01, 0x01, 0x02, 0x01, 0x02, 0x02, 0x01, (byte)0xFF, 0x02, 0x02, 0x01, 0x2C};
+		byte[] expected = new byte[content.length + 2];
+		expected[0] = 0x31;
+		expected[1] = (byte)content.length;
+		System.arraycopy( content, 0, expected, 2, content.length );
+		Assert.assertArrayEquals( "DER", expected, write( new DefaultBerWriter( BerRules.DER ), scope, type, value ) );
+
+		expected = new byte[content.length + 4];
+		expected[0] = 0x31;
+		expected[1] = (byte)0x80;
+		System.arraycopy( content, 0, expected, 2, content.length );
+		Assert.assertArrayEquals( "CER", expected, write( new DefaultBerWriter( BerRules.CER ), scope, type, value ) );
+
+		Assert.assertArrayEquals( "BER keeps order", new byte[]{0x02, 0x02, 0x01, 0x2C, 0x02, 0x01, 0x01},
+		                          Arrays.copyOfRange( write( new DefaultBerWriter( BerRules.BER ), scope, type, value ), 2, 9 ) );
+	}
+
 	@Test( expected = AssertionError.class )
 	public void testEncode_fail_type() throws Exception
 	{
@@ -165,4 +200,12 @@ public class SetOfBerEncoderTest
 		}
 	}
 
+	private static byte[] write( AbstractBerWriter writer, Scope scope, Type type, Value value ) throws Exception
+	{
+		try( AbstractBerWriter w = writer )
+		{
+			new SetOfBerEncoder().encode( new WriterContext( w, scope, type, value, true ) );
+			return w.toByteArray();
+		}
+	}
 }
@@ -0,0 +1,143 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.ber.output;
+
+import org.asn1s.api.Asn1Factory;
+import org.asn1s.api.Scope;
+import org.asn1s.api.UniversalType;
+import org.asn1s.api.module.Module;
+import org.asn1s.api.type.CollectionOfType;
+import org.asn1s.api.type.CollectionType;
+import org.asn1s.api.type.ComponentType;
+import org.asn1s.api.type.ComponentType.Kind;
+import org.asn1s.api.type.DefinedType;
+import org.asn1s.api.type.Type.Family;
+import org.asn1s.api.value.x680.ValueCollection;
+import org.asn1s.core.DefaultAsn1Factory;
+import org.asn1s.io.Asn1Writer;
+import org.asn1s.io.ber.BerRules;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+public class TwoPassBerWriterTest
+{
+	private Asn1Factory factory;
+	private DefinedType recordType;
+	private DefinedType recordsType;
+	private Scope scope;
+
+	@Before
+	public void setUp() throws Exception
+	{
+		// Records ::= SEQUENCE OF Record, Record ::= SEQUENCE { a INTEGER, b OCTET STRING }
+		factory = new DefaultAsn1Factory();
+		Module module = factory.types().dummyModule();
+		CollectionType sequenceType = factory.types().collection( Family.SEQUENCE );
+		sequenceType.addComponent( Kind.PRIMARY, "a", UniversalType.INTEGER.ref() );
+		sequenceType.addComponent( Kind.PRIMARY, "b", UniversalType.OCTET_STRING.ref() );
+		recordType = factory.types().define( "Record", sequenceType, null );
+
+		CollectionOfType collectionOf = factory.types().collectionOf( Family.SEQUENCE_OF );
+		collectionOf.setComponent( "record", recordType.toRef() );
+		recordsType = factory.types().define( "Records", collectionOf, null );
+		module.validate();
+		scope = recordsType.createScope();
+	}
+
+	@Test
+	public void testLengthsFromFirstPass() throws Exception
+	{
+		byte[] bytes = new byte[300];
+		Arrays.fill( bytes, (byte)0x5A );
+		ValueCollection value = factory.values().collection( true );
+		value.addNamed( "a", factory.values().integer( 1 ) );
+		value.addNamed( "b", factory.values().byteArrayValue( bytes.length * Byte.SIZE, bytes ) );
+		byte[] expected;
+		try( Asn1Writer writer = new DefaultBerWriter( BerRules.DER ) )
+		{
+			writer.write( scope, recordType, value );
+			expected = writer.toByteArray();
+		}
+
+		ByteArrayOutputStream os = new ByteArrayOutputStream();
+		int[] streamed = new int[3];
+		int[] passes = new int[1];
+		try( TwoPassBerWriter writer = new TwoPassBerWriter( BerRules.DER, os ) )
+		{
+			writer.write( scope, output -> {
+				output.beginCollection( recordType );
+				output.writeLong( output.getComponent( "a" ), 1 );
+				streamed[passes[0]] = os.size();
+				output.writeOctets( output.getComponent( "b" ), bytes );
+				output.end();
+				passes[0]++;
+			} );
+		}
+
+		Assert.assertEquals( "Value is encoded twice", 2, passes[0] );
+		Assert.assertEquals( "First pass only measures", 0, streamed[0] );
+		// header with long form length of 307 octets is written before content is encoded
+		Assert.assertEquals( "Second pass streams header and first component", 7, streamed[1] );
+		Assert.assertArrayEquals( "Content is not equal", expected, os.toByteArray() );
+	}
+
+	@Test( expected = IllegalStateException.class )
+	public void testMoreValuesInSecondPass() throws Exception
+	{
+		writeRecords( 1, 2 );
+	}
+
+	@Test( expected = IllegalStateException.class )
+	public void testLessValuesInSecondPass() throws Exception
+	{
+		writeRecords( 2, 1 );
+	}
+
+	private void writeRecords( int firstCount, int secondCount ) throws Exception
+	{
+		int[] passes = new int[1];
+		try( TwoPassBerWriter writer = new TwoPassBerWriter( BerRules.DER ) )
+		{
+			writer.write( scope, output -> {
+				ComponentType elementType = output.beginCollectionOf( recordsType );
+				int count = passes[0] == 0 ? firstCount : secondCount;
+				for( int i = 0; i < count; i++ )
+				{
+					output.beginCollection( elementType );
+					output.writeLong( output.getComponent( "a" ), i );
+					output.writeOctets( output.getComponent( "b" ), new byte[0] );
+					output.end();
+				}
+				output.end();
+				passes[0]++;
+			} );
+		}
+	}
+}
@@ -0,0 +1,105 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.jer.input;
+
+import org.asn1s.api.Asn1Factory;
+import org.asn1s.api.Scope;
+import org.asn1s.api.UniversalType;
+import org.asn1s.api.value.Value;
+import org.asn1s.core.DefaultAsn1Factory;
+import org.asn1s.io.Asn1Reader;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+public class DefaultJerReaderTest
+{
+	@Test
+	public void testConcatenatedValues() throws Exception
+	{
+		Asn1Factory factory = new DefaultAsn1Factory();
+		Scope scope = factory.types().dummyModule().createScope();
+		String content = " 10\r\n\t-1 \"\\u0041\\/b\" {\"length\" : 5, \"value\" : \"a8\"}";
+
+		try( Asn1Reader reader = createReader( content, factory ) )
+		{
+			Value first = reader.read( scope, UniversalType.INTEGER.ref() );
+			Value second = reader.read( scope, UniversalType.INTEGER.ref() );
+			Value string = reader.read( scope, UniversalType.UTF8_STRING.ref() );
+			Value bits = reader.read( scope, UniversalType.BIT_STRING.ref() );
+			Assert.assertTrue( "First value", factory.values().integer( 10 ).isEqualTo( first ) );
+			Assert.assertTrue( "Second value", factory.values().integer( -1 ).isEqualTo( second ) );
+			Assert.assertTrue( "String", factory.values().cString( "A/b" ).isEqualTo( string ) );
+			Assert.assertTrue( "Bit string", factory.values().bString( "'10101'B" ).isEqualTo( bits ) );
+		}
+	}
+
+	@Test( expected = IOException.class )
+	public void testIllegalBoolean() throws Exception
+	{
+		Asn1Factory factory = new DefaultAsn1Factory();
+		Scope scope = factory.types().dummyModule().createScope();
+		try( Asn1Reader reader = createReader( "\"true\"", factory ) )
+		{
+			reader.read( scope, UniversalType.BOOLEAN.ref() );
+			Assert.fail( "Must fail!" );
+		}
+	}
+
+	@Test( expected = IOException.class )
+	public void testTrailingComma() throws Exception
+	{
+		Asn1Factory factory = new DefaultAsn1Factory();
+		Scope scope = factory.types().dummyModule().createScope();
+		try( Asn1Reader reader = createReader( "{\"value\":\"a8\",\"length\":5,}", factory ) )
+		{
+			reader.read( scope, UniversalType.BIT_STRING.ref() );
+			Assert.fail( "Must fail!" );
+		}
+	}
+
+	@Test( expected = EOFException.class )
+	public void testEndOfStream() throws Exception
+	{
+		Asn1Factory factory = new DefaultAsn1Factory();
+		Scope scope = factory.types().dummyModule().createScope();
+		try( Asn1Reader reader = createReader( "null\n", factory ) )
+		{
+			reader.read( scope, UniversalType.NULL.ref() );
+			reader.read( scope, UniversalType.NULL.ref() );
+			Assert.fail( "Must fail!" );
+		}
+	}
+
+	private static Asn1Reader createReader( String content, Asn1Factory factory )
+	{
+		return new DefaultJerReader( new ByteArrayInputStream( content.getBytes( StandardCharsets.UTF_8 ) ), factory.values() );
+	}
+}
@@ -0,0 +1,97 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.oer.input;
+
+import org.asn1s.api.Asn1Factory;
+import org.asn1s.api.Scope;
+import org.asn1s.api.UniversalType;
+import org.asn1s.api.value.Value;
+import org.asn1s.api.value.x680.BooleanValue;
+import org.asn1s.core.DefaultAsn1Factory;
+import org.asn1s.io.Asn1Reader;
+import org.asn1s.io.oer.OerRules;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+
+public class DefaultOerReaderTest
+{
+	@Test
+	public void testBasicBoolean() throws Exception
+	{
+		Asn1Factory factory = new DefaultAsn1Factory();
+		Scope scope = factory.types().dummyModule().createScope();
+		Assert.assertEquals( "Illegal value", BooleanValue.TRUE, readValue( factory, scope, UniversalType.BOOLEAN, OerRules.BASIC, 0x01 ) );
+	}
+
+	@Test( expected = IOException.class )
+	public void testCanonicalBooleanFail() throws Exception
+	{
+		Asn1Factory factory = new DefaultAsn1Factory();
+		Scope scope = factory.types().dummyModule().createScope();
+		readValue( factory, scope, UniversalType.BOOLEAN, OerRules.CANONICAL, 0x01 );
+	}
+
+	@Test
+	public void testLongFormLength() throws Exception
+	{
+		Asn1Factory factory = new DefaultAsn1Factory();
+		Scope scope = factory.types().dummyModule().createScope();
+		Value value = readValue( factory, scope, UniversalType.INTEGER, OerRules.BASIC, 0x81, 0x01, 0x05 );
+		Assert.assertTrue( "Illegal value", factory.values().integer( 5 ).isEqualTo( value ) );
+	}
+
+	@Test( expected = IOException.class )
+	public void testCanonicalLongFormLengthFail() throws Exception
+	{
+		Asn1Factory factory = new DefaultAsn1Factory();
+		Scope scope = factory.types().dummyModule().createScope();
+		readValue( factory, scope, UniversalType.INTEGER, OerRules.CANONICAL, 0x81, 0x01, 0x05 );
+	}
+
+	@Test( expected = EOFException.class )
+	public void testTruncatedContentFail() throws Exception
+	{
+		Asn1Factory factory = new DefaultAsn1Factory();
+		Scope scope = factory.types().dummyModule().createScope();
+		readValue( factory, scope, UniversalType.OCTET_STRING, OerRules.BASIC, 0x02, 0x00 );
+	}
+
+	private static Value readValue( Asn1Factory factory, Scope scope, UniversalType type, OerRules rules, int... content ) throws Exception
+	{
+		byte[] bytes = new byte[content.length];
+		for( int i = 0; i < content.length; i++ )
+			bytes[i] = (byte)content[i];
+
+		try( Asn1Reader reader = new DefaultOerReader( rules, new ByteArrayInputStream( bytes ), factory.values() ) )
+		{
+			return reader.read( scope, type.ref().resolve( scope ) );
+		}
+	}
+}
@@ -0,0 +1,178 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.oer.output;
+
+import org.asn1s.api.Asn1Factory;
+import org.asn1s.api.Ref;
+import org.asn1s.api.Scope;
+import org.asn1s.api.UniversalType;
+import org.asn1s.api.constraint.ConstraintTemplate;
+import org.asn1s.api.module.Module;
+import org.asn1s.api.type.CollectionOfType;
+import org.asn1s.api.type.CollectionType;
+import org.asn1s.api.type.ComponentType.Kind;
+import org.asn1s.api.type.DefinedType;
+import org.asn1s.api.type.Type;
+import org.asn1s.api.type.Type.Family;
+import org.asn1s.api.type.TypeUtils;
+import org.asn1s.api.value.Value;
+import org.asn1s.api.value.x680.ValueCollection;
+import org.asn1s.core.DefaultAsn1Factory;
+import org.asn1s.core.value.CoreValueFactory;
+import org.asn1s.io.Asn1Reader;
+import org.asn1s.io.Asn1Writer;
+import org.asn1s.io.oer.OerRules;
+import org.asn1s.io.oer.input.DefaultOerReader;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+public class DefaultOerWriterTest
+{
+	@Test
+	public void testFixedSizeInteger() throws Exception
+	{
+		Asn1Factory factory = new DefaultAsn1Factory();
+		Module module = factory.types().dummyModule();
+
+		ConstraintTemplate unsigned = factory.constraints().valueRange( factory.values().integer( 0 ), false, factory.values().integer( 65535 ), false );
+		DefinedType unsignedType = factory.types().define( "MyUnsigned", factory.types().constrained( unsigned, UniversalType.INTEGER.ref() ), null );
+		ConstraintTemplate signed = factory.constraints().valueRange( factory.values().integer( -1 ), false, factory.values().integer( 1 ), false );
+		DefinedType signedType = factory.types().define( "MySigned", factory.types().constrained( signed, UniversalType.INTEGER.ref() ), null );
+		module.validate();
+
+		Assert.assertArrayEquals( "Unsigned value", new byte[]{0x01, 0x2C}, writeValue( unsignedType.createScope(), unsignedType, factory.values().integer( 300 ) ) );
+		Assert.assertArrayEquals( "Signed value", new byte[]{(byte)0xFF}, writeValue( signedType.createScope(), signedType, factory.values().integer( -1 ) ) );
+		performReadTest( signedType.createScope(), "Unable to read signed value", signedType, factory.values().integer( -1 ) );
+	}
+
+	@Test
+	public void testExtensibleConstrainedInteger() throws Exception
+	{
+		Asn1Factory factory = new DefaultAsn1Factory();
+		Module module = factory.types().dummyModule();
+
+		ConstraintTemplate range = factory.constraints().valueRange( factory.values().integer( 0 ), false, factory.values().integer( 255 ), false );
+		Type constrained = factory.types().constrained( factory.constraints().elementSetSpecs( range, true, null ), UniversalType.INTEGER.ref() );
+		DefinedType type = factory.types().define( "MyInt", constrained, null );
+		module.validate();
+
+		// extensible constraints are not OER-visible
+		Assert.assertArrayEquals( "Value", new byte[]{0x02, 0x01, 0x2C}, writeValue( type.createScope(), type, factory.values().integer( 300 ) ) );
+	}
+
+	@Test
+	public void testExtensibleChoiceReadWrite() throws Exception
+	{
+		Asn1Factory factory = new DefaultAsn1Factory();
+		Module module = factory.types().dummyModule();
+
+		CollectionType sequenceType = factory.types().collection( Family.SEQUENCE );
+		sequenceType.addComponent( Kind.PRIMARY, "a", UniversalType.INTEGER.ref() );
+		sequenceType.addComponent( Kind.PRIMARY, "b", UniversalType.BOOLEAN.ref() ).setOptional( true );
+
+		CollectionType choiceType = factory.types().collection( Family.CHOICE );
+		choiceType.addComponent( Kind.PRIMARY, "b", UniversalType.REAL.ref() );
+		choiceType.setExtensible( true );
+		choiceType.addComponent( Kind.EXTENSION, "seq", sequenceType );
+
+		DefinedType type = factory.types().define( "My-Choice", choiceType, null );
+		module.validate();
+
+		ValueCollection collection = factory.values().collection( true );
+		collection.addNamed( "a", factory.values().integer( 1 ) );
+		Value value = factory.values().named( "seq", collection );
+
+		// automatic context tag 1, open type length, preamble and integer
+		Scope scope = type.createScope();
+		Assert.assertArrayEquals( "Choice value", new byte[]{(byte)0x81, 0x03, 0x00, 0x01, 0x01}, writeValue( scope, type, value ) );
+		performReadTest( scope, "Unable to read choice value", type, value );
+	}
+
+	@Test
+	public void testCanonicalSetOf() throws Exception
+	{
+		Asn1Factory factory = new DefaultAsn1Factory();
+		Module module = factory.types().dummyModule();
+
+		CollectionOfType collectionOf = factory.types().collectionOf( Family.SET_OF );
+		collectionOf.setComponent( TypeUtils.DUMMY, UniversalType.INTEGER.ref() );
+		DefinedType type = factory.types().define( "MySetOf", collectionOf, null );
+		module.validate();
+
+		ValueCollection collection = factory.values().collection( false );
+		collection.add( factory.values().integer( 3 ) );
+		collection.add( factory.values().integer( 1 ) );
+
+		Scope scope = type.createScope();
+		Assert.assertArrayEquals( "Basic value", new byte[]{0x01, 0x02, 0x01, 0x03, 0x01, 0x01}, writeValue( scope, type, collection, OerRules.BASIC ) );
+		Assert.assertArrayEquals( "Canonical value", new byte[]{0x01, 0x02, 0x01, 0x01, 0x01, 0x03}, writeValue( scope, type, collection, OerRules.CANONICAL ) );
+	}
+
+	@Test( expected = IOException.class )
+	public void testNonInternalOsFail() throws Exception
+	{
+		Asn1Factory factory = new DefaultAsn1Factory();
+		Scope scope = factory.types().dummyModule().createScope();
+
+		try( ByteArrayOutputStream os = new ByteArrayOutputStream();
+		     Asn1Writer writer = new DefaultOerWriter( OerRules.BASIC, os ) )
+		{
+			writer.write( scope, UniversalType.INTEGER.ref().resolve( scope ), factory.values().integer( 0 ) );
+			writer.toByteArray();
+			Assert.fail( "Must fail!" );
+		}
+	}
+
+	private static void performReadTest( Scope scope, String message, Ref<Type> type, Value value ) throws Exception
+	{
+		byte[] expected = writeValue( scope, type, value );
+		Value iValue;
+		try( Asn1Reader is = new DefaultOerReader( OerRules.CANONICAL, new ByteArrayInputStream( expected ), new CoreValueFactory() ) )
+		{
+			iValue = is.read( scope, type );
+		}
+		Assert.assertTrue( message, value.isEqualTo( iValue ) );
+		Assert.assertArrayEquals( message, expected, writeValue( scope, type, iValue ) );
+	}
+
+	private static byte[] writeValue( Scope scope, Ref<Type> type, Value value ) throws Exception
+	{
+		return writeValue( scope, type, value, OerRules.CANONICAL );
+	}
+
+	private static byte[] writeValue( Scope scope, Ref<Type> type, Value value, OerRules rules ) throws Exception
+	{
+		try( Asn1Writer writer = new DefaultOerWriter( rules ) )
+		{
+			writer.write( scope, type, value );
+			return writer.toByteArray();
+		}
+	}
+}
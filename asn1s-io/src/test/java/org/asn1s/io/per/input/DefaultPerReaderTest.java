@@ -0,0 +1,91 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.per.input;
+
+import org.asn1s.api.Asn1Factory;
+import org.asn1s.api.Scope;
+import org.asn1s.api.UniversalType;
+import org.asn1s.api.constraint.ConstraintTemplate;
+import org.asn1s.api.module.Module;
+import org.asn1s.api.type.CollectionOfType;
+import org.asn1s.api.type.DefinedType;
+import org.asn1s.api.type.Type;
+import org.asn1s.api.type.Type.Family;
+import org.asn1s.api.type.TypeUtils;
+import org.asn1s.api.value.Value;
+import org.asn1s.api.value.x680.ValueCollection;
+import org.asn1s.core.DefaultAsn1Factory;
+import org.asn1s.io.Asn1Reader;
+import org.asn1s.io.per.PerRules;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+
+public class DefaultPerReaderTest
+{
+	@Test
+	public void testSizeConstrainedSequenceOf() throws Exception
+	{
+		Asn1Factory factory = new DefaultAsn1Factory();
+		Module module = factory.types().dummyModule();
+
+		ConstraintTemplate range = factory.constraints().valueRange( factory.values().integer( 0 ), false, factory.values().integer( 7 ), false );
+		Type item = factory.types().constrained( range, UniversalType.INTEGER.ref() );
+		CollectionOfType collectionOf = factory.types().collectionOf( Family.SEQUENCE_OF );
+		collectionOf.setComponent( TypeUtils.DUMMY, item );
+		ConstraintTemplate size = factory.constraints().size( factory.constraints().valueRange( factory.values().integer( 1 ), false, factory.values().integer( 4 ), false ) );
+		DefinedType type = factory.types().define( "MyList", factory.types().constrained( size, collectionOf ), null );
+		module.validate();
+
+		// 2 bits of length - 1, then 3 bits for each item
+		byte[] bytes = {0x55};
+		Scope scope = type.createScope();
+		try( Asn1Reader reader = new DefaultPerReader( PerRules.UNALIGNED, new ByteArrayInputStream( bytes ), factory.values() ) )
+		{
+			Value value = reader.read( scope, type );
+			ValueCollection expected = factory.values().collection( false );
+			expected.add( factory.values().integer( 2 ) );
+			expected.add( factory.values().integer( 5 ) );
+			Assert.assertTrue( "Values are not equal: " + value, expected.isEqualTo( value ) );
+		}
+	}
+
+	@Test( expected = EOFException.class )
+	public void testUnexpectedEnd() throws Exception
+	{
+		Asn1Factory factory = new DefaultAsn1Factory();
+		Scope scope = factory.types().dummyModule().createScope();
+
+		// length of 2 octets, but only one is present
+		try( Asn1Reader reader = new DefaultPerReader( PerRules.UNALIGNED, new ByteArrayInputStream( new byte[]{0x02, 0x01} ), factory.values() ) )
+		{
+			reader.read( scope, UniversalType.INTEGER.ref() );
+			Assert.fail( "Must fail!" );
+		}
+	}
+}
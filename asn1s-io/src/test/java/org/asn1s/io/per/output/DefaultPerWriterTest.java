@@ -0,0 +1,214 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.per.output;
+
+import org.asn1s.api.Asn1Factory;
+import org.asn1s.api.Ref;
+import org.asn1s.api.Scope;
+import org.asn1s.api.UniversalType;
+import org.asn1s.api.constraint.ConstraintTemplate;
+import org.asn1s.api.module.Module;
+import org.asn1s.api.type.CollectionType;
+import org.asn1s.api.type.ComponentType.Kind;
+import org.asn1s.api.type.DefinedType;
+import org.asn1s.api.type.Type;
+import org.asn1s.api.type.Type.Family;
+import org.asn1s.api.value.Value;
+import org.asn1s.api.value.x680.BooleanValue;
+import org.asn1s.api.value.x680.ValueCollection;
+import org.asn1s.core.DefaultAsn1Factory;
+import org.asn1s.core.value.CoreValueFactory;
+import org.asn1s.io.Asn1Reader;
+import org.asn1s.io.Asn1Writer;
+import org.asn1s.io.per.PerRules;
+import org.asn1s.io.per.input.DefaultPerReader;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+public class DefaultPerWriterTest
+{
+	@Test
+	public void testConstrainedInteger() throws Exception
+	{
+		Asn1Factory factory = new DefaultAsn1Factory();
+		Module module = factory.types().dummyModule();
+
+		ConstraintTemplate range = factory.constraints().valueRange( factory.values().integer( 0 ), false, factory.values().integer( 255 ), false );
+		Type constrained = factory.types().constrained( factory.constraints().elementSetSpecs( range, true, null ), UniversalType.INTEGER.ref() );
+		DefinedType type = factory.types().define( "MyInt", constrained, null );
+		module.validate();
+
+		Scope scope = type.createScope();
+		Assert.assertArrayEquals( "Root value", new byte[]{0x00, (byte)0x80}, writeValue( scope, type, factory.values().integer( 1 ) ) );
+		// extension bit, length and content octets of unconstrained whole number
+		Assert.assertArrayEquals( "Extension value", new byte[]{(byte)0x81, 0x00, (byte)0x96, 0x00}, writeValue( scope, type, factory.values().integer( 300 ) ) );
+		performReadTest( scope, "Unable to read extension value", type, factory.values().integer( 300 ) );
+	}
+
+	@Test
+	public void testAlignedConstrainedInteger() throws Exception
+	{
+		Asn1Factory factory = new DefaultAsn1Factory();
+		Module module = factory.types().dummyModule();
+
+		ConstraintTemplate range = factory.constraints().valueRange( factory.values().integer( 0 ), false, factory.values().integer( 4294967295L ), false );
+		CollectionType sequenceType = factory.types().collection( Family.SEQUENCE );
+		sequenceType.addComponent( Kind.PRIMARY, "a", UniversalType.BOOLEAN.ref() );
+		sequenceType.addComponent( Kind.PRIMARY, "b", factory.types().constrained( range, UniversalType.INTEGER.ref() ) );
+		DefinedType type = factory.types().define( "MySeq", sequenceType, null );
+		module.validate();
+
+		ValueCollection collection = factory.values().collection( true );
+		collection.addNamed( "a", BooleanValue.TRUE );
+		collection.addNamed( "b", factory.values().integer( 256 ) );
+
+		// boolean bit and 2 bits of octet count, then octet-aligned value
+		Scope scope = type.createScope();
+		Assert.assertArrayEquals( "Aligned value", new byte[]{(byte)0xA0, 0x01, 0x00}, writeValue( scope, type, collection, PerRules.ALIGNED ) );
+		Assert.assertArrayEquals( "Unaligned value", new byte[]{(byte)0x80, 0x00, 0x00, (byte)0x80, 0x00}, writeValue( scope, type, collection, PerRules.UNALIGNED ) );
+		performReadTest( scope, "Unable to read aligned value", type, collection, PerRules.ALIGNED );
+	}
+
+	@Test
+	public void testFragmentedOctetString() throws Exception
+	{
+		Asn1Factory factory = new DefaultAsn1Factory();
+		Module module = factory.types().dummyModule();
+		DefinedType type = factory.types().define( "MyOctets", UniversalType.OCTET_STRING.ref(), null );
+		module.validate();
+
+		byte[] content = new byte[70000];
+		Arrays.fill( content, (byte)0x55 );
+		Value value = factory.values().byteArrayValue( content.length * 8, content );
+
+		Scope scope = type.createScope();
+		byte[] result = writeValue( scope, type, value );
+		// 4 fragments of 16K octets, then 4464 octets with long length
+		Assert.assertEquals( "Illegal length", 70003, result.length );
+		Assert.assertEquals( "Illegal fragment header", (byte)0xC4, result[0] );
+		Assert.assertEquals( "Illegal length header", (byte)0x91, result[65537] );
+		Assert.assertEquals( "Illegal length header", (byte)0x70, result[65538] );
+		performReadTest( scope, "Unable to read fragmented value", type, value );
+	}
+
+	@Test
+	public void testPermittedAlphabet() throws Exception
+	{
+		Asn1Factory factory = new DefaultAsn1Factory();
+		Module module = factory.types().dummyModule();
+
+		ConstraintTemplate range = factory.constraints().valueRange( factory.values().cString( "A" ), false, factory.values().cString( "Z" ), false );
+		ConstraintTemplate alphabet = factory.constraints().permittedAlphabet( factory.constraints().elementSetSpecs( range, false, null ) );
+		Type constrained = factory.types().constrained( factory.constraints().elementSetSpecs( alphabet, false, null ), UniversalType.VISIBLE_STRING.ref() );
+		DefinedType type = factory.types().define( "MyString", constrained, null );
+		module.validate();
+
+		Scope scope = type.createScope();
+		Value value = factory.values().cString( "AB" );
+		// 5 bits per character: 'Z' does not fit, so characters are encoded as alphabet indexes
+		Assert.assertArrayEquals( "Unaligned value", new byte[]{0x02, 0x00, 0x40}, writeValue( scope, type, value, PerRules.UNALIGNED ) );
+		// 8 bits per character: every character fits, so characters are encoded as is
+		Assert.assertArrayEquals( "Aligned value", new byte[]{0x02, 0x41, 0x42}, writeValue( scope, type, value, PerRules.ALIGNED ) );
+		performReadTest( scope, "Unable to read unaligned value", type, value, PerRules.UNALIGNED );
+		performReadTest( scope, "Unable to read aligned value", type, value, PerRules.ALIGNED );
+	}
+
+	@Test
+	public void testExtensibleChoiceReadWrite() throws Exception
+	{
+		Asn1Factory factory = new DefaultAsn1Factory();
+		Module module = factory.types().dummyModule();
+
+		CollectionType sequenceType = factory.types().collection( Family.SEQUENCE );
+		sequenceType.addComponent( Kind.PRIMARY, "a", UniversalType.INTEGER.ref() );
+		sequenceType.addComponent( Kind.PRIMARY, "b", UniversalType.BOOLEAN.ref() ).setOptional( true );
+
+		CollectionType choiceType = factory.types().collection( Family.CHOICE );
+		choiceType.addComponent( Kind.PRIMARY, "b", UniversalType.REAL.ref() );
+		choiceType.setExtensible( true );
+		choiceType.addComponent( Kind.EXTENSION, "seq", sequenceType );
+
+		DefinedType type = factory.types().define( "My-Choice", choiceType, null );
+		module.validate();
+
+		ValueCollection collection = factory.values().collection( true );
+		collection.addNamed( "a", factory.values().integer( 1 ) );
+		Value value = factory.values().named( "seq", collection );
+
+		performReadTest( type.createScope(), "Unable to read choice value", type, value );
+	}
+
+	@Test( expected = IOException.class )
+	public void testNonInternalOsFail() throws Exception
+	{
+		Asn1Factory factory = new DefaultAsn1Factory();
+		Scope scope = factory.types().dummyModule().createScope();
+
+		try( ByteArrayOutputStream os = new ByteArrayOutputStream();
+		     Asn1Writer writer = new DefaultPerWriter( PerRules.UNALIGNED, os ) )
+		{
+			writer.write( scope, UniversalType.INTEGER.ref().resolve( scope ), factory.values().integer( 0 ) );
+			writer.toByteArray();
+			Assert.fail( "Must fail!" );
+		}
+	}
+
+	private static void performReadTest( Scope scope, String message, Ref<Type> type, Value value ) throws Exception
+	{
+		performReadTest( scope, message, type, value, PerRules.UNALIGNED );
+	}
+
+	private static void performReadTest( Scope scope, String message, Ref<Type> type, Value value, PerRules rules ) throws Exception
+	{
+		byte[] expected = writeValue( scope, type, value, rules );
+		Value iValue;
+		try( Asn1Reader is = new DefaultPerReader( rules, new ByteArrayInputStream( expected ), new CoreValueFactory() ) )
+		{
+			iValue = is.read( scope, type );
+		}
+		Assert.assertTrue( message, value.isEqualTo( iValue ) );
+		Assert.assertArrayEquals( message, expected, writeValue( scope, type, iValue, rules ) );
+	}
+
+	private static byte[] writeValue( Scope scope, Ref<Type> type, Value value ) throws Exception
+	{
+		return writeValue( scope, type, value, PerRules.UNALIGNED );
+	}
+
+	private static byte[] writeValue( Scope scope, Ref<Type> type, Value value, PerRules rules ) throws Exception
+	{
+		try( Asn1Writer writer = new DefaultPerWriter( rules ) )
+		{
+			writer.write( scope, type, value );
+			return writer.toByteArray();
+		}
+	}
+}
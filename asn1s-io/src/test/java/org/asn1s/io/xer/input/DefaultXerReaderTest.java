@@ -0,0 +1,107 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.xer.input;
+
+import org.asn1s.api.Asn1Factory;
+import org.asn1s.api.Scope;
+import org.asn1s.api.UniversalType;
+import org.asn1s.api.value.Value;
+import org.asn1s.core.DefaultAsn1Factory;
+import org.asn1s.io.Asn1Reader;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+public class DefaultXerReaderTest
+{
+	@Test
+	public void testConcatenatedDocuments() throws Exception
+	{
+		Asn1Factory factory = new DefaultAsn1Factory();
+		Scope scope = factory.types().dummyModule().createScope();
+		String content = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<!-- first -->\n<INTEGER> 10 </INTEGER>\n"
+				+ "<?xml version=\"1.0\" encoding=\"UTF-8\"?><INTEGER>-1</INTEGER>";
+
+		try( Asn1Reader reader = createReader( content, factory ) )
+		{
+			Value first = reader.read( scope, UniversalType.INTEGER.ref() );
+			Value second = reader.read( scope, UniversalType.INTEGER.ref() );
+			Assert.assertTrue( "First value", factory.values().integer( 10 ).isEqualTo( first ) );
+			Assert.assertTrue( "Second value", factory.values().integer( -1 ).isEqualTo( second ) );
+		}
+	}
+
+	@Test
+	public void testWhiteSpacesInStrings() throws Exception
+	{
+		Asn1Factory factory = new DefaultAsn1Factory();
+		Scope scope = factory.types().dummyModule().createScope();
+		String content = "<?xml version=\"1.0\" encoding=\"UTF-8\"?><OCTET_STRING>\n  0A0B 0c\n</OCTET_STRING>"
+				+ "<?xml version=\"1.0\" encoding=\"UTF-8\"?><BIT_STRING>1010 1</BIT_STRING>";
+
+		try( Asn1Reader reader = createReader( content, factory ) )
+		{
+			Value octets = reader.read( scope, UniversalType.OCTET_STRING.ref() );
+			Value bits = reader.read( scope, UniversalType.BIT_STRING.ref() );
+			Assert.assertTrue( "Octet string", factory.values().hString( "'0A0B0C'H" ).isEqualTo( octets ) );
+			Assert.assertTrue( "Bit string", factory.values().bString( "'10101'B" ).isEqualTo( bits ) );
+		}
+	}
+
+	@Test( expected = IOException.class )
+	public void testIllegalBoolean() throws Exception
+	{
+		Asn1Factory factory = new DefaultAsn1Factory();
+		Scope scope = factory.types().dummyModule().createScope();
+		try( Asn1Reader reader = createReader( "<?xml version=\"1.0\" encoding=\"UTF-8\"?><BOOLEAN><yes/></BOOLEAN>", factory ) )
+		{
+			reader.read( scope, UniversalType.BOOLEAN.ref() );
+			Assert.fail( "Must fail!" );
+		}
+	}
+
+	@Test( expected = EOFException.class )
+	public void testEndOfStream() throws Exception
+	{
+		Asn1Factory factory = new DefaultAsn1Factory();
+		Scope scope = factory.types().dummyModule().createScope();
+		try( Asn1Reader reader = createReader( "<?xml version=\"1.0\" encoding=\"UTF-8\"?><NULL/>\n", factory ) )
+		{
+			reader.read( scope, UniversalType.NULL.ref() );
+			reader.read( scope, UniversalType.NULL.ref() );
+			Assert.fail( "Must fail!" );
+		}
+	}
+
+	private static Asn1Reader createReader( String content, Asn1Factory factory )
+	{
+		return new DefaultXerReader( new ByteArrayInputStream( content.getBytes( StandardCharsets.UTF_8 ) ), factory.values() );
+	}
+}
@@ -0,0 +1,174 @@
+////////////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2010-2017. Lapinin "lastrix" Sergey.                          /
+//                                                                             /
+// Permission is hereby granted, free of charge, to any person                 /
+// obtaining a copy of this software and associated documentation              /
+// files (the "Software"), to deal in the Software without                     /
+// restriction, including without limitation the rights to use,                /
+// copy, modify, merge, publish, distribute, sublicense, and/or                /
+// sell copies of the Software, and to permit persons to whom the              /
+// Software is furnished to do so, subject to the following                    /
+// conditions:                                                                 /
+//                                                                             /
+// The above copyright notice and this permission notice shall be              /
+// included in all copies or substantial portions of the Software.             /
+//                                                                             /
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,             /
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES             /
+// OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                    /
+// NON INFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                /
+// HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,                /
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING                /
+// FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                  /
+// OR OTHER DEALINGS IN THE SOFTWARE.                                          /
+////////////////////////////////////////////////////////////////////////////////
+
+package org.asn1s.io.xer.output;
+
+import org.asn1s.api.Asn1Factory;
+import org.asn1s.api.Ref;
+import org.asn1s.api.Scope;
+import org.asn1s.api.UniversalType;
+import org.asn1s.api.module.Module;
+import org.asn1s.api.type.CollectionOfType;
+import org.asn1s.api.type.CollectionType;
+import org.asn1s.api.type.ComponentType.Kind;
+import org.asn1s.api.type.DefinedType;
+import org.asn1s.api.type.Type;
+import org.asn1s.api.type.Type.Family;
+import org.asn1s.api.type.TypeUtils;
+import org.asn1s.api.value.Value;
+import org.asn1s.api.value.x680.BooleanValue;
+import org.asn1s.api.value.x680.ValueCollection;
+import org.asn1s.core.DefaultAsn1Factory;
+import org.asn1s.core.value.CoreValueFactory;
+import org.asn1s.io.Asn1Reader;
+import org.asn1s.io.Asn1Writer;
+import org.asn1s.io.xer.input.DefaultXerReader;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+public class DefaultXerWriterTest
+{
+	private static final String DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>";
+
+	@Test
+	public void testSequenceOfIntegers() throws Exception
+	{
+		Asn1Factory factory = new DefaultAsn1Factory();
+		Module module = factory.types().dummyModule();
+
+		CollectionOfType collectionOf = factory.types().collectionOf( Family.SEQUENCE_OF );
+		collectionOf.setComponent( TypeUtils.DUMMY, UniversalType.INTEGER.ref() );
+		DefinedType type = factory.types().define( "MySeqOf", collectionOf, null );
+		module.validate();
+
+		ValueCollection collection = factory.values().collection( false );
+		collection.add( factory.values().integer( 1 ) );
+		collection.add( factory.values().integer( -2 ) );
+
+		Scope scope = type.createScope();
+		Assert.assertEquals( "Value", DECLARATION + "<MySeqOf><INTEGER>1</INTEGER><INTEGER>-2</INTEGER></MySeqOf>", writeValue( scope, type, collection ) );
+		performReadTest( scope, "Unable to read sequence of", type, collection );
+	}
+
+	@Test
+	public void testSequenceOfBooleans() throws Exception
+	{
+		Asn1Factory factory = new DefaultAsn1Factory();
+		Module module = factory.types().dummyModule();
+
+		CollectionOfType collectionOf = factory.types().collectionOf( Family.SEQUENCE_OF );
+		collectionOf.setComponent( TypeUtils.DUMMY, UniversalType.BOOLEAN.ref() );
+		DefinedType type = factory.types().define( "MySeqOf", collectionOf, null );
+		module.validate();
+
+		ValueCollection collection = factory.values().collection( false );
+		collection.add( BooleanValue.TRUE );
+		collection.add( BooleanValue.FALSE );
+
+		// boolean values are not wrapped by type name
+		Scope scope = type.createScope();
+		Assert.assertEquals( "Value", DECLARATION + "<MySeqOf><true/><false/></MySeqOf>", writeValue( scope, type, collection ) );
+		performReadTest( scope, "Unable to read sequence of", type, collection );
+	}
+
+	@Test
+	public void testChoice() throws Exception
+	{
+		Asn1Factory factory = new DefaultAsn1Factory();
+		Module module = factory.types().dummyModule();
+
+		CollectionType sequenceType = factory.types().collection( Family.SEQUENCE );
+		sequenceType.addComponent( Kind.PRIMARY, "a", UniversalType.OCTET_STRING.ref() );
+		sequenceType.addComponent( Kind.PRIMARY, "b", UniversalType.BIT_STRING.ref() ).setOptional( true );
+
+		CollectionType choiceType = factory.types().collection( Family.CHOICE );
+		choiceType.addComponent( Kind.PRIMARY, "n", UniversalType.NULL.ref() );
+		choiceType.addComponent( Kind.PRIMARY, "seq", sequenceType );
+
+		DefinedType type = factory.types().define( "My-Choice", choiceType, null );
+		module.validate();
+
+		ValueCollection collection = factory.values().collection( true );
+		collection.addNamed( "a", factory.values().hString( "'0AFF'H" ) );
+		collection.addNamed( "b", factory.values().bString( "'101'B" ) );
+		Value value = factory.values().named( "seq", collection );
+
+		Scope scope = type.createScope();
+		Assert.assertEquals( "Value", DECLARATION + "<My-Choice><seq><a>0AFF</a><b>101</b></seq></My-Choice>", writeValue( scope, type, value ) );
+		performReadTest( scope, "Unable to read choice value", type, value );
+	}
+
+	@Test
+	public void testEscaping() throws Exception
+	{
+		Asn1Factory factory = new DefaultAsn1Factory();
+		Scope scope = factory.types().dummyModule().createScope();
+		Type type = UniversalType.UTF8_STRING.ref().resolve( scope );
+		Value value = factory.values().cString( "<a & b>" );
+		Assert.assertEquals( "Value", DECLARATION + "<UTF8String>&lt;a &amp; b&gt;</UTF8String>", writeValue( scope, type, value ) );
+		performReadTest( scope, "Unable to read string", type, value );
+	}
+
+	@Test( expected = IOException.class )
+	public void testNonInternalOsFail() throws Exception
+	{
+		Asn1Factory factory = new DefaultAsn1Factory();
+		Scope scope = factory.types().dummyModule().createScope();
+
+		try( ByteArrayOutputStream os = new ByteArrayOutputStream();
+		     Asn1Writer writer = new DefaultXerWriter( os ) )
+		{
+			writer.write( scope, UniversalType.INTEGER.ref().resolve( scope ), factory.values().integer( 0 ) );
+			writer.toByteArray();
+			Assert.fail( "Must fail!" );
+		}
+	}
+
+	private static void performReadTest( Scope scope, String message, Ref<Type> type, Value value ) throws Exception
+	{
+		String expected = writeValue( scope, type, value );
+		Value iValue;
+		try( Asn1Reader is = new DefaultXerReader( new ByteArrayInputStream( expected.getBytes( StandardCharsets.UTF_8 ) ), new CoreValueFactory() ) )
+		{
+			iValue = is.read( scope, type );
+		}
+		Assert.assertTrue( message, value.isEqualTo( iValue ) );
+		Assert.assertEquals( message, expected, writeValue( scope, type, iValue ) );
+	}
+
+	private static String writeValue( Scope scope, Ref<Type> type, Value value ) throws Exception
+	{
+		try( Asn1Writer writer = new DefaultXerWriter() )
+		{
+			writer.write( scope, type, value );
+			return new String( writer.toByteArray(), StandardCharsets.UTF_8 );
+		}
+	}
+}
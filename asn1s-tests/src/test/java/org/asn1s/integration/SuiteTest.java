@@ -38,10 +38,29 @@ import org.asn1s.core.module.ModuleSet;
 import org.asn1s.io.Asn1Reader;
 import org.asn1s.io.Asn1Writer;
 import org.asn1s.io.ber.BerRules;
+import org.asn1s.io.ber.input.BerPushDecoder;
+import org.asn1s.io.ber.input.BerTokenizer;
+import org.asn1s.io.ber.input.BerTokenizer.Event;
+import org.asn1s.io.ber.input.ByteBufferBerReader;
 import org.asn1s.io.ber.input.DefaultBerReader;
+import org.asn1s.io.ber.input.MappedBerReader;
 import org.asn1s.io.ber.output.DefaultBerWriter;
+import org.asn1s.io.ber.output.SingleBufferBerWriter;
+import org.asn1s.io.ber.output.TwoPassBerWriter;
+import org.asn1s.io.jer.input.DefaultJerReader;
+import org.asn1s.io.jer.output.DefaultJerWriter;
+import org.asn1s.io.oer.OerRules;
+import org.asn1s.io.oer.input.DefaultOerReader;
+import org.asn1s.io.oer.output.DefaultOerWriter;
+import org.asn1s.io.per.PerRules;
+import org.asn1s.io.per.input.DefaultPerReader;
+import org.asn1s.io.per.output.DefaultPerWriter;
+import org.asn1s.io.xer.input.DefaultXerReader;
+import org.asn1s.io.xer.output.DefaultXerWriter;
 import org.asn1s.schema.SchemaUtils;
+import org.jetbrains.annotations.Nullable;
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -49,8 +68,14 @@ import org.junit.runners.Parameterized;
 import org.junit.runners.Parameterized.Parameters;
 
 import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 
@@ -59,6 +84,12 @@ public class SuiteTest
 {
 	private static final Log log = LogFactory.getLog( SuiteTest.class );
 
+	/**
+	 * Reference OER of NBAP encodes NULL alternatives of CHOICE with extra zero octet,
+	 * X.696 requires empty encoding for NULL, so this data can not be decoded by compliant reader.
+	 */
+	private static final String NBAP_FOLDER = "NBAP v6.2.0";
+
 	@Parameters( name = "{0}" )
 	public static Collection<Object[]> data()
 	{
@@ -80,9 +111,10 @@ public class SuiteTest
 	private String schema;
 	//private byte[] pduBer;
 	private byte[] pduDer;
-//	private byte[] pduPer;
-	//private byte[] pduUPer;
-	//private String pduXml;
+	private byte[] pduPer;
+	private byte[] pduUPer;
+	private byte[] pduOer;
+	private byte[] pduXml;
 
 	@Before
 	public void setUp() throws Exception
@@ -91,9 +123,10 @@ public class SuiteTest
 		schema = Utils.getResourceAsStringOrDie( resourceFolder + "schema.asn" );
 		//pduBer = Utils.getResourceAsBytesOrDie( resourceFolder + "pdu.ber" );
 		pduDer = Utils.getResourceAsBytesOrDie( resourceFolder + "pdu.der" );
-//		pduPer = Utils.getResourceAsBytesOrDie( resourceFolder + "pdu.per" );
-		//pduUPer = Utils.getResourceAsBytesOrDie( resourceFolder + "pdu.uper" );
-		//pduXml = Utils.getResourceAsStringOrDie( resourceFolder + "pdu.xml" );
+		pduPer = Utils.getResourceAsBytesOrDie( resourceFolder + "pdu.per" );
+		pduUPer = Utils.getResourceAsBytesOrDie( resourceFolder + "pdu.uper" );
+		pduOer = Utils.getResourceAsBytesOrDie( resourceFolder + "pdu.oer" );
+		pduXml = Utils.getResourceAsBytesOrDie( resourceFolder + "pdu.xml" );
 	}
 
 	@Test
@@ -116,31 +149,143 @@ public class SuiteTest
 	@Test
 	public void testWrite() throws Exception
 	{
-		ModuleSet resolver = new ModuleSet();
-		Asn1Factory asn1Factory = new DefaultAsn1Factory( resolver );
-		List<Module> modules = SchemaUtils.parseModules( schema, resolver, asn1Factory );
-		try
+		Asn1Factory asn1Factory = new DefaultAsn1Factory( new ModuleSet() );
+		Module module = createPduModule( asn1Factory );
+
+		byte[] result = null;
+		try( Asn1Writer writer = new DefaultBerWriter( BerRules.DER ) )
 		{
-			for( Module module : modules )
-				module.validate();
+			for( DefinedValue value : module.getValueResolver().getValues() )
+				writer.write( value.getType().getScope( module.createScope() ), value.getType(), value.getValue() );
+			result = writer.toByteArray();
 		} catch( Exception e )
 		{
 			log.fatal( "Exception: " + e.getMessage(), e );
-			Assert.fail( "Unable to validate modules" );
+			Assert.fail( "Unable to write value" );
 		}
 
-		Module module = SchemaUtils.parsePdu( pdu, resolver, asn1Factory );
+		Assert.assertArrayEquals( "Content is not equal", pduDer, result );
+
+		try( Asn1Reader reader = new DefaultBerReader( new ByteArrayInputStream( result ), asn1Factory.values() ) )
+		{
+			assertValues( module, reader );
+		}
+	}
+
+	@Test
+	public void testReadByteBuffer() throws Exception
+	{
+		Asn1Factory asn1Factory = new DefaultAsn1Factory( new ModuleSet() );
+		Module module = createPduModule( asn1Factory );
+
+		try( Asn1Reader reader = new ByteBufferBerReader( ByteBuffer.wrap( pduDer ), asn1Factory.values() ) )
+		{
+			assertValues( module, reader );
+		}
+
+		try( Asn1Reader reader = new ByteBufferBerReader( Channels.newChannel( new ByteArrayInputStream( pduDer ) ), 16, asn1Factory.values() ) )
+		{
+			assertValues( module, reader );
+		}
+	}
+
+	@Test
+	public void testReadLazy() throws Exception
+	{
+		Asn1Factory asn1Factory = new DefaultAsn1Factory( new ModuleSet() );
+		Module module = createPduModule( asn1Factory );
+
+		try( ByteBufferBerReader reader = new ByteBufferBerReader( ByteBuffer.wrap( pduDer ), asn1Factory.values() ) )
+		{
+			reader.setLazyCollections( true );
+			assertValues( module, reader );
+		}
+	}
+
+	@Test
+	public void testPushDecoder() throws Exception
+	{
+		Asn1Factory asn1Factory = new DefaultAsn1Factory( new ModuleSet() );
+		Module module = createPduModule( asn1Factory );
+
+		// values are of different types, so every value is decoded by own decoder fed byte by byte
+		Scope scope = module.createScope();
+		int offset = 0;
+		for( DefinedValue value : module.getValueResolver().getValues() )
+		{
+			scope = value.getType().getScope( scope );
+			BerPushDecoder decoder = new BerPushDecoder( scope, value.getType(), asn1Factory.values() );
+			List<Value> values = Collections.emptyList();
+			while( values.isEmpty() )
+			{
+				Assert.assertTrue( "Value is not complete: " + value, offset < pduDer.length );
+				values = decoder.feed( ByteBuffer.wrap( pduDer, offset, 1 ) );
+				offset++;
+			}
+			Assert.assertTrue( "Values are not equal: " + value + " != " + values.get( 0 ), value.isEqualTo( values.get( 0 ) ) );
+			decoder.finish();
+		}
+		Assert.assertEquals( "Not whole content decoded", pduDer.length, offset );
+	}
+
+	@Test
+	public void testTokenize() throws Exception
+	{
+		BerTokenizer tokenizer = new BerTokenizer( pduDer );
+		int starts = 0;
+		int ends = 0;
+		Event event;
+		while( ( event = tokenizer.next() ) != Event.END_OF_INPUT )
+		{
+			if( event == Event.START_CONSTRUCTED )
+				starts++;
+			else if( event == Event.END_CONSTRUCTED )
+				ends++;
+		}
+		Assert.assertEquals( "Unbalanced events", starts, ends );
+		Assert.assertEquals( "Not whole content walked", pduDer.length, tokenizer.getOffset() );
+	}
+
+	@Test
+	public void testReadMapped() throws Exception
+	{
+		Asn1Factory asn1Factory = new DefaultAsn1Factory( new ModuleSet() );
+		Module module = createPduModule( asn1Factory );
+
+		Path file = Files.createTempFile( "asn1s-suite", ".der" );
 		try
 		{
-			module.validate();
-		} catch( Exception e )
+			Files.write( file, pduDer );
+			try( MappedBerReader reader = new MappedBerReader( FileChannel.open( file ), 16, asn1Factory.values() ) )
+			{
+				reader.setZeroCopyOctetStrings( true );
+				assertValues( module, reader );
+			}
+		} finally
 		{
-			log.error( "Exception: " + e.getMessage(), e );
-			Assert.fail( "Unable to validate module: " + e.getMessage() );
+			Files.delete( file );
 		}
+	}
+
+	@Test
+	public void testWriteSingleBuffer() throws Exception
+	{
+		performDerTest( new SingleBufferBerWriter( BerRules.DER ) );
+	}
+
+	@Test
+	public void testWriteTwoPass() throws Exception
+	{
+		performDerTest( new TwoPassBerWriter( BerRules.DER ) );
+	}
+
+	private void performDerTest( Asn1Writer derWriter ) throws Exception
+	{
+		Asn1Factory asn1Factory = new DefaultAsn1Factory( new ModuleSet() );
+		Module module = createPduModule( asn1Factory );
 
 		byte[] result = null;
-		try( Asn1Writer writer = new DefaultBerWriter( BerRules.DER ) )
+		try( Asn1Writer writer = derWriter )
 		{
 			for( DefinedValue value : module.getValueResolver().getValues() )
 				writer.write( value.getType().getScope( module.createScope() ), value.getType(), value.getValue() );
@@ -152,16 +297,206 @@ public class SuiteTest
 		}
 
 		Assert.assertArrayEquals( "Content is not equal", pduDer, result );
+	}
 
-		Scope scope = module.createScope();
-		try( Asn1Reader reader = new DefaultBerReader( new ByteArrayInputStream( result ), asn1Factory.values() ) )
+	@Test
+	public void testWriteUnalignedPer() throws Exception
+	{
+		performPerTest( PerRules.UNALIGNED, pduUPer );
+	}
+
+	@Test
+	public void testWriteAlignedPer() throws Exception
+	{
+		performPerTest( PerRules.ALIGNED, pduPer );
+	}
+
+	private void performPerTest( PerRules rules, byte[] expected ) throws Exception
+	{
+		Asn1Factory asn1Factory = new DefaultAsn1Factory( new ModuleSet() );
+		Module module = createPduModule( asn1Factory );
+
+		byte[] result = null;
+		try( Asn1Writer writer = new DefaultPerWriter( rules ) )
+		{
+			for( DefinedValue value : module.getValueResolver().getValues() )
+				writer.write( value.getType().getScope( module.createScope() ), value.getType(), value.getValue() );
+			result = writer.toByteArray();
+		} catch( Exception e )
+		{
+			log.fatal( "Exception: " + e.getMessage(), e );
+			Assert.fail( "Unable to write value" );
+		}
+
+		Assert.assertArrayEquals( "Content is not equal", expected, result );
+
+		try( Asn1Reader reader = new DefaultPerReader( rules, new ByteArrayInputStream( result ), asn1Factory.values() ) )
+		{
+			assertValues( module, reader );
+		}
+	}
+
+	@Test
+	public void testWriteOer() throws Exception
+	{
+		Asn1Factory asn1Factory = new DefaultAsn1Factory( new ModuleSet() );
+		Module module = createPduModule( asn1Factory );
+
+		// BASIC-OER allows DEFAULT values to be encoded, so reference data is compared by values only
+		if( !resourceFolder.contains( NBAP_FOLDER ) )
+		{
+			try( Asn1Reader reader = new DefaultOerReader( OerRules.BASIC, new ByteArrayInputStream( pduOer ), asn1Factory.values() ) )
+			{
+				assertValues( module, reader );
+			}
+		}
+
+		for( OerRules rules : OerRules.values() )
+		{
+			byte[] result = writeOer( module, rules, null );
+			try( Asn1Reader reader = new DefaultOerReader( rules, new ByteArrayInputStream( result ), asn1Factory.values() ) )
+			{
+				assertValues( module, reader );
+			}
+		}
+	}
+
+	@Test
+	public void testCanonicalOer() throws Exception
+	{
+		Asn1Factory asn1Factory = new DefaultAsn1Factory( new ModuleSet() );
+		Module module = createPduModule( asn1Factory );
+		Assume.assumeFalse( "Reference data is not X.696 compliant", resourceFolder.contains( NBAP_FOLDER ) );
+
+		List<Value> decoded = new ArrayList<>();
+		try( Asn1Reader reader = new DefaultOerReader( OerRules.BASIC, new ByteArrayInputStream( pduOer ), asn1Factory.values() ) )
 		{
+			Scope scope = module.createScope();
 			for( DefinedValue value : module.getValueResolver().getValues() )
 			{
 				scope = value.getType().getScope( scope );
-				Value actual = reader.read( scope, value.getType() );
-				Assert.assertTrue( "Values are not equal: " + value + " != " + actual, value.isEqualTo( actual ) );
+				decoded.add( reader.read( scope, value.getType() ) );
+			}
+		}
+
+		// COER encoding is unique, so decoded reference values must produce the same octets
+		Assert.assertArrayEquals( "Content is not equal",
+		                          writeOer( module, OerRules.CANONICAL, null ),
+		                          writeOer( module, OerRules.CANONICAL, decoded ) );
+	}
+
+	/**
+	 * Write values of module, or replacement values in the same order if not null
+	 */
+	private static byte[] writeOer( Module module, OerRules rules, @Nullable List<Value> values ) throws Exception
+	{
+		byte[] result = null;
+		try( Asn1Writer writer = new DefaultOerWriter( rules ) )
+		{
+			int index = 0;
+			for( DefinedValue value : module.getValueResolver().getValues() )
+			{
+				Value item = values == null ? value.getValue() : values.get( index );
+				writer.write( value.getType().getScope( module.createScope() ), value.getType(), item );
+				index++;
 			}
+			result = writer.toByteArray();
+		} catch( Exception e )
+		{
+			log.fatal( "Exception: " + e.getMessage(), e );
+			Assert.fail( "Unable to write value" );
+		}
+		return result;
+	}
+
+	@Test
+	public void testWriteXer() throws Exception
+	{
+		Asn1Factory asn1Factory = new DefaultAsn1Factory( new ModuleSet() );
+		Module module = createPduModule( asn1Factory );
+
+		try( Asn1Reader reader = new DefaultXerReader( new ByteArrayInputStream( pduXml ), asn1Factory.values() ) )
+		{
+			assertValues( module, reader );
+		}
+
+		byte[] result = null;
+		try( Asn1Writer writer = new DefaultXerWriter() )
+		{
+			for( DefinedValue value : module.getValueResolver().getValues() )
+				writer.write( value.getType().getScope( module.createScope() ), value.getType(), value.getValue() );
+			result = writer.toByteArray();
+		} catch( Exception e )
+		{
+			log.fatal( "Exception: " + e.getMessage(), e );
+			Assert.fail( "Unable to write value" );
+		}
+
+		try( Asn1Reader reader = new DefaultXerReader( new ByteArrayInputStream( result ), asn1Factory.values() ) )
+		{
+			assertValues( module, reader );
+		}
+	}
+
+	@Test
+	public void testWriteJer() throws Exception
+	{
+		Asn1Factory asn1Factory = new DefaultAsn1Factory( new ModuleSet() );
+		Module module = createPduModule( asn1Factory );
+
+		byte[] result = null;
+		try( Asn1Writer writer = new DefaultJerWriter() )
+		{
+			for( DefinedValue value : module.getValueResolver().getValues() )
+				writer.write( value.getType().getScope( module.createScope() ), value.getType(), value.getValue() );
+			result = writer.toByteArray();
+		} catch( Exception e )
+		{
+			log.fatal( "Exception: " + e.getMessage(), e );
+			Assert.fail( "Unable to write value" );
+		}
+
+		try( Asn1Reader reader = new DefaultJerReader( new ByteArrayInputStream( result ), asn1Factory.values() ) )
+		{
+			assertValues( module, reader );
+		}
+	}
+
+	private Module createPduModule( Asn1Factory asn1Factory ) throws Exception
+	{
+		ModuleResolver resolver = asn1Factory.getModuleResolver();
+		List<Module> modules = SchemaUtils.parseModules( schema, resolver, asn1Factory );
+		try
+		{
+			for( Module module : modules )
+				module.validate();
+		} catch( Exception e )
+		{
+			log.fatal( "Exception: " + e.getMessage(), e );
+			Assert.fail( "Unable to validate modules" );
+		}
+
+		Module module = SchemaUtils.parsePdu( pdu, resolver, asn1Factory );
+		try
+		{
+			module.validate();
+		} catch( Exception e )
+		{
+			log.error( "Exception: " + e.getMessage(), e );
+			Assert.fail( "Unable to validate module: " + e.getMessage() );
+		}
+
+		return module;
+	}
+
+	private static void assertValues( Module module, Asn1Reader reader ) throws Exception
+	{
+		Scope scope = module.createScope();
+		for( DefinedValue value : module.getValueResolver().getValues() )
+		{
+			scope = value.getType().getScope( scope );
+			Value actual = reader.read( scope, value.getType() );
+			Assert.assertTrue( "Values are not equal: " + value + " != " + actual, value.isEqualTo( actual ) );
 		}
 	}
 }